@@ -0,0 +1,43 @@
+package com.example.i18nbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Runs the benchmarks once per thread count (1, 4 and all available processors) with the gc profiler,
+ * so every run reports throughput together with the allocation rate.
+ * <p>
+ * Arguments are regular JMH command line options, e.g. "-f 1 -wi 1 -i 3 MessageSourceBenchmark".
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        File resultDir = new File(System.getProperty("jmh.resultDir", "build/reports/jmh"));
+        resultDir.mkdirs();
+
+        Set<Integer> threadCounts = new TreeSet<>(List.of(1, 4, Runtime.getRuntime().availableProcessors()));
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(resultDir, "results-" + threads + "-threads.json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.MessageCatalogLoader;
+import com.example.i18nsupport.PropertiesParser;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.ref.Reference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Load time and heap of a large translation set: {@code --locales} bundles with {@code --keys} messages each are
+ * written into a temp directory and loaded in five ways.
+ * <ul>
+ *     <li>ResourceBundleMessageSource: one message per locale, which loads the bundles one at a time with
+ *     Properties.load (the path of i18n-example1)</li>
+ *     <li>properties: every bundle with Properties.load into a HashMap, in parallel (MessageCatalogLoader before
+ *     PropertiesParser)</li>
+ *     <li>streaming: every bundle with PropertiesParser into a HashMap, codes shared, in parallel
+ *     (MessageCatalogLoader now)</li>
+ *     <li>catalog: MessageCatalogLoader.load, streaming plus building and compiling the whole catalog</li>
+ * </ul>
+ * Time is the best of {@code --rounds}. Peak is the highest heap use above the baseline, sampled every millisecond,
+ * retained is what the loaded bundles or the catalog hold after a full GC.
+ * <p>
+ * Options: --locales=200 --keys=10000 --rounds=3 --retained=0.1
+ * 100k keys in 200 locales need a heap of about 16g for the properties mode, e.g. -Xmx16g.
+ */
+public final class BundleLoadTest {
+
+    static final String BASENAME = "generated/messages";
+
+    private BundleLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int locales = Integer.parseInt(option(args, "locales", "200"));
+        int keys = Integer.parseInt(option(args, "keys", "10000"));
+        int rounds = Integer.parseInt(option(args, "rounds", "3"));
+        double retained = Double.parseDouble(option(args, "retained", "0.1"));
+
+        Path directory = Files.createTempDirectory("i18n-bundles");
+        try {
+            List<Path> files = writeBundles(directory, locales, keys);
+            long bytes = 0;
+            for (Path file : files) {
+                bytes += Files.size(file);
+            }
+            System.out.printf("%,d bundles, %,d keys each, %,d MB%n%n", files.size(), keys, bytes / (1024 * 1024));
+            System.out.printf("%-28s %10s %12s %14s%n", "mode", "ms", "peak MB", "retained MB");
+            run("ResourceBundleMessageSource", rounds, () -> resourceBundleMessageSource(directory, files));
+            run("properties", rounds, () -> properties(files));
+            run("streaming", rounds, () -> streaming(files));
+            run("catalog", rounds, () -> catalog(directory, null));
+            Set<String> retainedCodes = retainedCodes(keys, retained);
+            run("catalog (pruned " + retainedCodes.size() + " keys)", rounds, () -> catalog(directory, retainedCodes));
+        } finally {
+            try (var paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void run(String mode, int rounds, Supplier<Object> load) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        long peak = 0;
+        long retained = 0;
+        for (int round = 0; round < rounds; round++) {
+            long before = Heap.usedAfterGc();
+            HeapSampler sampler = new HeapSampler();
+            sampler.start();
+            long start = System.nanoTime();
+            Object loaded = load.get();
+            long time = System.nanoTime() - start;
+            sampler.interrupt();
+            sampler.join();
+            best = Math.min(best, time);
+            peak = Math.max(peak, sampler.peak.get() - before);
+            retained = Heap.usedAfterGc() - before;
+            Reference.reachabilityFence(loaded);
+        }
+        System.out.printf("%-28s %10d %12d %14d%n", mode, best / 1_000_000, peak / (1024 * 1024),
+                retained / (1024 * 1024));
+    }
+
+    private static Object resourceBundleMessageSource(Path directory, List<Path> files) {
+        try (URLClassLoader classLoader = classLoader(directory)) {
+            ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+            messageSource.setBundleClassLoader(classLoader);
+            messageSource.setBasename(BASENAME);
+            messageSource.setDefaultEncoding("UTF-8");
+            List<String> messages = new ArrayList<>();
+            for (Path file : files) {
+                messages.add(messageSource.getMessage("key.42", null, locale(file)));
+            }
+            // the message source keeps its bundles, the soft references of the JDK cache would survive into the
+            // baseline of the next round
+            ResourceBundle.clearCache(classLoader);
+            return List.of(messageSource, messages);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Object properties(List<Path> files) {
+        return files.parallelStream().map(file -> {
+            Properties properties = new Properties();
+            try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            Map<String, String> messages = new HashMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                messages.put(key, properties.getProperty(key));
+            }
+            return messages;
+        }).toList();
+    }
+
+    private static Object streaming(List<Path> files) {
+        Map<String, String> codes = new ConcurrentHashMap<>();
+        return files.parallelStream().map(file -> {
+            Map<String, String> messages = new HashMap<>();
+            try (FileChannel channel = FileChannel.open(file)) {
+                PropertiesParser.parse(channel, StandardCharsets.UTF_8, (code, message) -> {
+                    String sharedCode = codes.putIfAbsent(code, code);
+                    messages.put(sharedCode != null ? sharedCode : code, message);
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return messages;
+        }).toList();
+    }
+
+    /**
+     * @param retainedCodes codes to load, null for all
+     */
+    private static Object catalog(Path directory, Set<String> retainedCodes) {
+        try (URLClassLoader classLoader = classLoader(directory)) {
+            MessageCatalogLoader loader =
+                    new MessageCatalogLoader(new DefaultResourceLoader(classLoader), StandardCharsets.UTF_8);
+            loader.setRetainedCodes(retainedCodes);
+            return loader.load(List.of(BASENAME), Locale.US);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Every n-th key, the given share of all keys.
+     */
+    private static Set<String> retainedCodes(int keys, double share) {
+        int step = Math.max(1, (int) Math.round(1 / share));
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < keys; i += step) {
+            codes.add("key." + i);
+        }
+        return codes;
+    }
+
+    static List<Path> writeBundles(Path directory, int locales, int keys) throws IOException {
+        Path bundles = Files.createDirectories(directory.resolve("generated"));
+        List<Path> files = new ArrayList<>();
+        files.add(writeBundle(bundles.resolve("messages.properties"), "Base", keys));
+        List<String> languages = new ArrayList<>(List.of(Locale.getISOLanguages()));
+        String[] countries = Locale.getISOCountries();
+        // there are fewer languages than 200, the rest are country bundles of the first languages
+        for (int i = 0; i < locales; i++) {
+            String suffix = i < languages.size()
+                    ? languages.get(i)
+                    : languages.get(i % languages.size()) + "_" + countries[i % countries.length];
+            files.add(writeBundle(bundles.resolve("messages_" + suffix + ".properties"), suffix, keys));
+        }
+        return files;
+    }
+
+    private static Path writeBundle(Path file, String prefix, int keys) throws IOException {
+        StringBuilder bundle = new StringBuilder();
+        for (int i = 0; i < keys; i++) {
+            bundle.append("key.").append(i).append('=').append(prefix).append(" message ").append(i).append(" {0}\n");
+        }
+        return Files.writeString(file, bundle);
+    }
+
+    static Locale locale(Path file) {
+        String name = file.getFileName().toString();
+        int separator = name.indexOf('_');
+        return separator < 0
+                ? Locale.ROOT
+                : StringUtils.parseLocale(name.substring(separator + 1, name.length() - ".properties".length()));
+    }
+
+    static URLClassLoader classLoader(Path directory) throws IOException {
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, null);
+    }
+
+    /**
+     * Highest heap use seen while it runs.
+     */
+    private static final class HeapSampler extends Thread {
+
+        private final AtomicLong peak = new AtomicLong();
+
+        private HeapSampler() {
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!isInterrupted()) {
+                peak.accumulateAndGet(Heap.used(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+}
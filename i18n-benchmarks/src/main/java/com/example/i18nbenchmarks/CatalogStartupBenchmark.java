@@ -0,0 +1,132 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.BinaryCatalog;
+import com.example.i18nsupport.BinaryCatalogWriter;
+import com.example.i18nsupport.MessageCatalog;
+import com.example.i18nsupport.MessageCatalogLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup cost of the message catalog: parsing every .properties bundle (MessageCatalogLoader)
+ * vs mapping the binary catalog compiled at build time (BinaryCatalog), plus the first lookup.
+ * <p>
+ * "generated" writes {@code locales} bundles with {@code keys} messages each into a temp directory,
+ * the size the catalog is expected to grow to, the example bundles are too small to show a difference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+@State(Scope.Benchmark)
+public class CatalogStartupBenchmark {
+
+    @Param({"100"})
+    public int locales;
+
+    @Param({"10000"})
+    public int keys;
+
+    private Path directory;
+
+    private Path catalogFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("i18n-startup");
+        Path bundles = Files.createDirectories(directory.resolve("generated"));
+        writeBundle(bundles.resolve("messages.properties"), "Base");
+        List<String> languages = new ArrayList<>(List.of(Locale.getISOLanguages()));
+        for (int i = 0; i < locales && i < languages.size(); i++) {
+            writeBundle(bundles.resolve("messages_" + languages.get(i) + ".properties"), languages.get(i));
+        }
+        try (URLClassLoader classLoader = classLoader()) {
+            catalogFile = writeCatalog(loader(classLoader), "generated/messages");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (var files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String parseProperties() throws IOException {
+        try (URLClassLoader classLoader = classLoader()) {
+            MessageCatalog catalog = loader(classLoader).load(List.of("generated/messages"), Locale.US);
+            return catalog.getMessage("key.42", Locale.FRENCH);
+        }
+    }
+
+    @Benchmark
+    public String mapBinaryCatalog() throws IOException {
+        return BinaryCatalog.open(catalogFile).getMessage("key.42", Locale.FRENCH);
+    }
+
+    private URLClassLoader classLoader() throws IOException {
+        return new URLClassLoader(new URL[]{directory.toUri().toURL()}, null);
+    }
+
+    private static MessageCatalogLoader loader(ClassLoader classLoader) {
+        return new MessageCatalogLoader(new DefaultResourceLoader(classLoader), StandardCharsets.UTF_8);
+    }
+
+    private void writeBundle(Path file, String prefix) throws IOException {
+        StringBuilder bundle = new StringBuilder();
+        for (int i = 0; i < keys; i++) {
+            bundle.append("key.").append(i).append('=').append(prefix).append(" message ").append(i).append(" {0}\n");
+        }
+        Files.writeString(file, bundle);
+    }
+
+    /**
+     * Compiles the bundles of a classpath basename into a temp catalog file, like the compileMessageCatalog task.
+     */
+    static Path writeCatalog(String basename) {
+        return writeCatalog(new MessageCatalogLoader(), basename);
+    }
+
+    private static Path writeCatalog(MessageCatalogLoader loader, String basename) {
+        try {
+            Path file = Files.createTempFile("i18n", ".catalog");
+            file.toFile().deleteOnExit();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                BinaryCatalogWriter.write(loader.load(List.of(basename), Locale.US), out);
+            }
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
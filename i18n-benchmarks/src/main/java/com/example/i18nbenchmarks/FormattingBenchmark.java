@@ -0,0 +1,64 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.LocaleFormatters;
+import com.example.i18nsupport.MessageTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typed message arguments: MessageFormat (a new NumberFormat / DateFormat per message, which is what
+ * ResourceBundleMessageSource pays without its format cache) vs MessageTemplate with the shared LocaleFormatters,
+ * and a currency amount formatted directly. Run with -prof gc to see the allocation per message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormattingBenchmark {
+
+    private static final String PATTERN = "Order of {1,date,long}: {0,number,integer} items, {2,number,currency}";
+
+    private static final Locale LOCALE = Locale.GERMANY;
+
+    private final MessageTemplate template = MessageTemplate.compile(PATTERN);
+
+    private final Object[] args = {3, new Date(1_676_000_000_000L), new BigDecimal("1234.50")};
+
+    private final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(LOCALE);
+
+    @Benchmark
+    public String messageFormat() {
+        return new MessageFormat(PATTERN, LOCALE).format(args);
+    }
+
+    @Benchmark
+    public String messageTemplate() {
+        return template.format(args, LOCALE);
+    }
+
+    @Benchmark
+    public String currencyWithClonedNumberFormat() {
+        return ((NumberFormat) currencyFormat.clone()).format(args[2]);
+    }
+
+    @Benchmark
+    public String currencyWithLocaleFormatters() {
+        return LocaleFormatters.shared().getCurrencyFormatter(LOCALE).format(args[2]);
+    }
+}
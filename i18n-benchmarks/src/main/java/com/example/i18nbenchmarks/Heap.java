@@ -0,0 +1,29 @@
+package com.example.i18nbenchmarks;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Heap measurements shared by the memory tests of this module.
+ */
+final class Heap {
+
+    private Heap() {
+    }
+
+    static long used() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Lowest heap use over a few System.gc() rounds, until finalization and reference processing have settled.
+     */
+    static long usedAfterGc() throws InterruptedException {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(200);
+            used = Math.min(used, used());
+        }
+        return used;
+    }
+}
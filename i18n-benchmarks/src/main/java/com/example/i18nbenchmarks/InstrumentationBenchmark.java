@@ -0,0 +1,108 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.I18nMetrics;
+import com.example.i18nsupport.InstrumentedLocaleResolver;
+import com.example.i18nsupport.NegotiatingLocaleResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.LocaleResolver;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the i18n metrics on the hot paths: "off" is a message source without metrics and the plain
+ * locale resolver (what applications with i18n.metrics.enabled=false run), "micrometer" records into a
+ * SimpleMeterRegistry, "micrometer+jfr" also creates JFR events (no recording running).
+ * "off" should be within the noise of the numbers MessageSourceBenchmark reports for catalogMessageSource.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationBenchmark {
+
+    @Param({"off", "micrometer", "micrometer+jfr"})
+    public String metrics;
+
+    private CatalogMessageSource messageSource;
+
+    private LocaleResolver localeResolver;
+
+    @Setup
+    public void setUp() {
+        // without a logging configuration Logback logs at debug level, every missing message would be printed
+        LoggingSystem.get(getClass().getClassLoader()).setLogLevel(I18nMetrics.class.getName(), LogLevel.INFO);
+
+        I18nMetrics i18nMetrics = null;
+        if (!"off".equals(metrics)) {
+            i18nMetrics = new I18nMetrics();
+            i18nMetrics.setJfrEnabled(metrics.endsWith("+jfr"));
+            i18nMetrics.bindTo(new SimpleMeterRegistry());
+        }
+
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/message");
+        messageSource.setDefaultLocale(Locale.US);
+        messageSource.setMetrics(i18nMetrics);
+        messageSource.afterPropertiesSet();
+
+        NegotiatingLocaleResolver negotiatingLocaleResolver = new NegotiatingLocaleResolver();
+        negotiatingLocaleResolver.setSupportedLocales(List.of(Locale.US, Locale.GERMAN, Locale.FRENCH));
+        negotiatingLocaleResolver.setDefaultLocale(Locale.US);
+        localeResolver = i18nMetrics != null
+                ? new InstrumentedLocaleResolver(negotiatingLocaleResolver, i18nMetrics)
+                : negotiatingLocaleResolver;
+    }
+
+    /**
+     * Per-thread request, the locale resolver caches its outcome per header.
+     */
+    @State(Scope.Thread)
+    public static class Request {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/message");
+
+        @Setup
+        public void setUp() {
+            request.addHeader("Accept-Language", "fr-FR,fr;q=0.9,en-US;q=0.8,en;q=0.7");
+        }
+    }
+
+    @Benchmark
+    public String getMessage() {
+        return messageSource.getMessage("welcome.message", null, Locale.FRENCH);
+    }
+
+    @Benchmark
+    public String getMessageWithArgument() {
+        return messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+    }
+
+    @Benchmark
+    public String getMissingMessage() {
+        return messageSource.getMessage("no.such.message", null, "fallback", Locale.FRENCH);
+    }
+
+    @Benchmark
+    public Locale resolveLocale(Request request) {
+        return localeResolver.resolveLocale(request.request);
+    }
+}
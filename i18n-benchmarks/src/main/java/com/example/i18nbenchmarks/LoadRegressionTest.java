@@ -0,0 +1,442 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nexample1.I18nExample1Application;
+import com.example.i18nexample2.I18nExample2Application;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test of both example applications with a latency regression check.
+ * <p>
+ * i18n-example1 (once in each locale mode) and i18n-example2 are started in this JVM on free ports and loaded one
+ * after the other at a fixed rate of {@code --rate} requests per second, spread over {@code --connections}
+ * connections: first {@code --warmup} seconds that are not recorded, then {@code --duration} seconds recorded in
+ * an HdrHistogram.
+ * A connection sends its next request at the scheduled time, or as soon as the previous one completed if that is
+ * later, and every latency is measured from the scheduled time: a stall is counted for all requests it held back,
+ * not only for the one that hit it (no coordinated omission). The traffic is a realistic mix:
+ * <ul>
+ *     <li>example1 GET /greeting: {@code --users} returning users that keep their cookies. A new user chooses
+ *     a language with ?lang=, later requests send the cookies, now and then a user switches language. Scenario
+ *     example1.greeting.session runs the shipped session mode, the cookie is JSESSIONID, and
+ *     example1.greeting.cookie runs i18n.locale-resolver=cookie, the cookie is the signed LOCALE cookie</li>
+ *     <li>example2 GET /api/message: browser-like Accept-Language headers (weighted, some without a supported
+ *     language or without the header) and usernames, with and without non-ASCII characters</li>
+ * </ul>
+ * Throughput and the latency percentiles are printed, the full percentile distributions are written to
+ * {@code loadTest.resultDir}. The check fails (exit code 1, so the Gradle task fails the build) if a scenario's
+ * p99 is more than {@code --tolerance} above the stored baseline, if requests failed, or if there is no baseline
+ * recorded at this rate or for a scenario. Throughput is not checked: the rate is fixed, so it only falls below the
+ * rate once the application is saturated, and then the p99 has long gone up.
+ * {@code --update-baseline=true} stores the results as the new baseline instead. Latencies only compare on the same
+ * kind of machine, so every CI runner type has its own baseline file.
+ * <p>
+ * Options: --rate=1000 (requests/s per scenario) --connections=16 --warmup=10 --duration=30 (seconds) --users=1000
+ * --tolerance=0.25 --baseline=load-baselines/local.properties --update-baseline=false --example1-port=0
+ * --example2-port=0
+ */
+public final class LoadRegressionTest {
+
+    /**
+     * Highest latency the histograms track, in microseconds.
+     */
+    private static final long MAX_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    /**
+     * Accept-Language headers of browsers, weighted, null for clients that send none.
+     */
+    private static final Weighted<String> ACCEPT_LANGUAGES = new Weighted<String>()
+            .add("en-US,en;q=0.9", 35)
+            .add("en-GB,en;q=0.8", 10)
+            .add("fr-FR,fr;q=0.9,en-US;q=0.8,en;q=0.7", 15)
+            .add("fr-CA,fr;q=0.9", 3)
+            .add("de-DE,de;q=0.9,en;q=0.8", 15)
+            .add("pl-PL,pl;q=0.9,en-US;q=0.8,en;q=0.7", 10)
+            .add("es-ES,es;q=0.9", 5)
+            .add("*", 2)
+            .add(null, 5);
+
+    /**
+     * Languages chosen with ?lang=, "de" has no bundle in example1.
+     */
+    private static final Weighted<String> LANGUAGES = new Weighted<String>()
+            .add("en", 50)
+            .add("fr", 25)
+            .add("pl", 20)
+            .add("de", 5);
+
+    /**
+     * Usernames, null for requests without one.
+     */
+    private static final Weighted<String> USERNAMES = new Weighted<String>()
+            .add(null, 30)
+            .add("Jan", 15)
+            .add("Anna", 15)
+            .add("Jean-Pierre", 10)
+            .add("Zoé", 10)
+            .add("Łukasz", 8)
+            .add("Jürgen Müller", 8)
+            .add("Maria José da Silva ".repeat(8).trim(), 4);
+
+    /**
+     * Locale resolver modes example1 is loaded in, one scenario each.
+     */
+    private static final String[] EXAMPLE1_MODES = {"session", "cookie"};
+
+    private LoadRegressionTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.parseInt(option(args, "rate", "1000"));
+        int connections = Integer.parseInt(option(args, "connections", "16"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(option(args, "warmup", "10")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(option(args, "duration", "30")));
+        int users = Integer.parseInt(option(args, "users", "1000"));
+        double tolerance = Double.parseDouble(option(args, "tolerance", "0.25"));
+        Path baseline = Path.of(option(args, "baseline", "load-baselines/local.properties"));
+        boolean updateBaseline = Boolean.parseBoolean(option(args, "update-baseline", "false"));
+        Path resultDir = Path.of(System.getProperty("loadTest.resultDir", "build/reports/load"));
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : EXAMPLE1_MODES) {
+            try (ConfigurableApplicationContext example1 = new SpringApplicationBuilder(I18nExample1Application.class)
+                    .run("--server.port=" + option(args, "example1-port", "0"), "--spring.main.banner-mode=off",
+                            "--logging.level.root=WARN", "--i18n.locale-resolver=" + mode,
+                            MockMvcBenchmark.LOCALE_COOKIE_SECRET)) {
+                Scenario scenario = new GreetingScenario("example1.greeting." + mode, port(example1), users);
+                results.add(measure(scenario, rate, connections, warmup, duration));
+            }
+        }
+        try (ConfigurableApplicationContext example2 = new SpringApplicationBuilder(I18nExample2Application.class)
+                .run("--server.port=" + option(args, "example2-port", "0"), "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN", "--placeholder.greetings=welcome.message")) {
+            results.add(measure(new MessageScenario(port(example2)), rate, connections, warmup, duration));
+        }
+
+        Files.createDirectories(resultDir);
+        System.out.printf("%n%,d requests/s over %d connections, %d s per scenario, latency in ms%n",
+                rate, connections, duration.toSeconds());
+        System.out.printf("%-26s %12s %8s %8s %8s %8s %8s %8s%n",
+                "scenario", "requests/s", "p50", "p90", "p99", "p99.9", "max", "errors");
+        for (Result result : results) {
+            Histogram histogram = result.histogram();
+            System.out.printf("%-26s %12.0f %8.2f %8.2f %8.2f %8.2f %8.2f %8d%n", result.name(), result.throughput(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    result.p99(), millis(histogram.getValueAtPercentile(99.9)), millis(histogram.getMaxValue()),
+                    result.errors());
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(resultDir.resolve(result.name() + ".hgrm")), false, StandardCharsets.UTF_8)) {
+                // microseconds scaled to milliseconds, the format HdrHistogram's plotter reads
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        if (updateBaseline) {
+            storeBaseline(baseline, rate, results);
+            System.out.printf("%nBaseline stored in %s%n", baseline.toAbsolutePath());
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.printf("%nNo baseline %s for this runner, record one with --update-baseline=true%n", baseline);
+            System.exit(1);
+        }
+        List<String> regressions = check(loadBaseline(baseline), rate, results, tolerance);
+        if (!regressions.isEmpty()) {
+            System.out.printf("%nRegressions against %s (tolerance %.0f%%):%n", baseline, tolerance * 100);
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+        System.out.printf("%nNo regressions against %s (tolerance %.0f%%)%n", baseline, tolerance * 100);
+    }
+
+    private record Result(String name, Histogram histogram, double throughput, long errors) {
+
+        double p99() {
+            return millis(histogram.getValueAtPercentile(99));
+        }
+    }
+
+    private static List<String> check(Properties baseline, int rate, List<Result> results, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        if (!String.valueOf(rate).equals(baseline.getProperty("rate"))) {
+            regressions.add("baseline recorded at " + baseline.getProperty("rate") + " requests/s, not " + rate
+                    + ", record one at this rate with --update-baseline=true");
+            return regressions;
+        }
+        for (Result result : results) {
+            if (result.errors() > 0) {
+                regressions.add(result.name() + ": " + result.errors() + " requests failed");
+            }
+            String p99 = baseline.getProperty(result.name() + ".p99");
+            if (p99 == null) {
+                regressions.add(result.name() + ": not in the baseline, record it with --update-baseline=true");
+                continue;
+            }
+            if (result.p99() > Double.parseDouble(p99) * (1 + tolerance)) {
+                regressions.add(String.format("%s: p99 %.2f ms, baseline %s ms", result.name(), result.p99(), p99));
+            }
+        }
+        return regressions;
+    }
+
+    private static Properties loadBaseline(Path baseline) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void storeBaseline(Path baseline, int rate, List<Result> results) throws IOException {
+        StringBuilder content = new StringBuilder()
+                .append("# p99 latency (ms) per scenario of LoadRegressionTest at the rate (requests/s),\n")
+                .append("# written with --update-baseline=true, only comparable on the same kind of machine\n")
+                .append("rate=").append(rate).append('\n');
+        for (Result result : results) {
+            // Locale.ROOT, with the default locale of e.g. a de runner 12,34 would not parse as a double
+            content.append(result.name()).append(".p99=")
+                    .append(String.format(Locale.ROOT, "%.2f", result.p99())).append('\n');
+        }
+        if (baseline.getParent() != null) {
+            Files.createDirectories(baseline.getParent());
+        }
+        Files.writeString(baseline, content);
+    }
+
+    /**
+     * Warms up with the scenario, then runs it again recorded.
+     */
+    private static Result measure(Scenario scenario, int rate, int connections, Duration warmup, Duration duration) {
+        run(scenario, rate, connections, warmup);
+        Result result = run(scenario, rate, connections, duration);
+        System.out.printf("%-26s %,10d requests %10.0f requests/s p99 %8.2f ms%n",
+                result.name(), result.histogram().getTotalCount(), result.throughput(), result.p99());
+        return result;
+    }
+
+    /**
+     * Sends the scenario's requests at the given rate for the given duration, every latency is recorded.
+     */
+    private static Result run(Scenario scenario, int rate, int connections, Duration duration) {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            Recorder recorder = new Recorder(MAX_LATENCY, 3);
+            LongAdder errors = new LongAdder();
+            long interval = TimeUnit.SECONDS.toNanos(connections) / rate;
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            CompletableFuture<?>[] loops = new CompletableFuture<?>[connections];
+            for (int i = 0; i < connections; i++) {
+                // staggered, so the connections together send evenly spaced requests
+                long scheduled = start + interval * i / connections;
+                loops[i] = loop(client, scenario, scheduled, interval, deadline, recorder, errors);
+            }
+            CompletableFuture.allOf(loops).join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Histogram histogram = recorder.getIntervalHistogram();
+            return new Result(scenario.name(), histogram, histogram.getTotalCount() / seconds, errors.sum());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One connection: sends the scenario's next request at its scheduled time, or right after the previous one
+     * completed if that is later, until the deadline. The latency counts from the scheduled time.
+     */
+    private static CompletableFuture<Void> loop(HttpClient client, Scenario scenario, long scheduled, long interval,
+                                                long deadline, Recorder recorder, LongAdder errors) {
+        long delay = scheduled - System.nanoTime();
+        Executor sender = delay > 0 ? CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS) : Runnable::run;
+        return CompletableFuture.supplyAsync(() -> scenario.next(ThreadLocalRandom.current()), sender)
+                .thenCompose(request -> client.sendAsync(request.request(), HttpResponse.BodyHandlers.ofByteArray())
+                        .handle((response, ex) -> {
+                            long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+                            if (ex == null && response.statusCode() == 200) {
+                                recorder.recordValue(Math.min(latency, MAX_LATENCY));
+                                scenario.completed(request, response);
+                            } else {
+                                errors.increment();
+                            }
+                            return null;
+                        }))
+                .thenCompose(ignored -> scheduled + interval < deadline
+                        ? loop(client, scenario, scheduled + interval, interval, deadline, recorder, errors)
+                        : CompletableFuture.completedFuture(null));
+    }
+
+    private static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+
+    private record Request(HttpRequest request, int user) {
+    }
+
+    private interface Scenario {
+
+        String name();
+
+        Request next(ThreadLocalRandom random);
+
+        /**
+         * Called for every successful response, e.g. to keep the cookies of the user.
+         */
+        default void completed(Request request, HttpResponse<byte[]> response) {
+        }
+    }
+
+    /**
+     * GET /greeting of example1 by returning users that keep their cookies, the session cookie or the signed
+     * locale cookie depending on the mode example1 runs in.
+     */
+    private static final class GreetingScenario implements Scenario {
+
+        private final String name;
+
+        private final String baseUrl;
+
+        /**
+         * Cookie header per user, null until the user chose a language.
+         */
+        private final AtomicReferenceArray<String> cookies;
+
+        GreetingScenario(String name, int port, int users) {
+            this.name = name;
+            this.baseUrl = "http://localhost:" + port + "/greeting";
+            this.cookies = new AtomicReferenceArray<>(users);
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public Request next(ThreadLocalRandom random) {
+            int user = random.nextInt(cookies.length());
+            String cookie = cookies.get(user);
+            // new users choose a language, 5% of the returning ones switch it
+            boolean chooseLanguage = cookie == null || random.nextInt(100) < 5;
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(chooseLanguage
+                            ? baseUrl + "?lang=" + LANGUAGES.next(random)
+                            : baseUrl))
+                    .timeout(Duration.ofSeconds(30));
+            String acceptLanguage = ACCEPT_LANGUAGES.next(random);
+            if (acceptLanguage != null) {
+                builder.header("Accept-Language", acceptLanguage);
+            }
+            if (cookie != null) {
+                builder.header("Cookie", cookie);
+            }
+            return new Request(builder.build(), user);
+        }
+
+        @Override
+        public void completed(Request request, HttpResponse<byte[]> response) {
+            List<String> setCookies = response.headers().allValues("Set-Cookie");
+            if (!setCookies.isEmpty()) {
+                // name=value of every cookie, without the attributes
+                cookies.set(request.user(), String.join("; ", setCookies.stream()
+                        .map(setCookie -> setCookie.split(";", 2)[0])
+                        .toList()));
+            }
+        }
+    }
+
+    /**
+     * GET /api/message of example2 with browser Accept-Language headers and usernames.
+     */
+    private static final class MessageScenario implements Scenario {
+
+        private final String baseUrl;
+
+        MessageScenario(int port) {
+            this.baseUrl = "http://localhost:" + port + "/api/message";
+        }
+
+        @Override
+        public String name() {
+            return "example2.message";
+        }
+
+        @Override
+        public Request next(ThreadLocalRandom random) {
+            String username = USERNAMES.next(random);
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(username == null
+                            ? baseUrl
+                            : baseUrl + "?username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)))
+                    .timeout(Duration.ofSeconds(30));
+            String acceptLanguage = ACCEPT_LANGUAGES.next(random);
+            if (acceptLanguage != null) {
+                builder.header("Accept-Language", acceptLanguage);
+            }
+            return new Request(builder.build(), -1);
+        }
+    }
+
+    /**
+     * Values picked at random in proportion to their weights.
+     */
+    private static final class Weighted<T> {
+
+        private final List<T> values = new ArrayList<>();
+
+        Weighted<T> add(T value, int weight) {
+            for (int i = 0; i < weight; i++) {
+                values.add(value);
+            }
+            return this;
+        }
+
+        T next(ThreadLocalRandom random) {
+            return values.get(random.nextInt(values.size()));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.NegotiatingLocaleResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
+import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
+import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving the locale of a request, with realistic multi-value Accept-Language headers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LocaleResolverBenchmark {
+
+    static final String[] ACCEPT_LANGUAGE_HEADERS = {
+            "en-US,en;q=0.9",
+            "fr-FR,fr;q=0.9,en-US;q=0.8,en;q=0.7",
+            "de-DE,de;q=0.9,en;q=0.8",
+            "pl-PL,pl;q=0.9,en-US;q=0.8,en;q=0.7",
+            "de-CH, fr;q=0.8, *;q=0.5",
+            "en-GB,en;q=0.9,fr;q=0.6",
+            "it-IT,it;q=0.9,en;q=0.5",
+    };
+
+    private static final String[] LANG_PARAMETERS = {"fr", "pl", "en", "de"};
+
+    private static final List<Locale> SUPPORTED_LOCALES = List.of(Locale.US, Locale.GERMAN, Locale.FRENCH);
+
+    private AcceptHeaderLocaleResolver acceptHeaderLocaleResolver;
+
+    private NegotiatingLocaleResolver negotiatingLocaleResolver;
+
+    private SessionLocaleResolver sessionLocaleResolver;
+
+    private LocaleChangeInterceptor localeChangeInterceptor;
+
+    @Setup
+    public void setUp() {
+        acceptHeaderLocaleResolver = new AcceptHeaderLocaleResolver();
+        acceptHeaderLocaleResolver.setSupportedLocales(SUPPORTED_LOCALES);
+        acceptHeaderLocaleResolver.setDefaultLocale(Locale.US);
+
+        negotiatingLocaleResolver = new NegotiatingLocaleResolver();
+        negotiatingLocaleResolver.setSupportedLocales(SUPPORTED_LOCALES);
+        negotiatingLocaleResolver.setDefaultLocale(Locale.US);
+
+        sessionLocaleResolver = new SessionLocaleResolver();
+        sessionLocaleResolver.setDefaultLocale(Locale.US);
+
+        localeChangeInterceptor = new LocaleChangeInterceptor();
+        localeChangeInterceptor.setParamName("lang");
+    }
+
+    /**
+     * Per-thread requests, every invocation takes the next one.
+     */
+    @State(Scope.Thread)
+    public static class Requests {
+
+        private MockHttpServletRequest[] headerRequests;
+
+        private MockHttpServletRequest[] langRequests;
+
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        private int next;
+
+        @Setup
+        public void setUp(LocaleResolverBenchmark benchmark) {
+            headerRequests = new MockHttpServletRequest[ACCEPT_LANGUAGE_HEADERS.length];
+            for (int i = 0; i < headerRequests.length; i++) {
+                headerRequests[i] = new MockHttpServletRequest("GET", "/api/message");
+                headerRequests[i].addHeader("Accept-Language", ACCEPT_LANGUAGE_HEADERS[i]);
+                // MockHttpServletRequest does not parse the header into request locales, a container does
+                headerRequests[i].setPreferredLocales(
+                        Locale.LanguageRange.parse(ACCEPT_LANGUAGE_HEADERS[i]).stream()
+                                .filter(range -> !range.getRange().contains("*"))
+                                .map(range -> Locale.forLanguageTag(range.getRange()))
+                                .toList());
+            }
+
+            MockHttpSession session = new MockHttpSession();
+            langRequests = new MockHttpServletRequest[LANG_PARAMETERS.length];
+            for (int i = 0; i < langRequests.length; i++) {
+                langRequests[i] = new MockHttpServletRequest("GET", "/greeting");
+                langRequests[i].setSession(session);
+                langRequests[i].setParameter("lang", LANG_PARAMETERS[i]);
+                langRequests[i].setAttribute(DispatcherServlet.LOCALE_RESOLVER_ATTRIBUTE, benchmark.sessionLocaleResolver);
+            }
+        }
+
+        MockHttpServletRequest nextHeaderRequest() {
+            next = (next + 1) % headerRequests.length;
+            return headerRequests[next];
+        }
+
+        MockHttpServletRequest nextLangRequest() {
+            next = (next + 1) % langRequests.length;
+            return langRequests[next];
+        }
+    }
+
+    @Benchmark
+    public Locale acceptHeaderLocaleResolver(Requests requests) {
+        return acceptHeaderLocaleResolver.resolveLocale(requests.nextHeaderRequest());
+    }
+
+    @Benchmark
+    public Locale negotiatingLocaleResolver(Requests requests) {
+        return negotiatingLocaleResolver.resolveLocale(requests.nextHeaderRequest());
+    }
+
+    /**
+     * i18n-example1: the interceptor stores the ?lang= locale in the session, the resolver reads it back.
+     */
+    @Benchmark
+    public Locale sessionLocaleResolverWithLocaleChangeInterceptor(Requests requests) throws Exception {
+        MockHttpServletRequest request = requests.nextLangRequest();
+        localeChangeInterceptor.preHandle(request, requests.response, this);
+        return sessionLocaleResolver.resolveLocale(request);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nexample1.I18nExample1Application;
+import org.apache.catalina.Context;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Heap the chosen locale costs per user in i18n-example1, once with i18n.locale-resolver=session
+ * (SessionLocaleResolver, one HttpSession per user) and once with i18n.locale-resolver=cookie
+ * (SignedCookieLocaleResolver, the locale travels in a signed cookie).
+ * <p>
+ * Every user is a client without cookies choosing a language with GET /greeting?lang=fr, so each request is a new
+ * user. The retained heap is measured after a full GC before and after the users, the server runs in this JVM.
+ * Sessions stay until they time out (30 minutes), which is what a real server carries for its recent users.
+ * <p>
+ * Options: --users=100000 --connections=32
+ * Use a heap large enough for the session mode, e.g. -Xmx1g. Results within a few bytes/user of zero are GC noise.
+ */
+public final class LocaleStateMemoryTest {
+
+    private static final String[] MODES = {"session", "cookie"};
+
+    private LocaleStateMemoryTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.parseInt(option(args, "users", "100000"));
+        int connections = Integer.parseInt(option(args, "connections", "32"));
+
+        List<Result> results = new ArrayList<>();
+        for (String mode : MODES) {
+            try (ConfigurableApplicationContext context = start(mode)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                // warms up the JIT, caches and pre-rendered pages, these users are part of the baseline
+                run(port, 1_000, connections);
+                long before = Heap.usedAfterGc();
+                String setCookie = run(port, users, connections);
+                long after = Heap.usedAfterGc();
+                Result result = new Result(mode, after - before, activeSessions(context), setCookie);
+                results.add(result);
+                System.out.printf("%-8s %,14d bytes retained %,10d active sessions%n",
+                        mode, result.retained(), result.sessions());
+            }
+        }
+
+        System.out.printf("%nGET /greeting?lang=fr, %,d users without cookies%n", users);
+        System.out.printf("%-8s %16s %16s %18s  %s%n",
+                "mode", "bytes/user", "MB/100k users", "active sessions", "Set-Cookie");
+        for (Result result : results) {
+            double perUser = (double) result.retained() / users;
+            System.out.printf("%-8s %16.0f %16.1f %,18d  %s%n",
+                    result.mode(), perUser, perUser * 100_000 / (1024 * 1024), result.sessions(), result.setCookie());
+        }
+    }
+
+    private record Result(String mode, long retained, int sessions, String setCookie) {
+    }
+
+    /**
+     * Sends the given number of requests, at most connections in flight, returns a Set-Cookie header of the responses.
+     */
+    private static String run(int port, int users, int connections) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            // no cookie handler: every request is a new user
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/greeting?lang=fr"))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            Semaphore inFlight = new Semaphore(connections);
+            LongAdder failed = new LongAdder();
+            String[] setCookie = {""};
+            for (int i = 0; i < users; i++) {
+                inFlight.acquire();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, ex) -> {
+                            if (ex != null || response.statusCode() != 200) {
+                                failed.increment();
+                            } else {
+                                setCookie[0] = String.join("; ", response.headers().allValues("Set-Cookie"));
+                            }
+                            inFlight.release();
+                        });
+            }
+            inFlight.acquire(connections);
+            if (failed.sum() > 0) {
+                System.out.printf("  %d requests failed%n", failed.sum());
+            }
+            return setCookie[0];
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int activeSessions(ConfigurableApplicationContext context) {
+        TomcatWebServer webServer = (TomcatWebServer) ((WebServerApplicationContext) context).getWebServer();
+        return Arrays.stream(webServer.getTomcat().getHost().findChildren())
+                .mapToInt(child -> ((Context) child).getManager().getActiveSessions())
+                .sum();
+    }
+
+    private static ConfigurableApplicationContext start(String mode) {
+        return new SpringApplicationBuilder(I18nExample1Application.class)
+                .run("--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN",
+                        "--i18n.locale-resolver=" + mode, MockMvcBenchmark.LOCALE_COOKIE_SECRET);
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+}
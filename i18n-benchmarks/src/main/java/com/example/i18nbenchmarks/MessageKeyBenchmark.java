@@ -0,0 +1,69 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.MessageKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup by String code against lookup by {@link MessageKey} (number of the code in the catalog).
+ * The code is a fresh String per call, like a code coming from a template or a request, so its hash
+ * is not cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageKeyBenchmark {
+
+    private static final MessageKey WELCOME_MESSAGE = MessageKey.of("welcome.message");
+
+    @Param({"CatalogMessageSource", "BinaryCatalogMessageSource"})
+    public String implementation;
+
+    private AbstractCatalogMessageSource messageSource;
+
+    private final char[] code = "welcome.message".toCharArray();
+
+    @Setup
+    public void setUp() {
+        if ("BinaryCatalogMessageSource".equals(implementation)) {
+            BinaryCatalogMessageSource source = new BinaryCatalogMessageSource();
+            source.setLocation(CatalogStartupBenchmark.writeCatalog("i18n/message").toUri().toString());
+            source.afterPropertiesSet();
+            messageSource = source;
+            return;
+        }
+        CatalogMessageSource source = new CatalogMessageSource();
+        source.setBasename("i18n/message");
+        source.setDefaultLocale(Locale.US);
+        source.afterPropertiesSet();
+        messageSource = source;
+    }
+
+    @Benchmark
+    public String byCode() {
+        return messageSource.getMessage(new String(code), null, Locale.FRENCH);
+    }
+
+    @Benchmark
+    public String byKey() {
+        return messageSource.getMessage(WELCOME_MESSAGE, null, Locale.FRENCH);
+    }
+}
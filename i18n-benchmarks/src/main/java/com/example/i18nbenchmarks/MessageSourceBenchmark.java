@@ -0,0 +1,128 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.CachingMessageSource;
+import com.example.i18nsupport.CatalogMessageSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a single MessageSource.getMessage call, for the message sources of both example applications.
+ * <p>
+ * "messages" are the bundles of i18n-example1 (messages, messages_fr, messages_pl, no arguments),
+ * "i18n/message" the bundles of i18n-example2 (message, message_fr, message_de, one argument).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessageSourceBenchmark {
+
+    private static final Locale POLAND = new Locale("pl", "PL");
+
+    private static final Locale ITALY = Locale.ITALY;
+
+    @Param({"ResourceBundleMessageSource", "CatalogMessageSource", "BinaryCatalogMessageSource",
+            "CachingMessageSource(ResourceBundleMessageSource)", "CachingMessageSource(CatalogMessageSource)"})
+    public String implementation;
+
+    private MessageSource example1MessageSource;
+
+    private MessageSource example2MessageSource;
+
+    private final Object[] args = {"Mr Incognito"};
+
+    @Setup
+    public void setUp() {
+        example1MessageSource = create("messages", true);
+        example2MessageSource = create("i18n/message", false);
+    }
+
+    /**
+     * Message without arguments, bundle of the exact locale exists.
+     */
+    @Benchmark
+    public String withoutArguments() {
+        return example1MessageSource.getMessage("greeting.text", null, Locale.FRENCH);
+    }
+
+    /**
+     * The "Greetings {0}" message of GreetingsController.
+     */
+    @Benchmark
+    public String withArguments() {
+        return example2MessageSource.getMessage("welcome.message", args, Locale.FRENCH);
+    }
+
+    /**
+     * pl_PL has no bundle, resolved from messages_pl.
+     */
+    @Benchmark
+    public String languageFallback() {
+        return example1MessageSource.getMessage("greeting.text", null, POLAND);
+    }
+
+    /**
+     * it_IT has neither an it_IT nor an it bundle, resolved from the default locale / base bundle.
+     */
+    @Benchmark
+    public String defaultFallback() {
+        return example1MessageSource.getMessage("greeting.text", null, ITALY);
+    }
+
+    /**
+     * Default fallback for a message with arguments.
+     */
+    @Benchmark
+    public String defaultFallbackWithArguments() {
+        return example2MessageSource.getMessage("welcome.message", args, ITALY);
+    }
+
+    private MessageSource create(String basename, boolean useCodeAsDefaultMessage) {
+        if (implementation.startsWith("CachingMessageSource")) {
+            return new CachingMessageSource(create(basename, useCodeAsDefaultMessage,
+                    implementation.contains("CatalogMessageSource")));
+        }
+        if ("BinaryCatalogMessageSource".equals(implementation)) {
+            BinaryCatalogMessageSource source = new BinaryCatalogMessageSource();
+            source.setLocation(CatalogStartupBenchmark.writeCatalog(basename).toUri().toString());
+            source.setUseCodeAsDefaultMessage(useCodeAsDefaultMessage);
+            source.afterPropertiesSet();
+            return source;
+        }
+        return create(basename, useCodeAsDefaultMessage, "CatalogMessageSource".equals(implementation));
+    }
+
+    private static MessageSource create(String basename, boolean useCodeAsDefaultMessage, boolean catalog) {
+        if (catalog) {
+            CatalogMessageSource source = new CatalogMessageSource();
+            source.setBasename(basename);
+            source.setUseCodeAsDefaultMessage(useCodeAsDefaultMessage);
+            source.setDefaultLocale(Locale.US);
+            source.afterPropertiesSet();
+            return source;
+        }
+        ResourceBundleMessageSource source = new ResourceBundleMessageSource();
+        source.setBasename(basename);
+        source.setUseCodeAsDefaultMessage(useCodeAsDefaultMessage);
+        source.setDefaultLocale(Locale.US);
+        source.setDefaultEncoding("UTF-8");
+        return source;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nexample1.I18nExample1Application;
+import com.example.i18nexample2.I18nExample2Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Full request round-trips through the DispatcherServlet of both example applications, without the network.
+ * <p>
+ * Logging is turned down to WARN, otherwise the benchmark would mostly measure console output.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MockMvcBenchmark {
+
+    private static final String[] LANG_PARAMETERS = {"fr", "pl", "en"};
+
+    /**
+     * i18n-example1 does not start in cookie mode (--i18n.locale-resolver=cookie) without a shared secret.
+     */
+    static final String LOCALE_COOKIE_SECRET = "--i18n.locale-cookie.secret=benchmark-secret-of-at-least-32-bytes";
+
+    private ConfigurableApplicationContext example1;
+
+    private ConfigurableApplicationContext example2;
+
+    private MockMvc example1MockMvc;
+
+    private MockMvc example2MockMvc;
+
+    @Setup
+    public void setUp() {
+        example1 = start(I18nExample1Application.class);
+        example2 = start(I18nExample2Application.class, "--placeholder.greetings=welcome.message");
+        example1MockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) example1).build();
+        example2MockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) example2).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        example1.close();
+        example2.close();
+    }
+
+    /**
+     * Per-thread visitor: its own session and a rotating Accept-Language header / lang parameter.
+     */
+    @State(Scope.Thread)
+    public static class Visitor {
+
+        private final MockHttpSession session = new MockHttpSession();
+
+        private int next;
+
+        String nextAcceptLanguage() {
+            next = (next + 1) % LocaleResolverBenchmark.ACCEPT_LANGUAGE_HEADERS.length;
+            return LocaleResolverBenchmark.ACCEPT_LANGUAGE_HEADERS[next];
+        }
+
+        String nextLang() {
+            next = (next + 1) % LANG_PARAMETERS.length;
+            return LANG_PARAMETERS[next];
+        }
+    }
+
+    @Benchmark
+    public String apiMessage(Visitor visitor) throws Exception {
+        return example2MockMvc.perform(get("/api/message")
+                        .header("Accept-Language", visitor.nextAcceptLanguage())
+                        .param("username", "Mr Incognito"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String greeting(Visitor visitor) throws Exception {
+        return example1MockMvc.perform(get("/greeting")
+                        .session(visitor.session)
+                        .param("lang", visitor.nextLang()))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * Both applications are on the classpath, so their application.properties shadow each other;
+     * everything the benchmark relies on is passed as command line arguments instead.
+     */
+    private static ConfigurableApplicationContext start(Class<?> application, String... args) {
+        return new SpringApplicationBuilder(application)
+                .run(Stream.concat(
+                        Stream.of("--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN"),
+                        Stream.of(args)).toArray(String[]::new));
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogWriter;
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.MessageCatalogLoader;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * Heap and GC cost of a very large catalog: {@code --locales} bundles with {@code --keys} messages each are
+ * served by four message sources.
+ * <ul>
+ *     <li>ResourceBundleMessageSource: getMessage, the String encoded into the response (i18n-example1)</li>
+ *     <li>CatalogMessageSource: getMessage on the compiled on-heap catalog (i18n-example2)</li>
+ *     <li>binary: getMessage on BinaryCatalogMessageSource, messages compiled on first use and kept on the heap</li>
+ *     <li>binary off-heap: writeMessage with setOffHeap(true), message bodies stay UTF-8 in the mapped file and are
+ *     copied into the response buffer</li>
+ * </ul>
+ * Every message of every locale is rendered once first, like a long running server eventually does. Retained is
+ * the heap the message source holds after a full GC, off-heap the direct and mapped buffers. Full GC is the
+ * time of one System.gc() with that heap, the pause a full collection takes. Then {@code --requests} messages
+ * are rendered (90% from the 1% most popular keys) and the collections during that run are counted.
+ * <p>
+ * Options: --locales=100 --keys=10000 --requests=5000000
+ * Use a heap large enough for ResourceBundleMessageSource, which caches a MessageFormat per message, e.g. -Xmx4g.
+ * Retained results within a few MB of zero are GC noise.
+ */
+public final class OffHeapCatalogTest {
+
+    private OffHeapCatalogTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int locales = Integer.parseInt(option(args, "locales", "100"));
+        int keys = Integer.parseInt(option(args, "keys", "10000"));
+        int requests = Integer.parseInt(option(args, "requests", "5000000"));
+
+        Path directory = Files.createTempDirectory("i18n-bundles");
+        try {
+            List<Path> files = BundleLoadTest.writeBundles(directory, locales, keys);
+            List<Locale> bundleLocales = files.stream().map(BundleLoadTest::locale).toList();
+            Path catalogFile = directory.resolve("messages.catalog");
+            try (URLClassLoader classLoader = BundleLoadTest.classLoader(directory);
+                 OutputStream out = Files.newOutputStream(catalogFile)) {
+                BinaryCatalogWriter.write(new MessageCatalogLoader(new DefaultResourceLoader(classLoader),
+                        StandardCharsets.UTF_8).load(List.of(BundleLoadTest.BASENAME), Locale.US), out);
+            }
+            System.out.printf("%,d bundles, %,d keys each, catalog file %,d MB%n%n", files.size(), keys,
+                    Files.size(catalogFile) / (1024 * 1024));
+            System.out.printf("%-28s %12s %12s %12s %8s %10s %10s%n",
+                    "mode", "retained MB", "off-heap MB", "full GC ms", "GCs", "GC ms", "ns/msg");
+            Workload workload = new Workload(bundleLocales, keys, requests);
+            try (URLClassLoader classLoader = BundleLoadTest.classLoader(directory)) {
+                run("ResourceBundleMessageSource", workload, () -> {
+                    ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+                    messageSource.setBundleClassLoader(classLoader);
+                    messageSource.setBasename(BundleLoadTest.BASENAME);
+                    messageSource.setDefaultEncoding("UTF-8");
+                    return messageSource;
+                }, OffHeapCatalogTest::encodeMessage);
+                run("CatalogMessageSource", workload, () -> {
+                    CatalogMessageSource messageSource = new CatalogMessageSource();
+                    messageSource.setResourceLoader(new DefaultResourceLoader(classLoader));
+                    messageSource.setBasename(BundleLoadTest.BASENAME);
+                    messageSource.setDefaultLocale(Locale.US);
+                    messageSource.afterPropertiesSet();
+                    return messageSource;
+                }, OffHeapCatalogTest::encodeMessage);
+            }
+            run("binary", workload, () -> binary(catalogFile, false), OffHeapCatalogTest::encodeMessage);
+            run("binary off-heap", workload, () -> binary(catalogFile, true), OffHeapCatalogTest::writeMessage);
+        } finally {
+            try (var paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static <S extends MessageSource> void run(String mode, Workload workload, Setup<S> setup,
+                                                      Renderer<S> renderer) throws Exception {
+        long before = Heap.usedAfterGc();
+        long offHeapBefore = bufferPoolsUsed();
+        S messageSource = setup.create();
+        ByteBuffer out = ByteBuffer.allocateDirect(4096);
+        for (Locale locale : workload.locales) {
+            for (int key = 0; key < workload.keys; key++) {
+                renderer.render(messageSource, "key." + key, locale, out.clear());
+            }
+        }
+        long retained = Heap.usedAfterGc() - before;
+        long offHeap = bufferPoolsUsed() - offHeapBefore;
+        long fullGc = fullGcMillis();
+
+        long collections = collectionCount();
+        long collectionTime = collectionTime();
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < workload.requests; i++) {
+            renderer.render(messageSource, workload.code(random), workload.locale(random), out.clear());
+        }
+        long time = System.nanoTime() - start;
+        System.out.printf("%-28s %12d %12d %12d %8d %10d %10d%n", mode, retained / (1024 * 1024),
+                offHeap / (1024 * 1024), fullGc, collectionCount() - collections, collectionTime() - collectionTime,
+                time / workload.requests);
+        Reference.reachabilityFence(messageSource);
+    }
+
+    private static BinaryCatalogMessageSource binary(Path catalogFile, boolean offHeap) {
+        BinaryCatalogMessageSource messageSource = new BinaryCatalogMessageSource();
+        messageSource.setLocation(catalogFile.toUri().toString());
+        messageSource.setOffHeap(offHeap);
+        messageSource.afterPropertiesSet();
+        return messageSource;
+    }
+
+    /**
+     * The String path: format the message, then encode it into the response.
+     */
+    private static void encodeMessage(MessageSource messageSource, String code, Locale locale, ByteBuffer out) {
+        out.put(messageSource.getMessage(code, new Object[]{"Jan"}, locale).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeMessage(AbstractCatalogMessageSource messageSource, String code, Locale locale,
+                                     ByteBuffer out) {
+        messageSource.writeMessage(code, new Object[]{"Jan"}, locale, out);
+    }
+
+    /**
+     * Best of three full collections, the live heap is the same each time.
+     */
+    private static long fullGcMillis() {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            System.gc();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000;
+    }
+
+    private static long bufferPoolsUsed() {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long collectionCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long collectionTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+
+    @FunctionalInterface
+    private interface Setup<S> {
+
+        S create() throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface Renderer<S> {
+
+        void render(S messageSource, String code, Locale locale, ByteBuffer out);
+    }
+
+    /**
+     * Requests with a skewed key distribution: 90% go to the 1% most popular keys, the codes are created up front.
+     */
+    private static final class Workload {
+
+        private final List<Locale> locales;
+
+        private final int keys;
+
+        private final int requests;
+
+        private final String[] codes;
+
+        private final int popular;
+
+        Workload(List<Locale> locales, int keys, int requests) {
+            this.locales = locales;
+            this.keys = keys;
+            this.requests = requests;
+            this.codes = new String[keys];
+            Arrays.setAll(codes, key -> "key." + key);
+            this.popular = Math.max(1, keys / 100);
+        }
+
+        String code(SplittableRandom random) {
+            return codes[random.nextInt(10) < 9 ? random.nextInt(popular) : random.nextInt(keys)];
+        }
+
+        Locale locale(SplittableRandom random) {
+            return locales.get(random.nextInt(locales.size()));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.MessageKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning the "Greetings {0}" message of GreetingsController into response bytes: getMessage and
+ * String.getBytes (the StringHttpMessageConverter path) against writeMessage into a reused buffer
+ * (the LocalizedMessageHttpMessageConverter path). Run with -prof gc for the allocation per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseEncodingBenchmark {
+
+    @Param({"CatalogMessageSource", "BinaryCatalogMessageSource"})
+    public String implementation;
+
+    private AbstractCatalogMessageSource messageSource;
+
+    private final MessageKey greetings = MessageKey.of("welcome.message");
+
+    private final Object[] args = {"Mr Incognito"};
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    @Setup
+    public void setUp() {
+        if ("BinaryCatalogMessageSource".equals(implementation)) {
+            BinaryCatalogMessageSource source = new BinaryCatalogMessageSource();
+            source.setLocation(CatalogStartupBenchmark.writeCatalog("i18n/message").toUri().toString());
+            source.afterPropertiesSet();
+            messageSource = source;
+        } else {
+            CatalogMessageSource source = new CatalogMessageSource();
+            source.setBasename("i18n/message");
+            source.setDefaultLocale(Locale.US);
+            source.afterPropertiesSet();
+            messageSource = source;
+        }
+    }
+
+    @Benchmark
+    public byte[] getMessageAndEncode() {
+        return messageSource.getMessage(greetings, args, Locale.FRENCH).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer writeMessage() {
+        messageSource.writeMessage(greetings, args, Locale.FRENCH, buffer.clear());
+        return buffer;
+    }
+}
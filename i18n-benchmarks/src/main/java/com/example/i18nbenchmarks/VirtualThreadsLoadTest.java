@@ -0,0 +1,165 @@
+package com.example.i18nbenchmarks;
+
+import com.example.i18nexample2.I18nExample2Application;
+import jakarta.servlet.Filter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of GET /api/message of i18n-example2, once on Tomcat's platform thread pool and once with the
+ * "virtual-threads" profile, at an increasing number of concurrent connections.
+ * <p>
+ * Every request also blocks for a simulated downstream call (a servlet filter that sleeps), the situation the
+ * virtual threads are meant for. On the platform pool throughput stops growing at
+ * server.tomcat.threads.max / latency (200 threads / 100 ms = 2000 requests/s by default),
+ * on virtual threads it keeps growing with the connections until the CPU is the limit.
+ * <p>
+ * Options: --connections=50,100,200,400,800,1600 --duration=5 (seconds per step) --latency=100 (ms)
+ * --threads-max=200 (server.tomcat.threads.max, lower it to see the cap on machines with few cores)
+ */
+public final class VirtualThreadsLoadTest {
+
+    private static final String[] PROFILES = {"default", "virtual-threads"};
+
+    private VirtualThreadsLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] connections = Arrays.stream(option(args, "connections", "50,100,200,400,800,1600").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        Duration duration = Duration.ofSeconds(Long.parseLong(option(args, "duration", "5")));
+        long latency = Long.parseLong(option(args, "latency", "100"));
+        int threadsMax = Integer.parseInt(option(args, "threads-max", "200"));
+
+        List<double[]> throughputs = new ArrayList<>();
+        for (String profile : PROFILES) {
+            try (ConfigurableApplicationContext context = start(profile, latency, threadsMax)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                double[] throughput = new double[connections.length];
+                for (int i = 0; i < connections.length; i++) {
+                    throughput[i] = run(port, connections[i], duration);
+                    System.out.printf("%-16s %6d connections %10.0f requests/s%n",
+                            profile, connections[i], throughput[i]);
+                }
+                throughputs.add(throughput);
+            }
+        }
+
+        System.out.printf("%nGET /api/message, %d ms simulated downstream latency, %d Tomcat threads, requests/s%n",
+                latency, threadsMax);
+        System.out.printf("%12s %16s %16s%n", "connections", PROFILES[0], PROFILES[1]);
+        for (int i = 0; i < connections.length; i++) {
+            System.out.printf("%12d %16.0f %16.0f%n",
+                    connections[i], throughputs.get(0)[i], throughputs.get(1)[i]);
+        }
+    }
+
+    /**
+     * Keeps the given number of requests in flight for the given duration, returns the completed requests/s.
+     */
+    private static double run(int port, int connections, Duration duration) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()));
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(executor)
+                    .build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/message"))
+                    .header("Accept-Language", "fr")
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            LongAdder completed = new LongAdder();
+            LongAdder failed = new LongAdder();
+            long start = System.nanoTime();
+            long deadline = start + duration.toNanos();
+            CompletableFuture<?>[] loops = new CompletableFuture<?>[connections];
+            for (int i = 0; i < connections; i++) {
+                loops[i] = loop(client, request, deadline, completed, failed);
+            }
+            CompletableFuture.allOf(loops).join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (failed.sum() > 0) {
+                System.out.printf("  %d requests failed%n", failed.sum());
+            }
+            return completed.sum() / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One connection: sends the next request as soon as the previous one completed, until the deadline.
+     */
+    private static CompletableFuture<Void> loop(HttpClient client, HttpRequest request, long deadline,
+                                                LongAdder completed, LongAdder failed) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, ex) -> {
+                    if (ex == null && response.statusCode() == 200) {
+                        completed.increment();
+                    } else {
+                        failed.increment();
+                    }
+                    return null;
+                })
+                .thenCompose(ignored -> System.nanoTime() < deadline
+                        ? loop(client, request, deadline, completed, failed)
+                        : CompletableFuture.completedFuture(null));
+    }
+
+    private static ConfigurableApplicationContext start(String profile, long latency, int threadsMax) {
+        return new SpringApplicationBuilder(I18nExample2Application.class, SimulatedLatency.class)
+                .profiles(profile)
+                .run("--server.port=0", "--spring.main.banner-mode=off", "--logging.level.root=WARN",
+                        "--placeholder.greetings=welcome.message", "--server.tomcat.threads.max=" + threadsMax,
+                        "--i18n.load-test.latency=" + latency);
+    }
+
+    private static String option(String[] args, String name, String defaultValue) {
+        String prefix = "--" + name + "=";
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith(prefix))
+                .map(arg -> arg.substring(prefix.length()))
+                .findFirst()
+                .orElse(defaultValue);
+    }
+
+    /**
+     * Stands in for a blocking downstream call (database, remote service) of every request.
+     */
+    @Configuration
+    static class SimulatedLatency {
+
+        @Bean
+        FilterRegistrationBean<Filter> simulatedLatencyFilter(@Value("${i18n.load-test.latency}") long latency) {
+            Filter filter = (request, response, chain) -> {
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                chain.doFilter(request, response);
+            };
+            return new FilterRegistrationBean<>(filter);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.i18nexample1;
+
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceAware;
+import org.springframework.util.ObjectUtils;
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.messageresolver.AbstractMessageResolver;
+import org.thymeleaf.spring6.messageresolver.SpringMessageResolver;
+
+import java.util.Map;
+
+/**
+ * Thymeleaf message resolver for #{...} expressions that reads the messages a controller resolved in one batch
+ * call, the model attribute {@value #MESSAGES_VARIABLE} (code -> message).
+ * Codes that are not in the batch and messages with parameters are resolved by the MessageSource like with
+ * SpringMessageResolver, so a missing code still renders as the code (useCodeAsDefaultMessage)
+ */
+public class BatchMessageResolver extends AbstractMessageResolver implements MessageSourceAware {
+
+    public static final String MESSAGES_VARIABLE = "messages";
+
+    private final SpringMessageResolver delegate = new SpringMessageResolver();
+
+    @Override
+    public void setMessageSource(MessageSource messageSource) {
+        delegate.setMessageSource(messageSource);
+    }
+
+    @Override
+    public String resolveMessage(ITemplateContext context, Class<?> origin, String key, Object[] messageParameters) {
+        if (ObjectUtils.isEmpty(messageParameters)
+                && context.getVariable(MESSAGES_VARIABLE) instanceof Map<?, ?> messages
+                && messages.get(key) instanceof String message) {
+            return message;
+        }
+        return delegate.resolveMessage(context, origin, key, messageParameters);
+    }
+
+    @Override
+    public String createAbsentMessageRepresentation(ITemplateContext context, Class<?> origin, String key,
+                                                    Object[] messageParameters) {
+        return delegate.createAbsentMessageRepresentation(context, origin, key, messageParameters);
+    }
+}
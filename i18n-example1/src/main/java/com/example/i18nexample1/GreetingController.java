@@ -1,13 +1,67 @@
 package com.example.i18nexample1;
 
+import com.example.i18nsupport.AbstractCatalogMessageSource;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
 @Controller
 public class GreetingController {
-    
+
+    private final AbstractCatalogMessageSource catalogMessageSource;
+
+    public GreetingController(AbstractCatalogMessageSource catalogMessageSource) {
+        this.catalogMessageSource = catalogMessageSource;
+    }
+
+    /**
+     * All texts of the page are resolved in one batch call (locale fallback resolved once) instead of one
+     * MessageSource call per #{...} expression, BatchMessageResolver reads the #{...} messages from the batch.
+     * They are only resolved when the template reads them: the pre-rendered page (PrerenderedViewResolver) is
+     * rendered once per locale, later requests never read the model
+     */
     @GetMapping("/greeting")
-    public String greeting() {
+    public String greeting(Locale locale, Model model) {
+        model.addAttribute(BatchMessageResolver.MESSAGES_VARIABLE,
+                new LazyMessages(() -> catalogMessageSource.getMessagesByPrefix("greeting.", locale)));
         return "greeting";
     }
+
+    /**
+     * Read-only map that resolves its messages on first access
+     */
+    static final class LazyMessages extends AbstractMap<String, String> {
+
+        private final Supplier<Map<String, String>> resolver;
+
+        private Map<String, String> messages;
+
+        LazyMessages(Supplier<Map<String, String>> resolver) {
+            this.resolver = resolver;
+        }
+
+        @Override
+        public String get(Object code) {
+            return messages().get(code);
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return Collections.unmodifiableMap(messages()).entrySet();
+        }
+
+        private Map<String, String> messages() {
+            if (messages == null) {
+                messages = resolver.get();
+            }
+            return messages;
+        }
+    }
 }
@@ -1,45 +1,245 @@
 package com.example.i18nexample1;
 
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.CachingMessageSource;
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.I18nMetrics;
+import com.example.i18nsupport.InstrumentedLocaleResolver;
+import com.example.i18nsupport.MessageCatalogETagInterceptor;
+import com.example.i18nsupport.MessageCatalogWarmer;
+import com.example.i18nsupport.PrerenderedViewResolver;
+import com.example.i18nsupport.SessionLocaleMigrationInterceptor;
+import com.example.i18nsupport.SignedCookieLocaleResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashSet;
 import java.util.Locale;
+import java.util.Set;
 
 @Configuration
 public class LocaleConfig implements WebMvcConfigurer {
+
+    @Value("${i18n.message-cache.enabled:true}")
+    private boolean messageCacheEnabled;
+
+    @Value("${i18n.message-cache.maximum-weight:16777216}")
+    private long messageCacheMaximumWeight;
+
+    @Value("${i18n.message-reload.enabled:false}")
+    private boolean messageReloadEnabled;
+
+    @Value("${i18n.binary-catalog.enabled:false}")
+    private boolean binaryCatalogEnabled;
+
+    @Value("${i18n.pruned-catalog.enabled:false}")
+    private boolean prunedCatalogEnabled;
+
+    @Value("${i18n.warm-up.fail-fast:false}")
+    private boolean warmUpFailFast;
+
+    @Value("${i18n.http-cache.enabled:true}")
+    private boolean httpCacheEnabled;
+
+    @Value("${i18n.http-cache.max-age:0s}")
+    private Duration httpCacheMaxAge;
+
+    @Value("${i18n.http-cache.application-version:}")
+    private String httpCacheApplicationVersion;
+
+    @Value("${i18n.locale-resolver:session}")
+    private String localeResolverMode;
+
+    @Value("${i18n.locale-cookie.secret:}")
+    private String localeCookieSecret;
+
+    @Value("${i18n.locale-cookie.secure:false}")
+    private boolean localeCookieSecure;
+
+    @Value("${i18n.locale-cookie.migrate-sessions:true}")
+    private boolean localeCookieMigrateSessions;
+
+    @Value("${i18n.metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    @Value("${i18n.metrics.percentile-histogram:false}")
+    private boolean metricsPercentileHistogram;
+
+    @Value("${i18n.metrics.jfr.enabled:false}")
+    private boolean metricsJfrEnabled;
+
+    @Value("${spring.thymeleaf.prefix:classpath:/templates/}")
+    private String templateLocation;
     
     // without this bean also working, because  
     // By default, Spring Boot looks for the presence of a messages resource bundle at the root of the classpath.
 
     /**
      * This bean is responsible for resolving texts from message_XX.properties files
+     * All bundles are loaded once at startup, with i18n.message-reload.enabled=true changed files are picked up
+     * without restart.
+     * With i18n.binary-catalog.enabled=true the catalog compiled at build time (compileMessageCatalog task)
+     * is memory-mapped instead of parsing the files, reload mode always reads the files
+     * With i18n.pruned-catalog.enabled=true only the codes the sources and templates reference are loaded
+     * (extractMessageCodes task), others resolve to their code
      */
     @Bean
-    public ResourceBundleMessageSource messageSource() {
-        ResourceBundleMessageSource resourceBundleMessageSource = new ResourceBundleMessageSource();
-        resourceBundleMessageSource.setBasenames("messages");
-        resourceBundleMessageSource.setUseCodeAsDefaultMessage(true);
-        resourceBundleMessageSource.setDefaultLocale(Locale.US);
-        resourceBundleMessageSource.setDefaultEncoding("UTF-8");
+    public AbstractCatalogMessageSource catalogMessageSource() {
+        if (binaryCatalogEnabled && !messageReloadEnabled) {
+            BinaryCatalogMessageSource binaryCatalogMessageSource = new BinaryCatalogMessageSource();
+            binaryCatalogMessageSource.setLocation(
+                    prunedCatalogEnabled ? "classpath:messages.pruned.catalog" : "classpath:messages.catalog");
+            binaryCatalogMessageSource.setUseCodeAsDefaultMessage(true);
+            binaryCatalogMessageSource.setDefaultLocale(Locale.US);
+            if (metricsEnabled) {
+                binaryCatalogMessageSource.setMetrics(i18nMetrics());
+            }
+
+            return binaryCatalogMessageSource;
+        }
+        CatalogMessageSource catalogMessageSource = new CatalogMessageSource();
+        catalogMessageSource.setBasenames("messages");
+        catalogMessageSource.setUseCodeAsDefaultMessage(true);
+        catalogMessageSource.setDefaultLocale(Locale.US);
+        catalogMessageSource.setDefaultEncoding("UTF-8");
+        catalogMessageSource.setWatchForChanges(messageReloadEnabled);
+        if (prunedCatalogEnabled) {
+            catalogMessageSource.setRetainedCodesLocation("classpath:messages.codes");
+        }
+        if (metricsEnabled) {
+            catalogMessageSource.setMetrics(i18nMetrics());
+        }
         
-        return resourceBundleMessageSource;
+        return catalogMessageSource;
+    }
+
+    /**
+     * This bean is responsible for the i18n.* metrics in /actuator/metrics: message resolution time per bundle locale
+     * and fallback depth, missing messages (useCodeAsDefaultMessage hides them otherwise), bundle load time and
+     * locale resolution time. Cache hits and misses are the cache.gets metrics of the messageSource bean.
+     * With i18n.metrics.jfr.enabled=true also JFR events (category I18n) for a recording
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.metrics.enabled")
+    public I18nMetrics i18nMetrics() {
+        I18nMetrics i18nMetrics = new I18nMetrics();
+        i18nMetrics.setPercentileHistogram(metricsPercentileHistogram);
+        i18nMetrics.setJfrEnabled(metricsJfrEnabled);
+
+        return i18nMetrics;
     }
 
     /**
-     * This bean is responsible for setting a default locale for webpages
+     * This bean is the application's message source, it caches rendered messages of catalogMessageSource.
+     * Cache metrics are published as i18n.messages.* / cache.* (tag cache=i18n.messages) via Actuator
+     */
+    @Bean
+    @Primary
+    public CachingMessageSource messageSource() {
+        CachingMessageSource cachingMessageSource =
+                new CachingMessageSource(catalogMessageSource(), messageCacheMaximumWeight);
+        cachingMessageSource.setEnabled(messageCacheEnabled);
+
+        return cachingMessageSource;
+    }
+
+    /**
+     * This bean warms up all messages of all locales in parallel before the application takes traffic,
+     * and reports texts that are missing in messages_XX.properties compared to the default messages
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.warm-up.enabled")
+    public MessageCatalogWarmer messageCatalogWarmer() {
+        MessageCatalogWarmer messageCatalogWarmer = new MessageCatalogWarmer(catalogMessageSource());
+        messageCatalogWarmer.setMessageSource(messageSource());
+        messageCatalogWarmer.setBasenames("messages");
+        messageCatalogWarmer.setFailFast(warmUpFailFast);
+
+        return messageCatalogWarmer;
+    }
+
+    /**
+     * This bean resolves the #{...} messages of the templates, the ones the controller resolved in one batch
+     * are read from the model, all others from messageSource
+     */
+    @Bean
+    public BatchMessageResolver batchMessageResolver(SpringTemplateEngine templateEngine) {
+        BatchMessageResolver batchMessageResolver = new BatchMessageResolver();
+        batchMessageResolver.setMessageSource(messageSource());
+        templateEngine.setMessageResolver(batchMessageResolver);
+
+        return batchMessageResolver;
+    }
+
+    /**
+     * This bean renders the greeting page once per locale with Thymeleaf and then serves the stored UTF-8 bytes,
+     * the template is neither parsed nor evaluated again. A bundle reload is picked up by the next request,
+     * in reload mode a template change drops all pre-rendered pages
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.view-cache.enabled")
+    public PrerenderedViewResolver prerenderedViewResolver(ThymeleafViewResolver thymeleafViewResolver,
+                                                           ResourceLoader resourceLoader) throws IOException {
+        PrerenderedViewResolver prerenderedViewResolver =
+                new PrerenderedViewResolver(thymeleafViewResolver, catalogMessageSource());
+        prerenderedViewResolver.setViewNames("greeting");
+        if (messageReloadEnabled) {
+            prerenderedViewResolver.setTemplateLocation(resourceLoader.getResource(templateLocation));
+        }
+
+        return prerenderedViewResolver;
+    }
+
+    /**
+     * This bean is responsible for setting a default locale for webpages and remembering the chosen one.
+     * i18n.locale-resolver=cookie keeps it in a signed LOCALE cookie, no HttpSession is created and every instance
+     * can serve every user (i18n.locale-cookie.secret must be the same on all of them, at least 32 bytes, startup
+     * fails without it). Only locales we have bundles for are kept, other ?lang= values are ignored.
+     * i18n.locale-resolver=session keeps it in the HttpSession
      */
     @Bean
     public LocaleResolver localeResolver() {
-        SessionLocaleResolver sessionLocaleResolver = new SessionLocaleResolver();
-        sessionLocaleResolver.setDefaultLocale(Locale.US);
-        
-        return sessionLocaleResolver;
+        LocaleResolver localeResolver;
+        if ("cookie".equals(localeResolverMode)) {
+            byte[] secret = localeCookieSecret.getBytes(StandardCharsets.UTF_8);
+            if (secret.length < 32) {
+                // a random secret per instance would make every other instance reject the cookie
+                throw new IllegalStateException("i18n.locale-resolver=cookie needs i18n.locale-cookie.secret "
+                        + "(I18N_LOCALE_COOKIE_SECRET) of at least 32 bytes, the same on all instances");
+            }
+            Set<Locale> supportedLocales = new LinkedHashSet<>();
+            supportedLocales.add(Locale.US);
+            supportedLocales.addAll(catalogMessageSource().getLocales());
+
+            SignedCookieLocaleResolver signedCookieLocaleResolver = new SignedCookieLocaleResolver(secret);
+            signedCookieLocaleResolver.setSupportedLocales(supportedLocales);
+            signedCookieLocaleResolver.setDefaultLocale(Locale.US);
+            signedCookieLocaleResolver.setCookieSecure(localeCookieSecure);
+            localeResolver = signedCookieLocaleResolver;
+        } else {
+            SessionLocaleResolver sessionLocaleResolver = new SessionLocaleResolver();
+            sessionLocaleResolver.setDefaultLocale(Locale.US);
+            localeResolver = sessionLocaleResolver;
+        }
+
+        return metricsEnabled ? new InstrumentedLocaleResolver(localeResolver, i18nMetrics()) : localeResolver;
     }
     
     /**
@@ -56,13 +256,45 @@ public class LocaleConfig implements WebMvcConfigurer {
         return localeChangeInterceptor;
     }
 
+    /**
+     * This bean is responsible for ETag / Cache-Control / Vary headers of the greeting page.
+     * The ETag is the version of the locale's messages, a browser that sends a current If-None-Match
+     * gets 304 without the page being rendered.
+     * The locale lives in a cookie or the session, so the page is only cacheable by the browser (private) and varies by Cookie
+     */
+    @Bean
+    public MessageCatalogETagInterceptor messageCatalogETagInterceptor() {
+        MessageCatalogETagInterceptor messageCatalogETagInterceptor =
+                new MessageCatalogETagInterceptor(catalogMessageSource());
+        messageCatalogETagInterceptor.setCacheControl(httpCacheMaxAge.isZero()
+                ? CacheControl.noCache().cachePrivate()
+                : CacheControl.maxAge(httpCacheMaxAge).cachePrivate());
+        messageCatalogETagInterceptor.setVaryByHeaders(HttpHeaders.COOKIE);
+        messageCatalogETagInterceptor.setApplicationVersion(httpCacheApplicationVersion);
+
+        return messageCatalogETagInterceptor;
+    }
+
     /**
      * This method is responsible for registering localeChangeInterceptor, so it can be used in the application
      * Overrides WebMvcConfigurer.addInterceptors method
      * https://docs.spring.io/spring-framework/docs/current/javadoc-api/org/springframework/web/servlet/config/annotation/WebMvcConfigurer.html#addInterceptors(org.springframework.web.servlet.config.annotation.InterceptorRegistry)
+     * In cookie mode users that still have a session from session mode get their locale moved into the cookie first
+     * (i18n.locale-cookie.migrate-sessions), messageCatalogETagInterceptor comes last, it needs the locale
+     * after a ?lang= change
      */
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        LocaleResolver localeResolver = localeResolver() instanceof InstrumentedLocaleResolver instrumentedLocaleResolver
+                ? instrumentedLocaleResolver.getDelegate()
+                : localeResolver();
+        if (localeCookieMigrateSessions
+                && localeResolver instanceof SignedCookieLocaleResolver signedCookieLocaleResolver) {
+            registry.addInterceptor(new SessionLocaleMigrationInterceptor(signedCookieLocaleResolver));
+        }
         registry.addInterceptor(localeChangeInterceptor());
+        if (httpCacheEnabled) {
+            registry.addInterceptor(messageCatalogETagInterceptor()).addPathPatterns("/greeting");
+        }
     }
 }
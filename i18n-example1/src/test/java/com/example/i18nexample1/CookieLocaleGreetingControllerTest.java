@@ -0,0 +1,64 @@
+package com.example.i18nexample1;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+
+import java.util.Locale;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "i18n.locale-resolver=cookie",
+        "i18n.locale-cookie.secret=test-secret-of-at-least-32-bytes!"
+})
+@AutoConfigureMockMvc
+class CookieLocaleGreetingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void chosen_locale_is_kept_in_a_cookie_without_a_session() throws Exception {
+        //given
+        MockHttpServletResponse response = mockMvc.perform(get("/greeting").param("lang", "fr"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        Cookie cookie = response.getCookie("LOCALE");
+
+        //when //then
+        assert cookie != null;
+        mockMvc.perform(get("/greeting").cookie(cookie))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<h1>Salut Bienvenue sur i18n</h1>")))
+                .andExpect(result -> {
+                    assert result.getRequest().getSession(false) == null;
+                });
+    }
+
+    @Test
+    void locale_of_an_existing_session_is_moved_into_the_cookie() throws Exception {
+        //given
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME, Locale.FRANCE);
+
+        //when
+        MockHttpServletResponse response = mockMvc.perform(get("/greeting").session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<h1>Salut Bienvenue sur i18n</h1>")))
+                .andReturn().getResponse();
+
+        //then
+        assert response.getCookie("LOCALE") != null;
+        assert session.isInvalid();
+    }
+}
@@ -1,18 +1,39 @@
 package com.example.i18nexample1;
 
+import com.example.i18nsupport.CatalogMessageSource;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.MessageSource;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
 
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
+@AutoConfigureMockMvc
 class GreetingControllerTest {
 
     @Autowired
     private MessageSource messageSource;
 
+    @Autowired
+    private MockMvc mockMvc;
+
     @Test
     void greeting_default_en() {
         //given
@@ -48,4 +69,97 @@ class GreetingControllerTest {
         //then
         assert messageText.equals("Witamy w I18n");
     }
-}
\ No newline at end of file
+
+    @Test
+    void greeting_page_fr() throws Exception {
+        mockMvc.perform(get("/greeting").param("lang", "fr"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<h1>Salut Bienvenue sur i18n</h1>")));
+    }
+
+    @Test
+    void greeting_page_is_served_prerendered() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/greeting").param("lang", "pl"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("text/html;charset=UTF-8"))
+                    .andExpect(header().exists("Content-Length"))
+                    .andExpect(content().string(containsString("<h1>Witamy w I18n</h1>")));
+        }
+    }
+
+    @Test
+    void greeting_messages_are_only_resolved_when_the_view_reads_them() {
+        //given
+        AtomicInteger resolved = new AtomicInteger();
+        CatalogMessageSource catalogMessageSource = new CatalogMessageSource() {
+            @Override
+            public Map<String, String> getMessagesByPrefix(String prefix, Locale locale) {
+                resolved.incrementAndGet();
+                return super.getMessagesByPrefix(prefix, locale);
+            }
+        };
+        catalogMessageSource.setBasename("messages");
+        catalogMessageSource.afterPropertiesSet();
+        Model model = new ExtendedModelMap();
+
+        //when
+        new GreetingController(catalogMessageSource).greeting(Locale.FRANCE, model);
+
+        //then
+        assert resolved.get() == 0;
+        Map<?, ?> messages = (Map<?, ?>) model.getAttribute("messages");
+        assert messages.get("greeting.text").equals("Salut Bienvenue sur i18n");
+        assert messages.size() == 1;
+        assert resolved.get() == 1;
+    }
+
+    @Test
+    void template_messages_missing_from_the_batch_are_resolved_by_the_message_source() {
+        //given
+        BatchMessageResolver batchMessageResolver = new BatchMessageResolver();
+        batchMessageResolver.setMessageSource(messageSource);
+        TemplateEngine templateEngine = new TemplateEngine();
+        templateEngine.setTemplateResolver(new StringTemplateResolver());
+        templateEngine.setMessageResolver(batchMessageResolver);
+        Map<String, Object> variables =
+                Map.of(BatchMessageResolver.MESSAGES_VARIABLE, Map.of("greeting.text", "from the batch"));
+        Context context = new Context(Locale.FRANCE, variables);
+
+        //when
+        String html = templateEngine.process(
+                "<h1 th:text=\"#{greeting.text}\"></h1><p th:text=\"#{missing.code}\"></p>", context);
+
+        //then
+        assert html.equals("<h1>from the batch</h1><p>missing.code</p>") : html;
+    }
+
+    @Test
+    void greeting_page_not_modified_is_not_rendered_again() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/greeting"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Cookie"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        //when //then
+        mockMvc.perform(get("/greeting").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/greeting").param("lang", "fr").header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void chosen_locale_is_kept_in_the_session() throws Exception {
+        //given
+        MockHttpSession session = new MockHttpSession();
+        mockMvc.perform(get("/greeting").param("lang", "fr").session(session))
+                .andExpect(status().isOk());
+
+        //when //then
+        mockMvc.perform(get("/greeting").session(session))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<h1>Salut Bienvenue sur i18n</h1>")));
+    }
+}
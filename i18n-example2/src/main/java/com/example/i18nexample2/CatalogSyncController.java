@@ -0,0 +1,114 @@
+package com.example.i18nexample2;
+
+import com.example.i18nsupport.CatalogSynchronizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translation updates for the instances sharing the catalogSyncTransport, with i18n.sync.enabled=true
+ * (see catalogSynchronizer in LocaleConfig)
+ * Changing messages needs the token of i18n.sync.token (at least 32 bytes, startup fails without it):
+ *      Authorization: Bearer <token>
+ */
+@RestController
+@RequestMapping("/api/catalog")
+@ConditionalOnProperty("i18n.sync.enabled")
+public class CatalogSyncController {
+    private static final String BEARER = "Bearer ";
+
+    private final CatalogSynchronizer catalogSynchronizer;
+
+    private final byte[] authorization;
+
+    public CatalogSyncController(
+            final CatalogSynchronizer catalogSynchronizer,
+            @Value("${i18n.sync.token:}") final String token) {
+        if (token.getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("i18n.sync.enabled needs i18n.sync.token, at least 32 bytes, "
+                    + "to protect PUT and DELETE /api/catalog/messages");
+        }
+        this.catalogSynchronizer = catalogSynchronizer;
+        this.authorization = (BEARER + token).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The catalog version of this instance, the same on all instances once they applied the same updates:
+     *      /api/catalog/version
+     */
+    @GetMapping("/version")
+    public Map<String, Object> getVersion() {
+        final Map<String, Object> version = new LinkedHashMap<>();
+        version.put("node", catalogSynchronizer.getNodeId());
+        version.put("version", catalogSynchronizer.getCatalogVersion());
+        version.put("appliedUpdates", catalogSynchronizer.getAppliedUpdates());
+        return version;
+    }
+
+    /**
+     * Sets messages of a bundle locale on the synced instances, no locale for the base bundle,
+     * 400 for an invalid pattern, 401 without the token:
+     *      PUT /api/catalog/messages?locale=fr   {"welcome.message": "Salut {0}"}
+     */
+    @PutMapping("/messages")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void putMessages(
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) final String authorization,
+            @RequestParam(name = "locale", required = false) final String locale,
+            @RequestBody final Map<String, String> messages) {
+        authorize(authorization);
+        try {
+            catalogSynchronizer.publish(bundleLocale(locale), messages);
+        } catch (IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    /**
+     * Removes synced messages on the synced instances, the messages of the bundles are used again,
+     * 401 without the token:
+     *      DELETE /api/catalog/messages?locale=fr&codes=welcome.message
+     */
+    @DeleteMapping("/messages")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void deleteMessages(
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) final String authorization,
+            @RequestParam(name = "locale", required = false) final String locale,
+            @RequestParam("codes") final Set<String> codes) {
+        authorize(authorization);
+        catalogSynchronizer.publishRemoval(bundleLocale(locale), codes);
+    }
+
+    /**
+     * Compares in constant time, so the response time does not tell how much of a guessed token was right
+     */
+    private void authorize(final String authorization) {
+        if (authorization == null
+                || !MessageDigest.isEqual(this.authorization, authorization.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    private static Locale bundleLocale(final String locale) {
+        return StringUtils.hasText(locale) ? StringUtils.parseLocale(locale) : Locale.ROOT;
+    }
+}
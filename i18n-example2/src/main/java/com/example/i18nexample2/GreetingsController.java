@@ -1,11 +1,10 @@
 package com.example.i18nexample2;
 
+import com.example.i18nsupport.LocalizedMessage;
+import com.example.i18nsupport.MessageKey;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.MessageSource;
-import org.springframework.util.ObjectUtils;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,21 +15,24 @@ import java.util.Locale;
 @RestController
 @RequestMapping("/api")
 public class GreetingsController {
-    private final MessageSource messageSource;
+    /**
+     * The configured message code as a key: resolved by its number in the catalog, the code is not hashed per request
+     */
+    private final MessageKey greetings;
 
-    @Value("${placeholder.greetings}")
-    private String greetings;
-
-
-    public GreetingsController(MessageSource messageSource) {
-        this.messageSource = messageSource;
+    public GreetingsController(@Value("${placeholder.greetings}") String greetings) {
+        this.greetings = MessageKey.of(greetings);
     }
 
+    /**
+     * Written by the LocalizedMessageHttpMessageConverter straight from the catalog into the response,
+     * the message is never a String
+     */
     @GetMapping("/message")
-    public String getLocaleMessage(
-            @RequestHeader(name = "Accept-Language", required = false) final Locale locale,
+    public LocalizedMessage getLocaleMessage(
+            final Locale locale,
             @RequestParam(name = "username", defaultValue = "Mr Incognito", required = false) final String username) {
         log.info("Returning greetings for locale = {}", locale);
-        return messageSource.getMessage(greetings, new Object[]{username}, locale);
+        return new LocalizedMessage(greetings, new Object[]{username}, locale);
     }
 }
@@ -1,27 +1,225 @@
 package com.example.i18nexample2;
 
-import org.springframework.context.MessageSource;
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.CatalogSyncTransport;
+import com.example.i18nsupport.CatalogSynchronizer;
+import com.example.i18nsupport.I18nMetrics;
+import com.example.i18nsupport.InstrumentedLocaleResolver;
+import com.example.i18nsupport.LocaleFormatters;
+import com.example.i18nsupport.LocalizedMessageHttpMessageConverter;
+import com.example.i18nsupport.LoopbackCatalogSyncTransport;
+import com.example.i18nsupport.MessageCatalogETagInterceptor;
+import com.example.i18nsupport.MessageCatalogWarmer;
+import com.example.i18nsupport.NegotiatingLocaleResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.LocaleResolver;
-import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 @Configuration
-public class LocaleConfig {
+public class LocaleConfig implements WebMvcConfigurer {
+    @Value("${i18n.message-reload.enabled:false}")
+    private boolean messageReloadEnabled;
+
+    @Value("${i18n.binary-catalog.enabled:false}")
+    private boolean binaryCatalogEnabled;
+
+    @Value("${i18n.binary-catalog.off-heap:false}")
+    private boolean binaryCatalogOffHeap;
+
+    @Value("${i18n.pruned-catalog.enabled:false}")
+    private boolean prunedCatalogEnabled;
+
+    @Value("${i18n.warm-up.fail-fast:false}")
+    private boolean warmUpFailFast;
+
+    @Value("${i18n.http-cache.enabled:true}")
+    private boolean httpCacheEnabled;
+
+    @Value("${i18n.http-cache.max-age:0s}")
+    private Duration httpCacheMaxAge;
+
+    @Value("${i18n.http-cache.application-version:}")
+    private String httpCacheApplicationVersion;
+
+    @Value("${i18n.metrics.enabled:false}")
+    private boolean metricsEnabled;
+
+    @Value("${i18n.metrics.percentile-histogram:false}")
+    private boolean metricsPercentileHistogram;
+
+    @Value("${i18n.metrics.jfr.enabled:false}")
+    private boolean metricsJfrEnabled;
+
+    @Value("${i18n.sync.enabled:false}")
+    private boolean syncEnabled;
+
+    @Value("${i18n.sync.node-id:}")
+    private String syncNodeId;
+
+    /**
+     * Resolves the locale from the Accept-Language header against the locales we have bundles for,
+     * the outcome is cached per distinct header value
+     */
     @Bean
     public LocaleResolver localeResolver() {
-        final AcceptHeaderLocaleResolver resolver = new AcceptHeaderLocaleResolver();
+        final Set<Locale> supportedLocales = new LinkedHashSet<>();
+        supportedLocales.add(Locale.US);
+        supportedLocales.addAll(catalogMessageSource().getLocales());
+
+        final NegotiatingLocaleResolver resolver = new NegotiatingLocaleResolver();
+        resolver.setSupportedLocales(supportedLocales);
         resolver.setDefaultLocale(Locale.US);
-        return resolver;
+        return metricsEnabled ? new InstrumentedLocaleResolver(resolver, i18nMetrics()) : resolver;
     }
 
-    @Bean
-    public MessageSource messageSource() {
-        final ResourceBundleMessageSource source = new ResourceBundleMessageSource();
+    /**
+     * All i18n/message*.properties bundles are loaded once at startup into an immutable catalog,
+     * so resolving a message on a request is a plain hash lookup.
+     * With i18n.message-reload.enabled=true changed bundles are picked up without restart.
+     * With i18n.binary-catalog.enabled=true the catalog compiled at build time (compileMessageCatalog task)
+     * is memory-mapped instead, messages are only decoded when first used.
+     * With i18n.binary-catalog.off-heap=true no compiled messages are kept on the heap, for catalogs too large for it
+     * With i18n.pruned-catalog.enabled=true only the codes the sources reference are loaded (extractMessageCodes task),
+     * /api/messages then only finds those
+     * With i18n.sync.enabled=true translation updates of other instances are applied (see catalogSynchronizer)
+     * It is also the application's message source: the endpoints write or batch-resolve messages straight from the
+     * catalog, a cache of rendered Strings would never be read
+     */
+    @Bean({"catalogMessageSource", "messageSource"})
+    public AbstractCatalogMessageSource catalogMessageSource() {
+        if (binaryCatalogEnabled && !messageReloadEnabled && !syncEnabled) {
+            final BinaryCatalogMessageSource source = new BinaryCatalogMessageSource();
+            source.setLocation(prunedCatalogEnabled
+                    ? "classpath:i18n/message.pruned.catalog" : "classpath:i18n/message.catalog");
+            source.setOffHeap(binaryCatalogOffHeap);
+            source.setDefaultLocale(Locale.US);
+            if (metricsEnabled) {
+                source.setMetrics(i18nMetrics());
+            }
+            return source;
+        }
+        final CatalogMessageSource source = new CatalogMessageSource();
         source.setBasename("i18n/message");
+        source.setDefaultLocale(Locale.US);
+        source.setWatchForChanges(messageReloadEnabled);
+        if (prunedCatalogEnabled) {
+            source.setRetainedCodesLocation("classpath:i18n/message.codes");
+        }
+        if (metricsEnabled) {
+            source.setMetrics(i18nMetrics());
+        }
         return source;
     }
+
+    /**
+     * Channel the catalogSynchronizer of every instance publishes translation updates on and receives them from.
+     * The loopback transport only reaches the message sources of this JVM, so as shipped updates are applied on
+     * this instance only. Several instances need a transport over their message broker in place of this bean
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.sync.enabled")
+    public CatalogSyncTransport catalogSyncTransport() {
+        return new LoopbackCatalogSyncTransport();
+    }
+
+    /**
+     * Distributes translation updates (PUT /api/catalog/messages) to all instances on catalogSyncTransport, each
+     * applies them on top of its bundles with an atomic swap, without reload or restart.
+     * GET /api/catalog/version shows whether they converged
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.sync.enabled")
+    public CatalogSynchronizer catalogSynchronizer() {
+        final CatalogSynchronizer synchronizer =
+                new CatalogSynchronizer((CatalogMessageSource) catalogMessageSource(), catalogSyncTransport());
+        if (!syncNodeId.isEmpty()) {
+            synchronizer.setNodeId(syncNodeId);
+        }
+        return synchronizer;
+    }
+
+    /**
+     * Thread-safe number and date formatters per locale, shared with the message templates of catalogMessageSource,
+     * for formatting values in controllers without creating a NumberFormat / DateFormat per request
+     */
+    @Bean
+    public LocaleFormatters localeFormatters() {
+        return LocaleFormatters.shared();
+    }
+
+    /**
+     * i18n.* metrics in /actuator/metrics: message resolution time per bundle locale and fallback depth,
+     * missing messages, bundle load time and locale resolution time, optionally also as JFR events
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.metrics.enabled")
+    public I18nMetrics i18nMetrics() {
+        final I18nMetrics metrics = new I18nMetrics();
+        metrics.setPercentileHistogram(metricsPercentileHistogram);
+        metrics.setJfrEnabled(metricsJfrEnabled);
+        return metrics;
+    }
+
+    /**
+     * Warms up all messages of all locales in parallel before the application takes traffic,
+     * and reports texts that are missing in i18n/message_XX.properties compared to the default messages
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.warm-up.enabled")
+    public MessageCatalogWarmer messageCatalogWarmer() {
+        final MessageCatalogWarmer warmer = new MessageCatalogWarmer(catalogMessageSource());
+        warmer.setBasenames("i18n/message");
+        warmer.setFailFast(warmUpFailFast);
+        return warmer;
+    }
+
+    /**
+     * Adds ETag (messages version of the locale), Cache-Control and Vary: Accept-Language to the message endpoints,
+     * a request with a current If-None-Match gets 304 before any message is resolved.
+     * With i18n.http-cache.max-age > 0 shared caches (CDN) may serve the response without asking again
+     */
+    @Bean
+    public MessageCatalogETagInterceptor messageCatalogETagInterceptor() {
+        final MessageCatalogETagInterceptor interceptor = new MessageCatalogETagInterceptor(catalogMessageSource());
+        if (!httpCacheMaxAge.isZero()) {
+            interceptor.setCacheControl(CacheControl.maxAge(httpCacheMaxAge).cachePublic());
+        }
+        interceptor.setApplicationVersion(httpCacheApplicationVersion);
+        return interceptor;
+    }
+
+    /**
+     * Writes LocalizedMessage responses (GET /api/message) from the catalog into a pooled buffer, the literal parts
+     * of the message as pre-encoded UTF-8, without formatting a String and encoding it again
+     */
+    @Bean
+    public LocalizedMessageHttpMessageConverter localizedMessageHttpMessageConverter() {
+        return new LocalizedMessageHttpMessageConverter(catalogMessageSource());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, localizedMessageHttpMessageConverter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (httpCacheEnabled) {
+            registry.addInterceptor(messageCatalogETagInterceptor()).addPathPatterns("/api/message", "/api/messages");
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.i18nexample2;
+
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.LocaleFormatters;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.FormatStyle;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+public class MessagesController {
+    private final AbstractCatalogMessageSource catalogMessageSource;
+
+    private final LocaleFormatters localeFormatters;
+
+    public MessagesController(AbstractCatalogMessageSource catalogMessageSource, LocaleFormatters localeFormatters) {
+        this.catalogMessageSource = catalogMessageSource;
+        this.localeFormatters = localeFormatters;
+    }
+
+    /**
+     * Returns many messages of the request's locale as one JSON object, so a client fetches all texts of a page
+     * (or the whole bundle) in one round trip:
+     *      /api/messages?keys=welcome.message,other.message
+     *      /api/messages?prefix=welcome.
+     *      /api/messages                                      (whole bundle)
+     * ETag, Cache-Control and Vary come from the MessageCatalogETagInterceptor (see LocaleConfig)
+     */
+    @GetMapping("/messages")
+    public Map<String, String> getMessages(
+            final Locale locale,
+            @RequestParam(name = "keys", required = false) final List<String> keys,
+            @RequestParam(name = "prefix", required = false) final String prefix) {
+        if (keys != null && prefix != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use either keys or prefix, not both");
+        }
+        return keys != null
+                ? catalogMessageSource.getMessages(keys, locale)
+                : catalogMessageSource.getMessagesByPrefix(prefix != null ? prefix : "", locale);
+    }
+
+    /**
+     * Formats a number and a date for the request's locale with the shared formatters, the same ones that render
+     * {0,number} and {0,date,long} arguments of messages:
+     *      /api/format?number=1234.5&date=2023-02-10
+     */
+    @GetMapping("/format")
+    public Map<String, String> format(
+            final Locale locale,
+            @RequestParam("number") final BigDecimal number,
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) final LocalDate date) {
+        final Map<String, String> formatted = new LinkedHashMap<>();
+        formatted.put("number", localeFormatters.getNumberFormatter(locale).format(number));
+        formatted.put("date", localeFormatters.getDateFormatter(FormatStyle.LONG, locale).format(date));
+        return formatted;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.i18nexample2;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Execution profile "virtual-threads": every request is handled on its own virtual thread instead of
+ * Tomcat's platform thread pool (server.tomcat.threads.max), so the number of requests in flight is only
+ * limited by server.tomcat.max-connections.
+ * <p>
+ * The message resolution path only takes brief monitors that never wait for anything: the bin locks of
+ * ConcurrentHashMap and Caffeine when a catalog table or row is resolved the first time or a cache entry is
+ * computed. Nothing on the path parks while holding one, so on Java 21 a request does not pin its carrier thread
+ * for longer than a map update.
+ * Run with --spring.profiles.active=virtual-threads
+ */
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadsConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.i18nexample2;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.MessageSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Locale;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "i18n.sync.enabled=true",
+        "i18n.sync.token=" + CatalogSyncControllerTest.TOKEN
+})
+@AutoConfigureMockMvc
+class CatalogSyncControllerTest {
+
+    static final String TOKEN = "test-token-of-at-least-32-bytes!";
+
+    private static final String AUTHORIZATION = "Bearer " + TOKEN;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MessageSource messageSource;
+
+    @Test
+    void updates_are_applied_without_reload() throws Exception {
+        //given
+        final String version = mockMvc.perform(get("/api/catalog/version"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assert messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH).equals("Bonjour Jan");
+
+        //when
+        mockMvc.perform(put("/api/catalog/messages").param("locale", "fr")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"welcome.message\":\"Salut {0}\"}"))
+                .andExpect(status().isAccepted());
+
+        //then
+        mockMvc.perform(get("/api/messages").header("Accept-Language", "fr"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"welcome.message\":\"Salut {0}\"}", true));
+        assert messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH).equals("Salut Jan");
+        mockMvc.perform(get("/api/catalog/version"))
+                .andExpect(jsonPath("$.appliedUpdates").value(1))
+                .andExpect(content().string(not(version)));
+
+        mockMvc.perform(delete("/api/catalog/messages").param("locale", "fr").param("codes", "welcome.message")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION))
+                .andExpect(status().isAccepted());
+        assert messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH).equals("Bonjour Jan");
+    }
+
+    @Test
+    void invalid_pattern_is_rejected() throws Exception {
+        //when
+        mockMvc.perform(put("/api/catalog/messages").param("locale", "fr")
+                        .header(HttpHeaders.AUTHORIZATION, AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"welcome.message\":\"Salut {0\"}"))
+                .andExpect(status().isBadRequest());
+
+        //then
+        assert messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH).equals("Bonjour Jan");
+    }
+
+    @Test
+    void changes_need_the_token() throws Exception {
+        //when
+        mockMvc.perform(put("/api/catalog/messages").param("locale", "fr")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"welcome.message\":\"Salut {0}\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(put("/api/catalog/messages").param("locale", "fr")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer wrong-token")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"welcome.message\":\"Salut {0}\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/api/catalog/messages").param("locale", "fr").param("codes", "welcome.message"))
+                .andExpect(status().isUnauthorized());
+
+        //then
+        assert messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH).equals("Bonjour Jan");
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.i18nexample2;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class GreetingsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getLocaleMessage_default_en() throws Exception {
+        mockMvc.perform(get("/api/message"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Greetings Mr Incognito"));
+    }
+
+    @Test
+    void getLocaleMessage_fr() throws Exception {
+        mockMvc.perform(get("/api/message").header("Accept-Language", "fr-FR,fr;q=0.9,en;q=0.8").param("username", "Jean"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Bonjour Jean"));
+    }
+
+    @Test
+    void getLocaleMessage_is_written_as_utf8_text() throws Exception {
+        mockMvc.perform(get("/api/message").header("Accept-Language", "fr").param("username", "Zoé"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/plain;charset=UTF-8"))
+                .andExpect(header().longValue("Content-Length", "Bonjour Zoé".getBytes(StandardCharsets.UTF_8).length))
+                .andExpect(content().bytes("Bonjour Zoé".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void getLocaleMessage_de() throws Exception {
+        mockMvc.perform(get("/api/message").header("Accept-Language", "de"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hallo Mr Incognito"));
+    }
+
+    @Test
+    void getLocaleMessage_unsupported_language() throws Exception {
+        mockMvc.perform(get("/api/message").header("Accept-Language", "pl-PL"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Greetings Mr Incognito"));
+    }
+
+    @Test
+    void getLocaleMessage_is_cacheable_and_revalidated_with_304() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/message").header("Accept-Language", "fr"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andExpect(header().string("Vary", "Accept-Language"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        //when //then
+        mockMvc.perform(get("/api/message").header("Accept-Language", "fr").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/message").header("Accept-Language", "de").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Hallo Mr Incognito"));
+    }
+}
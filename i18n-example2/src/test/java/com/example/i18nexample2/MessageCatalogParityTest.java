@@ -0,0 +1,42 @@
+package com.example.i18nexample2;
+
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.MessageCatalog;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.util.List;
+import java.util.Locale;
+
+class MessageCatalogParityTest {
+
+    private static final List<Locale> LOCALES = List.of(
+            Locale.US, Locale.FRANCE, Locale.FRENCH, Locale.GERMANY, new Locale("pl", "PL"), Locale.ROOT);
+
+    @Test
+    void every_message_matches_ResourceBundleMessageSource() {
+        //given
+        CatalogMessageSource catalogMessageSource = new CatalogMessageSource();
+        catalogMessageSource.setBasename("i18n/message");
+        catalogMessageSource.setDefaultLocale(Locale.US);
+        catalogMessageSource.afterPropertiesSet();
+
+        ResourceBundleMessageSource resourceBundleMessageSource = new ResourceBundleMessageSource();
+        resourceBundleMessageSource.setBasename("i18n/message");
+        resourceBundleMessageSource.setDefaultLocale(Locale.US);
+
+        MessageCatalog catalog = catalogMessageSource.getCatalog();
+        Object[] args = {"Mr Incognito"};
+
+        for (Locale locale : LOCALES) {
+            for (String code : catalog.getTemplates(locale).keySet()) {
+                //when
+                String expected = resourceBundleMessageSource.getMessage(code, args, locale);
+                String actual = catalogMessageSource.getMessage(code, args, locale);
+
+                //then
+                assert expected.equals(actual) : code + " " + locale + ": expected [" + expected + "] but was [" + actual + "]";
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.i18nexample2;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class MessagesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void getMessages_by_keys() throws Exception {
+        mockMvc.perform(get("/api/messages").header("Accept-Language", "fr").param("keys", "unknown,welcome.message"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"welcome.message\":\"Bonjour {0}\"}", true));
+    }
+
+    @Test
+    void getMessages_whole_bundle() throws Exception {
+        mockMvc.perform(get("/api/messages").header("Accept-Language", "de"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", "Accept-Language"))
+                .andExpect(content().json("{\"welcome.message\":\"Hallo {0}\"}", true));
+    }
+
+    @Test
+    void getMessages_not_modified_for_matching_etag() throws Exception {
+        //given
+        String eTag = mockMvc.perform(get("/api/messages").param("prefix", "welcome."))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        //when //then
+        mockMvc.perform(get("/api/messages").param("prefix", "welcome.").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/messages").param("prefix", "welcome.").header("If-None-Match", eTag)
+                        .header("Accept-Language", "fr"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void format_uses_the_request_locale() throws Exception {
+        mockMvc.perform(get("/api/format").header("Accept-Language", "de")
+                        .param("number", "1234.5").param("date", "2023-02-10"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"number\":\"1.234,5\",\"date\":\"10. Februar 2023\"}", true));
+    }
+
+    @Test
+    void getMessages_keys_and_prefix_is_bad_request() throws Exception {
+        mockMvc.perform(get("/api/messages").param("keys", "welcome.message").param("prefix", "welcome."))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void missing_messages_are_exposed_through_actuator() throws Exception {
+        //given
+        mockMvc.perform(get("/api/messages").header("Accept-Language", "fr").param("keys", "unknown"))
+                .andExpect(status().isOk());
+
+        //when //then
+        mockMvc.perform(get("/actuator/metrics/i18n.messages.missing").param("tag", "locale:fr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(greaterThanOrEqualTo(1.0)));
+        mockMvc.perform(get("/actuator/metrics/i18n.locale.resolve"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.i18nexample3;
+
+import com.example.i18nsupport.CachingMessageSource;
+import com.example.i18nsupport.MessageKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api")
+public class GreetingsController {
+    private final CachingMessageSource messageSource;
+
+    /**
+     * The configured message code as a key: resolved by its number in the catalog, the code is not hashed per request
+     */
+    private final MessageKey greetings;
+
+    public GreetingsController(CachingMessageSource messageSource,
+                               @Value("${placeholder.greetings}") String greetings) {
+        this.messageSource = messageSource;
+        this.greetings = MessageKey.of(greetings);
+    }
+
+    /**
+     * Runs on the event loop: the locale comes from localeContextResolver and the message from the message cache or
+     * the in-memory catalog, neither blocks. No per request logging, a synchronous appender would block the event loop
+     */
+    @GetMapping("/message")
+    public Mono<String> getLocaleMessage(
+            final Locale locale,
+            @RequestParam(name = "username", defaultValue = "Mr Incognito", required = false) final String username) {
+        return Mono.fromSupplier(() -> messageSource.getMessage(greetings, new Object[]{username}, locale));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.i18nexample3;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class I18nExample3Application {
+
+	public static void main(String[] args) {
+		SpringApplication.run(I18nExample3Application.class, args);
+	}
+
+}
+
+/*
+	Reactive variant of i18n-example2: the same GET /api/message and the same i18n/message*.properties bundles,
+	served by Spring WebFlux on Netty instead of Spring MVC on Tomcat.
+
+	Spring MVC handles every request on its own thread until the response is written, so the number of requests
+	in flight is bound to the size of the thread pool. WebFlux runs on a small fixed number of event loop threads
+	(one per CPU core), a request only occupies a thread while there is work to do for it.
+	The other side of the coin: nothing that runs on the event loop may block, one blocking call stalls every
+	connection of that event loop.
+
+	LocaleContextResolver
+						@Bean
+						public LocaleContextResolver localeContextResolver() {
+							final AcceptHeaderLocaleContextResolver resolver = new AcceptHeaderLocaleContextResolver();
+							resolver.setDefaultLocale(Locale.US);
+							return resolver;
+						}
+
+		WebFlux has no LocaleResolver, the locale of a request comes from the LocaleContextResolver.
+		Spring Boot picks up the bean by its name "localeContextResolver", a method argument of type Locale
+		is then resolved from ServerWebExchange#getLocaleContext.
+
+
+	Controller
+				@GetMapping("/message")
+				public Mono<String> getLocaleMessage(
+						final Locale locale,
+						@RequestParam(name = "username", defaultValue = "Mr Incognito", required = false) final String username) {
+					return Mono.fromSupplier(() -> messageSource.getMessage(greetings, new Object[]{username}, locale));
+				}
+
+
+	Nothing blocks
+		- bundles are loaded (or the binary catalog is mapped and read into memory) while the application starts,
+		  the warm-up compiles every message before Netty accepts the first connection
+		- resolving a message is a lookup in the in-memory catalog, resolving the locale a lookup in a cache
+		- hot reload (i18n.message-reload.enabled) reads the changed bundles on its own watcher thread
+		  and swaps the catalog atomically, requests never wait for it
+
+		server.port=8092
+		placeholder.greetings=welcome.message
+ */
@@ -0,0 +1,100 @@
+package com.example.i18nexample3;
+
+import com.example.i18nsupport.AbstractCatalogMessageSource;
+import com.example.i18nsupport.BinaryCatalogMessageSource;
+import com.example.i18nsupport.CachingMessageSource;
+import com.example.i18nsupport.CatalogMessageSource;
+import com.example.i18nsupport.MessageCatalogWarmer;
+import com.example.i18nsupport.NegotiatingLocaleContextResolver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+@Configuration
+public class LocaleConfig {
+    @Value("${i18n.message-cache.enabled:true}")
+    private boolean messageCacheEnabled;
+
+    @Value("${i18n.message-cache.maximum-weight:16777216}")
+    private long messageCacheMaximumWeight;
+
+    @Value("${i18n.message-reload.enabled:false}")
+    private boolean messageReloadEnabled;
+
+    @Value("${i18n.binary-catalog.enabled:false}")
+    private boolean binaryCatalogEnabled;
+
+    @Value("${i18n.warm-up.fail-fast:false}")
+    private boolean warmUpFailFast;
+
+    /**
+     * Resolves the locale from the Accept-Language header against the locales we have bundles for,
+     * the outcome is cached per distinct header value.
+     * The bean name matters, WebFlux looks up the LocaleContextResolver by the name "localeContextResolver"
+     */
+    @Bean
+    public LocaleContextResolver localeContextResolver() {
+        final Set<Locale> supportedLocales = new LinkedHashSet<>();
+        supportedLocales.add(Locale.US);
+        supportedLocales.addAll(catalogMessageSource().getLocales());
+
+        final NegotiatingLocaleContextResolver resolver = new NegotiatingLocaleContextResolver();
+        resolver.setSupportedLocales(supportedLocales);
+        resolver.setDefaultLocale(Locale.US);
+        return resolver;
+    }
+
+    /**
+     * Same catalog as i18n-example2, loaded completely while the application starts so that the event loop
+     * never waits for I/O: the bundles are parsed into memory, or the binary catalog (i18n.binary-catalog.enabled)
+     * is mapped and read into memory up front instead of being paged in on first use
+     */
+    @Bean
+    public AbstractCatalogMessageSource catalogMessageSource() {
+        if (binaryCatalogEnabled && !messageReloadEnabled) {
+            final BinaryCatalogMessageSource source = new BinaryCatalogMessageSource();
+            source.setLocation("classpath:i18n/message.catalog");
+            source.setDefaultLocale(Locale.US);
+            source.setPreload(true);
+            return source;
+        }
+        final CatalogMessageSource source = new CatalogMessageSource();
+        source.setBasename("i18n/message");
+        source.setDefaultLocale(Locale.US);
+        source.setWatchForChanges(messageReloadEnabled);
+        return source;
+    }
+
+    /**
+     * The application's message source, caches rendered messages of catalogMessageSource
+     * (e.g. "Greetings {0}" per locale and username)
+     */
+    @Bean
+    @Primary
+    public CachingMessageSource messageSource() {
+        final CachingMessageSource source = new CachingMessageSource(catalogMessageSource(), messageCacheMaximumWeight);
+        source.setEnabled(messageCacheEnabled);
+        return source;
+    }
+
+    /**
+     * Compiles all messages of all locales before Netty accepts the first connection,
+     * so no request pays for compiling a message on the event loop
+     */
+    @Bean
+    @ConditionalOnProperty("i18n.warm-up.enabled")
+    public MessageCatalogWarmer messageCatalogWarmer() {
+        final MessageCatalogWarmer warmer = new MessageCatalogWarmer(catalogMessageSource());
+        warmer.setMessageSource(messageSource());
+        warmer.setBasenames("i18n/message");
+        warmer.setFailFast(warmUpFailFast);
+        return warmer;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.i18nexample3;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+class GreetingsControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void getLocaleMessage_default_en() {
+        webTestClient.get().uri("/api/message")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Greetings Mr Incognito");
+    }
+
+    @Test
+    void getLocaleMessage_fr() {
+        webTestClient.get().uri("/api/message?username=Jean")
+                .header("Accept-Language", "fr-FR,fr;q=0.9,en;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Bonjour Jean");
+    }
+
+    @Test
+    void getLocaleMessage_de() {
+        webTestClient.get().uri("/api/message")
+                .header("Accept-Language", "de")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Hallo Mr Incognito");
+    }
+
+    @Test
+    void getLocaleMessage_unsupported_language() {
+        webTestClient.get().uri("/api/message")
+                .header("Accept-Language", "pl-PL")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Greetings Mr Incognito");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.i18nexample3;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class I18nExample3ApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,391 @@
+package com.example.i18nsupport;
+
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.util.ObjectUtils;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Base class of the {@link MessageSource}s that look up precompiled {@link MessageTemplate}s
+ * instead of going through {@link java.util.ResourceBundle} and MessageFormat.
+ * <p>
+ * Implements the message resolution rules of {@link org.springframework.context.support.AbstractMessageSource}
+ * (default messages, resolvable arguments, code as default message), subclasses only provide the lookup.
+ * <p>
+ * With {@link #setMetrics} every getMessage and writeMessage call is timed and codes no bundle defines are counted,
+ * without it the only overhead is a null check.
+ */
+public abstract class AbstractCatalogMessageSource implements MessageSource {
+
+    private Locale defaultLocale;
+
+    private boolean useCodeAsDefaultMessage;
+
+    private I18nMetrics metrics;
+
+    /**
+     * Locale to use when none of the requested locale's bundles exist (instead of the JVM default locale).
+     */
+    public void setDefaultLocale(Locale defaultLocale) {
+        this.defaultLocale = defaultLocale;
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Return the message code itself instead of throwing {@link NoSuchMessageException} for unknown codes.
+     */
+    public void setUseCodeAsDefaultMessage(boolean useCodeAsDefaultMessage) {
+        this.useCodeAsDefaultMessage = useCodeAsDefaultMessage;
+    }
+
+    /**
+     * Record resolution latency, fallback depth and missing codes, null (the default) to record nothing.
+     */
+    public void setMetrics(I18nMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public I18nMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the locales of all bundles, without the base bundle.
+     */
+    public abstract Set<Locale> getLocales();
+
+    /**
+     * Returns all messages visible for the given locale, including the ones inherited from parent bundles.
+     */
+    public abstract Map<String, MessageTemplate> getTemplates(Locale locale);
+
+    /**
+     * Returns the content version of the messages visible for the given locale (a digest of its codes and messages),
+     * e.g. for HTTP validators. It changes when a reload changes one of the locale's messages.
+     */
+    public String getVersion(Locale locale) {
+        return getTableVersion(targetLocale(locale));
+    }
+
+    /**
+     * Returns the content version of the messages visible for the given locale.
+     */
+    protected abstract String getTableVersion(Locale locale);
+
+    /**
+     * Returns the locale of the bundle that serves the given locale after the fallback rules,
+     * {@link Locale#ROOT} for the base bundle.
+     */
+    public Locale getBundleLocale(Locale locale) {
+        return getTableLocale(targetLocale(locale));
+    }
+
+    /**
+     * Returns the locale of the bundle that serves the given locale, {@link Locale#ROOT} for the base bundle.
+     */
+    protected abstract Locale getTableLocale(Locale locale);
+
+    /**
+     * Returns the compiled messages for the given codes in the given order, resolving the locale's fallback chain
+     * only once. Codes no bundle defines are left out.
+     */
+    protected abstract Map<String, MessageTemplate> getTemplates(Collection<String> codes, Locale locale);
+
+    /**
+     * Returns the compiled messages whose code starts with the given prefix, ordered by code.
+     */
+    protected abstract Map<String, MessageTemplate> getTemplatesByPrefix(String prefix, Locale locale);
+
+    /**
+     * Returns the compiled message for the given code, following the bundle fallback chain of the locale,
+     * or null if no bundle defines it.
+     */
+    protected abstract MessageTemplate getTemplate(String code, Locale locale);
+
+    /**
+     * Returns the compiled message for the given key, or null if no bundle defines it.
+     * Subclasses look it up by the key's number instead of its code.
+     */
+    protected MessageTemplate getTemplate(MessageKey key, Locale locale) {
+        return getTemplate(key.getCode(), locale);
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        I18nMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return resolveMessage(code, args, defaultMessage, locale);
+        }
+        long start = System.nanoTime();
+        String message = resolveMessage(code, args, defaultMessage, locale);
+        metrics.messageResolved(this, code, targetLocale(locale), start);
+        return message;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        I18nMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return resolveMessage(code, args, locale);
+        }
+        long start = System.nanoTime();
+        String message = resolveMessage(code, args, locale);
+        metrics.messageResolved(this, code, targetLocale(locale), start);
+        return message;
+    }
+
+    /**
+     * Same as {@link #getMessage(String, Object[], Locale)}, for a code known at compile time: the code is
+     * neither hashed nor compared, see {@link MessageKey}.
+     */
+    public String getMessage(MessageKey key, Object[] args, Locale locale) throws NoSuchMessageException {
+        I18nMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        Locale targetLocale = targetLocale(locale);
+        MessageTemplate template = getTemplate(key, targetLocale);
+        String message;
+        if (template != null) {
+            message = format(template, args, targetLocale);
+        } else {
+            if (metrics != null) {
+                metrics.messageMissing(this, key.getCode(), targetLocale);
+            }
+            if (!useCodeAsDefaultMessage) {
+                throw new NoSuchMessageException(key.getCode(), targetLocale);
+            }
+            message = key.getCode();
+        }
+        if (metrics != null) {
+            metrics.messageResolved(this, key.getCode(), targetLocale, start);
+        }
+        return message;
+    }
+
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        I18nMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return resolveMessage(resolvable, locale);
+        }
+        long start = System.nanoTime();
+        String message = resolveMessage(resolvable, locale);
+        metrics.messageResolved(this, ObjectUtils.isEmpty(resolvable.getCodes()) ? "" : resolvable.getCodes()[0],
+                targetLocale(locale), start);
+        return message;
+    }
+
+    private String resolveMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        Locale targetLocale = targetLocale(locale);
+        MessageTemplate template = lookup(code, targetLocale);
+        if (template != null) {
+            return format(template, args, targetLocale);
+        }
+        if (defaultMessage != null) {
+            return format(MessageTemplate.compile(defaultMessage), args, targetLocale);
+        }
+        return useCodeAsDefaultMessage ? code : null;
+    }
+
+    private String resolveMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        Locale targetLocale = targetLocale(locale);
+        MessageTemplate template = lookup(code, targetLocale);
+        if (template != null) {
+            return format(template, args, targetLocale);
+        }
+        if (useCodeAsDefaultMessage) {
+            return code;
+        }
+        throw new NoSuchMessageException(code, targetLocale);
+    }
+
+    private String resolveMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        Locale targetLocale = targetLocale(locale);
+        String[] codes = resolvable.getCodes();
+        if (codes != null) {
+            for (String code : codes) {
+                MessageTemplate template = getTemplate(code, targetLocale);
+                if (template != null) {
+                    return format(template, resolvable.getArguments(), targetLocale);
+                }
+            }
+            if (metrics != null && codes.length > 0) {
+                metrics.messageMissing(this, codes[0], targetLocale);
+            }
+        }
+        if (resolvable.getDefaultMessage() != null) {
+            return format(MessageTemplate.compile(resolvable.getDefaultMessage()), resolvable.getArguments(),
+                    targetLocale);
+        }
+        if (useCodeAsDefaultMessage && !ObjectUtils.isEmpty(codes)) {
+            return codes[0];
+        }
+        throw new NoSuchMessageException(!ObjectUtils.isEmpty(codes) ? codes[codes.length - 1] : "", targetLocale);
+    }
+
+    /**
+     * Resolves many messages for one locale in a single call, e.g. all texts of a page.
+     * The messages are the ones {@code getMessage(code, null, locale)} returns, in the order of the codes.
+     * Unknown codes are left out, or mapped to themselves with useCodeAsDefaultMessage.
+     */
+    public Map<String, String> getMessages(Collection<String> codes, Locale locale) {
+        Locale targetLocale = targetLocale(locale);
+        Map<String, MessageTemplate> templates = getTemplates(codes, targetLocale);
+        Map<String, String> messages = new LinkedHashMap<>();
+        for (String code : codes) {
+            MessageTemplate template = templates.get(code);
+            if (template != null) {
+                messages.put(code, template.getPattern());
+                continue;
+            }
+            if (metrics != null) {
+                metrics.messageMissing(this, code, targetLocale);
+            }
+            if (useCodeAsDefaultMessage) {
+                messages.put(code, code);
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * Resolves all messages whose code starts with the given prefix, e.g. "checkout." for a whole page,
+     * or "" for the complete bundle of the locale. Ordered by code.
+     */
+    public Map<String, String> getMessagesByPrefix(String prefix, Locale locale) {
+        Map<String, String> messages = new LinkedHashMap<>();
+        getTemplatesByPrefix(prefix, targetLocale(locale))
+                .forEach((code, template) -> messages.put(code, template.getPattern()));
+        return messages;
+    }
+
+    /**
+     * Appends the message for the given code to the buffer, without creating an intermediate String.
+     *
+     * @return false if the code is unknown, nothing is appended then
+     */
+    public boolean appendMessage(String code, Object[] args, Locale locale, StringBuilder out) {
+        Locale targetLocale = targetLocale(locale);
+        MessageTemplate template = lookup(code, targetLocale);
+        if (template == null) {
+            return false;
+        }
+        if (ObjectUtils.isEmpty(args)) {
+            out.append(template.getPattern());
+        } else {
+            template.render(resolveArguments(args, targetLocale), targetLocale, out);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the message for the given code as UTF-8 to the buffer, e.g. straight into a response buffer,
+     * without creating a String of the message.
+     * A written message is timed like a getMessage call. Unknown codes are neither timed nor counted as missing,
+     * the caller falls back to getMessage (default message, code as default message), which does both.
+     *
+     * @return false if the code is unknown, nothing is written then
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public boolean writeMessage(String code, Object[] args, Locale locale, ByteBuffer out) {
+        I18nMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        Locale targetLocale = targetLocale(locale);
+        boolean written = encodeMessage(code, resolveArgumentsOrNull(args, targetLocale), targetLocale, out);
+        if (written && metrics != null) {
+            metrics.messageResolved(this, code, targetLocale, start);
+        }
+        return written;
+    }
+
+    /**
+     * Writes the message for the given key as UTF-8 to the buffer, see
+     * {@link #writeMessage(String, Object[], Locale, ByteBuffer)}.
+     */
+    public boolean writeMessage(MessageKey key, Object[] args, Locale locale, ByteBuffer out) {
+        I18nMetrics metrics = this.metrics;
+        long start = metrics != null ? System.nanoTime() : 0L;
+        Locale targetLocale = targetLocale(locale);
+        boolean written = encodeMessage(key, resolveArgumentsOrNull(args, targetLocale), targetLocale, out);
+        if (written && metrics != null) {
+            metrics.messageResolved(this, key.getCode(), targetLocale, start);
+        }
+        return written;
+    }
+
+    /**
+     * Encodes the message for {@link #writeMessage}, the arguments are already resolved (null if there are none).
+     * Writes the template with its pre-encoded literals, subclasses that store UTF-8 can copy it instead.
+     */
+    protected boolean encodeMessage(String code, Object[] args, Locale locale, ByteBuffer out) {
+        return encodeTemplate(getTemplate(code, locale), args, locale, out);
+    }
+
+    protected boolean encodeMessage(MessageKey key, Object[] args, Locale locale, ByteBuffer out) {
+        return encodeTemplate(getTemplate(key, locale), args, locale, out);
+    }
+
+    private static boolean encodeTemplate(MessageTemplate template, Object[] args, Locale locale, ByteBuffer out) {
+        if (template == null) {
+            return false;
+        }
+        if (args == null) {
+            Utf8.encode(template.getPattern(), out);
+        } else {
+            template.writeUtf8(args, locale, out);
+        }
+        return true;
+    }
+
+    private MessageTemplate lookup(String code, Locale locale) {
+        MessageTemplate template = getTemplate(code, locale);
+        if (template == null && metrics != null) {
+            metrics.messageMissing(this, code, locale);
+        }
+        return template;
+    }
+
+    private Locale targetLocale(Locale locale) {
+        if (locale != null) {
+            return locale;
+        }
+        return defaultLocale != null ? defaultLocale : Locale.getDefault();
+    }
+
+    /**
+     * Same rules as AbstractMessageSource: messages without arguments are returned as they are,
+     * arguments that are {@link MessageSourceResolvable} get resolved first.
+     */
+    private String format(MessageTemplate template, Object[] args, Locale locale) {
+        if (ObjectUtils.isEmpty(args)) {
+            return template.getPattern();
+        }
+        return template.format(resolveArguments(args, locale), locale);
+    }
+
+    private Object[] resolveArgumentsOrNull(Object[] args, Locale locale) {
+        return ObjectUtils.isEmpty(args) ? null : resolveArguments(args, locale);
+    }
+
+    private Object[] resolveArguments(Object[] args, Locale locale) {
+        Object[] resolved = args;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof MessageSourceResolvable resolvable) {
+                if (resolved == args) {
+                    resolved = args.clone();
+                }
+                resolved[i] = getMessage(resolvable, locale);
+            }
+        }
+        return resolved;
+    }
+}
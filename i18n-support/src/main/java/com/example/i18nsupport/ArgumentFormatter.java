@@ -0,0 +1,15 @@
+package com.example.i18nsupport;
+
+import java.io.IOException;
+
+/**
+ * Formats one message argument of a given type, see {@link LocaleFormatters}.
+ * Implementations are immutable and shared by all threads.
+ */
+interface ArgumentFormatter {
+
+    /**
+     * @throws IllegalArgumentException if the argument cannot be formatted, like {@link java.text.Format#format}
+     */
+    void format(Object argument, Appendable out) throws IOException;
+}
@@ -0,0 +1,602 @@
+package com.example.i18nsupport;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only view of a catalog file written by {@link BinaryCatalogWriter}.
+ * <p>
+ * Opening a catalog maps the file into memory and reads the header and the locale list, nothing else.
+ * A lookup hashes the code into the perfect hash index, compares the stored key in place and reads the value id
+ * from the locale's table. A message is decoded and compiled the first time it is used, and then kept by value id,
+ * so messages that are never requested never get onto the heap.
+ * <p>
+ * For very large catalogs {@link #offHeap()} gives a view that keeps no compiled messages at all: the message
+ * bodies stay UTF-8 in the mapped (or direct) buffer, and {@link #writeMessage} copies them from there straight
+ * into a response buffer. Nothing is kept on the heap per message, the live heap (and with it the length of a full
+ * GC) no longer grows with the catalog, and popular messages never exist as heap Strings.
+ * <p>
+ * Fallback rules are the ones of {@link MessageCatalog}, the tables already contain the merged fallback chains.
+ */
+public final class BinaryCatalog {
+
+    /**
+     * Upper bound for remembered "requested locale -> table" mappings, protects against arbitrary client locales.
+     */
+    private static final int MAX_RESOLVED_LOCALES = 256;
+
+    /**
+     * Layout of messages that {@link #writeMessage} formats through {@link MessageTemplate}.
+     */
+    private static final int[] FORMATTED = new int[0];
+
+    private final ByteBuffer buffer;
+
+    private final int keyCount;
+
+    private final int displacementsOffset;
+
+    private final int keysOffset;
+
+    private final int tablesOffset;
+
+    private final int valuesOffset;
+
+    private final Locale defaultLocale;
+
+    private final Map<Locale, Integer> rows;
+
+    private final Locale[] rowLocales;
+
+    private final Set<Locale> locales;
+
+    private final ConcurrentMap<Locale, Integer> resolvedRows;
+
+    private final AtomicReferenceArray<MessageTemplate> templates;
+
+    /**
+     * Segments of each message for {@link #writeMessage}, computed on first use. Null off-heap, the few bytes of a
+     * message are scanned on every call then.
+     */
+    private final AtomicReferenceArray<int[]> layouts;
+
+    private final boolean cacheTemplates;
+
+    /**
+     * Content version per row, computed on first use.
+     */
+    private final AtomicReferenceArray<String> versions;
+
+    BinaryCatalog(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.cacheTemplates = true;
+        if (buffer.getInt(0) != BinaryCatalogWriter.MAGIC) {
+            throw new IllegalArgumentException("Not a message catalog file");
+        }
+        if (buffer.getInt(4) != BinaryCatalogWriter.VERSION) {
+            throw new IllegalArgumentException("Unsupported message catalog version " + buffer.getInt(4));
+        }
+        int defaultLocaleString = buffer.getInt(8);
+        this.keyCount = buffer.getInt(12);
+        int localeCount = buffer.getInt(16);
+        int valueCount = buffer.getInt(20);
+        this.displacementsOffset = buffer.getInt(24);
+        this.keysOffset = buffer.getInt(28);
+        int localesOffset = buffer.getInt(32);
+        this.tablesOffset = buffer.getInt(36);
+        this.valuesOffset = buffer.getInt(40);
+
+        this.defaultLocale = defaultLocaleString >= 0 ? Locale.forLanguageTag(decode(defaultLocaleString)) : null;
+        Map<Locale, Integer> rows = new HashMap<>();
+        this.rowLocales = new Locale[localeCount];
+        for (int row = 0; row < localeCount; row++) {
+            rowLocales[row] = Locale.forLanguageTag(decode(buffer.getInt(localesOffset + row * Integer.BYTES)));
+            rows.put(rowLocales[row], row);
+        }
+        this.rows = Map.copyOf(rows);
+        this.locales = this.rows.keySet().stream()
+                .filter(locale -> !Locale.ROOT.equals(locale))
+                .sorted(Comparator.comparing(Locale::toString))
+                .collect(Collectors.collectingAndThen(
+                        Collectors.toCollection(LinkedHashSet::new), Collections::unmodifiableSet));
+        this.resolvedRows = new ConcurrentHashMap<>(this.rows);
+        this.templates = new AtomicReferenceArray<>(valueCount);
+        this.layouts = new AtomicReferenceArray<>(valueCount);
+        this.versions = new AtomicReferenceArray<>(localeCount);
+    }
+
+    private BinaryCatalog(BinaryCatalog catalog) {
+        this.buffer = catalog.buffer;
+        this.cacheTemplates = false;
+        this.keyCount = catalog.keyCount;
+        this.displacementsOffset = catalog.displacementsOffset;
+        this.keysOffset = catalog.keysOffset;
+        this.tablesOffset = catalog.tablesOffset;
+        this.valuesOffset = catalog.valuesOffset;
+        this.defaultLocale = catalog.defaultLocale;
+        this.rows = catalog.rows;
+        this.rowLocales = catalog.rowLocales;
+        this.locales = catalog.locales;
+        this.resolvedRows = catalog.resolvedRows;
+        this.templates = null;
+        this.layouts = null;
+        this.versions = catalog.versions;
+    }
+
+    /**
+     * Maps the given catalog file, the file is not read up front.
+     */
+    public static BinaryCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new BinaryCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Maps the catalog if it is a file, otherwise (e.g. inside a jar) it is read into a direct buffer.
+     */
+    public static BinaryCatalog open(Resource resource) throws IOException {
+        if (resource.isFile()) {
+            return open(resource.getFile().toPath());
+        }
+        try (InputStream in = resource.getInputStream()) {
+            byte[] bytes = in.readAllBytes();
+            return new BinaryCatalog(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+        }
+    }
+
+    /**
+     * Reads a mapped catalog file into physical memory, so later lookups never wait for the disk on a page fault.
+     * Meant for callers that must not block, e.g. the event loop of a reactive server.
+     *
+     * @return this catalog
+     */
+    public BinaryCatalog load() {
+        if (buffer instanceof MappedByteBuffer mapped) {
+            mapped.load();
+        }
+        return this;
+    }
+
+    /**
+     * Returns a view of this catalog that does not keep compiled messages on the heap. Lookups through
+     * {@link #getTemplate} compile the message on every call, meant for catalogs too large for the heap that are
+     * rendered through {@link #writeMessage}.
+     */
+    public BinaryCatalog offHeap() {
+        return cacheTemplates ? new BinaryCatalog(this) : this;
+    }
+
+    public boolean isOffHeap() {
+        return !cacheTemplates;
+    }
+
+    /**
+     * Writes the formatted message as UTF-8 to the buffer, from its position on.
+     * <p>
+     * Literal text is copied from the catalog's buffer as is, String arguments are encoded straight into the
+     * buffer, no String of the message is created. Messages with quotes or typed arguments ({0,number},
+     * plurals) are formatted through {@link MessageTemplate} and then encoded. Without arguments the message
+     * is written unformatted, like {@link #getMessage}.
+     *
+     * @return false if no bundle in the chain defines the code, nothing is written then
+     * @throws BufferOverflowException if the buffer is too small, its position is undefined then
+     */
+    public boolean writeMessage(String code, Object[] args, Locale locale, ByteBuffer out) {
+        return write(resolveRow(locale), slot(code), args, locale, out);
+    }
+
+    /**
+     * Writes the formatted message for the given key as UTF-8 to the buffer, see
+     * {@link #writeMessage(String, Object[], Locale, ByteBuffer)}.
+     */
+    public boolean writeMessage(MessageKey key, Object[] args, Locale locale, ByteBuffer out) {
+        return write(resolveRow(locale), key.id(this, this::slot), args, locale, out);
+    }
+
+    /**
+     * Returns the raw (not formatted) message for the given code, or null if no bundle in the chain defines it.
+     */
+    public String getMessage(String code, Locale locale) {
+        MessageTemplate template = getTemplate(code, locale);
+        return template != null ? template.getPattern() : null;
+    }
+
+    /**
+     * Returns the compiled message for the given code, or null if no bundle in the chain defines it.
+     */
+    public MessageTemplate getTemplate(String code, Locale locale) {
+        int row = resolveRow(locale);
+        int slot = slot(code);
+        if (row < 0 || slot < 0) {
+            return null;
+        }
+        return template(row, slot);
+    }
+
+    /**
+     * Returns the compiled message for the given key, or null if no bundle in the chain defines it.
+     * The key remembers its slot, so the code is neither hashed nor compared.
+     */
+    public MessageTemplate getTemplate(MessageKey key, Locale locale) {
+        int row = resolveRow(locale);
+        int slot = key.id(this, this::slot);
+        if (row < 0 || slot < 0) {
+            return null;
+        }
+        return template(row, slot);
+    }
+
+    /**
+     * Returns all messages visible for the given locale, including the ones inherited from parent bundles.
+     * Decodes every code of the catalog, meant for warm-up and tooling rather than for the request path.
+     */
+    public Map<String, MessageTemplate> getTemplates(Locale locale) {
+        int row = resolveRow(locale);
+        if (row < 0) {
+            return Map.of();
+        }
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (int slot = 0; slot < keyCount; slot++) {
+            MessageTemplate template = template(row, slot);
+            if (template != null) {
+                templates.put(decode(buffer.getInt(keysOffset + slot * Integer.BYTES)), template);
+            }
+        }
+        return Collections.unmodifiableMap(templates);
+    }
+
+    /**
+     * Returns the compiled messages for the given codes in the given order, the locale's table is resolved once.
+     * Codes no bundle in the chain defines are left out.
+     */
+    public Map<String, MessageTemplate> getTemplates(Collection<String> codes, Locale locale) {
+        int row = resolveRow(locale);
+        Map<String, MessageTemplate> templates = new LinkedHashMap<>();
+        if (row < 0) {
+            return templates;
+        }
+        for (String code : codes) {
+            int slot = slot(code);
+            MessageTemplate template = slot >= 0 ? template(row, slot) : null;
+            if (template != null) {
+                templates.put(code, template);
+            }
+        }
+        return templates;
+    }
+
+    /**
+     * Returns the compiled messages whose code starts with the given prefix, ordered by code.
+     * Scans the stored codes in place, only the matching ones are decoded.
+     */
+    public Map<String, MessageTemplate> getTemplatesByPrefix(String prefix, Locale locale) {
+        int row = resolveRow(locale);
+        Map<String, MessageTemplate> templates = new TreeMap<>();
+        if (row < 0) {
+            return templates;
+        }
+        for (int slot = 0; slot < keyCount; slot++) {
+            int keyOffset = buffer.getInt(keysOffset + slot * Integer.BYTES);
+            if (keyStartsWith(keyOffset, prefix)) {
+                MessageTemplate template = template(row, slot);
+                if (template != null) {
+                    templates.put(decode(keyOffset), template);
+                }
+            }
+        }
+        return templates;
+    }
+
+    /**
+     * Returns the content version of the messages visible for the given locale, see
+     * {@link MessageCatalog#getVersion(Locale)}. Equal to the version of the MessageCatalog the file was written
+     * from, the stored UTF-8 bytes are digested without decoding the messages.
+     */
+    public String getVersion(Locale locale) {
+        int row = resolveRow(locale);
+        if (row < 0) {
+            return CatalogVersions.toVersion(CatalogVersions.newDigest());
+        }
+        String version = versions.get(row);
+        if (version == null) {
+            version = digest(row);
+            versions.set(row, version);
+        }
+        return version;
+    }
+
+    /**
+     * Returns the locale of the bundle whose table serves the given locale after the fallback rules,
+     * {@link Locale#ROOT} for the base bundle.
+     */
+    public Locale getBundleLocale(Locale locale) {
+        int row = resolveRow(locale);
+        return row >= 0 ? rowLocales[row] : Locale.ROOT;
+    }
+
+    /**
+     * Returns the locales of all bundles in this catalog, without the base bundle.
+     */
+    public Set<Locale> getLocales() {
+        return locales;
+    }
+
+    /**
+     * The default locale the catalog was compiled with.
+     */
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Number of distinct message codes.
+     */
+    public int size() {
+        return keyCount;
+    }
+
+    private MessageTemplate template(int row, int slot) {
+        int valueId = valueId(row, slot);
+        if (valueId < 0) {
+            return null;
+        }
+        if (!cacheTemplates) {
+            return MessageTemplate.compile(decode(buffer.getInt(valuesOffset + valueId * Integer.BYTES)));
+        }
+        MessageTemplate template = templates.get(valueId);
+        if (template == null) {
+            // racing threads compile the same message, both results are equal
+            template = MessageTemplate.compile(decode(buffer.getInt(valuesOffset + valueId * Integer.BYTES)));
+            templates.set(valueId, template);
+        }
+        return template;
+    }
+
+    private boolean write(int row, int slot, Object[] args, Locale locale, ByteBuffer out) {
+        int valueId = row >= 0 && slot >= 0 ? valueId(row, slot) : -1;
+        if (valueId < 0) {
+            return false;
+        }
+        int offset = buffer.getInt(valuesOffset + valueId * Integer.BYTES);
+        int start = offset + Integer.BYTES;
+        int length = buffer.getInt(offset);
+        if (args == null || args.length == 0) {
+            copy(start, length, out);
+            return true;
+        }
+        int[] layout = layout(valueId, start, length);
+        if (layout == FORMATTED) {
+            template(row, slot).writeUtf8(args, locale, out);
+            return true;
+        }
+        for (int i = 0; i < layout.length; i += 2) {
+            if (layout[i] >= 0) {
+                copy(layout[i], layout[i + 1], out);
+            } else {
+                writeArgument(args, -1 - layout[i], locale, out);
+            }
+        }
+        return true;
+    }
+
+    private int valueId(int row, int slot) {
+        return buffer.getInt(tablesOffset + (row * keyCount + slot) * Integer.BYTES);
+    }
+
+    /**
+     * Pairs of (start, length) of literal bytes and (-1 - argument index, 0) of plain {n} arguments,
+     * or {@link #FORMATTED} if the message needs {@link MessageTemplate}.
+     */
+    private int[] layout(int valueId, int start, int length) {
+        if (layouts == null) {
+            return parseLayout(start, start + length);
+        }
+        int[] layout = layouts.get(valueId);
+        if (layout == null) {
+            layout = parseLayout(start, start + length);
+            layouts.set(valueId, layout);
+        }
+        return layout;
+    }
+
+    private int[] parseLayout(int start, int end) {
+        int[] layout = new int[8];
+        int size = 0;
+        int literal = start;
+        for (int i = start; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '\'' || b == '}') {
+                return FORMATTED;
+            }
+            if (b == '{') {
+                int index = 0;
+                int digits = 0;
+                int j = i + 1;
+                for (; j < end && digits < 9 && buffer.get(j) >= '0' && buffer.get(j) <= '9'; j++, digits++) {
+                    index = index * 10 + buffer.get(j) - '0';
+                }
+                if (digits == 0 || j == end || buffer.get(j) != '}') {
+                    return FORMATTED;
+                }
+                if (size + 4 > layout.length) {
+                    layout = Arrays.copyOf(layout, layout.length * 2);
+                }
+                if (i > literal) {
+                    layout[size++] = literal;
+                    layout[size++] = i - literal;
+                }
+                layout[size++] = -1 - index;
+                layout[size++] = 0;
+                i = j;
+                literal = j + 1;
+            }
+        }
+        if (size + 2 > layout.length) {
+            layout = Arrays.copyOf(layout, size + 2);
+        }
+        if (end > literal) {
+            layout[size++] = literal;
+            layout[size++] = end - literal;
+        }
+        return Arrays.copyOf(layout, size);
+    }
+
+    private void copy(int start, int length, ByteBuffer out) {
+        if (out.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        out.put(out.position(), buffer, start, length);
+        out.position(out.position() + length);
+    }
+
+    private static void writeArgument(Object[] args, int index, Locale locale, ByteBuffer out) {
+        if (index >= args.length) {
+            // like MessageFormat
+            Utf8.encode("{" + index + "}", out);
+        } else if (args[index] instanceof String string) {
+            Utf8.encode(string, out);
+        } else {
+            StringBuilder argument = new StringBuilder(16);
+            try {
+                MessageTemplate.renderPlain(args[index], locale, argument);
+            } catch (IOException ex) {
+                // StringBuilder never throws
+                throw new UncheckedIOException(ex);
+            }
+            Utf8.encode(argument, out);
+        }
+    }
+
+    private String digest(int row) {
+        // codes in natural order, like MessageCatalog
+        Map<String, Integer> valueIds = new TreeMap<>();
+        for (int slot = 0; slot < keyCount; slot++) {
+            int valueId = buffer.getInt(tablesOffset + (row * keyCount + slot) * Integer.BYTES);
+            if (valueId >= 0) {
+                valueIds.put(decode(buffer.getInt(keysOffset + slot * Integer.BYTES)), valueId);
+            }
+        }
+        MessageDigest digest = CatalogVersions.newDigest();
+        valueIds.forEach((code, valueId) -> {
+            digest.update(code.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            int offset = buffer.getInt(valuesOffset + valueId * Integer.BYTES);
+            digest.update(buffer.slice(offset + Integer.BYTES, buffer.getInt(offset)));
+            digest.update((byte) 0);
+        });
+        return CatalogVersions.toVersion(digest);
+    }
+
+    private int resolveRow(Locale locale) {
+        Integer row = resolvedRows.get(locale);
+        if (row == null) {
+            row = findRow(Locales.candidates(locale));
+            if (row == null && defaultLocale != null) {
+                row = findRow(Locales.candidates(defaultLocale));
+            }
+            if (row == null) {
+                row = rows.getOrDefault(Locale.ROOT, -1);
+            }
+            if (resolvedRows.size() < MAX_RESOLVED_LOCALES) {
+                resolvedRows.putIfAbsent(locale, row);
+            }
+        }
+        return row;
+    }
+
+    private Integer findRow(List<Locale> candidates) {
+        for (Locale candidate : candidates) {
+            Integer row = rows.get(candidate);
+            if (row != null) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Slot of the code in the perfect hash index, or -1 if the code is not in the catalog.
+     */
+    private int slot(String code) {
+        if (keyCount == 0) {
+            return -1;
+        }
+        int displacement = buffer.getInt(displacementsOffset + PerfectHash.bucket(code, keyCount) * Integer.BYTES);
+        int slot = PerfectHash.slot(displacement, code, keyCount);
+        return keyEquals(buffer.getInt(keysOffset + slot * Integer.BYTES), code) ? slot : -1;
+    }
+
+    /**
+     * Compares the stored UTF-8 key with the code without decoding it, codes are almost always ASCII.
+     */
+    private boolean keyEquals(int offset, String code) {
+        int length = buffer.getInt(offset);
+        int start = offset + Integer.BYTES;
+        if (length < code.length()) {
+            return false;
+        }
+        for (int i = 0; i < code.length(); i++) {
+            char c = code.charAt(i);
+            if (c >= 0x80) {
+                return decode(offset).equals(code);
+            }
+            if (buffer.get(start + i) != c) {
+                return false;
+            }
+        }
+        return length == code.length();
+    }
+
+    private boolean keyStartsWith(int offset, String prefix) {
+        int length = buffer.getInt(offset);
+        int start = offset + Integer.BYTES;
+        if (length < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c >= 0x80) {
+                return decode(offset).startsWith(prefix);
+            }
+            if (buffer.get(start + i) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decode(int offset) {
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.i18nsupport;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link org.springframework.context.MessageSource} backed by a {@link BinaryCatalog} that was compiled from the
+ * bundles at build time (see {@link BinaryCatalogWriter}).
+ * <p>
+ * Startup maps one file instead of parsing every bundle, messages are decoded and compiled on first use.
+ * The default locale is the one the catalog was compiled with, unless set explicitly.
+ */
+public class BinaryCatalogMessageSource extends AbstractCatalogMessageSource
+        implements ResourceLoaderAware, InitializingBean {
+
+    private String location;
+
+    private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private boolean preload;
+
+    private boolean offHeap;
+
+    private BinaryCatalog catalog;
+
+    /**
+     * Location of the catalog file, e.g. "classpath:messages.catalog".
+     */
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    /**
+     * Read the whole catalog into memory at startup instead of paging it in on first use,
+     * for applications that must not block while serving a request (WebFlux).
+     */
+    public void setPreload(boolean preload) {
+        this.preload = preload;
+    }
+
+    /**
+     * Keep no compiled messages on the heap, see {@link BinaryCatalog#offHeap()}. For catalogs too large to be
+     * held on the heap, rendered through {@link #writeMessage}; getMessage compiles the message on every call then.
+     */
+    public void setOffHeap(boolean offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    @Override
+    public void setResourceLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long start = System.nanoTime();
+        Resource resource = resourceLoader.getResource(location);
+        try {
+            BinaryCatalog catalog = BinaryCatalog.open(resource);
+            this.catalog = offHeap ? catalog.offHeap() : catalog;
+            if (preload) {
+                catalog.load();
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not open message catalog " + resource, ex);
+        }
+        if (getDefaultLocale() == null) {
+            setDefaultLocale(catalog.getDefaultLocale());
+        }
+        if (getMetrics() != null) {
+            getMetrics().catalogLoaded("binary", false, catalog.getLocales().size(), System.nanoTime() - start);
+        }
+    }
+
+    public BinaryCatalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public Set<Locale> getLocales() {
+        return catalog.getLocales();
+    }
+
+    @Override
+    public Map<String, MessageTemplate> getTemplates(Locale locale) {
+        return catalog.getTemplates(locale);
+    }
+
+    @Override
+    protected String getTableVersion(Locale locale) {
+        return catalog.getVersion(locale);
+    }
+
+    @Override
+    protected Locale getTableLocale(Locale locale) {
+        return catalog.getBundleLocale(locale);
+    }
+
+    @Override
+    protected Map<String, MessageTemplate> getTemplates(Collection<String> codes, Locale locale) {
+        return catalog.getTemplates(codes, locale);
+    }
+
+    @Override
+    protected Map<String, MessageTemplate> getTemplatesByPrefix(String prefix, Locale locale) {
+        return catalog.getTemplatesByPrefix(prefix, locale);
+    }
+
+    @Override
+    protected MessageTemplate getTemplate(String code, Locale locale) {
+        return catalog.getTemplate(code, locale);
+    }
+
+    @Override
+    protected MessageTemplate getTemplate(MessageKey key, Locale locale) {
+        return catalog.getTemplate(key, locale);
+    }
+
+    @Override
+    protected boolean encodeMessage(String code, Object[] args, Locale locale, ByteBuffer out) {
+        return catalog.writeMessage(code, args, locale, out);
+    }
+
+    @Override
+    protected boolean encodeMessage(MessageKey key, Object[] args, Locale locale, ByteBuffer out) {
+        return catalog.writeMessage(key, args, locale, out);
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.i18nsupport;
+
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compiles message bundles into the binary catalog format read by {@link BinaryCatalog}, at build time.
+ * <p>
+ * Layout (big endian ints, all offsets absolute):
+ * <pre>
+ * header      magic, version, defaultLocale (string offset or -1), keyCount, localeCount, valueCount,
+ *             displacementsOffset, keysOffset, localesOffset, tablesOffset, valuesOffset
+ * displacements  keyCount ints, perfect hash displacement per bucket
+ * keys        keyCount ints, string offset of the key in each hash slot
+ * locales     localeCount ints, string offset of the language tag of each bundle locale (base bundle is "und")
+ * tables      localeCount * keyCount ints, value id per locale and slot or -1, fallback chains already merged in
+ * values      valueCount ints, string offset of each distinct message
+ * strings     int byte length + UTF-8 bytes, every distinct key, tag and message stored once
+ * </pre>
+ * The output only depends on the bundle contents, so the file is reproducible.
+ * <p>
+ * Usage: {@code BinaryCatalogWriter <output file> <default locale tag> <basename>...}, the bundles are
+ * looked up on the classpath.
+ */
+public final class BinaryCatalogWriter {
+
+    static final int MAGIC = 0x4931384E; // "I18N"
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 11 * Integer.BYTES;
+
+    private BinaryCatalogWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException(
+                    "Usage: BinaryCatalogWriter <output file> <default locale tag> <basename>...");
+        }
+        Path output = Path.of(args[0]);
+        Locale defaultLocale = StringUtils.hasText(args[1]) ? Locale.forLanguageTag(args[1]) : null;
+        List<String> basenames = Arrays.asList(args).subList(2, args.length);
+
+        MessageCatalog catalog = new MessageCatalogLoader().load(basenames, defaultLocale);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            write(catalog, out);
+        }
+    }
+
+    /**
+     * Writes the flattened tables of the given catalog.
+     */
+    public static void write(MessageCatalog catalog, OutputStream out) throws IOException {
+        Map<Locale, Map<String, String>> tables = new HashMap<>();
+        catalog.getBundleTables().forEach((locale, templates) -> {
+            Map<String, String> table = new HashMap<>();
+            templates.forEach((code, template) -> table.put(code, template.getPattern()));
+            tables.put(locale, table);
+        });
+        write(tables, catalog.getDefaultLocale(), out);
+    }
+
+    /**
+     * @param tables flattened tables per bundle locale, {@link Locale#ROOT} for the base bundle
+     */
+    static void write(Map<Locale, Map<String, String>> tables, Locale defaultLocale, OutputStream out)
+            throws IOException {
+        List<Locale> locales = new ArrayList<>(tables.keySet());
+        locales.sort(Comparator.comparing(Locale::toLanguageTag));
+
+        TreeSet<String> keySet = new TreeSet<>();
+        TreeSet<String> valueSet = new TreeSet<>();
+        tables.values().forEach(table -> {
+            keySet.addAll(table.keySet());
+            valueSet.addAll(table.values());
+        });
+        String[] keys = keySet.toArray(String[]::new);
+        PerfectHash hash = PerfectHash.build(keys);
+
+        Map<String, Integer> valueIds = new HashMap<>();
+        for (String value : valueSet) {
+            valueIds.put(value, valueIds.size());
+        }
+
+        StringPool strings = new StringPool();
+        int defaultLocaleString = defaultLocale != null ? strings.add(defaultLocale.toLanguageTag()) : -1;
+        int[] keyStrings = new int[keys.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            keyStrings[slot] = strings.add(keys[hash.keyAt(slot)]);
+        }
+        int[] localeStrings = locales.stream().mapToInt(locale -> strings.add(locale.toLanguageTag())).toArray();
+        int[] valueStrings = valueSet.stream().mapToInt(strings::add).toArray();
+
+        int displacementsOffset = HEADER_SIZE;
+        int keysOffset = displacementsOffset + keys.length * Integer.BYTES;
+        int localesOffset = keysOffset + keys.length * Integer.BYTES;
+        int tablesOffset = localesOffset + locales.size() * Integer.BYTES;
+        int valuesOffset = tablesOffset + locales.size() * keys.length * Integer.BYTES;
+        int stringsOffset = valuesOffset + valueStrings.length * Integer.BYTES;
+        long size = (long) stringsOffset + strings.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Message catalog too large: " + size + " bytes");
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(defaultLocaleString < 0 ? -1 : stringsOffset + defaultLocaleString);
+        data.writeInt(keys.length);
+        data.writeInt(locales.size());
+        data.writeInt(valueStrings.length);
+        data.writeInt(displacementsOffset);
+        data.writeInt(keysOffset);
+        data.writeInt(localesOffset);
+        data.writeInt(tablesOffset);
+        data.writeInt(valuesOffset);
+        for (int displacement : hash.displacements()) {
+            data.writeInt(displacement);
+        }
+        for (int keyString : keyStrings) {
+            data.writeInt(stringsOffset + keyString);
+        }
+        for (int localeString : localeStrings) {
+            data.writeInt(stringsOffset + localeString);
+        }
+        for (Locale locale : locales) {
+            Map<String, String> table = tables.get(locale);
+            for (int slot = 0; slot < keys.length; slot++) {
+                String value = table.get(keys[hash.keyAt(slot)]);
+                data.writeInt(value != null ? valueIds.get(value) : -1);
+            }
+        }
+        for (int valueString : valueStrings) {
+            data.writeInt(stringsOffset + valueString);
+        }
+        strings.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Length prefixed UTF-8 strings, each distinct string stored once.
+     */
+    private static final class StringPool {
+
+        private final Map<String, Integer> offsets = new LinkedHashMap<>();
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final DataOutputStream data = new DataOutputStream(bytes);
+
+        int add(String string) {
+            return offsets.computeIfAbsent(string, s -> {
+                int offset = bytes.size();
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                try {
+                    data.writeInt(utf8.length);
+                    data.write(utf8);
+                } catch (IOException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return offset;
+            });
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+}
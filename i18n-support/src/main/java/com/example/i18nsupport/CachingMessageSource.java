@@ -0,0 +1,273 @@
+package com.example.i18nsupport;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.context.NoSuchMessageException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorator that memoizes fully rendered messages of any {@link MessageSource}.
+ * <p>
+ * Only calls that can repeat often are cached: messages without arguments, and messages whose arguments are all
+ * short Strings, numbers, booleans or characters (e.g. a username). Everything else goes straight to the delegate.
+ * The cache is bounded by an approximate memory weight and evicts with Caffeine's W-TinyLFU policy.
+ * <p>
+ * Registered as a {@link MeterBinder}, so with Actuator on the classpath it publishes the Caffeine cache metrics
+ * (cache.gets, cache.evictions, cache.size, tag cache=i18n.messages) plus hit ratio and memory footprint gauges.
+ * <p>
+ * When the delegate is a reloading {@link CatalogMessageSource}, the locales of reloaded bundles are dropped.
+ * <p>
+ * Every invalidation starts a new generation. A message rendered while one ran may come from the previous catalog
+ * and the invalidation may have missed it, so it is dropped again right after it was stored (see {@link #store}).
+ * That is why a miss is rendered and put instead of computed with get(key, loader): the generation has to be read
+ * before rendering and checked after the put.
+ */
+public class CachingMessageSource implements MessageSource, MeterBinder,
+        ApplicationListener<MessageCatalogReloadedEvent> {
+
+    public static final String CACHE_NAME = "i18n.messages";
+
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 16 * 1024 * 1024;
+
+    public static final int DEFAULT_MAX_ARGUMENT_LENGTH = 64;
+
+    private final MessageSource delegate;
+
+    private final Cache<CacheKey, String> cache;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private boolean enabled = true;
+
+    private int maxArgumentLength = DEFAULT_MAX_ARGUMENT_LENGTH;
+
+    public CachingMessageSource(MessageSource delegate) {
+        this(delegate, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * @param maximumWeight approximate upper bound of the memory used by cached messages, in bytes
+     */
+    public CachingMessageSource(MessageSource delegate, long maximumWeight) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher(CacheKey::weigh)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * When disabled, every call goes straight to the delegate.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Calls with a longer String argument are not cached, such arguments rarely repeat.
+     */
+    public void setMaxArgumentLength(int maxArgumentLength) {
+        this.maxArgumentLength = maxArgumentLength;
+    }
+
+    public MessageSource getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+        CacheKey key = cacheKey(code, args, defaultMessage, locale);
+        if (key == null) {
+            return delegate.getMessage(code, args, defaultMessage, locale);
+        }
+        String message = cache.getIfPresent(key);
+        if (message == null) {
+            long renderedGeneration = generation.get();
+            message = delegate.getMessage(code, args, defaultMessage, locale);
+            store(key, message, renderedGeneration);
+        }
+        return message;
+    }
+
+    @Override
+    public String getMessage(String code, Object[] args, Locale locale) throws NoSuchMessageException {
+        CacheKey key = cacheKey(code, args, null, locale);
+        if (key == null) {
+            return delegate.getMessage(code, args, locale);
+        }
+        String message = cache.getIfPresent(key);
+        if (message == null) {
+            long renderedGeneration = generation.get();
+            // a NoSuchMessageException thrown by the delegate is passed on and nothing is cached
+            message = delegate.getMessage(code, args, locale);
+            store(key, message, renderedGeneration);
+        }
+        return message;
+    }
+
+    /**
+     * Same as {@link #getMessage(String, Object[], Locale)} for a {@link MessageKey}. A miss is resolved by the key
+     * when the delegate is an {@link AbstractCatalogMessageSource}, by its code otherwise.
+     */
+    public String getMessage(MessageKey key, Object[] args, Locale locale) throws NoSuchMessageException {
+        CacheKey cacheKey = cacheKey(key.getCode(), args, null, locale);
+        if (cacheKey == null) {
+            return resolve(key, args, locale);
+        }
+        String message = cache.getIfPresent(cacheKey);
+        if (message == null) {
+            long renderedGeneration = generation.get();
+            message = resolve(key, args, locale);
+            store(cacheKey, message, renderedGeneration);
+        }
+        return message;
+    }
+
+    /**
+     * Resolvables (e.g. validation errors) are not cached.
+     */
+    @Override
+    public String getMessage(MessageSourceResolvable resolvable, Locale locale) throws NoSuchMessageException {
+        return delegate.getMessage(resolvable, locale);
+    }
+
+    /**
+     * Drops all cached messages that fall back to the given bundle locale: "pl" drops pl and pl_PL.
+     * For the base bundle ({@link Locale#ROOT}) everything is dropped.
+     */
+    public void invalidate(Locale bundleLocale) {
+        if (Locale.ROOT.equals(bundleLocale)) {
+            invalidateAll();
+            return;
+        }
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key ->
+                key.locale() != null && Locales.candidates(key.locale()).contains(bundleLocale));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onApplicationEvent(MessageCatalogReloadedEvent event) {
+        if (event.getSource() != delegate) {
+            return;
+        }
+        Locale defaultLocale = event.getCatalog().getDefaultLocale();
+        for (Locale bundleLocale : event.getBundleLocales()) {
+            // locales without own bundles fall back to the default locale's bundles
+            if (defaultLocale != null && Locales.candidates(defaultLocale).contains(bundleLocale)) {
+                invalidateAll();
+                return;
+            }
+            invalidate(bundleLocale);
+        }
+    }
+
+    /**
+     * Approximate memory used by the cached messages, in bytes.
+     */
+    public long getWeightedSize() {
+        // the weight is maintained asynchronously, pending writes are applied first
+        cache.cleanUp();
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of message lookups answered from the cache")
+                .register(registry);
+        Gauge.builder(CACHE_NAME + ".cache.memory", this, CachingMessageSource::getWeightedSize)
+                .description("Approximate memory used by cached messages")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Caches a message rendered in the given generation. The generation is checked after the put: an invalidation
+     * that started in between bumped it before removing entries, so either it removed this one or the message is
+     * removed here. Both threads missing the same key render it, which is cheap for a single message.
+     */
+    private void store(CacheKey key, String message, long renderedGeneration) {
+        if (message == null) {
+            return;
+        }
+        cache.put(key, message);
+        if (generation.get() != renderedGeneration) {
+            cache.invalidate(key);
+        }
+    }
+
+    private String resolve(MessageKey key, Object[] args, Locale locale) {
+        return delegate instanceof AbstractCatalogMessageSource catalogMessageSource
+                ? catalogMessageSource.getMessage(key, args, locale)
+                : delegate.getMessage(key.getCode(), args, locale);
+    }
+
+    /**
+     * Returns null if the call should not be cached.
+     */
+    private CacheKey cacheKey(String code, Object[] args, String defaultMessage, Locale locale) {
+        if (!enabled) {
+            return null;
+        }
+        if (args == null || args.length == 0) {
+            return new CacheKey(code, locale, null, defaultMessage);
+        }
+        for (Object arg : args) {
+            if (!isCacheable(arg)) {
+                return null;
+            }
+        }
+        return new CacheKey(code, locale, Arrays.asList(args.clone()), defaultMessage);
+    }
+
+    private boolean isCacheable(Object arg) {
+        if (arg instanceof String string) {
+            return string.length() <= maxArgumentLength;
+        }
+        // immutable types with value based equals only
+        return arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte
+                || arg instanceof Double || arg instanceof Float || arg instanceof BigDecimal
+                || arg instanceof BigInteger || arg instanceof Boolean || arg instanceof Character;
+    }
+
+    private record CacheKey(String code, Locale locale, List<Object> args, String defaultMessage) {
+
+        /**
+         * Rough size of key and value: object headers plus two bytes per char.
+         */
+        static int weigh(CacheKey key, String message) {
+            int chars = key.code.length() + message.length();
+            if (key.defaultMessage != null) {
+                chars += key.defaultMessage.length();
+            }
+            if (key.args != null) {
+                for (Object arg : key.args) {
+                    chars += arg.toString().length() + 8;
+                }
+            }
+            return 96 + 2 * chars;
+        }
+    }
+}
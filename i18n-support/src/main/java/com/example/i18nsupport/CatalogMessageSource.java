@@ -0,0 +1,295 @@
+package com.example.i18nsupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link org.springframework.context.MessageSource} backed by a {@link MessageCatalog} that is built once at startup.
+ * <p>
+ * Configured like {@link org.springframework.context.support.ResourceBundleMessageSource}, but every bundle of
+ * the configured basenames is loaded eagerly, and a lookup is a read-only hash probe: no ResourceBundle,
+ * no candidate locale walk and no synchronized MessageFormat cache on the request path.
+ * Messages are formatted with precompiled {@link MessageTemplate}s instead of MessageFormat.
+ */
+public class CatalogMessageSource extends AbstractCatalogMessageSource
+        implements ResourceLoaderAware, ApplicationEventPublisherAware, InitializingBean, DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(CatalogMessageSource.class);
+
+    private final List<String> basenames = new ArrayList<>();
+
+    private Charset defaultEncoding = StandardCharsets.UTF_8;
+
+    private boolean watchForChanges;
+
+    private String retainedCodesLocation;
+
+    private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private ApplicationEventPublisher eventPublisher;
+
+    private MessageCatalogLoader loader;
+
+    /**
+     * Swapped as a whole on reload, readers never lock and never see a half updated catalog.
+     */
+    private volatile MessageCatalog catalog;
+
+    /**
+     * Raw bundles per basename, only kept when watching for changes.
+     */
+    private List<Map<Locale, Map<String, String>>> bundles;
+
+    /**
+     * Watched directories per basename, only when watching for changes.
+     */
+    private List<Set<Path>> bundleDirectories;
+
+    private MessageCatalogWatcher watcher;
+
+    /**
+     * Messages received through a {@link CatalogSynchronizer}, on top of the ones of the bundles.
+     */
+    private MessageCatalogLayer syncedMessages = MessageCatalogLayer.EMPTY;
+
+    /**
+     * Catalog of the bundles alone, without synced messages.
+     */
+    private MessageCatalog bundleCatalog;
+
+    public void setBasename(String basename) {
+        setBasenames(basename);
+    }
+
+    public void setBasenames(String... basenames) {
+        this.basenames.clear();
+        this.basenames.addAll(Arrays.asList(basenames));
+    }
+
+    public void setDefaultEncoding(String defaultEncoding) {
+        this.defaultEncoding = Charset.forName(defaultEncoding);
+    }
+
+    /**
+     * Reload mode: watch the directories of the bundles for changes and swap in a rebuilt catalog.
+     * Only bundles on the file system can be watched (e.g. build/resources/main), not the ones inside a jar.
+     * Lookups are not affected: they never do I/O or check timestamps.
+     */
+    public void setWatchForChanges(boolean watchForChanges) {
+        this.watchForChanges = watchForChanges;
+    }
+
+    /**
+     * Pruned mode: only the codes listed in this resource are loaded, e.g. "classpath:i18n/message.codes" written
+     * at build time by {@link MessageCodeExtractor}. Every other message of the bundles is skipped, which saves
+     * heap and load time, but is not found either: only for applications that never look up codes built
+     * at runtime (or list them in the extractor's keep list).
+     */
+    public void setRetainedCodesLocation(String retainedCodesLocation) {
+        this.retainedCodesLocation = retainedCodesLocation;
+    }
+
+    @Override
+    public void setResourceLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        long start = System.nanoTime();
+        this.loader = new MessageCatalogLoader(resourceLoader, defaultEncoding);
+        if (retainedCodesLocation != null) {
+            Resource resource = resourceLoader.getResource(retainedCodesLocation);
+            try {
+                loader.setRetainedCodes(MessageCodeExtractor.readCodes(resource));
+            } catch (IOException ex) {
+                throw new IllegalStateException("Could not read retained message codes " + resource, ex);
+            }
+        }
+        if (!watchForChanges) {
+            this.catalog = this.bundleCatalog = loader.load(basenames, getDefaultLocale());
+            recordLoad(false, start);
+            return;
+        }
+        this.bundles = basenames.stream().map(loader::loadBundles).toList();
+        this.bundleDirectories = basenames.stream().map(loader::findBundleDirectories).toList();
+        this.catalog = this.bundleCatalog = loader.build(bundles, getDefaultLocale(), null, Set.of());
+        recordLoad(false, start);
+
+        Set<Path> directories = new LinkedHashSet<>();
+        bundleDirectories.forEach(directories::addAll);
+        try {
+            this.watcher = new MessageCatalogWatcher(directories, this::reload);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not watch message bundles in " + directories, ex);
+        }
+        this.watcher.start();
+        logger.info("Watching message bundles in " + directories);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * Re-reads the given bundle files and swaps in a catalog where only the affected locales are rebuilt.
+     * Runs on the watcher thread, concurrent lookups keep using the previous catalog until the swap.
+     */
+    synchronized void reload(Set<Path> changedFiles) {
+        long start = System.nanoTime();
+        Set<Locale> changedLocales = new LinkedHashSet<>();
+        for (Path file : changedFiles) {
+            for (int i = 0; i < basenames.size(); i++) {
+                Locale bundleLocale = MessageCatalogLoader.bundleLocale(file.getFileName().toString(),
+                        MessageCatalogLoader.filenamePrefix(basenames.get(i)));
+                if (bundleLocale != null && bundleDirectories.get(i).contains(file.getParent())) {
+                    reloadBundle(bundles.get(i), bundleLocale, file);
+                    changedLocales.add(bundleLocale);
+                }
+            }
+        }
+        if (changedLocales.isEmpty()) {
+            return;
+        }
+        this.bundleCatalog = loader.build(bundles, getDefaultLocale(), bundleCatalog, changedLocales);
+        swap(changedLocales, start);
+        logger.info("Reloaded message bundles for locales " + changedLocales);
+    }
+
+    /**
+     * Applies messages published by a node of the cluster (see {@link CatalogSynchronizer}): they are layered on top
+     * of the bundles, a new catalog with the changed locales is swapped in. Updates for locales without a bundle
+     * are ignored, like an override no lookup could reach.
+     */
+    synchronized void apply(CatalogUpdate update) {
+        long start = System.nanoTime();
+        MessageCatalogLayer layer = syncedMessages;
+        Set<Locale> changedLocales = new LinkedHashSet<>();
+        for (Locale locale : update.getLocales()) {
+            if (!bundleCatalog.getBundleTables().containsKey(locale)) {
+                logger.warn("Ignoring synced messages for locale '" + locale + "' without bundle");
+                continue;
+            }
+            layer = layer.withMessages(locale, update.getMessages(locale));
+            for (String code : update.getRemovedCodes(locale)) {
+                layer = layer.withoutMessage(locale, code);
+            }
+            changedLocales.add(locale);
+        }
+        if (changedLocales.isEmpty()) {
+            return;
+        }
+        this.syncedMessages = layer;
+        swap(changedLocales, start);
+    }
+
+    /**
+     * Messages applied through {@link #apply}, per bundle locale.
+     */
+    public MessageCatalogLayer getSyncedMessages() {
+        return syncedMessages;
+    }
+
+    private void swap(Set<Locale> changedLocales, long start) {
+        MessageCatalog swapped = syncedMessages.size() > 0 ? bundleCatalog.withLayer(syncedMessages) : bundleCatalog;
+        this.catalog = swapped;
+        recordLoad(true, start);
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new MessageCatalogReloadedEvent(this, swapped, changedLocales));
+        }
+    }
+
+    private void recordLoad(boolean reload, long start) {
+        if (getMetrics() != null) {
+            getMetrics().catalogLoaded("properties", reload, catalog.getLocales().size(), System.nanoTime() - start);
+        }
+    }
+
+    private void reloadBundle(Map<Locale, Map<String, String>> bundles, Locale bundleLocale, Path file) {
+        if (!Files.isRegularFile(file)) {
+            bundles.remove(bundleLocale);
+            return;
+        }
+        try {
+            bundles.put(bundleLocale, loader.read(new FileSystemResource(file)));
+        } catch (IOException | IllegalArgumentException ex) {
+            // e.g. a half written file, the next modification event brings the complete one
+            logger.warn("Could not read message bundle " + file + ", keeping the previous version", ex);
+        }
+    }
+
+    public MessageCatalog getCatalog() {
+        return catalog;
+    }
+
+    @Override
+    public Set<Locale> getLocales() {
+        return catalog.getLocales();
+    }
+
+    @Override
+    public Map<String, MessageTemplate> getTemplates(Locale locale) {
+        return catalog.getTemplates(locale);
+    }
+
+    @Override
+    protected String getTableVersion(Locale locale) {
+        return catalog.getVersion(locale);
+    }
+
+    @Override
+    protected Locale getTableLocale(Locale locale) {
+        return catalog.getBundleLocale(locale);
+    }
+
+    @Override
+    protected Map<String, MessageTemplate> getTemplates(Collection<String> codes, Locale locale) {
+        return catalog.getTemplates(codes, locale);
+    }
+
+    @Override
+    protected Map<String, MessageTemplate> getTemplatesByPrefix(String prefix, Locale locale) {
+        return catalog.getTemplatesByPrefix(prefix, locale);
+    }
+
+    @Override
+    protected MessageTemplate getTemplate(String code, Locale locale) {
+        return catalog.getTemplate(code, locale);
+    }
+
+    @Override
+    protected MessageTemplate getTemplate(MessageKey key, Locale locale) {
+        return catalog.getTemplate(key, locale);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.i18nsupport;
+
+import java.util.function.Consumer;
+
+/**
+ * Publish/subscribe channel {@link CatalogSynchronizer}s of all nodes share, e.g. a topic of the message broker
+ * the services already use. Updates are opaque bytes (an encoded {@link CatalogUpdate}).
+ * <p>
+ * All nodes apply updates in the order they receive them, so a transport must deliver the updates to every
+ * subscriber in the same order (a single topic partition, a Redis channel), and deliver an update to its
+ * publisher too.
+ */
+public interface CatalogSyncTransport {
+
+    void publish(byte[] update);
+
+    /**
+     * Registers a listener for the updates of all nodes, closing the returned handle unregisters it.
+     */
+    AutoCloseable subscribe(Consumer<byte[]> listener);
+}
@@ -0,0 +1,137 @@
+package com.example.i18nsupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the messages of a {@link CatalogMessageSource} in sync across all nodes of a cluster.
+ * <p>
+ * A translation change is published once, on any node, as a {@link CatalogUpdate} with only the changed messages
+ * of the changed locales. Every node (the publishing one too) receives it through the shared
+ * {@link CatalogSyncTransport} and applies it on top of its bundles with an atomic catalog swap: no reload
+ * of the bundles, no restart, lookups never wait. As all nodes apply the same updates in the same order,
+ * they end up with the same catalog, which {@link #getCatalogVersion()} shows, e.g. in a version endpoint.
+ * <p>
+ * Synced messages live in memory only. A node that starts later gets the updates the transport delivers from then
+ * on; a transport that retains them (a compacted topic) replays the earlier ones to it.
+ */
+public class CatalogSynchronizer implements InitializingBean, DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(CatalogSynchronizer.class);
+
+    private final CatalogMessageSource messageSource;
+
+    private final CatalogSyncTransport transport;
+
+    private final AtomicLong appliedUpdates = new AtomicLong();
+
+    private String nodeId = UUID.randomUUID().toString();
+
+    private AutoCloseable subscription;
+
+    public CatalogSynchronizer(CatalogMessageSource messageSource, CatalogSyncTransport transport) {
+        this.messageSource = messageSource;
+        this.transport = transport;
+    }
+
+    /**
+     * Id of this node in published updates, a random UUID by default.
+     */
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        this.subscription = transport.subscribe(this::receive);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Publishes new or changed messages of a bundle locale ({@link Locale#ROOT} for the base bundle) to all nodes.
+     *
+     * @throws IllegalArgumentException if a message is not a valid pattern, nothing is published then
+     */
+    public void publish(Locale locale, Map<String, String> messages) {
+        publish(new CatalogUpdate(nodeId, Map.of(locale, messages), Map.of()));
+    }
+
+    /**
+     * Publishes the removal of synced messages of a bundle locale, the messages of the bundles are used again.
+     */
+    public void publishRemoval(Locale locale, Set<String> codes) {
+        publish(new CatalogUpdate(nodeId, Map.of(), Map.of(locale, codes)));
+    }
+
+    /**
+     * Publishes an update to all nodes.
+     *
+     * @throws IllegalArgumentException if a message is not a valid pattern, nothing is published then
+     */
+    public void publish(CatalogUpdate update) {
+        for (Locale locale : update.getLocales()) {
+            update.getMessages(locale).forEach((code, pattern) -> {
+                IllegalArgumentException invalid = MessageTemplate.compile(pattern).getInvalidPattern();
+                if (invalid != null) {
+                    throw new IllegalArgumentException(
+                            "Invalid message '" + code + "' for locale '" + locale + "': " + invalid.getMessage(),
+                            invalid);
+                }
+            });
+        }
+        transport.publish(update.encode());
+    }
+
+    /**
+     * The content version of this node's whole catalog, the same on all nodes that applied the same updates.
+     */
+    public String getCatalogVersion() {
+        return messageSource.getCatalog().getCatalogVersion();
+    }
+
+    /**
+     * Number of updates this node applied since it started.
+     */
+    public long getAppliedUpdates() {
+        return appliedUpdates.get();
+    }
+
+    private void receive(byte[] encoded) {
+        CatalogUpdate update;
+        try {
+            update = CatalogUpdate.decode(encoded);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Ignoring malformed catalog update", ex);
+            return;
+        }
+        try {
+            messageSource.apply(update);
+        } catch (RuntimeException ex) {
+            // the transport must still deliver the update to its other subscribers
+            logger.error("Could not apply " + update + ", skipping it", ex);
+            return;
+        }
+        appliedUpdates.incrementAndGet();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Applied " + update + ", catalog version " + getCatalogVersion());
+        }
+    }
+}
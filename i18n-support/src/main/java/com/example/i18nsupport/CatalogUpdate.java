@@ -0,0 +1,157 @@
+package com.example.i18nsupport;
+
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A change of the messages of some bundle locales, as distributed by {@link CatalogSynchronizer}: the messages
+ * to set and the codes whose synced message is removed again (the bundle message shows through), per locale.
+ * <p>
+ * Only changed messages travel. On the wire an update is a small binary record (see {@link #encode()}):
+ * a format byte, the origin node, then per locale its set messages and removed codes, all strings as UTF-8.
+ */
+public final class CatalogUpdate {
+
+    private static final byte FORMAT = 1;
+
+    private final String origin;
+
+    private final Map<Locale, Map<String, String>> messages;
+
+    private final Map<Locale, Set<String>> removedCodes;
+
+    /**
+     * @param origin id of the node that published the update
+     */
+    public CatalogUpdate(String origin, Map<Locale, Map<String, String>> messages,
+                         Map<Locale, Set<String>> removedCodes) {
+        this.origin = origin;
+        this.messages = new LinkedHashMap<>();
+        this.removedCodes = new LinkedHashMap<>();
+        messages.forEach((locale, localeMessages) -> {
+            if (!localeMessages.isEmpty()) {
+                this.messages.put(locale, Map.copyOf(localeMessages));
+            }
+        });
+        removedCodes.forEach((locale, codes) -> {
+            if (!codes.isEmpty()) {
+                this.removedCodes.put(locale, Set.copyOf(codes));
+            }
+        });
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    /**
+     * All locales the update changes, {@link Locale#ROOT} for the base bundle.
+     */
+    public Set<Locale> getLocales() {
+        Set<Locale> locales = new LinkedHashSet<>(messages.keySet());
+        locales.addAll(removedCodes.keySet());
+        return locales;
+    }
+
+    public Map<String, String> getMessages(Locale locale) {
+        return messages.getOrDefault(locale, Map.of());
+    }
+
+    public Set<String> getRemovedCodes(Locale locale) {
+        return removedCodes.getOrDefault(locale, Set.of());
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            writeString(out, origin);
+            Set<Locale> locales = getLocales();
+            out.writeInt(locales.size());
+            for (Locale locale : locales) {
+                writeString(out, locale.toString());
+                Map<String, String> localeMessages = getMessages(locale);
+                out.writeInt(localeMessages.size());
+                for (Map.Entry<String, String> message : localeMessages.entrySet()) {
+                    writeString(out, message.getKey());
+                    writeString(out, message.getValue());
+                }
+                Set<String> codes = getRemovedCodes(locale);
+                out.writeInt(codes.size());
+                for (String code : codes) {
+                    writeString(out, code);
+                }
+            }
+        } catch (IOException ex) {
+            // ByteArrayOutputStream never throws
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded update
+     */
+    public static CatalogUpdate decode(byte[] encoded) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+            if (in.readByte() != FORMAT) {
+                throw new IllegalArgumentException("Unknown catalog update format");
+            }
+            String origin = readString(in);
+            Map<Locale, Map<String, String>> messages = new LinkedHashMap<>();
+            Map<Locale, Set<String>> removedCodes = new LinkedHashMap<>();
+            int locales = in.readInt();
+            for (int i = 0; i < locales; i++) {
+                String tag = readString(in);
+                Locale locale = tag.isEmpty() ? Locale.ROOT : StringUtils.parseLocale(tag);
+                Map<String, String> localeMessages = new LinkedHashMap<>();
+                for (int count = in.readInt(); count > 0; count--) {
+                    localeMessages.put(readString(in), readString(in));
+                }
+                Set<String> codes = new LinkedHashSet<>();
+                for (int count = in.readInt(); count > 0; count--) {
+                    codes.add(readString(in));
+                }
+                messages.put(locale, localeMessages);
+                removedCodes.put(locale, codes);
+            }
+            return new CatalogUpdate(origin, messages, removedCodes);
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Malformed catalog update", ex);
+        }
+    }
+
+    /**
+     * Length prefixed UTF-8, DataOutput.writeUTF is limited to 64 KB.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogUpdate[origin=" + origin + ", locales=" + getLocales() + "]";
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.i18nsupport;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content versions of catalog tables: a digest of all codes and messages a locale sees.
+ * <p>
+ * The version only depends on the messages, so it is the same on every instance and after a restart,
+ * and it changes exactly when a reload changes one of the locale's messages.
+ */
+final class CatalogVersions {
+
+    /**
+     * 128 bits of SHA-256, as 32 hex characters.
+     */
+    private static final int VERSION_BYTES = 16;
+
+    private CatalogVersions() {
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    static String toVersion(MessageDigest digest) {
+        return HexFormat.of().formatHex(digest.digest(), 0, VERSION_BYTES);
+    }
+}
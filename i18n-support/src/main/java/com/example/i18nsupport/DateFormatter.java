@@ -0,0 +1,139 @@
+package com.example.i18nsupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DecimalStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Immutable, thread-safe counterpart of a {@link SimpleDateFormat}, backed by a {@link DateTimeFormatter}
+ * with the same pattern: formats {@link Date}s with the same output, and also java.time values
+ * (LocalDate, ZonedDateTime, Instant, ...), which DateFormat rejects.
+ * <p>
+ * Dates are formatted in the time zone of the DateFormat (the default time zone when it was created).
+ * Patterns with letters whose meaning differs between the two classes, non-Gregorian calendars and dates
+ * before the Gregorian cutover are formatted by a clone of the DateFormat, the same as before.
+ */
+public final class DateFormatter implements ArgumentFormatter {
+
+    /**
+     * Start of the Gregorian calendar in GregorianCalendar, java.time is proleptic before it.
+     */
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+
+    /**
+     * Never used directly, DateFormat is not thread-safe.
+     */
+    private final DateFormat prototype;
+
+    /**
+     * Null if the pattern is left to DateFormat.
+     */
+    private final DateTimeFormatter formatter;
+
+    private final ZoneId zone;
+
+    DateFormatter(DateFormat prototype, Locale locale) {
+        this.prototype = (DateFormat) prototype.clone();
+        this.zone = prototype.getTimeZone().toZoneId();
+        this.formatter = prototype instanceof SimpleDateFormat simpleDateFormat
+                && "gregory".equals(prototype.getCalendar().getCalendarType())
+                ? toDateTimeFormatter(simpleDateFormat.toPattern(), locale)
+                : null;
+    }
+
+    public String format(Object date) {
+        StringBuilder out = new StringBuilder(32);
+        format(date, out);
+        return out.toString();
+    }
+
+    public void format(Object date, StringBuilder out) {
+        try {
+            format(date, (Appendable) out);
+        } catch (IOException ex) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the argument is neither a Date, a Number (epoch millis) nor a
+     *                                  java.time value with the fields of the pattern
+     */
+    @Override
+    public void format(Object date, Appendable out) throws IOException {
+        if (date instanceof TemporalAccessor temporal) {
+            try {
+                if (formatter != null) {
+                    formatter.formatTo(temporal instanceof Instant instant ? instant.atZone(zone) : temporal, out);
+                } else {
+                    // the pattern is only known to DateFormat, which takes the same instant as a Date
+                    out.append(((DateFormat) prototype.clone()).format(Date.from(Instant.from(temporal))));
+                }
+            } catch (DateTimeException ex) {
+                throw new IllegalArgumentException("Cannot format given Object as a Date", ex);
+            }
+            return;
+        }
+        long epochMillis = date instanceof Date legacy ? legacy.getTime()
+                : date instanceof Number number ? number.longValue()
+                : Long.MIN_VALUE;
+        if (formatter == null || epochMillis < GREGORIAN_CUTOVER) {
+            out.append(((DateFormat) prototype.clone()).format(date));
+            return;
+        }
+        formatter.formatTo(Instant.ofEpochMilli(epochMillis).atZone(zone), out);
+    }
+
+    /**
+     * The DateTimeFormatter for a SimpleDateFormat pattern, or null if the pattern uses a letter (or a letter count)
+     * whose output is not the same in both, e.g. 'u' (day of week vs year), 'S' (milliseconds vs fraction)
+     * or 'G' (the era names differ in some locales).
+     */
+    static DateTimeFormatter toDateTimeFormatter(String pattern, Locale locale) {
+        boolean inQuote = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            char letter = pattern.charAt(i);
+            int count = 1;
+            while (i + count < pattern.length() && pattern.charAt(i + count) == letter) {
+                count++;
+            }
+            if (letter == '\'') {
+                inQuote = count % 2 == 1 ? !inQuote : inQuote;
+            } else if (!inQuote && !isSupported(letter, count)) {
+                return null;
+            }
+            i += count;
+        }
+        try {
+            return DateTimeFormatter.ofPattern(pattern, locale).withDecimalStyle(DecimalStyle.of(locale));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isSupported(char letter, int count) {
+        return switch (letter) {
+            case 'M', 'L', 'E', 'z' -> count <= 4;
+            case 'y' -> count <= 4;
+            case 'D' -> count <= 3;
+            case 'd', 'h', 'H', 'k', 'K', 'm', 's' -> count <= 2;
+            case 'a' -> count == 1;
+            case 'S' -> count == 3;
+            case 'Z' -> count <= 3;
+            // brackets are optional sections and # { } reserved in DateTimeFormatter, but literals in DateFormat
+            case '[', ']', '#', '{', '}' -> false;
+            default -> !Character.isLetter(letter);
+        };
+    }
+}
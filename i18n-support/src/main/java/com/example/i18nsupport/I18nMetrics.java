@@ -0,0 +1,301 @@
+package com.example.i18nsupport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how the i18n layer behaves: message resolution latency per bundle locale and fallback depth,
+ * missing messages, bundle load times and locale resolution latency. Cache hits and misses come from
+ * {@link CachingMessageSource}'s own cache metrics.
+ * <p>
+ * Set on one {@link AbstractCatalogMessageSource} ({@link AbstractCatalogMessageSource#setMetrics}) and given to an
+ * {@link InstrumentedLocaleResolver}. Sources without metrics skip all of this, the only cost left is a null check.
+ * Registered as a {@link MeterBinder}, so with Actuator the meters show up under /actuator/metrics (i18n.*);
+ * nothing is recorded before that, except bundle loads, which are replayed.
+ * <p>
+ * Meters:
+ * <ul>
+ * <li>i18n.messages.resolve: timer, tags locale (bundle that served the message, "base" for the base bundle)
+ * and fallback (0 = the requested locale's own bundle, 1 = its parent, ..., "default" = the default locale,
+ * "base" = the base bundle)</li>
+ * <li>i18n.messages.missing: counter of codes no bundle defines, tag locale (the requested locale's bundle).
+ * They are also logged at debug level, useCodeAsDefaultMessage hides them otherwise</li>
+ * <li>i18n.messages.load: timer of catalog loads, tags source (properties, binary) and kind (startup, reload)</li>
+ * <li>i18n.locale.resolve and i18n.locale.change: timers of LocaleResolver.resolveLocale and of setLocale
+ * (what LocaleChangeInterceptor does for a ?lang= parameter), tag resolver</li>
+ * </ul>
+ * With {@link #setJfrEnabled} the same data is also emitted as JFR events (category "I18n"), which only cost
+ * something while a recording with them enabled is running.
+ */
+public class I18nMetrics implements MeterBinder {
+
+    private static final Log logger = LogFactory.getLog(I18nMetrics.class);
+
+    /**
+     * Upper bound for remembered "requested locale -> meters" mappings, protects against arbitrary client locales.
+     */
+    private static final int MAX_RESOLVED_LOCALES = 256;
+
+    private volatile MeterRegistry registry;
+
+    private boolean percentileHistogram;
+
+    private boolean jfrEnabled;
+
+    private final ConcurrentMap<Locale, MessageMeters> messageMeters = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    private final List<Runnable> pendingLoads = new ArrayList<>();
+
+    /**
+     * Publish percentile histogram buckets of the timers (e.g. for Prometheus' histogram_quantile).
+     */
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /**
+     * Also emit JFR events.
+     */
+    public void setJfrEnabled(boolean jfrEnabled) {
+        this.jfrEnabled = jfrEnabled;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<Runnable> loads;
+        synchronized (pendingLoads) {
+            this.registry = registry;
+            loads = List.copyOf(pendingLoads);
+            pendingLoads.clear();
+        }
+        loads.forEach(Runnable::run);
+    }
+
+    /**
+     * A message lookup of the given source took the given time.
+     *
+     * @param locale the requested locale, after the default locale was applied
+     */
+    void messageResolved(AbstractCatalogMessageSource source, String code, Locale locale, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        MessageMeters meters = messageMeters(source, locale);
+        if (meters != null) {
+            meters.resolve.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        if (jfrEnabled) {
+            MessageResolveEvent event = new MessageResolveEvent();
+            if (event.shouldCommit()) {
+                event.code = code;
+                event.locale = locale.toLanguageTag();
+                event.nanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    void messageMissing(AbstractCatalogMessageSource source, String code, Locale locale) {
+        MessageMeters meters = messageMeters(source, locale);
+        if (meters != null) {
+            meters.missing.increment();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("No message found under code '" + code + "' for locale '" + locale + "'");
+        }
+        if (jfrEnabled) {
+            MessageMissingEvent event = new MessageMissingEvent();
+            if (event.shouldCommit()) {
+                event.code = code;
+                event.locale = locale.toLanguageTag();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * A catalog was loaded from the given source ("properties", "binary"), at startup or by a reload.
+     */
+    void catalogLoaded(String source, boolean reload, int locales, long nanos) {
+        String kind = reload ? "reload" : "startup";
+        if (reload) {
+            // a new or removed bundle changes which bundle serves a locale
+            messageMeters.clear();
+        }
+        Runnable record = () -> timer("i18n.messages.load", "Time to load a message catalog",
+                "source", source, "kind", kind).record(nanos, TimeUnit.NANOSECONDS);
+        boolean bound;
+        synchronized (pendingLoads) {
+            // decided under the lock, a queued load is only recorded by bindTo
+            bound = registry != null;
+            if (!bound) {
+                pendingLoads.add(record);
+            }
+        }
+        if (bound) {
+            record.run();
+        }
+        if (jfrEnabled) {
+            CatalogLoadEvent event = new CatalogLoadEvent();
+            if (event.shouldCommit()) {
+                event.source = source;
+                event.kind = kind;
+                event.locales = locales;
+                event.nanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Timer of a locale resolver operation (i18n.locale.resolve, i18n.locale.change), null before binding.
+     */
+    Timer localeTimer(String name, String description, String resolver) {
+        return registry != null ? timer(name, description, "resolver", resolver) : null;
+    }
+
+    void localeEvent(String operation, Locale locale, long nanos) {
+        if (jfrEnabled) {
+            LocaleResolveEvent event = new LocaleResolveEvent();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.locale = locale != null ? locale.toLanguageTag() : null;
+                event.nanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    private MessageMeters messageMeters(AbstractCatalogMessageSource source, Locale locale) {
+        if (registry == null) {
+            return null;
+        }
+        MessageMeters meters = messageMeters.get(locale);
+        if (meters == null) {
+            Locale bundleLocale = source.getBundleLocale(locale);
+            String localeTag = Locale.ROOT.equals(bundleLocale) ? "base" : bundleLocale.toLanguageTag();
+            String fallback = fallback(locale, bundleLocale);
+            meters = new MessageMeters(
+                    timer("i18n.messages.resolve", "Time to resolve and format a message",
+                            "locale", localeTag, "fallback", fallback),
+                    Counter.builder("i18n.messages.missing")
+                            .description("Message codes no bundle defines")
+                            .tag("locale", localeTag)
+                            .register(registry));
+            if (messageMeters.size() < MAX_RESOLVED_LOCALES) {
+                messageMeters.putIfAbsent(locale, meters);
+            }
+        }
+        return meters;
+    }
+
+    /**
+     * How far down the fallback chain the bundle locale is from the requested one.
+     */
+    private static String fallback(Locale locale, Locale bundleLocale) {
+        if (Locale.ROOT.equals(bundleLocale)) {
+            return "base";
+        }
+        int depth = Locales.candidates(locale).indexOf(bundleLocale);
+        return depth >= 0 ? Integer.toString(depth) : "default";
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        String key = name + String.join(",", tags);
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = Timer.builder(name)
+                    .description(description)
+                    .tags(tags)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(registry);
+            timers.put(key, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * After the bundle locale, so bounded by the number of bundles.
+     */
+    private record MessageMeters(Timer resolve, Counter missing) {
+    }
+
+    @Name("com.example.i18n.MessageResolve")
+    @Label("Message Resolve")
+    @Category("I18n")
+    @StackTrace(false)
+    static class MessageResolveEvent extends Event {
+
+        @Label("Code")
+        String code;
+
+        @Label("Locale")
+        String locale;
+
+        @Label("Nanos")
+        long nanos;
+    }
+
+    @Name("com.example.i18n.MessageMissing")
+    @Label("Message Missing")
+    @Category("I18n")
+    static class MessageMissingEvent extends Event {
+
+        @Label("Code")
+        String code;
+
+        @Label("Locale")
+        String locale;
+    }
+
+    @Name("com.example.i18n.CatalogLoad")
+    @Label("Catalog Load")
+    @Category("I18n")
+    @StackTrace(false)
+    static class CatalogLoadEvent extends Event {
+
+        @Label("Source")
+        String source;
+
+        @Label("Kind")
+        String kind;
+
+        @Label("Locales")
+        int locales;
+
+        @Label("Nanos")
+        long nanos;
+    }
+
+    @Name("com.example.i18n.LocaleResolve")
+    @Label("Locale Resolve")
+    @Category("I18n")
+    @StackTrace(false)
+    static class LocaleResolveEvent extends Event {
+
+        @Label("Operation")
+        String operation;
+
+        @Label("Locale")
+        String locale;
+
+        @Label("Nanos")
+        long nanos;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.i18nsupport;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.LocaleResolver;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator that times {@link LocaleResolver#resolveLocale} (i18n.locale.resolve) and
+ * {@link LocaleResolver#setLocale} (i18n.locale.change, called by LocaleChangeInterceptor for a ?lang= parameter)
+ * of any resolver, see {@link I18nMetrics}.
+ */
+public class InstrumentedLocaleResolver implements LocaleResolver {
+
+    private static final String RESOLVE = "i18n.locale.resolve";
+
+    private static final String CHANGE = "i18n.locale.change";
+
+    private final LocaleResolver delegate;
+
+    private final I18nMetrics metrics;
+
+    private final String resolverName;
+
+    private volatile Timer resolveTimer;
+
+    private volatile Timer changeTimer;
+
+    public InstrumentedLocaleResolver(LocaleResolver delegate, I18nMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.resolverName = delegate.getClass().getSimpleName();
+    }
+
+    public LocaleResolver getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Locale resolveLocale(HttpServletRequest request) {
+        long start = System.nanoTime();
+        Locale locale = delegate.resolveLocale(request);
+        long nanos = System.nanoTime() - start;
+        Timer timer = resolveTimer;
+        if (timer == null) {
+            timer = metrics.localeTimer(RESOLVE, "Time to resolve the locale of a request", resolverName);
+            resolveTimer = timer;
+        }
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        metrics.localeEvent(RESOLVE, locale, nanos);
+        return locale;
+    }
+
+    @Override
+    public void setLocale(HttpServletRequest request, HttpServletResponse response, Locale locale) {
+        long start = System.nanoTime();
+        delegate.setLocale(request, response, locale);
+        long nanos = System.nanoTime() - start;
+        Timer timer = changeTimer;
+        if (timer == null) {
+            timer = metrics.localeTimer(CHANGE, "Time to change the locale of a user", resolverName);
+            changeTimer = timer;
+        }
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+        metrics.localeEvent(CHANGE, locale, nanos);
+    }
+}
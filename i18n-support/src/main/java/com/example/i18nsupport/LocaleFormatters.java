@@ -0,0 +1,125 @@
+package com.example.i18nsupport;
+
+import java.text.ChoiceFormat;
+import java.text.DateFormat;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.time.format.FormatStyle;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable, thread-safe number and date formatters per locale, created once and shared.
+ * <p>
+ * {@link MessageFormat} creates a NumberFormat or DateFormat for every typed argument ({0,number,currency},
+ * {0,date,long}), and these are not thread-safe, so they have to be cloned or locked on every use.
+ * The formatters here give the same output as those formats, but can be used by any number of threads at once:
+ * {@link MessageTemplate} renders typed arguments with them, and controllers can use them directly, e.g.
+ * {@code localeFormatters.getCurrencyFormatter(locale).format(total)}.
+ * <p>
+ * A formatter is described by the format type and style of a MessageFormat argument, e.g. "number,currency",
+ * "date,long" or "number,#.##".
+ */
+public final class LocaleFormatters {
+
+    /**
+     * Upper bound for cached formatters, protects against arbitrary client locales and patterns.
+     */
+    private static final int MAX_CACHED_FORMATTERS = 4096;
+
+    private static final LocaleFormatters SHARED = new LocaleFormatters();
+
+    private final ConcurrentMap<Key, ArgumentFormatter> formatters = new ConcurrentHashMap<>();
+
+    /**
+     * The instance message templates format their arguments with.
+     */
+    public static LocaleFormatters shared() {
+        return SHARED;
+    }
+
+    public NumberFormatter getNumberFormatter(Locale locale) {
+        return (NumberFormatter) getFormatter("number", locale);
+    }
+
+    public NumberFormatter getIntegerFormatter(Locale locale) {
+        return (NumberFormatter) getFormatter("number,integer", locale);
+    }
+
+    public NumberFormatter getCurrencyFormatter(Locale locale) {
+        return (NumberFormatter) getFormatter("number,currency", locale);
+    }
+
+    public NumberFormatter getPercentFormatter(Locale locale) {
+        return (NumberFormatter) getFormatter("number,percent", locale);
+    }
+
+    /**
+     * @param pattern a {@link java.text.DecimalFormat} pattern, e.g. "#,##0.00"
+     */
+    public NumberFormatter getNumberFormatter(String pattern, Locale locale) {
+        return (NumberFormatter) getFormatter("number," + pattern, locale);
+    }
+
+    public DateFormatter getDateFormatter(FormatStyle style, Locale locale) {
+        return (DateFormatter) getFormatter("date," + style(style), locale);
+    }
+
+    public DateFormatter getTimeFormatter(FormatStyle style, Locale locale) {
+        return (DateFormatter) getFormatter("time," + style(style), locale);
+    }
+
+    /**
+     * @param pattern a {@link java.text.SimpleDateFormat} pattern, e.g. "dd.MM.yyyy"
+     */
+    public DateFormatter getDateFormatter(String pattern, Locale locale) {
+        return (DateFormatter) getFormatter("date," + pattern, locale);
+    }
+
+    /**
+     * The date and time format MessageFormat uses for a Date argument without a format type.
+     */
+    public DateFormatter getDateTimeFormatter(Locale locale) {
+        return (DateFormatter) getFormatter("", locale);
+    }
+
+    /**
+     * Returns the formatter for a MessageFormat argument format, e.g. "number,currency" for {0,number,currency}.
+     * An empty format gives the short date and time format of untyped Date arguments.
+     *
+     * @throws IllegalArgumentException for an invalid format, or a choice format (which has no formatter)
+     */
+    ArgumentFormatter getFormatter(String format, Locale locale) {
+        Key key = new Key(format, locale);
+        ArgumentFormatter formatter = formatters.get(key);
+        if (formatter == null) {
+            formatter = createFormatter(format, locale);
+            if (formatters.size() < MAX_CACHED_FORMATTERS) {
+                formatters.putIfAbsent(key, formatter);
+            }
+        }
+        return formatter;
+    }
+
+    private static ArgumentFormatter createFormatter(String format, Locale locale) {
+        Format prototype = format.isEmpty()
+                ? DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale)
+                : new MessageFormat("{0," + format + "}", locale).getFormats()[0];
+        if (prototype instanceof NumberFormat numberFormat && !(prototype instanceof ChoiceFormat)) {
+            return new NumberFormatter(numberFormat);
+        }
+        if (prototype instanceof DateFormat dateFormat) {
+            return new DateFormatter(dateFormat, locale);
+        }
+        throw new IllegalArgumentException("No formatter for format '" + format + "'");
+    }
+
+    private static String style(FormatStyle style) {
+        return style.name().toLowerCase(Locale.ROOT);
+    }
+
+    private record Key(String format, Locale locale) {
+    }
+}
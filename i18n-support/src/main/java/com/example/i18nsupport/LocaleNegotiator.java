@@ -0,0 +1,148 @@
+package com.example.i18nsupport;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Picks the best supported locale for an Accept-Language header value and remembers the outcome per header value.
+ * <p>
+ * Negotiation follows {@link org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver}: requested locales
+ * are tried by quality, the first one that is supported wins, and one with only its language supported ("de-AT"
+ * for supported "de") is kept as a match that only a later exact match of the same language replaces, so
+ * "de-AT, fr" gives de. Without any match the default locale is used. Real traffic only sends a handful of distinct
+ * headers, so after warm-up negotiating is a single lookup in a bounded concurrent cache, without locks or I/O.
+ * <p>
+ * Shared by {@link NegotiatingLocaleResolver} (Servlet stack) and {@link NegotiatingLocaleContextResolver}
+ * (WebFlux).
+ */
+public class LocaleNegotiator {
+
+    public static final int DEFAULT_CACHE_SIZE = 1_000;
+
+    /**
+     * Longer headers are negotiated every time, so odd clients can not fill the cache with huge keys.
+     */
+    private static final int MAX_CACHED_HEADER_LENGTH = 256;
+
+    private final Cache<String, Locale> cache;
+
+    private List<Locale> supportedLocales = List.of();
+
+    private Locale defaultLocale;
+
+    public LocaleNegotiator() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public LocaleNegotiator(int cacheSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Locales the application has bundles for, e.g. {@link MessageCatalog#getLocales()} plus the default locale.
+     */
+    public void setSupportedLocales(Collection<Locale> supportedLocales) {
+        this.supportedLocales = List.copyOf(supportedLocales);
+        this.cache.invalidateAll();
+    }
+
+    public List<Locale> getSupportedLocales() {
+        return supportedLocales;
+    }
+
+    public void setDefaultLocale(Locale defaultLocale) {
+        this.defaultLocale = defaultLocale;
+        this.cache.invalidateAll();
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Hit / miss / eviction counters of the negotiation cache.
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the locale for the given Accept-Language header value,
+     * or the default locale (possibly null) if the request has no such header.
+     */
+    public Locale resolve(String header) {
+        if (!StringUtils.hasText(header)) {
+            return defaultLocale;
+        }
+        if (header.length() > MAX_CACHED_HEADER_LENGTH) {
+            return negotiate(header);
+        }
+        return cache.get(header, this::negotiate);
+    }
+
+    /**
+     * Picks the best supported locale for the given Accept-Language header value, without the cache.
+     */
+    Locale negotiate(String header) {
+        List<Locale> requestedLocales = parse(header);
+        if (requestedLocales.isEmpty()) {
+            return defaultLocale != null ? defaultLocale : Locale.getDefault();
+        }
+        if (supportedLocales.isEmpty()) {
+            return requestedLocales.get(0);
+        }
+        Locale languageMatch = null;
+        for (Locale requested : requestedLocales) {
+            if (supportedLocales.contains(requested)) {
+                // like AcceptHeaderLocaleResolver, an exact match only replaces an earlier match of its own language
+                if (languageMatch == null || languageMatch.getLanguage().equals(requested.getLanguage())) {
+                    return requested;
+                }
+            } else if (languageMatch == null) {
+                languageMatch = findLanguageMatch(requested);
+            }
+        }
+        if (languageMatch != null) {
+            return languageMatch;
+        }
+        return defaultLocale != null ? defaultLocale : requestedLocales.get(0);
+    }
+
+    private Locale findLanguageMatch(Locale requested) {
+        for (Locale candidate : supportedLocales) {
+            if (candidate.getCountry().isEmpty() && candidate.getLanguage().equals(requested.getLanguage())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Requested locales ordered by quality, most preferred first. Wildcards and malformed values are skipped.
+     */
+    private static List<Locale> parse(String header) {
+        List<Locale.LanguageRange> ranges;
+        try {
+            ranges = Locale.LanguageRange.parse(header);
+        } catch (IllegalArgumentException ex) {
+            return List.of();
+        }
+        List<Locale> locales = new ArrayList<>(ranges.size());
+        for (Locale.LanguageRange range : ranges) {
+            if (!range.getRange().contains("*")) {
+                locales.add(Locale.forLanguageTag(range.getRange()));
+            }
+        }
+        return locales;
+    }
+}
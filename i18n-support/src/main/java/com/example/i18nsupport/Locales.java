@@ -0,0 +1,55 @@
+package com.example.i18nsupport;
+
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Small helpers for working with bundle locales, shared by the catalog and the locale resolvers.
+ */
+final class Locales {
+
+    private Locales() {
+    }
+
+    /**
+     * Returns the bundle candidates for the given locale, most specific first, without the root locale.
+     * Example: pl_PL_x -> [pl_PL_x, pl_PL, pl]
+     */
+    static List<Locale> candidates(Locale locale) {
+        List<Locale> candidates = new ArrayList<>(3);
+        String language = locale.getLanguage();
+        String country = locale.getCountry();
+        String variant = locale.getVariant();
+        if (!variant.isEmpty()) {
+            candidates.add(new Locale(language, country, variant));
+        }
+        if (!country.isEmpty()) {
+            candidates.add(new Locale(language, country));
+        }
+        if (!language.isEmpty()) {
+            candidates.add(new Locale(language));
+        }
+        return candidates;
+    }
+
+    /**
+     * Resolves the locale of a bundle file from its name, e.g. "message_pl_PL.properties" for basename "message".
+     * Returns null when the file does not belong to the basename (e.g. "messages.properties" for "message").
+     */
+    static Locale fromBundleFilename(String filename, String basename, String extension) {
+        if (filename == null || !filename.startsWith(basename) || !filename.endsWith(extension)) {
+            return null;
+        }
+        String suffix = filename.substring(basename.length(), filename.length() - extension.length());
+        if (suffix.isEmpty()) {
+            return Locale.ROOT;
+        }
+        if (suffix.charAt(0) != '_' || suffix.length() == 1) {
+            return null;
+        }
+        return StringUtils.parseLocale(suffix.substring(1));
+    }
+}
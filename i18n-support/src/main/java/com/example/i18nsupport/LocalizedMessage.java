@@ -0,0 +1,46 @@
+package com.example.i18nsupport;
+
+import java.util.Locale;
+
+/**
+ * A message to be resolved and written as the response body by {@link LocalizedMessageHttpMessageConverter},
+ * the return value of a handler instead of the resolved String.
+ * <p>
+ * The message is not formatted in the handler: the converter writes it from the catalog straight into the
+ * response buffer, so the String and its re-encoding by the StringHttpMessageConverter are skipped.
+ */
+public final class LocalizedMessage {
+
+    private final MessageKey key;
+
+    private final Object[] args;
+
+    private final Locale locale;
+
+    public LocalizedMessage(MessageKey key, Object[] args, Locale locale) {
+        this.key = key;
+        this.args = args;
+        this.locale = locale;
+    }
+
+    public static LocalizedMessage of(String code, Locale locale, Object... args) {
+        return new LocalizedMessage(MessageKey.of(code), args, locale);
+    }
+
+    public MessageKey getKey() {
+        return key;
+    }
+
+    public Object[] getArgs() {
+        return args;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public String toString() {
+        return "LocalizedMessage[" + key.getCode() + ", " + locale + "]";
+    }
+}
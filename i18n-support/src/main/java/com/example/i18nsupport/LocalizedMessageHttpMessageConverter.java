@@ -0,0 +1,128 @@
+package com.example.i18nsupport;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes a {@link LocalizedMessage} returned by a handler as a text/plain body, without a String in between.
+ * <p>
+ * For UTF-8 responses the message is written with {@link AbstractCatalogMessageSource#writeMessage} into a pooled
+ * buffer: the literal parts are copied as pre-encoded bytes (from the mapped {@link BinaryCatalog}, or the
+ * UTF-8 literals of the {@link MessageTemplate}), only the arguments are encoded. The buffer then goes to the
+ * response stream in one write, with the Content-Length set. Other response charsets, and unknown codes
+ * (default message, code as default message, NoSuchMessageException), take the getMessage path.
+ * <p>
+ * Buffers are pooled in a small bounded queue, not per thread, so the pool also works with virtual threads.
+ * Messages larger than the maximum buffer size are formatted as a String instead.
+ */
+public class LocalizedMessageHttpMessageConverter extends AbstractHttpMessageConverter<LocalizedMessage> {
+
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final AbstractCatalogMessageSource messageSource;
+
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    private int maxBufferSize = 64 * 1024;
+
+    public LocalizedMessageHttpMessageConverter(AbstractCatalogMessageSource messageSource) {
+        this(messageSource, 64);
+    }
+
+    /**
+     * @param poolSize number of buffers kept for reuse, about the number of responses written at the same time
+     */
+    public LocalizedMessageHttpMessageConverter(AbstractCatalogMessageSource messageSource, int poolSize) {
+        super(StandardCharsets.UTF_8, MediaType.TEXT_PLAIN, MediaType.ALL);
+        this.messageSource = messageSource;
+        this.buffers = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Largest message written through a buffer, 64 KB by default.
+     */
+    public void setMaxBufferSize(int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return LocalizedMessage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected LocalizedMessage readInternal(Class<? extends LocalizedMessage> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("LocalizedMessage can only be written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(LocalizedMessage message, HttpOutputMessage outputMessage) throws IOException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset() : StandardCharsets.UTF_8;
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            ByteBuffer buffer = write(message);
+            if (buffer != null) {
+                try {
+                    outputMessage.getHeaders().setContentLength(buffer.position());
+                    outputMessage.getBody().write(buffer.array(), buffer.arrayOffset(), buffer.position());
+                } finally {
+                    release(buffer);
+                }
+                return;
+            }
+        }
+        byte[] body = messageSource.getMessage(message.getKey(), message.getArgs(), message.getLocale())
+                .getBytes(charset);
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    /**
+     * Writes the message into a pooled buffer, grown while it is too small.
+     *
+     * @return the written buffer, or null if the code is unknown or the message too large
+     */
+    private ByteBuffer write(LocalizedMessage message) {
+        ByteBuffer buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        }
+        while (true) {
+            try {
+                if (messageSource.writeMessage(message.getKey(), message.getArgs(), message.getLocale(), buffer.clear())) {
+                    return buffer;
+                }
+                release(buffer);
+                return null;
+            } catch (BufferOverflowException ex) {
+                if (buffer.capacity() >= maxBufferSize) {
+                    return null;
+                }
+                buffer = ByteBuffer.allocate(Math.min(buffer.capacity() * 2, maxBufferSize));
+            }
+        }
+    }
+
+    private void release(ByteBuffer buffer) {
+        if (buffer.capacity() <= maxBufferSize) {
+            buffers.offer(buffer);
+        }
+    }
+}
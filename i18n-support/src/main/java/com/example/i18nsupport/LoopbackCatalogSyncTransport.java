@@ -0,0 +1,28 @@
+package com.example.i18nsupport;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * {@link CatalogSyncTransport} within one JVM: every update is handed to all subscribers on the publishing thread
+ * before publish returns, in one global order. For tests and single node setups, several message sources in one
+ * JVM behave like the nodes of a cluster.
+ */
+public class LoopbackCatalogSyncTransport implements CatalogSyncTransport {
+
+    private final List<Consumer<byte[]>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public synchronized void publish(byte[] update) {
+        for (Consumer<byte[]> listener : listeners) {
+            listener.accept(update.clone());
+        }
+    }
+
+    @Override
+    public AutoCloseable subscribe(Consumer<byte[]> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+}
@@ -0,0 +1,518 @@
+package com.example.i18nsupport;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, flattened view of all message bundles of an application.
+ * <p>
+ * Every bundle locale found on the classpath gets its own table with the whole fallback chain
+ * (pl_PL -> pl -> base bundle) already merged in, so resolving a message never touches
+ * {@link java.util.ResourceBundle}.
+ * <p>
+ * The codes of all bundles are numbered once (in natural order) and every table is stored as a row, an array
+ * indexed by that number: a code lookup is one hash lookup of its number and an array load, a {@link MessageKey}
+ * lookup two array loads. The rows are the only storage, the tables handed out are read-only views of them.
+ * A catalog built from the tables of a previous one (e.g. after a reload) takes over the rows of every table it
+ * gets back unchanged, as long as no new code has to be numbered. A catalog with a {@link MessageCatalogLayer} on
+ * top shares the rows too, its tables look the overrides up first.
+ */
+public final class MessageCatalog {
+
+    /**
+     * Upper bound for remembered "requested locale -> table" mappings, protects against arbitrary client locales.
+     */
+    private static final int MAX_RESOLVED_LOCALES = 256;
+
+    /**
+     * All codes of all tables in natural order, the index is the number of the code.
+     */
+    private final Codes codes;
+
+    private final Map<Locale, Table> tables;
+
+    private final Map<Locale, Map<String, MessageTemplate>> bundleTables;
+
+    private final Table rootTable;
+
+    private final Set<Locale> locales;
+
+    private final Locale defaultLocale;
+
+    private final ConcurrentMap<Locale, Table> resolvedTables;
+
+    /**
+     * Content version of all tables together, computed on first use.
+     */
+    private volatile String catalogVersion;
+
+    /**
+     * @param tables        flattened tables per bundle locale, must contain {@link Locale#ROOT} for the base bundle;
+     *                      tables of another catalog keep their rows if their codes are still numbered the same
+     * @param defaultLocale locale to fall back to when none of the requested locale's bundles exist, may be null
+     */
+    MessageCatalog(Map<Locale, Map<String, MessageTemplate>> tables, Locale defaultLocale) {
+        this.codes = Codes.of(tables.values());
+        Map<Locale, Table> rows = new HashMap<>();
+        tables.forEach((bundleLocale, table) -> rows.put(bundleLocale, Table.of(bundleLocale, table, codes)));
+        this.tables = Map.copyOf(rows);
+        this.bundleTables = Collections.unmodifiableMap(this.tables);
+        this.rootTable = this.tables.containsKey(Locale.ROOT)
+                ? this.tables.get(Locale.ROOT) : Table.of(Locale.ROOT, Map.of(), codes);
+        this.locales = this.tables.keySet().stream()
+                .filter(locale -> !Locale.ROOT.equals(locale))
+                .sorted(Comparator.comparing(Locale::toString))
+                .collect(Collectors.collectingAndThen(
+                        Collectors.toCollection(LinkedHashSet::new), Collections::unmodifiableSet));
+        this.defaultLocale = defaultLocale;
+        this.resolvedTables = new ConcurrentHashMap<>(this.tables);
+    }
+
+    /**
+     * Returns the raw (not formatted) message for the given code, or null if no bundle in the chain defines it.
+     */
+    public String getMessage(String code, Locale locale) {
+        MessageTemplate template = getTemplate(code, locale);
+        return template != null ? template.getPattern() : null;
+    }
+
+    /**
+     * Returns the compiled message for the given code, or null if no bundle in the chain defines it.
+     */
+    public MessageTemplate getTemplate(String code, Locale locale) {
+        return resolveTable(locale).get(code);
+    }
+
+    /**
+     * Returns the compiled message for the given key, or null if no bundle in the chain defines it.
+     */
+    public MessageTemplate getTemplate(MessageKey key, Locale locale) {
+        Table table = resolveTable(locale);
+        int id = key.id(this, this::keyId);
+        return id >= 0 ? table.get(id) : table.unnumbered.get(key.getCode());
+    }
+
+    /**
+     * Returns all messages visible for the given locale, including the ones inherited from parent bundles.
+     */
+    public Map<String, MessageTemplate> getTemplates(Locale locale) {
+        return resolveTable(locale);
+    }
+
+    /**
+     * Returns the compiled messages for the given codes in the given order, the locale's table is resolved once.
+     * Codes no bundle in the chain defines are left out.
+     */
+    public Map<String, MessageTemplate> getTemplates(Collection<String> codes, Locale locale) {
+        Table table = resolveTable(locale);
+        Map<String, MessageTemplate> templates = new LinkedHashMap<>();
+        for (String code : codes) {
+            MessageTemplate template = table.get(code);
+            if (template != null) {
+                templates.put(code, template);
+            }
+        }
+        return templates;
+    }
+
+    /**
+     * Returns the compiled messages whose code starts with the given prefix, ordered by code.
+     */
+    public Map<String, MessageTemplate> getTemplatesByPrefix(String prefix, Locale locale) {
+        Table table = resolveTable(locale);
+        String[] sorted = codes.sorted;
+        Map<String, MessageTemplate> templates = table.unnumbered.isEmpty() ? new LinkedHashMap<>() : new TreeMap<>();
+        int index = Arrays.binarySearch(sorted, prefix);
+        for (int i = index >= 0 ? index : -index - 1; i < sorted.length && sorted[i].startsWith(prefix); i++) {
+            MessageTemplate template = table.get(i);
+            if (template != null) {
+                templates.put(sorted[i], template);
+            }
+        }
+        table.unnumbered.forEach((code, template) -> {
+            if (code.startsWith(prefix)) {
+                templates.put(code, template);
+            }
+        });
+        return templates;
+    }
+
+    /**
+     * Returns the content version of the messages visible for the given locale, a digest of all its codes and
+     * messages. Locales that resolve to the same table share the version, and it is the same for every catalog
+     * built from the same bundles, so it can serve as an HTTP validator across instances and restarts.
+     */
+    public String getVersion(Locale locale) {
+        return resolveTable(locale).getVersion();
+    }
+
+    /**
+     * Returns the content version of the whole catalog, a digest of all bundle locales and their messages.
+     * Two catalogs with the same version serve the same messages for every locale, e.g. all nodes of a cluster
+     * after they applied the same updates.
+     */
+    public String getCatalogVersion() {
+        String version = catalogVersion;
+        if (version == null) {
+            Map<String, Table> sorted = new TreeMap<>();
+            tables.forEach((bundleLocale, table) -> sorted.put(bundleLocale.toString(), table));
+            MessageDigest digest = CatalogVersions.newDigest();
+            sorted.forEach((bundleLocale, table) -> {
+                digest.update(bundleLocale.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(table.getVersion().getBytes(StandardCharsets.UTF_8));
+            });
+            version = CatalogVersions.toVersion(digest);
+            catalogVersion = version;
+        }
+        return version;
+    }
+
+    /**
+     * Returns the locale of the bundle whose table serves the given locale after the fallback rules,
+     * {@link Locale#ROOT} for the base bundle.
+     */
+    public Locale getBundleLocale(Locale locale) {
+        return resolveTable(locale).bundleLocale;
+    }
+
+    /**
+     * Returns the locales of all bundles in this catalog, without the base bundle.
+     */
+    public Set<Locale> getLocales() {
+        return locales;
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * The flattened table of every bundle locale, keyed by bundle locale (base bundle as {@link Locale#ROOT}).
+     */
+    Map<Locale, Map<String, MessageTemplate>> getBundleTables() {
+        return bundleTables;
+    }
+
+    /**
+     * Returns a catalog with the messages of the layer on top of the ones of this catalog. Nothing is copied:
+     * the tables share the rows of this catalog and look the overrides of the layer up first.
+     */
+    MessageCatalog withLayer(MessageCatalogLayer layer) {
+        Map<Locale, Map<String, MessageTemplate>> layered = new HashMap<>();
+        tables.forEach((bundleLocale, table) ->
+                layered.put(bundleLocale, table.withOverrides(layer.getDelta(bundleLocale))));
+        return new MessageCatalog(layered, defaultLocale);
+    }
+
+    /**
+     * Number of the code in this catalog, -1 if no bundle defines it.
+     */
+    int keyId(String code) {
+        return codes.id(code);
+    }
+
+    private Table resolveTable(Locale locale) {
+        Table table = resolvedTables.get(locale);
+        if (table == null) {
+            table = findTable(Locales.candidates(locale));
+            if (table == null && defaultLocale != null) {
+                table = findTable(Locales.candidates(defaultLocale));
+            }
+            if (table == null) {
+                table = rootTable;
+            }
+            if (resolvedTables.size() < MAX_RESOLVED_LOCALES) {
+                resolvedTables.putIfAbsent(locale, table);
+            }
+        }
+        return table;
+    }
+
+    private Table findTable(List<Locale> candidates) {
+        for (Locale candidate : candidates) {
+            Table table = tables.get(candidate);
+            if (table != null) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Numbering of the codes: the codes in natural order plus an open addressing index from code to number.
+     * Shared by every table laid out with it and by the catalogs built from those tables.
+     */
+    private static final class Codes {
+
+        private final String[] sorted;
+
+        private final String[] slots;
+
+        private final int[] ids;
+
+        private Codes(String[] sorted) {
+            this.sorted = sorted;
+            int capacity = Integer.highestOneBit(Math.max(sorted.length, 1) * 2) * 2;
+            this.slots = new String[capacity];
+            this.ids = new int[capacity];
+            for (int id = 0; id < sorted.length; id++) {
+                int slot = slot(sorted[id]);
+                while (slots[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                slots[slot] = sorted[id];
+                ids[slot] = id;
+            }
+        }
+
+        /**
+         * Keeps the numbering of the given tables if they come from a catalog and every code of the others is
+         * numbered already (codes no table defines anymore keep a number until the next renumbering), otherwise
+         * numbers all codes anew.
+         */
+        static Codes of(Collection<Map<String, MessageTemplate>> tables) {
+            Codes previous = tables.stream()
+                    .filter(Table.class::isInstance)
+                    .map(table -> ((Table) table).codes)
+                    .findFirst()
+                    .orElse(null);
+            if (previous != null && tables.stream().allMatch(previous::numbers)) {
+                return previous;
+            }
+            return new Codes(tables.stream()
+                    .flatMap(table -> table.keySet().stream())
+                    .distinct()
+                    .sorted()
+                    .toArray(String[]::new));
+        }
+
+        int size() {
+            return sorted.length;
+        }
+
+        int id(Object code) {
+            if (!(code instanceof String)) {
+                return -1;
+            }
+            for (int slot = slot((String) code); slots[slot] != null; slot = (slot + 1) & (slots.length - 1)) {
+                if (slots[slot].equals(code)) {
+                    return ids[slot];
+                }
+            }
+            return -1;
+        }
+
+        private boolean numbers(Map<String, MessageTemplate> table) {
+            if (table instanceof Table rows && rows.codes == this) {
+                return true;
+            }
+            for (String code : table.keySet()) {
+                if (id(code) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int slot(String code) {
+            int hash = code.hashCode();
+            return (hash ^ (hash >>> 16)) & (slots.length - 1);
+        }
+    }
+
+    /**
+     * Read-only map view of the row of a bundle locale, the row is indexed by code number and null where the
+     * table has no message. Overrides of a layer, if any, are looked up before the row.
+     */
+    private static final class Table extends AbstractMap<String, MessageTemplate> {
+
+        private final Locale bundleLocale;
+
+        private final Codes codes;
+
+        private final MessageTemplate[] row;
+
+        /**
+         * Number of messages in the row.
+         */
+        private final int rowSize;
+
+        /**
+         * Messages of a layer on top of the row, empty for the table of a bundle.
+         */
+        private final Map<String, MessageTemplate> overrides;
+
+        /**
+         * The overrides of codes without a number, in natural order.
+         */
+        private final Map<String, MessageTemplate> unnumbered;
+
+        private final int size;
+
+        /**
+         * Content version, computed on first use.
+         */
+        private volatile String version;
+
+        private Table(Locale bundleLocale, Codes codes, MessageTemplate[] row, int rowSize,
+                      Map<String, MessageTemplate> overrides) {
+            this.bundleLocale = bundleLocale;
+            this.codes = codes;
+            this.row = row;
+            this.rowSize = rowSize;
+            this.overrides = overrides;
+            Map<String, MessageTemplate> unnumbered = new TreeMap<>();
+            int size = rowSize;
+            for (Entry<String, MessageTemplate> override : overrides.entrySet()) {
+                int id = codes.id(override.getKey());
+                if (id < 0) {
+                    unnumbered.put(override.getKey(), override.getValue());
+                    size++;
+                } else if (row[id] == null) {
+                    size++;
+                }
+            }
+            this.unnumbered = unnumbered.isEmpty() ? Map.of() : Collections.unmodifiableMap(unnumbered);
+            this.size = size;
+        }
+
+        /**
+         * The table itself if it already is a table of the bundle locale with these codes, otherwise a new row.
+         */
+        static Table of(Locale bundleLocale, Map<String, MessageTemplate> table, Codes codes) {
+            if (table instanceof Table rows && rows.codes == codes && rows.bundleLocale.equals(bundleLocale)) {
+                return rows;
+            }
+            MessageTemplate[] row = new MessageTemplate[codes.size()];
+            table.forEach((code, template) -> row[codes.id(code)] = template);
+            return new Table(bundleLocale, codes, row, table.size(), Map.of());
+        }
+
+        /**
+         * This table with the given messages on top, sharing the row.
+         */
+        Table withOverrides(Map<String, MessageTemplate> messages) {
+            if (messages.isEmpty()) {
+                return this;
+            }
+            Map<String, MessageTemplate> merged = messages;
+            if (!overrides.isEmpty()) {
+                merged = new HashMap<>(overrides);
+                merged.putAll(messages);
+            }
+            return new Table(bundleLocale, codes, row, rowSize, Map.copyOf(merged));
+        }
+
+        /**
+         * Message of the numbered code.
+         */
+        MessageTemplate get(int id) {
+            MessageTemplate template = overrides.isEmpty() ? null : overrides.get(codes.sorted[id]);
+            return template != null ? template : row[id];
+        }
+
+        @Override
+        public MessageTemplate get(Object code) {
+            MessageTemplate template = overrides.isEmpty() ? null : overrides.get(code);
+            if (template != null) {
+                return template;
+            }
+            int id = codes.id(code);
+            return id >= 0 ? row[id] : null;
+        }
+
+        @Override
+        public boolean containsKey(Object code) {
+            return get(code) != null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Entries of the numbered codes in natural order, then the unnumbered ones.
+         */
+        @Override
+        public Set<Entry<String, MessageTemplate>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<String, MessageTemplate>> iterator() {
+                    Iterator<Entry<String, MessageTemplate>> unnumberedEntries = unnumbered.entrySet().iterator();
+                    return new Iterator<>() {
+
+                        private int next = advance(0);
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < row.length || unnumberedEntries.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, MessageTemplate> next() {
+                            if (next >= row.length) {
+                                return unnumberedEntries.next();
+                            }
+                            Entry<String, MessageTemplate> entry = Map.entry(codes.sorted[next], get(next));
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+
+        /**
+         * Digest of all codes and messages in natural order of the codes.
+         */
+        String getVersion() {
+            String version = this.version;
+            if (version == null) {
+                MessageDigest digest = CatalogVersions.newDigest();
+                (unnumbered.isEmpty() ? this : new TreeMap<>(this)).forEach((code, template) -> {
+                    digest.update(code.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                    digest.update(template.getPattern().getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                });
+                version = CatalogVersions.toVersion(digest);
+                this.version = version;
+            }
+            return version;
+        }
+
+        private int advance(int id) {
+            while (id < row.length && get(id) == null) {
+                id++;
+            }
+            return id;
+        }
+    }
+}
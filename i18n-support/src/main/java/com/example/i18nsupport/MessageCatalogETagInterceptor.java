@@ -0,0 +1,90 @@
+package com.example.i18nsupport;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Makes localized GET responses cacheable: adds a strong ETag, Cache-Control and Vary, and answers a matching
+ * If-None-Match with 304 Not Modified before the handler runs, so neither the message is formatted nor the view
+ * rendered.
+ * <p>
+ * The ETag is the content version of the request locale's messages ({@link AbstractCatalogMessageSource#getVersion})
+ * plus the resolved locale and an optional application version. So it is the same on every instance, and it
+ * changes when a reload changes one of the locale's messages. Only for responses that depend on nothing but
+ * the request URL, the locale and the messages: register it for such paths only.
+ * The application version covers the rest (templates, response format), change it when they change.
+ */
+public class MessageCatalogETagInterceptor implements HandlerInterceptor {
+
+    private final AbstractCatalogMessageSource messageSource;
+
+    private CacheControl cacheControl = CacheControl.noCache();
+
+    private List<String> varyByHeaders = List.of(HttpHeaders.ACCEPT_LANGUAGE);
+
+    private String applicationVersion = "";
+
+    public MessageCatalogETagInterceptor(AbstractCatalogMessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Cache-Control of the responses, "no-cache" (always revalidate) by default.
+     */
+    public void setCacheControl(CacheControl cacheControl) {
+        this.cacheControl = cacheControl;
+    }
+
+    /**
+     * Request headers the locale is resolved from, sent as Vary. "Accept-Language" by default,
+     * e.g. "Cookie" for a cookie or session based LocaleResolver.
+     */
+    public void setVaryByHeaders(String... varyByHeaders) {
+        this.varyByHeaders = List.copyOf(Arrays.asList(varyByHeaders));
+    }
+
+    public void setApplicationVersion(String applicationVersion) {
+        this.applicationVersion = applicationVersion != null ? applicationVersion : "";
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        Locale locale = RequestContextUtils.getLocale(request);
+        String headerValue = cacheControl.getHeaderValue();
+        if (headerValue != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, headerValue);
+        }
+        for (String header : varyByHeaders) {
+            response.addHeader(HttpHeaders.VARY, header);
+        }
+        // sets the ETag, and status 304 if the client's copy is current
+        return !new ServletWebRequest(request, response).checkNotModified(eTag(locale));
+    }
+
+    /**
+     * Quoted, strong ETag: [application version-]content version-language tag
+     */
+    String eTag(Locale locale) {
+        StringBuilder eTag = new StringBuilder(80).append('"');
+        if (StringUtils.hasLength(applicationVersion)) {
+            eTag.append(applicationVersion).append('-');
+        }
+        return eTag.append(messageSource.getVersion(locale))
+                .append('-').append(locale.toLanguageTag())
+                .append('"')
+                .toString();
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.i18nsupport;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable set of message overrides (e.g. of one tenant) on top of a shared base catalog.
+ * <p>
+ * A layer only holds its own messages, per bundle locale, never a copy of the base: a tenant that overrides
+ * 30 messages costs 30 entries, however large the base catalog is. Overrides follow the same fallback chain as
+ * bundles (an override in "pl" also applies to pl_PL, one in {@link Locale#ROOT} to every locale), and an
+ * override always wins over the base, at any level of the chain.
+ * <p>
+ * Layers are copy-on-write: {@link #withMessages} and {@link #withoutMessage} return a new layer and leave this
+ * one untouched, so a layer can be swapped in atomically while other threads keep reading the previous one.
+ */
+public final class MessageCatalogLayer {
+
+    public static final MessageCatalogLayer EMPTY = new MessageCatalogLayer(Map.of());
+
+    /**
+     * Overrides as given, per bundle locale.
+     */
+    private final Map<Locale, Map<String, MessageTemplate>> overrides;
+
+    /**
+     * Overrides of the whole fallback chain per bundle locale of the base, computed on first use.
+     */
+    private final ConcurrentMap<Locale, Map<String, MessageTemplate>> deltas = new ConcurrentHashMap<>();
+
+    /**
+     * Content version per bundle locale, valid for the base version it was computed for.
+     */
+    private final ConcurrentMap<Locale, Version> versions = new ConcurrentHashMap<>();
+
+    private MessageCatalogLayer(Map<Locale, Map<String, MessageTemplate>> overrides) {
+        this.overrides = overrides;
+    }
+
+    /**
+     * Returns a layer with the given messages added to (or replacing) the ones of this layer for the bundle locale.
+     */
+    public MessageCatalogLayer withMessages(Locale locale, Map<String, String> messages) {
+        Map<String, MessageTemplate> table = new HashMap<>(overrides.getOrDefault(locale, Map.of()));
+        messages.forEach((code, pattern) -> table.put(code, MessageTemplate.compile(pattern)));
+        Map<Locale, Map<String, MessageTemplate>> copy = new HashMap<>(overrides);
+        copy.put(locale, Map.copyOf(table));
+        return new MessageCatalogLayer(Map.copyOf(copy));
+    }
+
+    /**
+     * Returns a layer without the override of the code for the bundle locale, the base message shows through again.
+     */
+    public MessageCatalogLayer withoutMessage(Locale locale, String code) {
+        Map<String, MessageTemplate> current = overrides.get(locale);
+        if (current == null || !current.containsKey(code)) {
+            return this;
+        }
+        Map<String, MessageTemplate> table = new HashMap<>(current);
+        table.remove(code);
+        Map<Locale, Map<String, MessageTemplate>> copy = new HashMap<>(overrides);
+        if (table.isEmpty()) {
+            copy.remove(locale);
+        } else {
+            copy.put(locale, Map.copyOf(table));
+        }
+        return new MessageCatalogLayer(Map.copyOf(copy));
+    }
+
+    /**
+     * Returns the overridden messages of the bundle locale, as given (without inherited ones).
+     */
+    public Map<String, String> getMessages(Locale locale) {
+        Map<String, String> messages = new TreeMap<>();
+        overrides.getOrDefault(locale, Map.of()).forEach((code, template) -> messages.put(code, template.getPattern()));
+        return messages;
+    }
+
+    /**
+     * Bundle locales that have overrides.
+     */
+    public Set<Locale> getLocales() {
+        return overrides.keySet();
+    }
+
+    /**
+     * Number of overridden messages over all locales.
+     */
+    public int size() {
+        return overrides.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * Overrides visible for a table of the base: the ones of the bundle locale and its parents, most specific wins.
+     * Empty for most locales of most layers.
+     */
+    Map<String, MessageTemplate> getDelta(Locale bundleLocale) {
+        Map<String, MessageTemplate> delta = deltas.get(bundleLocale);
+        if (delta == null) {
+            Map<String, MessageTemplate> merged = new HashMap<>();
+            for (Locale candidate : Locales.candidates(bundleLocale)) {
+                overrides.getOrDefault(candidate, Map.of()).forEach(merged::putIfAbsent);
+            }
+            overrides.getOrDefault(Locale.ROOT, Map.of()).forEach(merged::putIfAbsent);
+            delta = Map.copyOf(merged);
+            deltas.putIfAbsent(bundleLocale, delta);
+        }
+        return delta;
+    }
+
+    /**
+     * A read-only view of the base table with the overrides of the bundle locale on top, nothing is copied.
+     */
+    Map<String, MessageTemplate> overlay(Map<String, MessageTemplate> base, Locale bundleLocale) {
+        Map<String, MessageTemplate> delta = getDelta(bundleLocale);
+        return delta.isEmpty() ? base : new Overlay(base, delta);
+    }
+
+    /**
+     * The content version of the base table with this layer's overrides, the base version itself if the layer
+     * overrides nothing for the bundle locale.
+     */
+    String getVersion(String baseVersion, Locale bundleLocale) {
+        Map<String, MessageTemplate> delta = getDelta(bundleLocale);
+        if (delta.isEmpty()) {
+            return baseVersion;
+        }
+        Version version = versions.get(bundleLocale);
+        if (version == null || !version.base.equals(baseVersion)) {
+            MessageDigest digest = CatalogVersions.newDigest();
+            digest.update(baseVersion.getBytes(StandardCharsets.UTF_8));
+            new TreeMap<>(delta).forEach((code, template) -> {
+                digest.update((byte) 0);
+                digest.update(code.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(template.getPattern().getBytes(StandardCharsets.UTF_8));
+            });
+            version = new Version(baseVersion, CatalogVersions.toVersion(digest));
+            versions.put(bundleLocale, version);
+        }
+        return version.layered;
+    }
+
+    private record Version(String base, String layered) {
+    }
+
+    private static final class Overlay extends AbstractMap<String, MessageTemplate> {
+
+        private final Map<String, MessageTemplate> base;
+
+        private final Map<String, MessageTemplate> delta;
+
+        Overlay(Map<String, MessageTemplate> base, Map<String, MessageTemplate> delta) {
+            this.base = base;
+            this.delta = delta;
+        }
+
+        @Override
+        public MessageTemplate get(Object code) {
+            MessageTemplate template = delta.get(code);
+            return template != null ? template : base.get(code);
+        }
+
+        @Override
+        public boolean containsKey(Object code) {
+            return delta.containsKey(code) || base.containsKey(code);
+        }
+
+        @Override
+        public Set<Entry<String, MessageTemplate>> entrySet() {
+            return new AbstractSet<>() {
+
+                @Override
+                public Iterator<Entry<String, MessageTemplate>> iterator() {
+                    return new OverlayIterator(base, delta);
+                }
+
+                @Override
+                public int size() {
+                    int size = base.size();
+                    for (String code : delta.keySet()) {
+                        if (!base.containsKey(code)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    /**
+     * Entries of the base with overridden values, then the codes only the delta defines.
+     */
+    private static final class OverlayIterator implements Iterator<Map.Entry<String, MessageTemplate>> {
+
+        private final Map<String, MessageTemplate> base;
+
+        private final Map<String, MessageTemplate> delta;
+
+        private final Iterator<Map.Entry<String, MessageTemplate>> baseEntries;
+
+        private final Iterator<Map.Entry<String, MessageTemplate>> deltaEntries;
+
+        private Map.Entry<String, MessageTemplate> next;
+
+        OverlayIterator(Map<String, MessageTemplate> base, Map<String, MessageTemplate> delta) {
+            this.base = base;
+            this.delta = delta;
+            this.baseEntries = base.entrySet().iterator();
+            this.deltaEntries = delta.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (baseEntries.hasNext()) {
+                    Map.Entry<String, MessageTemplate> entry = baseEntries.next();
+                    MessageTemplate override = delta.get(entry.getKey());
+                    next = override != null ? Map.entry(entry.getKey(), override) : entry;
+                } else if (deltaEntries.hasNext()) {
+                    Map.Entry<String, MessageTemplate> entry = deltaEntries.next();
+                    if (!base.containsKey(entry.getKey())) {
+                        next = entry;
+                    }
+                } else {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Map.Entry<String, MessageTemplate> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, MessageTemplate> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
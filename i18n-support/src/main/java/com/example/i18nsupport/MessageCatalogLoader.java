@@ -0,0 +1,307 @@
+package com.example.i18nsupport;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Discovers all bundles of the given basenames on the classpath and builds a {@link MessageCatalog} from them,
+ * compiling every message into a {@link MessageTemplate}.
+ * <p>
+ * Example: basename "i18n/message" picks up i18n/message.properties, i18n/message_fr.properties, ...
+ * <p>
+ * Fallback rules follow {@link java.util.ResourceBundle}: pl_PL -> pl -> base bundle, and only if none of
+ * the requested locale's bundles exist the default locale's bundles are used instead.
+ * <p>
+ * Bundles are parsed with the streaming {@link PropertiesParser} straight into the maps the catalog is built from,
+ * the files of a basename in parallel on the common fork-join pool. Every code is kept as one String instance
+ * shared by all bundles of the basename, with 100k codes in 200 locales that alone saves millions of copies.
+ */
+public class MessageCatalogLoader {
+
+    private static final String EXTENSION = ".properties";
+
+    private final ResourcePatternResolver resourcePatternResolver;
+
+    private final Charset encoding;
+
+    private Set<String> retainedCodes;
+
+    public MessageCatalogLoader() {
+        this(new DefaultResourceLoader(), StandardCharsets.UTF_8);
+    }
+
+    public MessageCatalogLoader(ResourceLoader resourceLoader, Charset encoding) {
+        this.resourcePatternResolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+        this.encoding = encoding;
+    }
+
+    /**
+     * Pruned mode: only these codes are read from the bundles (e.g. the ones {@link MessageCodeExtractor} found
+     * referenced by the application), all others are skipped while parsing and never stored or compiled.
+     * Null, the default, keeps every code.
+     */
+    public void setRetainedCodes(Set<String> retainedCodes) {
+        this.retainedCodes = retainedCodes != null ? Set.copyOf(retainedCodes) : null;
+    }
+
+    /**
+     * Loads and flattens all bundles of the given basenames. Earlier basenames win over later ones,
+     * the same way as in {@link org.springframework.context.support.ResourceBundleMessageSource}.
+     */
+    public MessageCatalog load(List<String> basenames, Locale defaultLocale) {
+        List<Map<Locale, Map<String, String>>> bundlesPerBasename = basenames.parallelStream()
+                .map(this::loadBundles)
+                .toList();
+        return build(bundlesPerBasename, defaultLocale, null, Set.of());
+    }
+
+    /**
+     * Flattens already loaded bundles (one map per basename) into a catalog, the tables of all locales are
+     * compiled in parallel.
+     * <p>
+     * With a previous catalog only the tables of locales that fall back to one of the changed bundle locales are
+     * rebuilt, the rows of all other tables are taken over from the previous catalog as they are (see
+     * {@link MessageCatalog}), and so is every unchanged compiled message of the rebuilt ones.
+     */
+    MessageCatalog build(List<Map<Locale, Map<String, String>>> bundlesPerBasename, Locale defaultLocale,
+                         MessageCatalog previous, Set<Locale> changedLocales) {
+        Set<Locale> locales = new LinkedHashSet<>();
+        locales.add(Locale.ROOT);
+        bundlesPerBasename.forEach(bundles -> locales.addAll(bundles.keySet()));
+
+        boolean rebuildAll = previous == null || affectsDefaultChain(changedLocales, defaultLocale);
+        Map<Locale, Map<String, MessageTemplate>> tables = new ConcurrentHashMap<>();
+        if (!rebuildAll) {
+            previous.getBundleTables().forEach((locale, previousTable) -> {
+                if (locales.contains(locale) && !fallsBackTo(locale, changedLocales)) {
+                    tables.put(locale, previousTable);
+                }
+            });
+        }
+
+        Set<Locale> kept = Set.copyOf(tables.keySet());
+
+        // the same text is inherited by many locales, so every distinct pattern is compiled only once; messages
+        // of rebuilt tables that did not change are taken over from their previous table
+        Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+        if (previous != null) {
+            previous.getBundleTables().forEach((locale, previousTable) -> {
+                if (!kept.contains(locale)) {
+                    previousTable.values().forEach(template -> templates.put(template.getPattern(), template));
+                }
+            });
+        }
+
+        locales.parallelStream().filter(locale -> !kept.contains(locale)).forEach(locale -> {
+            // most specific bundle first, so the first message found for a code wins and nothing is copied twice
+            Map<String, MessageTemplate> table = new HashMap<>();
+            for (Map<Locale, Map<String, String>> bundles : bundlesPerBasename) {
+                for (Locale bundleLocale : chain(bundles, locale, defaultLocale)) {
+                    bundles.get(bundleLocale).forEach((code, pattern) -> {
+                        if (!table.containsKey(code)) {
+                            table.put(code, templates.computeIfAbsent(pattern, MessageTemplate::compile));
+                        }
+                    });
+                }
+            }
+            tables.put(locale, table);
+        });
+        return new MessageCatalog(tables, defaultLocale);
+    }
+
+    /**
+     * Directories on the file system that contain bundles of the given basename, bundles inside jars are skipped.
+     */
+    Set<Path> findBundleDirectories(String basename) {
+        Set<Path> directories = new LinkedHashSet<>();
+        for (Resource resource : findResources(basename)) {
+            if (resource.isFile()) {
+                try {
+                    directories.add(resource.getFile().toPath().toAbsolutePath().getParent());
+                } catch (IOException ex) {
+                    // not a file after all, nothing to watch
+                }
+            }
+        }
+        return directories;
+    }
+
+    /**
+     * The bundle file name prefix of a basename, e.g. "message" for "i18n/message".
+     */
+    static String filenamePrefix(String basename) {
+        return basename.substring(basename.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * Loads the raw (not flattened) bundles of one basename, keyed by bundle locale.
+     */
+    Map<Locale, Map<String, String>> loadBundles(String basename) {
+        String filenamePrefix = filenamePrefix(basename);
+        Map<Locale, Resource> resources = new LinkedHashMap<>();
+        for (Resource resource : findResources(basename)) {
+            Locale locale = bundleLocale(resource.getFilename(), filenamePrefix);
+            // like ResourceBundle, the first bundle on the classpath wins
+            if (locale != null) {
+                resources.putIfAbsent(locale, resource);
+            }
+        }
+        Map<String, String> codes = new ConcurrentHashMap<>();
+        List<Map<String, String>> contents;
+        try {
+            // every bundle is an independent file, so they are parsed in parallel
+            contents = resources.values().parallelStream().map(resource -> readUnchecked(resource, codes)).toList();
+        } catch (UncheckedIOException ex) {
+            throw new IllegalStateException(
+                    "Could not load message bundles for basename '" + basename + "'", ex.getCause());
+        }
+        Map<Locale, Map<String, String>> bundles = new LinkedHashMap<>();
+        int i = 0;
+        for (Locale locale : resources.keySet()) {
+            bundles.put(locale, contents.get(i++));
+        }
+        return bundles;
+    }
+
+    /**
+     * Codes of the default locale that a bundle does not translate, per bundle locale (base bundle excluded).
+     * <p>
+     * The reference is everything the default locale resolves (base bundle plus the default locale's bundles),
+     * a code counts as translated when one of the bundles in the locale's own chain defines it,
+     * so pl_PL is complete if pl_PL and pl together define every code. Complete bundles are not listed.
+     */
+    public Map<Locale, SortedSet<String>> findMissingCodes(List<String> basenames, Locale defaultLocale) {
+        Set<String> reference = new HashSet<>();
+        Map<Locale, Set<String>> defined = new HashMap<>();
+        for (Map<Locale, Map<String, String>> bundles : basenames.parallelStream().map(this::loadBundles).toList()) {
+            reference.addAll(flatten(bundles, defaultLocale != null ? defaultLocale : Locale.ROOT, defaultLocale)
+                    .keySet());
+            bundles.forEach((locale, messages) ->
+                    defined.computeIfAbsent(locale, l -> new HashSet<>()).addAll(messages.keySet()));
+        }
+        Map<Locale, SortedSet<String>> missingCodes = new TreeMap<>(Comparator.comparing(Locale::toString));
+        for (Locale locale : defined.keySet()) {
+            if (Locale.ROOT.equals(locale)) {
+                continue;
+            }
+            SortedSet<String> missing = new TreeSet<>(reference);
+            for (Locale candidate : Locales.candidates(locale)) {
+                missing.removeAll(defined.getOrDefault(candidate, Set.of()));
+            }
+            if (!missing.isEmpty()) {
+                missingCodes.put(locale, Collections.unmodifiableSortedSet(missing));
+            }
+        }
+        return missingCodes;
+    }
+
+    /**
+     * Returns the locale of a bundle file, or null if the file is not a bundle of the given basename prefix.
+     */
+    static Locale bundleLocale(String filename, String filenamePrefix) {
+        return Locales.fromBundleFilename(filename, filenamePrefix, EXTENSION);
+    }
+
+    private Resource[] findResources(String basename) {
+        try {
+            return resourcePatternResolver.getResources(
+                    ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX + basename + "*" + EXTENSION);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Could not find message bundles for basename '" + basename + "'", ex);
+        }
+    }
+
+    private Map<String, String> readUnchecked(Resource resource, Map<String, String> codes) {
+        try {
+            return read(resource, codes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    Map<String, String> read(Resource resource) throws IOException {
+        return read(resource, null);
+    }
+
+    /**
+     * @param codes codes already read from other bundles, new codes are added, null to not share codes
+     */
+    private Map<String, String> read(Resource resource, Map<String, String> codes) throws IOException {
+        Map<String, String> messages = new HashMap<>();
+        try (ReadableByteChannel channel = resource.readableChannel()) {
+            PropertiesParser.parse(channel, encoding, (code, message) -> {
+                if (retainedCodes != null && !retainedCodes.contains(code)) {
+                    return;
+                }
+                String sharedCode = codes != null ? codes.putIfAbsent(code, code) : null;
+                messages.put(sharedCode != null ? sharedCode : code, message);
+            });
+        }
+        return messages;
+    }
+
+    /**
+     * Merges base bundle and all existing bundles of the locale chain, most specific bundle wins.
+     */
+    private static Map<String, String> flatten(Map<Locale, Map<String, String>> bundles, Locale locale,
+                                               Locale defaultLocale) {
+        Map<String, String> table = new HashMap<>();
+        for (Locale bundleLocale : chain(bundles, locale, defaultLocale)) {
+            bundles.get(bundleLocale).forEach(table::putIfAbsent);
+        }
+        return table;
+    }
+
+    /**
+     * The existing bundles a locale resolves to, most specific first and the base bundle last.
+     */
+    private static List<Locale> chain(Map<Locale, Map<String, String>> bundles, Locale locale, Locale defaultLocale) {
+        List<Locale> chain = existing(bundles, Locales.candidates(locale));
+        if (chain.isEmpty() && defaultLocale != null && !Locale.ROOT.equals(locale)) {
+            chain = existing(bundles, Locales.candidates(defaultLocale));
+        }
+        if (bundles.containsKey(Locale.ROOT)) {
+            chain = new ArrayList<>(chain);
+            chain.add(Locale.ROOT);
+        }
+        return chain;
+    }
+
+    private static boolean affectsDefaultChain(Set<Locale> changedLocales, Locale defaultLocale) {
+        return changedLocales.contains(Locale.ROOT)
+                || (defaultLocale != null && fallsBackTo(defaultLocale, changedLocales));
+    }
+
+    private static boolean fallsBackTo(Locale locale, Set<Locale> bundleLocales) {
+        return Locales.candidates(locale).stream().anyMatch(bundleLocales::contains);
+    }
+
+    private static List<Locale> existing(Map<Locale, Map<String, String>> bundles, List<Locale> candidates) {
+        return candidates.stream().filter(bundles::containsKey).toList();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.i18nsupport;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Published by {@link CatalogMessageSource} after a new catalog has been swapped in.
+ */
+public class MessageCatalogReloadedEvent extends ApplicationEvent {
+
+    private final MessageCatalog catalog;
+
+    private final Set<Locale> bundleLocales;
+
+    /**
+     * @param bundleLocales locales of the bundles that changed, {@link Locale#ROOT} for the base bundle
+     */
+    public MessageCatalogReloadedEvent(CatalogMessageSource source, MessageCatalog catalog, Set<Locale> bundleLocales) {
+        super(source);
+        this.catalog = catalog;
+        this.bundleLocales = Set.copyOf(bundleLocales);
+    }
+
+    public MessageCatalog getCatalog() {
+        return catalog;
+    }
+
+    public Set<Locale> getBundleLocales() {
+        return bundleLocales;
+    }
+}
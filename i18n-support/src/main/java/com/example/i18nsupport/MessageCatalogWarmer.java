@@ -0,0 +1,226 @@
+package com.example.i18nsupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.context.MessageSource;
+import org.springframework.context.ResourceLoaderAware;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.ResourceLoader;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up a catalog based message source while the application starts, before it takes traffic.
+ * <p>
+ * For every bundle locale (in parallel, on a dedicated pool) all messages are compiled, the locale specific
+ * number and date formats of typed arguments are created, and the constant messages are requested once through
+ * the application's message source, which primes e.g. a {@link CachingMessageSource}.
+ * Optionally the bundles of the given basenames are validated: codes of the default locale a bundle does not
+ * translate and patterns MessageFormat rejects are reported, and with fail-fast the startup fails.
+ * <p>
+ * A {@link BinaryCatalogMessageSource} is only loaded into memory (its mapped pages touched): compiling all of its
+ * messages would put every message on the heap that the binary catalog keeps off it until first use. The bundles
+ * are not parsed again to validate them either, the extractMessageCodes build task reports untranslated codes.
+ * <p>
+ * Runs as a {@link SmartLifecycle} in an early phase, so it completes before the embedded web server starts
+ * and before Spring Boot reports the application as ready (readiness state ACCEPTING_TRAFFIC).
+ */
+public class MessageCatalogWarmer implements SmartLifecycle, ResourceLoaderAware {
+
+    private static final Log logger = LogFactory.getLog(MessageCatalogWarmer.class);
+
+    private final AbstractCatalogMessageSource catalogMessageSource;
+
+    private MessageSource messageSource;
+
+    private List<String> basenames = List.of();
+
+    private Charset defaultEncoding = StandardCharsets.UTF_8;
+
+    private ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    private boolean failFast;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int phase = 0;
+
+    private volatile boolean running;
+
+    private volatile Map<Locale, SortedSet<String>> missingCodes = Map.of();
+
+    private volatile Map<Locale, SortedSet<String>> invalidMessages = Map.of();
+
+    public MessageCatalogWarmer(AbstractCatalogMessageSource catalogMessageSource) {
+        this.catalogMessageSource = catalogMessageSource;
+    }
+
+    /**
+     * The message source the application uses, e.g. a {@link CachingMessageSource} around the catalog source.
+     */
+    public void setMessageSource(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * Basenames of the bundles to validate, e.g. "messages". Without basenames nothing is validated.
+     */
+    public void setBasenames(String... basenames) {
+        this.basenames = List.copyOf(Arrays.asList(basenames));
+    }
+
+    public void setDefaultEncoding(String defaultEncoding) {
+        this.defaultEncoding = Charset.forName(defaultEncoding);
+    }
+
+    /**
+     * Fail the startup if a bundle misses codes or contains invalid patterns, instead of logging a warning.
+     */
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void setPhase(int phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void setResourceLoader(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * Codes of the default locale each bundle does not translate, complete bundles are not listed.
+     */
+    public Map<Locale, SortedSet<String>> getMissingCodes() {
+        return missingCodes;
+    }
+
+    /**
+     * Codes whose pattern MessageFormat rejects, per locale.
+     */
+    public Map<Locale, SortedSet<String>> getInvalidMessages() {
+        return invalidMessages;
+    }
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        if (catalogMessageSource instanceof BinaryCatalogMessageSource binaryCatalogMessageSource) {
+            binaryCatalogMessageSource.getCatalog().load();
+            logger.info("Loaded the binary message catalog in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            this.running = true;
+            return;
+        }
+        Set<Locale> locales = new LinkedHashSet<>();
+        locales.add(Locale.ROOT);
+        locales.addAll(catalogMessageSource.getLocales());
+        if (catalogMessageSource.getDefaultLocale() != null) {
+            locales.add(catalogMessageSource.getDefaultLocale());
+        }
+        Map<Locale, SortedSet<String>> invalid = new ConcurrentHashMap<>();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        int messages;
+        try {
+            messages = pool.submit(() -> locales.parallelStream()
+                    .mapToInt(locale -> warmUp(locale, invalid))
+                    .sum()).get();
+            if (!basenames.isEmpty()) {
+                MessageCatalogLoader loader = new MessageCatalogLoader(resourceLoader, defaultEncoding);
+                this.missingCodes = pool.submit(() ->
+                        loader.findMissingCodes(basenames, catalogMessageSource.getDefaultLocale())).get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while warming up messages", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Could not warm up messages", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        Map<Locale, SortedSet<String>> sortedInvalid = new TreeMap<>(Comparator.comparing(Locale::toString));
+        sortedInvalid.putAll(invalid);
+        this.invalidMessages = Collections.unmodifiableMap(sortedInvalid);
+
+        logger.info("Warmed up " + messages + " messages of " + locales.size() + " locales in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        report();
+        this.running = true;
+    }
+
+    /**
+     * @return number of messages visible for the locale
+     */
+    private int warmUp(Locale locale, Map<Locale, SortedSet<String>> invalid) {
+        Map<String, MessageTemplate> templates = catalogMessageSource.getTemplates(locale);
+        templates.forEach((code, template) -> {
+            if (template.getInvalidPattern() != null) {
+                invalid.computeIfAbsent(locale, l -> Collections.synchronizedSortedSet(new TreeSet<>())).add(code);
+                return;
+            }
+            template.prepare(locale);
+            if (messageSource != null && template.isConstant()) {
+                messageSource.getMessage(code, null, locale);
+            }
+        });
+        return templates.size();
+    }
+
+    private void report() {
+        if (missingCodes.isEmpty() && invalidMessages.isEmpty()) {
+            return;
+        }
+        StringBuilder report = new StringBuilder("Message bundles of " + basenames + " are incomplete:");
+        missingCodes.forEach((locale, codes) ->
+                report.append("\n  ").append(locale).append(" misses ").append(codes.size()).append(' ')
+                        .append(codes));
+        invalidMessages.forEach((locale, codes) ->
+                report.append("\n  ").append(locale.equals(Locale.ROOT) ? "base bundle" : locale)
+                        .append(" has invalid patterns ").append(codes));
+        if (failFast) {
+            throw new IllegalStateException(report.toString());
+        }
+        logger.warn(report);
+    }
+
+    @Override
+    public void stop() {
+        this.running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Phase 0 by default: before the web server, which Spring Boot starts in one of the last phases.
+     */
+    @Override
+    public int getPhase() {
+        return phase;
+    }
+}
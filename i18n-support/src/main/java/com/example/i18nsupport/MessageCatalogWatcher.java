@@ -0,0 +1,107 @@
+package com.example.i18nsupport;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Watches bundle (or template) directories with a {@link WatchService} on a background thread and reports changed files.
+ * <p>
+ * Editors usually produce several events for one save, so events are collected until the directory has been
+ * quiet for {@link #QUIET_PERIOD_MILLIS} and then reported as one batch, on the watcher thread.
+ * When the watch service dropped events of a directory (overflow), every file in it is reported as changed.
+ */
+final class MessageCatalogWatcher implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(MessageCatalogWatcher.class);
+
+    static final long QUIET_PERIOD_MILLIS = 200;
+
+    private final WatchService watchService;
+
+    private final Consumer<Set<Path>> listener;
+
+    private final Thread thread;
+
+    MessageCatalogWatcher(Collection<Path> directories, Consumer<Set<Path>> listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        for (Path directory : directories) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        this.thread = new Thread(this::run, "i18n-catalog-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changedFiles = new LinkedHashSet<>();
+                collect(watchService.take(), changedFiles);
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    collect(key, changedFiles);
+                }
+                try {
+                    listener.accept(changedFiles);
+                } catch (RuntimeException ex) {
+                    logger.error("Could not process changed files " + changedFiles, ex);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ex) {
+            // closed
+        }
+    }
+
+    private static void collect(WatchKey key, Set<Path> changedFiles) {
+        collect((Path) key.watchable(), key.pollEvents(), changedFiles);
+        key.reset();
+    }
+
+    static void collect(Path directory, List<WatchEvent<?>> events, Set<Path> changedFiles) {
+        for (WatchEvent<?> event : events) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                logger.warn("Missed file events in " + directory + ", treating all its files as changed");
+                rescan(directory, changedFiles);
+            } else if (event.context() instanceof Path file) {
+                changedFiles.add(directory.resolve(file));
+            }
+        }
+    }
+
+    private static void rescan(Path directory, Set<Path> changedFiles) {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(Files::isRegularFile).sorted().forEach(changedFiles::add);
+        } catch (IOException ex) {
+            logger.error("Could not list " + directory + " after missed file events", ex);
+        }
+    }
+}
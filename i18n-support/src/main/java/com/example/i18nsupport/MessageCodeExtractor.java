@@ -0,0 +1,376 @@
+package com.example.i18nsupport;
+
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Finds the message codes an application references, at build time, and prunes its bundles down to them.
+ * <p>
+ * The sources are scanned for references to codes the bundles define:
+ * <ul>
+ *     <li>Java: string literals equal to a code; "${name}" and "${name:default}" placeholders are first resolved
+ *     against the application's .properties files, so {@code @Value("${placeholder.greetings}")} references
+ *     welcome.message; a literal ending with '.' references every code with that prefix, as passed to
+ *     getMessagesByPrefix</li>
+ *     <li>Thymeleaf templates (.html): {@code #{code}} expressions and quoted codes or prefixes, e.g.
+ *     {@code ${messages['greeting.text']}}</li>
+ * </ul>
+ * Codes passed as literal to getMessage, MessageKey.of, LocalizedMessage.of or in {@code #{...}} are reported
+ * as undefined when no bundle has them. Codes only built at runtime cannot be found, they (or their prefix)
+ * have to be kept explicitly.
+ * <p>
+ * Usage: {@code MessageCodeExtractor <report file> <output dir> <default locale tag> <basename> <source dir>...
+ * [--keep=code or prefix,...]}, the bundles are looked up on the classpath. Besides the report of undefined,
+ * untranslated and unused codes it writes {@code <output dir>/<basename>.codes}, the referenced codes for
+ * {@link CatalogMessageSource#setRetainedCodesLocation}, and {@code <output dir>/<basename>.pruned.catalog},
+ * a binary catalog of only these codes for {@link BinaryCatalogMessageSource}.
+ */
+public class MessageCodeExtractor {
+
+    private static final String KEEP_OPTION = "--keep=";
+
+    /**
+     * Comments and char literals (skipped, a char literal may be a quote) or a string literal.
+     */
+    private static final Pattern JAVA_TOKEN = Pattern.compile(
+            "//[^\\n]*|/\\*.*?\\*/|'(?:[^'\\\\\\n]|\\\\[^'\\n]+)'|\"((?:[^\"\\\\\\n]|\\\\.)*)\"",
+            Pattern.DOTALL);
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}:]+)(?::([^}]*))?}");
+
+    /**
+     * The code before a string literal that makes it a lookup.
+     */
+    private static final Pattern JAVA_LOOKUP =
+            Pattern.compile("(?:getMessage|MessageKey\\.of|LocalizedMessage\\.of)\\(\\s*$");
+
+    /**
+     * #{code} and #{code(args)}, not #{${dynamic}}.
+     */
+    private static final Pattern TEMPLATE_EXPRESSION = Pattern.compile("#\\{\\s*([^}(\\s$]+)");
+
+    private static final Pattern TEMPLATE_LITERAL = Pattern.compile("'([^'\\s]+)'");
+
+    private final String basename;
+
+    private final Map<Locale, Map<String, String>> bundles;
+
+    private final TreeSet<String> definedCodes = new TreeSet<>();
+
+    private final Map<String, String> properties = new HashMap<>();
+
+    private final SortedSet<String> referencedCodes = new TreeSet<>();
+
+    private final SortedSet<String> undefinedCodes = new TreeSet<>();
+
+    public MessageCodeExtractor(String basename) {
+        this(basename, new MessageCatalogLoader().loadBundles(basename));
+    }
+
+    /**
+     * @param bundles raw bundles of the basename, keyed by bundle locale
+     */
+    MessageCodeExtractor(String basename, Map<Locale, Map<String, String>> bundles) {
+        this.basename = basename;
+        this.bundles = bundles;
+        bundles.values().forEach(messages -> definedCodes.addAll(messages.keySet()));
+    }
+
+    /**
+     * Scans all Java sources and templates below the given directories. Placeholders are resolved against
+     * the .properties files of all of them (bundles of the basename excluded), the first definition wins.
+     */
+    public void scan(Collection<Path> directories) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (Path directory : directories) {
+            try (Stream<Path> walk = Files.walk(directory)) {
+                walk.filter(Files::isRegularFile).sorted().forEach(files::add);
+            }
+        }
+        String filenamePrefix = MessageCatalogLoader.filenamePrefix(basename);
+        for (Path file : files) {
+            String filename = file.getFileName().toString();
+            if (filename.endsWith(".properties")
+                    && MessageCatalogLoader.bundleLocale(filename, filenamePrefix) == null) {
+                Properties fileProperties = new Properties();
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    fileProperties.load(reader);
+                }
+                fileProperties.stringPropertyNames()
+                        .forEach(name -> properties.putIfAbsent(name, fileProperties.getProperty(name)));
+            }
+        }
+        for (Path file : files) {
+            String filename = file.getFileName().toString();
+            if (filename.endsWith(".java")) {
+                scanJava(Files.readString(file));
+            } else if (filename.endsWith(".html")) {
+                scanTemplate(Files.readString(file));
+            }
+        }
+    }
+
+    /**
+     * Keeps a code, or all codes of a prefix ending with '.', that the sources do not reference literally.
+     */
+    public void keep(String codeOrPrefix) {
+        reference(codeOrPrefix, true);
+    }
+
+    void scanJava(String source) {
+        Matcher token = JAVA_TOKEN.matcher(source);
+        while (token.find()) {
+            String value = token.group(1);
+            if (value == null) {
+                continue;
+            }
+            boolean lookup = JAVA_LOOKUP.matcher(source.substring(Math.max(0, token.start() - 64), token.start()))
+                    .find();
+            Matcher placeholder = PLACEHOLDER.matcher(value);
+            if (placeholder.matches()) {
+                value = properties.getOrDefault(placeholder.group(1).trim(), placeholder.group(2));
+            }
+            if (value != null) {
+                reference(value.trim(), lookup);
+            }
+        }
+    }
+
+    void scanTemplate(String template) {
+        Matcher expression = TEMPLATE_EXPRESSION.matcher(template);
+        while (expression.find()) {
+            reference(expression.group(1), true);
+        }
+        Matcher literal = TEMPLATE_LITERAL.matcher(template);
+        while (literal.find()) {
+            reference(literal.group(1), false);
+        }
+    }
+
+    /**
+     * @param lookup whether the value is certainly a code, an unknown one is then reported as undefined
+     */
+    private void reference(String value, boolean lookup) {
+        if (definedCodes.contains(value)) {
+            referencedCodes.add(value);
+        } else if (value.length() > 1 && value.endsWith(".")) {
+            referencedCodes.addAll(definedCodes.subSet(value, value + Character.MAX_VALUE));
+        } else if (lookup && !value.isEmpty()) {
+            undefinedCodes.add(value);
+        }
+    }
+
+    /**
+     * Codes of the bundles the application references, sorted.
+     */
+    public SortedSet<String> getReferencedCodes() {
+        return Collections.unmodifiableSortedSet(referencedCodes);
+    }
+
+    /**
+     * Codes the application looks up that no bundle defines.
+     */
+    public SortedSet<String> getUndefinedCodes() {
+        return Collections.unmodifiableSortedSet(undefinedCodes);
+    }
+
+    /**
+     * Referenced codes the default locale resolves but a bundle does not translate, per bundle locale
+     * (base bundle excluded). Like {@link MessageCatalogLoader#findMissingCodes} a code counts as translated
+     * when one of the bundles in the locale's own chain defines it. Complete bundles are not listed.
+     */
+    public SortedMap<Locale, SortedSet<String>> getMissingCodes(Locale defaultLocale) {
+        Set<String> reference = new HashSet<>(bundles.getOrDefault(Locale.ROOT, Map.of()).keySet());
+        if (defaultLocale != null) {
+            for (Locale candidate : Locales.candidates(defaultLocale)) {
+                reference.addAll(bundles.getOrDefault(candidate, Map.of()).keySet());
+            }
+        }
+        reference.retainAll(referencedCodes);
+        SortedMap<Locale, SortedSet<String>> missingCodes = new TreeMap<>(Comparator.comparing(Locale::toString));
+        for (Locale locale : bundles.keySet()) {
+            if (Locale.ROOT.equals(locale)) {
+                continue;
+            }
+            SortedSet<String> missing = new TreeSet<>(reference);
+            for (Locale candidate : Locales.candidates(locale)) {
+                missing.removeAll(bundles.getOrDefault(candidate, Map.of()).keySet());
+            }
+            if (!missing.isEmpty()) {
+                missingCodes.put(locale, Collections.unmodifiableSortedSet(missing));
+            }
+        }
+        return missingCodes;
+    }
+
+    /**
+     * Codes of each bundle ({@link Locale#ROOT} for the base bundle) the application never references.
+     * Bundles without unused codes are not listed.
+     */
+    public SortedMap<Locale, SortedSet<String>> getUnusedCodes() {
+        SortedMap<Locale, SortedSet<String>> unusedCodes = new TreeMap<>(Comparator.comparing(Locale::toString));
+        bundles.forEach((locale, messages) -> {
+            SortedSet<String> unused = new TreeSet<>(messages.keySet());
+            unused.removeAll(referencedCodes);
+            if (!unused.isEmpty()) {
+                unusedCodes.put(locale, Collections.unmodifiableSortedSet(unused));
+            }
+        });
+        return unusedCodes;
+    }
+
+    /**
+     * The bundles with only the referenced codes.
+     */
+    Map<Locale, Map<String, String>> getPrunedBundles() {
+        Map<Locale, Map<String, String>> pruned = new LinkedHashMap<>();
+        bundles.forEach((locale, messages) -> {
+            Map<String, String> retained = new HashMap<>();
+            messages.forEach((code, message) -> {
+                if (referencedCodes.contains(code)) {
+                    retained.put(code, message);
+                }
+            });
+            pruned.put(locale, retained);
+        });
+        return pruned;
+    }
+
+    public void writeReport(Writer out, Locale defaultLocale) throws IOException {
+        out.write("Message codes of " + basename + ": " + definedCodes.size() + " defined, "
+                + referencedCodes.size() + " referenced\n");
+        writeSection(out, "Undefined, referenced but in no bundle", undefinedCodes);
+        for (Map.Entry<Locale, SortedSet<String>> missing : getMissingCodes(defaultLocale).entrySet()) {
+            writeSection(out, "Missing in " + missing.getKey(), missing.getValue());
+        }
+        for (Map.Entry<Locale, SortedSet<String>> unused : getUnusedCodes().entrySet()) {
+            Locale locale = unused.getKey();
+            writeSection(out, "Unused in " + (Locale.ROOT.equals(locale) ? "base bundle" : locale), unused.getValue());
+        }
+    }
+
+    /**
+     * Writes the referenced codes, one per line, as read by {@link #readCodes}.
+     */
+    public void writeCodes(Writer out) throws IOException {
+        out.write("# message codes of " + basename + " referenced by the application\n");
+        for (String code : referencedCodes) {
+            out.write(code);
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Writes a binary catalog of the referenced codes, see {@link BinaryCatalogWriter}.
+     */
+    public void writePrunedCatalog(OutputStream out, Locale defaultLocale) throws IOException {
+        MessageCatalog catalog = new MessageCatalogLoader()
+                .build(List.of(getPrunedBundles()), defaultLocale, null, Set.of());
+        BinaryCatalogWriter.write(catalog, out);
+    }
+
+    /**
+     * Reads a codes file written by {@link #writeCodes}: one code per line, blank lines and '#' comments skipped.
+     */
+    static Set<String> readCodes(Resource resource) throws IOException {
+        Set<String> codes = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    codes.add(line);
+                }
+            }
+        }
+        return codes;
+    }
+
+    private static void writeSection(Writer out, String title, Set<String> codes) throws IOException {
+        if (codes.isEmpty()) {
+            return;
+        }
+        out.write("\n" + title + " (" + codes.size() + "):\n");
+        for (String code : codes) {
+            out.write("  " + code + "\n");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> arguments = new ArrayList<>();
+        List<String> keep = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(KEEP_OPTION)) {
+                keep.addAll(StringUtils.commaDelimitedListToSet(arg.substring(KEEP_OPTION.length())));
+            } else {
+                arguments.add(arg);
+            }
+        }
+        if (arguments.size() < 5) {
+            throw new IllegalArgumentException("Usage: MessageCodeExtractor <report file> <output dir> "
+                    + "<default locale tag> <basename> <source dir>... [--keep=code or prefix,...]");
+        }
+        Path report = Path.of(arguments.get(0));
+        Path outputDirectory = Path.of(arguments.get(1));
+        Locale defaultLocale = StringUtils.hasText(arguments.get(2)) ? Locale.forLanguageTag(arguments.get(2)) : null;
+        String basename = arguments.get(3);
+        List<Path> sourceDirectories = arguments.subList(4, arguments.size()).stream()
+                .map(Path::of)
+                .filter(Files::isDirectory)
+                .toList();
+
+        MessageCodeExtractor extractor = new MessageCodeExtractor(basename);
+        extractor.scan(sourceDirectories);
+        keep.stream().map(String::trim).filter(StringUtils::hasText).forEach(extractor::keep);
+
+        Path codes = outputDirectory.resolve(basename + ".codes");
+        Path catalog = outputDirectory.resolve(basename + ".pruned.catalog");
+        Files.createDirectories(codes.getParent());
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+            extractor.writeReport(out, defaultLocale);
+        }
+        try (Writer out = Files.newBufferedWriter(codes, StandardCharsets.UTF_8)) {
+            extractor.writeCodes(out);
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(catalog))) {
+            extractor.writePrunedCatalog(out, defaultLocale);
+        }
+        System.out.println("Message codes of " + basename + ": " + extractor.getReferencedCodes().size()
+                + " of " + extractor.definedCodes.size() + " referenced, " + extractor.getUndefinedCodes().size()
+                + " undefined, report in " + report);
+    }
+}
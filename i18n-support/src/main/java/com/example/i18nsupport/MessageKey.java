@@ -0,0 +1,67 @@
+package com.example.i18nsupport;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Handle of a message code known at compile time, e.g.
+ * {@code static final MessageKey WELCOME = MessageKey.of("welcome.message")}.
+ * <p>
+ * Every catalog numbers its codes densely when it is loaded. A key remembers its number in the catalog it was
+ * last used with, so {@link AbstractCatalogMessageSource#getMessage(MessageKey, Object[], java.util.Locale)}
+ * neither hashes nor compares the code: the message is an array element at [locale row][key number].
+ * After a reload (a new catalog) the number is looked up once again. A key used with several catalogs in turn
+ * is looked up on every switch, so use one key instance per message source for the best results.
+ */
+public final class MessageKey {
+
+    private final String code;
+
+    private volatile Binding binding;
+
+    private MessageKey(String code) {
+        this.code = code;
+    }
+
+    public static MessageKey of(String code) {
+        if (code == null || code.isEmpty()) {
+            throw new IllegalArgumentException("The code must not be empty");
+        }
+        return new MessageKey(code);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * The number of this key in the given catalog, -1 if the catalog does not define the code.
+     *
+     * @param ids looks up the number of a code in the catalog, only called when the catalog changed
+     */
+    int id(Object catalog, ToIntFunction<String> ids) {
+        Binding current = binding;
+        if (current == null || current.catalog != catalog) {
+            current = new Binding(catalog, ids.applyAsInt(code));
+            binding = current;
+        }
+        return current.id;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof MessageKey key && code.equals(key.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return code.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+
+    private record Binding(Object catalog, int id) {
+    }
+}
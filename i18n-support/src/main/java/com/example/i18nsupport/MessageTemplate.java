@@ -0,0 +1,692 @@
+package com.example.i18nsupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ChoiceFormat;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A message pattern compiled once into a list of segments: literal runs and arguments.
+ * <p>
+ * Rendering gives exactly the same output as {@link MessageFormat#format(Object)} for the same pattern, but
+ * appends straight into a caller supplied {@link StringBuilder} / {@link Appendable}. For the common case
+ * ("Greetings {0}" with a String argument) rendering does not allocate anything.
+ * <p>
+ * Typed arguments ({0,number}, {0,date,long}) are formatted with the immutable formatters of
+ * {@link LocaleFormatters}, which give the output of the {@link Format} MessageFormat would create without
+ * cloning it per use. Date arguments may also be java.time values. Choice arguments ({0,choice,...}) use
+ * the ChoiceFormat itself, it is only read while formatting.
+ * <p>
+ * On top of MessageFormat, ICU-style plural and select arguments are supported:
+ * {@code {0,plural,=0{no items} one{# item} few{# items} many{# items} other{# items}}} and
+ * {@code {1,select,female{her} male{his} other{their}}}. Their sub-messages are compiled once per category,
+ * the plural category of a number comes from {@link PluralRules}. Inside a plural sub-message '#' is the number
+ * (minus an optional "offset:n"), formatted like {0,number}. Arguments are referenced by index, as in MessageFormat.
+ */
+public final class MessageTemplate {
+
+    private static final int LITERAL = -1;
+
+    /**
+     * Segment of a '#' in a plural sub-message.
+     */
+    private static final int PLURAL_NUMBER = -2;
+
+    private final String pattern;
+
+    /**
+     * Literal text of each segment, null for argument segments.
+     */
+    private final String[] literals;
+
+    /**
+     * Argument index of each segment, {@link #LITERAL} or {@link #PLURAL_NUMBER} for the other segments.
+     */
+    private final int[] argumentIndexes;
+
+    /**
+     * Format, plural or select argument of each argument segment, null for literals and plain {n} arguments.
+     */
+    private final TypedArgument[] typedArguments;
+
+    /**
+     * Exception MessageFormat (or the plural and select parser) throws for this pattern, rethrown on rendering
+     * to keep the same behaviour.
+     */
+    private final IllegalArgumentException invalidPattern;
+
+    /**
+     * UTF-8 bytes of each literal segment for {@link #writeUtf8}, encoded on first use.
+     */
+    private volatile byte[][] utf8Literals;
+
+    private MessageTemplate(String pattern, String[] literals, int[] argumentIndexes,
+                            TypedArgument[] typedArguments, IllegalArgumentException invalidPattern) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.argumentIndexes = argumentIndexes;
+        this.typedArguments = typedArguments;
+        this.invalidPattern = invalidPattern;
+    }
+
+    /**
+     * Compiles the given pattern. Invalid patterns do not fail here, but on the first attempt to render them,
+     * the same way a ResourceBundleMessageSource only fails when such a message is formatted with arguments.
+     */
+    public static MessageTemplate compile(String pattern) {
+        try {
+            // validates the pattern with exactly the rules (and error messages) of MessageFormat
+            new MessageFormat(pattern, Locale.ROOT);
+        } catch (IllegalArgumentException ex) {
+            // MessageFormat knows no plural and select arguments
+            return compileSelectors(pattern, ex);
+        }
+        return new Parser(pattern, false).parse();
+    }
+
+    /**
+     * Compiles a pattern MessageFormat rejected: valid if it has plural or select arguments, and MessageFormat
+     * accepts it with these arguments replaced by plain {n} ones.
+     */
+    private static MessageTemplate compileSelectors(String pattern, IllegalArgumentException formatError) {
+        Parser parser = new Parser(pattern, false);
+        try {
+            MessageTemplate template = parser.parse();
+            if (parser.selectors > 0) {
+                new MessageFormat(parser.validationPattern(), Locale.ROOT);
+                return template;
+            }
+        } catch (IllegalArgumentException ex) {
+            if (parser.selectors > 0) {
+                return invalid(pattern, ex);
+            }
+        }
+        return invalid(pattern, formatError);
+    }
+
+    private static MessageTemplate invalid(String pattern, IllegalArgumentException ex) {
+        return new MessageTemplate(pattern, new String[0], new int[0], new TypedArgument[0], ex);
+    }
+
+    /**
+     * Compiles a sub-message of a plural or select argument, fails on an invalid one.
+     */
+    private static MessageTemplate compileBranch(String pattern, boolean plural) {
+        Parser parser = new Parser(pattern, plural);
+        MessageTemplate template = parser.parse();
+        new MessageFormat(parser.validationPattern(), Locale.ROOT);
+        return template;
+    }
+
+    /**
+     * The raw pattern, as defined in the bundle.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Returns true if the pattern contains no arguments, so rendering always gives the same text.
+     */
+    public boolean isConstant() {
+        if (invalidPattern != null) {
+            return false;
+        }
+        for (int index : argumentIndexes) {
+            if (index != LITERAL) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The exception MessageFormat throws for this pattern, or null if the pattern is valid.
+     */
+    IllegalArgumentException getInvalidPattern() {
+        return invalidPattern;
+    }
+
+    /**
+     * Creates the locale specific formats of all typed arguments up front, so the first render does not pay for it.
+     */
+    void prepare(Locale locale) {
+        for (int i = 0; i < typedArguments.length; i++) {
+            if (typedArguments[i] != null) {
+                typedArguments[i].prepare(locale);
+            } else if (argumentIndexes[i] == PLURAL_NUMBER) {
+                LocaleFormatters.shared().getNumberFormatter(locale);
+            }
+        }
+    }
+
+    public String format(Object[] args, Locale locale) {
+        StringBuilder out = new StringBuilder(pattern.length() + 16);
+        render(args, locale, out);
+        return out.toString();
+    }
+
+    public void render(Object[] args, Locale locale, StringBuilder out) {
+        try {
+            render(args, locale, (Appendable) out);
+        } catch (IOException ex) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public void render(Object[] args, Locale locale, Appendable out) throws IOException {
+        render(args, null, locale, out);
+    }
+
+    /**
+     * Writes the formatted message as UTF-8 to the buffer, e.g. a response buffer. The literal segments are
+     * encoded once and then copied, String arguments are encoded straight into the buffer, only typed arguments
+     * are formatted first. Gives the bytes of {@code format(args, locale).getBytes(UTF_8)}.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small, its position is undefined then
+     */
+    public void writeUtf8(Object[] args, Locale locale, ByteBuffer out) {
+        if (invalidPattern != null) {
+            throw invalidPattern;
+        }
+        byte[][] encoded = utf8Literals;
+        if (encoded == null) {
+            // racing threads encode the same bytes
+            encoded = new byte[literals.length][];
+            for (int i = 0; i < literals.length; i++) {
+                encoded[i] = literals[i] != null ? literals[i].getBytes(StandardCharsets.UTF_8) : null;
+            }
+            utf8Literals = encoded;
+        }
+        StringBuilder argument = null;
+        for (int i = 0; i < literals.length; i++) {
+            int index = argumentIndexes[i];
+            if (index == LITERAL) {
+                out.put(encoded[i]);
+            } else if (args == null || index >= args.length) {
+                Utf8.encode("{" + index + "}", out);
+            } else if (typedArguments[i] == null && args[index] instanceof String string) {
+                Utf8.encode(string, out);
+            } else {
+                if (argument == null) {
+                    argument = new StringBuilder(32);
+                }
+                argument.setLength(0);
+                try {
+                    renderArgument(args, index, typedArguments[i], locale, argument);
+                } catch (IOException ex) {
+                    // StringBuilder never throws
+                    throw new UncheckedIOException(ex);
+                }
+                Utf8.encode(argument, out);
+            }
+        }
+    }
+
+    /**
+     * @param pluralNumber the number a '#' stands for, only given for plural sub-messages
+     */
+    private void render(Object[] args, Number pluralNumber, Locale locale, Appendable out) throws IOException {
+        if (invalidPattern != null) {
+            throw invalidPattern;
+        }
+        for (int i = 0; i < literals.length; i++) {
+            int index = argumentIndexes[i];
+            if (index == LITERAL) {
+                out.append(literals[i]);
+            } else if (index == PLURAL_NUMBER) {
+                LocaleFormatters.shared().getNumberFormatter(locale).format(pluralNumber, out);
+            } else if (args == null || index >= args.length) {
+                out.append('{').append(Integer.toString(index)).append('}');
+            } else {
+                renderArgument(args, index, typedArguments[i], locale, out);
+            }
+        }
+    }
+
+    /**
+     * Mirrors MessageFormat.subformat for a single argument.
+     */
+    private static void renderArgument(Object[] args, int index, TypedArgument typed, Locale locale, Appendable out)
+            throws IOException {
+        Object arg = args[index];
+        if (arg != null && typed != null) {
+            typed.render(arg, args, locale, out);
+        } else {
+            renderPlain(arg, locale, out);
+        }
+    }
+
+    /**
+     * Renders an argument without format type ({0}) the way MessageFormat does.
+     */
+    static void renderPlain(Object arg, Locale locale, Appendable out) throws IOException {
+        if (arg == null) {
+            out.append("null");
+        } else if (arg instanceof String string) {
+            out.append(string);
+        } else if (arg instanceof Number) {
+            LocaleFormatters.shared().getNumberFormatter(locale).format(arg, out);
+        } else if (arg instanceof Date) {
+            LocaleFormatters.shared().getDateTimeFormatter(locale).format(arg, out);
+        } else {
+            String string = arg.toString();
+            out.append(string != null ? string : "null");
+        }
+    }
+
+    /**
+     * An argument with a format type, e.g. {1,number,#.##} or {0,plural,...}.
+     */
+    private interface TypedArgument {
+
+        /**
+         * @param arg the argument, never null
+         */
+        void render(Object arg, Object[] args, Locale locale, Appendable out) throws IOException;
+
+        void prepare(Locale locale);
+    }
+
+    /**
+     * An argument with a MessageFormat format type, e.g. {1,number,#.##}.
+     */
+    private static final class FormatArgument implements TypedArgument {
+
+        /**
+         * Format type and style of the argument, e.g. "number,#.##".
+         */
+        private final String format;
+
+        private final boolean choice;
+
+        /**
+         * ArgumentFormatter per locale, ChoiceFormat for choice arguments.
+         */
+        private final ConcurrentMap<Locale, Object> formatters = new ConcurrentHashMap<>();
+
+        FormatArgument(String format) {
+            this.format = format;
+            int comma = format.indexOf(',');
+            this.choice = (comma >= 0 ? format.substring(0, comma) : format).trim().equalsIgnoreCase("choice");
+        }
+
+        @Override
+        public void render(Object arg, Object[] args, Locale locale, Appendable out) throws IOException {
+            Object formatter = formatter(locale);
+            if (formatter instanceof ChoiceFormat choiceFormat) {
+                String choice = choiceFormat.format(arg);
+                if (choice.indexOf('{') >= 0) {
+                    // like MessageFormat, a choice result with arguments is formatted again with all arguments
+                    compile(choice).render(args, locale, out);
+                } else {
+                    out.append(choice);
+                }
+            } else {
+                ((ArgumentFormatter) formatter).format(arg, out);
+            }
+        }
+
+        @Override
+        public void prepare(Locale locale) {
+            formatter(locale);
+        }
+
+        private Object formatter(Locale locale) {
+            Object formatter = formatters.get(locale);
+            if (formatter == null) {
+                formatter = choice
+                        ? new MessageFormat("{0," + format + "}", locale).getFormats()[0]
+                        : LocaleFormatters.shared().getFormatter(format, locale);
+                formatters.putIfAbsent(locale, formatter);
+            }
+            return formatter;
+        }
+    }
+
+    /**
+     * {n,plural,[offset:m] =5{...} one{...} other{...}}: the sub-message of an exact value, otherwise the one of
+     * the plural category of the number minus the offset, "other" if there is none for the category.
+     */
+    private static final class PluralArgument implements TypedArgument {
+
+        private final long offset;
+
+        private final double[] exactValues;
+
+        private final MessageTemplate[] exactMessages;
+
+        /**
+         * Sub-message per {@link PluralRules.Category} ordinal, null for the categories not given.
+         */
+        private final MessageTemplate[] categoryMessages;
+
+        private final MessageTemplate other;
+
+        PluralArgument(long offset, double[] exactValues, MessageTemplate[] exactMessages,
+                       MessageTemplate[] categoryMessages) {
+            this.offset = offset;
+            this.exactValues = exactValues;
+            this.exactMessages = exactMessages;
+            this.categoryMessages = categoryMessages;
+            this.other = categoryMessages[PluralRules.Category.OTHER.ordinal()];
+        }
+
+        @Override
+        public void render(Object arg, Object[] args, Locale locale, Appendable out) throws IOException {
+            if (!(arg instanceof Number number)) {
+                throw new IllegalArgumentException("Cannot format given Object as a Number");
+            }
+            Number value = offset == 0 ? number : subtractOffset(number);
+            MessageTemplate message = exactMessage(number.doubleValue());
+            if (message == null) {
+                message = categoryMessages[PluralRules.select(PluralRules.forLocale(locale), value).ordinal()];
+            }
+            (message != null ? message : other).render(args, value, locale, out);
+        }
+
+        private MessageTemplate exactMessage(double value) {
+            for (int i = 0; i < exactValues.length; i++) {
+                if (exactValues[i] == value) {
+                    return exactMessages[i];
+                }
+            }
+            return null;
+        }
+
+        private Number subtractOffset(Number number) {
+            if (number instanceof BigDecimal bigDecimal) {
+                return bigDecimal.subtract(BigDecimal.valueOf(offset));
+            }
+            if (number instanceof BigInteger bigInteger) {
+                return bigInteger.subtract(BigInteger.valueOf(offset));
+            }
+            if (number instanceof Double || number instanceof Float) {
+                return number.doubleValue() - offset;
+            }
+            return number.longValue() - offset;
+        }
+
+        @Override
+        public void prepare(Locale locale) {
+            for (MessageTemplate message : exactMessages) {
+                message.prepare(locale);
+            }
+            for (MessageTemplate message : categoryMessages) {
+                if (message != null) {
+                    message.prepare(locale);
+                }
+            }
+        }
+    }
+
+    /**
+     * {n,select,key{...} other{...}}: the sub-message whose key is the String value of the argument, or "other".
+     */
+    private static final class SelectArgument implements TypedArgument {
+
+        private final Map<String, MessageTemplate> messages;
+
+        private final MessageTemplate other;
+
+        SelectArgument(Map<String, MessageTemplate> messages) {
+            this.messages = messages;
+            this.other = messages.get("other");
+        }
+
+        @Override
+        public void render(Object arg, Object[] args, Locale locale, Appendable out) throws IOException {
+            messages.getOrDefault(arg.toString(), other).render(args, locale, out);
+        }
+
+        @Override
+        public void prepare(Locale locale) {
+            for (MessageTemplate message : messages.values()) {
+                message.prepare(locale);
+            }
+        }
+    }
+
+    /**
+     * Splits a pattern with the quoting rules of MessageFormat.applyPattern. The pattern is already validated,
+     * except for plural and select arguments, which are checked here.
+     */
+    private static final class Parser {
+
+        private final String pattern;
+
+        /**
+         * True for a plural sub-message, where an unquoted '#' is the number.
+         */
+        private final boolean pluralBranch;
+
+        /**
+         * The pattern with plural and select arguments replaced by {n}, for validation by MessageFormat.
+         */
+        private final StringBuilder validation = new StringBuilder();
+
+        private int validated;
+
+        private int selectors;
+
+        private final List<String> literals = new ArrayList<>();
+
+        private final List<Integer> argumentIndexes = new ArrayList<>();
+
+        private final List<TypedArgument> typedArguments = new ArrayList<>();
+
+        Parser(String pattern, boolean pluralBranch) {
+            this.pattern = pattern;
+            this.pluralBranch = pluralBranch;
+        }
+
+        String validationPattern() {
+            return validation + pattern.substring(validated);
+        }
+
+        MessageTemplate parse() {
+            StringBuilder literal = new StringBuilder();
+            boolean inQuote = false;
+            int i = 0;
+            while (i < pattern.length()) {
+                char ch = pattern.charAt(i);
+                if (ch == '\'') {
+                    if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                        literal.append(ch);
+                        i++;
+                    } else {
+                        inQuote = !inQuote;
+                    }
+                    i++;
+                } else if (ch == '{' && !inQuote) {
+                    addLiteral(literal);
+                    i = parseArgument(i + 1);
+                } else if (ch == '#' && !inQuote && pluralBranch) {
+                    addLiteral(literal);
+                    literals.add(null);
+                    argumentIndexes.add(PLURAL_NUMBER);
+                    typedArguments.add(null);
+                    i++;
+                } else {
+                    literal.append(ch);
+                    i++;
+                }
+            }
+            addLiteral(literal);
+            return new MessageTemplate(pattern,
+                    literals.toArray(String[]::new),
+                    argumentIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                    typedArguments.toArray(TypedArgument[]::new),
+                    null);
+        }
+
+        /**
+         * Parses an argument starting after its opening brace, returns the position after its closing brace.
+         */
+        private int parseArgument(int start) {
+            StringBuilder index = new StringBuilder();
+            StringBuilder format = new StringBuilder();
+            StringBuilder current = index;
+            boolean inQuote = false;
+            int braces = 0;
+            int i = start;
+            for (; i < pattern.length(); i++) {
+                char ch = pattern.charAt(i);
+                if (inQuote) {
+                    current.append(ch);
+                    inQuote = ch != '\'';
+                } else if (ch == ',' && current == index) {
+                    current = format;
+                } else if (ch == '{') {
+                    braces++;
+                    current.append(ch);
+                } else if (ch == '}') {
+                    if (braces == 0) {
+                        break;
+                    }
+                    braces--;
+                    current.append(ch);
+                } else {
+                    inQuote = ch == '\'';
+                    current.append(ch);
+                }
+            }
+            int argumentIndex = Integer.parseInt(index.toString());
+            int comma = format.indexOf(",");
+            String type = (comma >= 0 ? format.substring(0, comma) : format.toString()).trim();
+            String style = comma >= 0 ? format.substring(comma + 1) : "";
+            TypedArgument typed;
+            if (type.equals("plural") || type.equals("select")) {
+                selectors++;
+                if (i == pattern.length()) {
+                    throw new IllegalArgumentException("Unmatched braces in the pattern.");
+                }
+                validation.append(pattern, validated, start - 1).append('{').append(argumentIndex).append('}');
+                validated = i + 1;
+                typed = type.equals("plural") ? parsePlural(style) : parseSelect(style);
+            } else {
+                // "{0}" and "{0, }" have no format type in MessageFormat
+                typed = type.isEmpty() ? null : new FormatArgument(format.toString());
+            }
+            literals.add(null);
+            argumentIndexes.add(argumentIndex);
+            typedArguments.add(typed);
+            return i + 1;
+        }
+
+        private static PluralArgument parsePlural(String style) {
+            long offset = 0;
+            List<Double> exactValues = new ArrayList<>();
+            List<MessageTemplate> exactMessages = new ArrayList<>();
+            MessageTemplate[] categoryMessages = new MessageTemplate[PluralRules.Category.values().length];
+            Map<String, String> branches = parseBranches(style, "plural");
+            for (Map.Entry<String, String> branch : branches.entrySet()) {
+                String key = branch.getKey();
+                if (key.startsWith("offset:")) {
+                    offset = Long.parseLong(key.substring("offset:".length()));
+                } else if (key.startsWith("=")) {
+                    exactValues.add(Double.parseDouble(key.substring(1)));
+                    exactMessages.add(compileBranch(branch.getValue(), true));
+                } else {
+                    PluralRules.Category category = PluralRules.Category.of(key);
+                    if (category == null) {
+                        throw new IllegalArgumentException("Unknown plural keyword: " + key);
+                    }
+                    categoryMessages[category.ordinal()] = compileBranch(branch.getValue(), true);
+                }
+            }
+            return new PluralArgument(offset,
+                    exactValues.stream().mapToDouble(Double::doubleValue).toArray(),
+                    exactMessages.toArray(MessageTemplate[]::new),
+                    categoryMessages);
+        }
+
+        private static SelectArgument parseSelect(String style) {
+            Map<String, MessageTemplate> messages = new HashMap<>();
+            for (Map.Entry<String, String> branch : parseBranches(style, "select").entrySet()) {
+                messages.put(branch.getKey(), compileBranch(branch.getValue(), false));
+            }
+            return new SelectArgument(messages);
+        }
+
+        /**
+         * Splits "key{message} key{message} ..." into the keys and their raw messages; a plural "offset:n" comes
+         * first and has no message.
+         */
+        private static Map<String, String> parseBranches(String style, String type) {
+            Map<String, String> branches = new HashMap<>();
+            int i = 0;
+            while (true) {
+                while (i < style.length() && Character.isWhitespace(style.charAt(i))) {
+                    i++;
+                }
+                if (i == style.length()) {
+                    break;
+                }
+                int keyStart = i;
+                while (i < style.length() && style.charAt(i) != '{' && !Character.isWhitespace(style.charAt(i))) {
+                    i++;
+                }
+                String key = style.substring(keyStart, i);
+                if (type.equals("plural") && key.startsWith("offset:") && branches.isEmpty()) {
+                    branches.put(key, null);
+                    continue;
+                }
+                while (i < style.length() && Character.isWhitespace(style.charAt(i))) {
+                    i++;
+                }
+                if (i == style.length() || style.charAt(i) != '{') {
+                    throw new IllegalArgumentException("No message for '" + key + "' in " + type + " argument");
+                }
+                int end = closingBrace(style, i);
+                if (branches.put(key, style.substring(i + 1, end)) != null) {
+                    throw new IllegalArgumentException("Duplicate '" + key + "' in " + type + " argument");
+                }
+                i = end + 1;
+            }
+            if (!branches.containsKey("other")) {
+                throw new IllegalArgumentException("No 'other' message in " + type + " argument");
+            }
+            return branches;
+        }
+
+        private static int closingBrace(String style, int open) {
+            boolean inQuote = false;
+            int braces = 0;
+            for (int i = open; i < style.length(); i++) {
+                char ch = style.charAt(i);
+                if (ch == '\'') {
+                    inQuote = !inQuote;
+                } else if (ch == '{' && !inQuote) {
+                    braces++;
+                } else if (ch == '}' && !inQuote && --braces == 0) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Unmatched braces in the pattern.");
+        }
+
+        private void addLiteral(StringBuilder literal) {
+            if (literal.length() > 0) {
+                literals.add(literal.toString());
+                argumentIndexes.add(LITERAL);
+                typedArguments.add(null);
+                literal.setLength(0);
+            }
+        }
+    }
+}
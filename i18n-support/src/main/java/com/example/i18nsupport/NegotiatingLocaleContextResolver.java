@@ -0,0 +1,69 @@
+package com.example.i18nsupport;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.context.i18n.LocaleContext;
+import org.springframework.context.i18n.SimpleLocaleContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Accept-Language based {@link LocaleContextResolver} for WebFlux, the reactive counterpart of
+ * {@link NegotiatingLocaleResolver} with the same negotiation rules and per header cache (see {@link LocaleNegotiator}).
+ * <p>
+ * Resolving only reads a request header and looks up the cache, it never blocks, so it is safe on the event loop.
+ */
+public class NegotiatingLocaleContextResolver implements LocaleContextResolver {
+
+    private final LocaleNegotiator negotiator;
+
+    public NegotiatingLocaleContextResolver() {
+        this(LocaleNegotiator.DEFAULT_CACHE_SIZE);
+    }
+
+    public NegotiatingLocaleContextResolver(int cacheSize) {
+        this.negotiator = new LocaleNegotiator(cacheSize);
+    }
+
+    /**
+     * Locales the application has bundles for, e.g. {@link MessageCatalog#getLocales()} plus the default locale.
+     */
+    public void setSupportedLocales(Collection<Locale> supportedLocales) {
+        negotiator.setSupportedLocales(supportedLocales);
+    }
+
+    public List<Locale> getSupportedLocales() {
+        return negotiator.getSupportedLocales();
+    }
+
+    public void setDefaultLocale(Locale defaultLocale) {
+        negotiator.setDefaultLocale(defaultLocale);
+    }
+
+    public Locale getDefaultLocale() {
+        return negotiator.getDefaultLocale();
+    }
+
+    /**
+     * Hit / miss / eviction counters of the negotiation cache.
+     */
+    public CacheStats getCacheStats() {
+        return negotiator.getCacheStats();
+    }
+
+    @Override
+    public LocaleContext resolveLocaleContext(ServerWebExchange exchange) {
+        return new SimpleLocaleContext(
+                negotiator.resolve(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE)));
+    }
+
+    @Override
+    public void setLocaleContext(ServerWebExchange exchange, LocaleContext localeContext) {
+        throw new UnsupportedOperationException(
+                "Cannot change HTTP Accept-Language header - use a different locale context resolution strategy");
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.i18nsupport;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.LocaleResolver;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Accept-Language based {@link LocaleResolver} that remembers the outcome of the negotiation per header value.
+ * <p>
+ * Negotiation follows {@link org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver}, see
+ * {@link LocaleNegotiator}. Real traffic only sends a handful of distinct headers, so after warm-up
+ * resolving a request is a single lookup in a bounded concurrent cache.
+ */
+public class NegotiatingLocaleResolver implements LocaleResolver {
+
+    public static final int DEFAULT_CACHE_SIZE = LocaleNegotiator.DEFAULT_CACHE_SIZE;
+
+    private final LocaleNegotiator negotiator;
+
+    public NegotiatingLocaleResolver() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    public NegotiatingLocaleResolver(int cacheSize) {
+        this.negotiator = new LocaleNegotiator(cacheSize);
+    }
+
+    /**
+     * Locales the application has bundles for, e.g. {@link MessageCatalog#getLocales()} plus the default locale.
+     */
+    public void setSupportedLocales(Collection<Locale> supportedLocales) {
+        negotiator.setSupportedLocales(supportedLocales);
+    }
+
+    public List<Locale> getSupportedLocales() {
+        return negotiator.getSupportedLocales();
+    }
+
+    public void setDefaultLocale(Locale defaultLocale) {
+        negotiator.setDefaultLocale(defaultLocale);
+    }
+
+    public Locale getDefaultLocale() {
+        return negotiator.getDefaultLocale();
+    }
+
+    /**
+     * Hit / miss / eviction counters of the negotiation cache.
+     */
+    public CacheStats getCacheStats() {
+        return negotiator.getCacheStats();
+    }
+
+    @Override
+    public Locale resolveLocale(HttpServletRequest request) {
+        Locale locale = negotiator.resolve(request.getHeader(HttpHeaders.ACCEPT_LANGUAGE));
+        return locale != null ? locale : request.getLocale();
+    }
+
+    @Override
+    public void setLocale(HttpServletRequest request, HttpServletResponse response, Locale locale) {
+        throw new UnsupportedOperationException(
+                "Cannot change HTTP Accept-Language header - use a different locale resolution strategy");
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.i18nsupport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable, thread-safe counterpart of a {@link DecimalFormat}: formats numbers with the same output,
+ * without cloning or locking.
+ * <p>
+ * All settings (affixes, grouping, fraction digits, localized digits and separators) are read from the
+ * DecimalFormat once. Integral values are written digit by digit without intermediate objects, other values are
+ * rounded with BigDecimal the way DecimalFormat rounds them. What this class does not reproduce (exponent patterns,
+ * rounding modes other than HALF_EVEN, NaN and infinity) is formatted by a clone of the DecimalFormat,
+ * the same as before.
+ */
+public final class NumberFormatter implements ArgumentFormatter {
+
+    /**
+     * Integer digits DecimalFormat allows for a double, patterns that limit them are left to DecimalFormat.
+     */
+    private static final int DOUBLE_INTEGER_DIGITS = 309;
+
+    /**
+     * Whole doubles below this are exact longs and formatted like them.
+     */
+    private static final double MAX_EXACT_LONG = 0x1p53;
+
+    /**
+     * Never used directly, DecimalFormat is not thread-safe.
+     */
+    private final NumberFormat prototype;
+
+    private final boolean supported;
+
+    private final String positivePrefix;
+
+    private final String positiveSuffix;
+
+    private final String negativePrefix;
+
+    private final String negativeSuffix;
+
+    private final char zeroDigit;
+
+    private final char decimalSeparator;
+
+    private final char groupingSeparator;
+
+    /**
+     * 0 without grouping.
+     */
+    private final int groupingSize;
+
+    private final int multiplier;
+
+    private final int minimumIntegerDigits;
+
+    private final int minimumFractionDigits;
+
+    private final int maximumFractionDigits;
+
+    private final boolean decimalSeparatorAlwaysShown;
+
+    NumberFormatter(NumberFormat prototype) {
+        this.prototype = (NumberFormat) prototype.clone();
+        DecimalFormat format = prototype instanceof DecimalFormat decimalFormat ? decimalFormat : null;
+        this.supported = format != null
+                && format.getRoundingMode() == RoundingMode.HALF_EVEN
+                && format.getMaximumIntegerDigits() >= DOUBLE_INTEGER_DIGITS
+                && format.toPattern().indexOf('E') < 0;
+        if (!supported) {
+            this.positivePrefix = this.positiveSuffix = this.negativePrefix = this.negativeSuffix = null;
+            this.zeroDigit = this.decimalSeparator = this.groupingSeparator = 0;
+            this.groupingSize = this.multiplier = this.minimumIntegerDigits = 0;
+            this.minimumFractionDigits = this.maximumFractionDigits = 0;
+            this.decimalSeparatorAlwaysShown = false;
+            return;
+        }
+        DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+        // like DecimalFormat, a pattern with the currency sign uses the monetary separators
+        boolean currency = format.toPattern().indexOf('\u00A4') >= 0;
+        this.positivePrefix = format.getPositivePrefix();
+        this.positiveSuffix = format.getPositiveSuffix();
+        this.negativePrefix = format.getNegativePrefix();
+        this.negativeSuffix = format.getNegativeSuffix();
+        this.zeroDigit = symbols.getZeroDigit();
+        this.decimalSeparator = currency ? symbols.getMonetaryDecimalSeparator() : symbols.getDecimalSeparator();
+        this.groupingSeparator = currency ? symbols.getMonetaryGroupingSeparator() : symbols.getGroupingSeparator();
+        this.groupingSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+        this.multiplier = format.getMultiplier();
+        this.minimumIntegerDigits = format.getMinimumIntegerDigits();
+        this.minimumFractionDigits = format.getMinimumFractionDigits();
+        this.maximumFractionDigits = format.getMaximumFractionDigits();
+        this.decimalSeparatorAlwaysShown = format.isDecimalSeparatorAlwaysShown();
+    }
+
+    public String format(Object number) {
+        StringBuilder out = new StringBuilder(24);
+        format(number, out);
+        return out.toString();
+    }
+
+    public void format(Object number, StringBuilder out) {
+        try {
+            format(number, (Appendable) out);
+        } catch (IOException ex) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the argument is not a Number, like {@link NumberFormat#format(Object)}
+     */
+    @Override
+    public void format(Object number, Appendable out) throws IOException {
+        if (!supported || !(number instanceof Number)) {
+            out.append(((NumberFormat) prototype.clone()).format(number));
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte || number instanceof AtomicInteger || number instanceof AtomicLong) {
+            formatLong(((Number) number).longValue(), out);
+        } else if (number instanceof BigInteger bigInteger) {
+            if (bigInteger.bitLength() < 64) {
+                formatLong(bigInteger.longValue(), out);
+            } else {
+                formatDecimal(new BigDecimal(bigInteger), true, out);
+            }
+        } else if (number instanceof BigDecimal bigDecimal) {
+            formatDecimal(bigDecimal, false, out);
+        } else {
+            formatDouble(((Number) number).doubleValue(), out);
+        }
+    }
+
+    private void formatLong(long value, Appendable out) throws IOException {
+        if (multiplier != 1) {
+            long high = Math.multiplyHigh(value, multiplier);
+            long product = value * multiplier;
+            if ((high != 0 || product < 0) && (high != -1 || product >= 0)) {
+                formatDecimal(BigDecimal.valueOf(value), true, out);
+                return;
+            }
+            value = product;
+        }
+        if (value == Long.MIN_VALUE) {
+            formatDecimal(BigDecimal.valueOf(value), true, out);
+            return;
+        }
+        boolean negative = value < 0;
+        long magnitude = Math.abs(value);
+        char[] digits = new char[19];
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + magnitude % 10);
+            magnitude /= 10;
+        } while (magnitude != 0);
+        if (start == digits.length - 1 && digits[start] == '0') {
+            start = digits.length;
+        }
+        append(negative, digits, start, digits.length, digits.length, true, out);
+    }
+
+    private void formatDouble(double value, Appendable out) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value * multiplier)) {
+            out.append(((NumberFormat) prototype.clone()).format(value));
+            return;
+        }
+        boolean negative = (value < 0.0 || (value == 0.0 && 1 / value < 0.0)) ^ multiplier < 0;
+        value = Math.abs(value * multiplier);
+        if (value < MAX_EXACT_LONG && value == Math.rint(value)) {
+            long whole = (long) value;
+            char[] digits = new char[16];
+            int start = digits.length;
+            while (whole != 0) {
+                digits[--start] = (char) ('0' + whole % 10);
+                whole /= 10;
+            }
+            append(negative, digits, start, digits.length, digits.length, false, out);
+            return;
+        }
+        // DecimalFormat rounds the shortest decimal representation, a tie is decided by the exact binary value
+        BigDecimal shortest = new BigDecimal(Double.toString(value));
+        BigDecimal rounded = shortest.setScale(maximumFractionDigits, RoundingMode.HALF_EVEN);
+        if (isTie(shortest)) {
+            rounded = new BigDecimal(value).setScale(maximumFractionDigits, RoundingMode.HALF_EVEN);
+        }
+        appendDecimal(negative, rounded, false, out);
+    }
+
+    private void formatDecimal(BigDecimal value, boolean integer, Appendable out) throws IOException {
+        if (multiplier != 1) {
+            value = value.multiply(BigDecimal.valueOf(multiplier));
+        }
+        boolean negative = value.signum() < 0;
+        appendDecimal(negative, value.abs().setScale(maximumFractionDigits, RoundingMode.HALF_EVEN), integer, out);
+    }
+
+    private boolean isTie(BigDecimal shortest) {
+        if (shortest.scale() != maximumFractionDigits + 1) {
+            return false;
+        }
+        return shortest.unscaledValue().mod(BigInteger.TEN).intValue() == 5;
+    }
+
+    private void appendDecimal(boolean negative, BigDecimal rounded, boolean integer, Appendable out)
+            throws IOException {
+        char[] digits = rounded.stripTrailingZeros().toPlainString().toCharArray();
+        int point = 0;
+        while (point < digits.length && digits[point] != '.') {
+            point++;
+        }
+        // DecimalFormat has no digits for an integer part of 0, the minimum integer digits pad it
+        int start = point == 1 && digits[0] == '0' ? 1 : 0;
+        append(negative, digits, start, point, digits.length, integer, out);
+    }
+
+    /**
+     * Writes prefix, integer digits with grouping, fraction and suffix the way DecimalFormat.subformat does.
+     *
+     * @param digits ASCII digits, integer digits in [start, point), fraction digits after the '.' at point
+     */
+    private void append(boolean negative, char[] digits, int start, int point, int end, boolean integer,
+                        Appendable out) throws IOException {
+        out.append(negative ? negativePrefix : positivePrefix);
+        int integerDigits = Math.max(minimumIntegerDigits, point - start);
+        int fractionStart = point + 1;
+        int fractionDigits = Math.max(0, end - fractionStart);
+        boolean fractionPresent = minimumFractionDigits > 0 || (!integer && fractionDigits > 0);
+        for (int i = integerDigits - 1; i >= 0; i--) {
+            int index = point - 1 - i;
+            out.append(index >= start ? localize(digits[index]) : zeroDigit);
+            if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+                out.append(groupingSeparator);
+            }
+        }
+        if (integerDigits == 0 && !fractionPresent) {
+            out.append(zeroDigit);
+        }
+        if (decimalSeparatorAlwaysShown || fractionPresent) {
+            out.append(decimalSeparator);
+        }
+        if (!integer) {
+            for (int i = fractionStart; i < end; i++) {
+                out.append(localize(digits[i]));
+            }
+        }
+        for (int i = integer ? 0 : fractionDigits; i < minimumFractionDigits; i++) {
+            out.append(zeroDigit);
+        }
+        out.append(negative ? negativeSuffix : positiveSuffix);
+    }
+
+    private char localize(char digit) {
+        return (char) (zeroDigit + (digit - '0'));
+    }
+}
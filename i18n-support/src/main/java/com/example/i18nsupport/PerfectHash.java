@@ -0,0 +1,134 @@
+package com.example.i18nsupport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal perfect hash of a fixed key set ("hash and displace"): n keys map to n slots without collisions.
+ * <p>
+ * Keys are first spread into n buckets. Buckets with several keys get a displacement d, the seed of a second hash
+ * that moves all of their keys into free slots. Buckets with a single key store the slot directly, as -(slot + 1).
+ * A lookup is two hashes at most, a key that is not in the set lands in an arbitrary slot and has to be compared.
+ */
+final class PerfectHash {
+
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+
+    private final int[] displacements;
+
+    private final int[] slotKeys;
+
+    private PerfectHash(int[] displacements, int[] slotKeys) {
+        this.displacements = displacements;
+        this.slotKeys = slotKeys;
+    }
+
+    static PerfectHash build(String[] keys) {
+        int n = keys.length;
+        List<List<Integer>> buckets = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            buckets.add(new ArrayList<>(2));
+        }
+        for (int i = 0; i < n; i++) {
+            buckets.get(hash(0, keys[i]) % n).add(i);
+        }
+        Integer[] order = new Integer[n];
+        Arrays.setAll(order, i -> i);
+        // the largest buckets are placed first, while most slots are still free
+        Arrays.sort(order, Comparator.comparingInt((Integer b) -> buckets.get(b).size()).reversed());
+
+        int[] displacements = new int[n];
+        int[] slotKeys = new int[n];
+        Arrays.fill(slotKeys, -1);
+        int next = 0;
+        for (int bucket : order) {
+            List<Integer> bucketKeys = buckets.get(bucket);
+            if (bucketKeys.size() > 1) {
+                displacements[bucket] = place(keys, bucketKeys, slotKeys);
+            } else if (bucketKeys.size() == 1) {
+                while (slotKeys[next] >= 0) {
+                    next++;
+                }
+                slotKeys[next] = bucketKeys.get(0);
+                displacements[bucket] = -next - 1;
+            }
+        }
+        return new PerfectHash(displacements, slotKeys);
+    }
+
+    private static int place(String[] keys, List<Integer> bucketKeys, int[] slotKeys) {
+        int n = slotKeys.length;
+        int[] slots = new int[bucketKeys.size()];
+        for (int d = 1; d < MAX_DISPLACEMENT; d++) {
+            if (fits(keys, bucketKeys, slotKeys, d, slots)) {
+                for (int i = 0; i < slots.length; i++) {
+                    slotKeys[slots[i]] = bucketKeys.get(i);
+                }
+                return d;
+            }
+        }
+        throw new IllegalStateException("Could not build a perfect hash for " + n + " keys");
+    }
+
+    private static boolean fits(String[] keys, List<Integer> bucketKeys, int[] slotKeys, int d, int[] slots) {
+        for (int i = 0; i < slots.length; i++) {
+            int slot = hash(d, keys[bucketKeys.get(i)]) % slotKeys.length;
+            if (slotKeys[slot] >= 0) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[i] = slot;
+        }
+        return true;
+    }
+
+    /**
+     * Displacement per bucket, as stored in the binary catalog.
+     */
+    int[] displacements() {
+        return displacements;
+    }
+
+    /**
+     * Index of the key (in the array passed to {@link #build}) that occupies the given slot.
+     */
+    int keyAt(int slot) {
+        return slotKeys[slot];
+    }
+
+    /**
+     * The only slot the given key can occupy, n being the number of keys.
+     */
+    static int slot(int displacement, String key, int n) {
+        return displacement < 0 ? -displacement - 1 : hash(displacement, key) % n;
+    }
+
+    /**
+     * Bucket of the key, n being the number of keys.
+     */
+    static int bucket(String key, int n) {
+        return hash(0, key) % n;
+    }
+
+    /**
+     * FNV-1a over the chars (so a lookup never has to encode the key) with a murmur3 finalizer.
+     */
+    static int hash(int seed, String key) {
+        int h = 0x811C9DC5 ^ (seed * 0x9E3779B9);
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h & Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.i18nsupport;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CLDR plural rules (https://www.unicode.org/cldr/charts/latest/supplemental/language_plural_rules.html)
+ * of the languages we ship bundles for, written out as plain branches on the CLDR operands, so choosing a plural
+ * form parses nothing and allocates nothing for integral numbers. This replaces a dependency on ICU4J and its
+ * rule data, which would cost startup time and heap for the handful of languages we need.
+ * <p>
+ * Operands: i = integer digits, v = number of visible fraction digits, f = visible fraction digits as a number.
+ * 1 and 1.0 differ: an Integer or Long 1 has v = 0, a BigDecimal 1.0 has v = 1, a double is taken as its shortest
+ * representation, so 1.0 has v = 0 and 1.5 has v = 1.
+ * <p>
+ * A language without rules here only has the "other" form. To add a language, add its rule from the CLDR chart
+ * as a method and map the language code to it in {@link #forLocale(Locale)}.
+ */
+final class PluralRules {
+
+    /**
+     * Number the integer digits are reduced to when they do not fit a long, keeps the last 18 digits for the
+     * modulo conditions and never equals 0 or 1.
+     */
+    private static final BigInteger LARGE = BigInteger.TEN.pow(18);
+
+    enum Category {
+        ZERO, ONE, TWO, FEW, MANY, OTHER;
+
+        /**
+         * The category of an ICU plural keyword ("one", "few", ...), null for an unknown keyword.
+         */
+        static Category of(String keyword) {
+            for (Category category : values()) {
+                if (category.name().toLowerCase(Locale.ROOT).equals(keyword)) {
+                    return category;
+                }
+            }
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    interface Rule {
+
+        Category select(long i, int v, long f);
+    }
+
+    private PluralRules() {
+    }
+
+    static Rule forLocale(Locale locale) {
+        return switch (locale.getLanguage()) {
+            case "en", "de" -> PluralRules::english;
+            case "fr" -> PluralRules::french;
+            case "pl" -> PluralRules::polish;
+            default -> PluralRules::other;
+        };
+    }
+
+    /**
+     * Computes the operands of the number and applies the rule to them. NaN and infinity are "other".
+     */
+    static Category select(Rule rule, Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short
+                || number instanceof Byte || number instanceof AtomicInteger || number instanceof AtomicLong) {
+            long value = number.longValue();
+            return rule.select(value == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(value), 0, 0);
+        }
+        BigDecimal decimal;
+        if (number instanceof BigDecimal bigDecimal) {
+            decimal = bigDecimal;
+        } else if (number instanceof BigInteger bigInteger) {
+            decimal = new BigDecimal(bigInteger);
+        } else {
+            double value = number.doubleValue();
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return Category.OTHER;
+            }
+            decimal = BigDecimal.valueOf(value);
+            if (decimal.scale() > 0) {
+                decimal = decimal.stripTrailingZeros();
+            }
+        }
+        decimal = decimal.abs();
+        BigInteger integer = decimal.toBigInteger();
+        long i = integer.bitLength() < 63 ? integer.longValue() : integer.mod(LARGE).add(LARGE).longValue();
+        int v = Math.max(0, Math.min(decimal.scale(), 18));
+        long f = v == 0 ? 0 : decimal.subtract(new BigDecimal(integer)).movePointRight(v).longValue();
+        return rule.select(i, v, f);
+    }
+
+    /**
+     * en, de. one: i = 1 and v = 0
+     */
+    private static Category english(long i, int v, long f) {
+        return i == 1 && v == 0 ? Category.ONE : Category.OTHER;
+    }
+
+    /**
+     * fr. one: i = 0,1; many: e = 0 and i != 0 and i % 1000000 = 0 and v = 0 (the e operand is always 0 here)
+     */
+    private static Category french(long i, int v, long f) {
+        if (i == 0 || i == 1) {
+            return Category.ONE;
+        }
+        return v == 0 && i % 1000000 == 0 ? Category.MANY : Category.OTHER;
+    }
+
+    /**
+     * pl. one: i = 1 and v = 0; few: v = 0 and i % 10 = 2..4 and i % 100 != 12..14;
+     * many: v = 0 and i != 1 and i % 10 = 0..1 or v = 0 and i % 10 = 5..9 or v = 0 and i % 100 = 12..14
+     */
+    private static Category polish(long i, int v, long f) {
+        if (v != 0) {
+            return Category.OTHER;
+        }
+        if (i == 1) {
+            return Category.ONE;
+        }
+        long lastDigit = i % 10;
+        long lastTwoDigits = i % 100;
+        if (lastDigit >= 2 && lastDigit <= 4 && (lastTwoDigits < 12 || lastTwoDigits > 14)) {
+            return Category.FEW;
+        }
+        return Category.MANY;
+    }
+
+    private static Category other(long i, int v, long f) {
+        return Category.OTHER;
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.i18nsupport;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.ViewResolver;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ViewResolver} that renders views whose output only depends on the locale once per locale, and then
+ * serves the stored UTF-8 bytes.
+ * <p>
+ * The first request for a view and locale renders the delegate's view (e.g. Thymeleaf) with every dynamic model
+ * attribute replaced by a marker, and splits the output at the markers into pre-encoded chunks. Later requests
+ * write the chunks straight to the response and only HTML-escape the dynamic attributes in between:
+ * no template parsing, no message expression evaluation and no character encoding of the static parts.
+ * Message expressions are resolved during that first render, so they have to be static per locale.
+ * <p>
+ * Only for views whose output depends on nothing but the locale, its messages and the dynamic attributes,
+ * which the template prints as text (e.g. {@code th:text="${username}"}), not in conditions or expressions.
+ * <p>
+ * Entries are keyed by the content version of the locale's messages
+ * ({@link AbstractCatalogMessageSource#getVersion}), so a bundle reload is picked up by the next request.
+ * With {@link #setTemplateLocation} a template directory on the file system is watched and any change drops
+ * all entries.
+ */
+public class PrerenderedViewResolver implements ViewResolver, Ordered, DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(PrerenderedViewResolver.class);
+
+    public static final int DEFAULT_CACHE_SIZE = 1_000;
+
+    private final ViewResolver delegate;
+
+    private final AbstractCatalogMessageSource messageSource;
+
+    private final Cache<CacheKey, Chunks> cache;
+
+    /**
+     * Letters and digits only, passes HTML escaping unchanged. Random, so it never occurs in a template.
+     */
+    private final String marker = "i18n" + HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong());
+
+    private final Pattern markerPattern = Pattern.compile(marker + "(\\d+)x");
+
+    private List<String> viewNames = List.of();
+
+    private List<String> dynamicAttributes = List.of();
+
+    private int order = Ordered.HIGHEST_PRECEDENCE;
+
+    private MessageCatalogWatcher watcher;
+
+    public PrerenderedViewResolver(ViewResolver delegate, AbstractCatalogMessageSource messageSource) {
+        this(delegate, messageSource, DEFAULT_CACHE_SIZE);
+    }
+
+    public PrerenderedViewResolver(ViewResolver delegate, AbstractCatalogMessageSource messageSource, int cacheSize) {
+        this.delegate = delegate;
+        this.messageSource = messageSource;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * Views to pre-render, simple patterns like "greeting" or "static/*". Other views are left to the next resolver.
+     */
+    public void setViewNames(String... viewNames) {
+        this.viewNames = List.copyOf(Arrays.asList(viewNames));
+    }
+
+    /**
+     * Model attributes that differ per request (e.g. "username"), they are rendered into every response.
+     * All other model attributes must be the same for every request of a locale.
+     */
+    public void setDynamicAttributes(String... dynamicAttributes) {
+        this.dynamicAttributes = List.copyOf(Arrays.asList(dynamicAttributes));
+    }
+
+    /**
+     * Watch the given template directory and drop all pre-rendered views when a template changes.
+     * Ignored if the location is not a directory on the file system (e.g. inside a jar).
+     */
+    public void setTemplateLocation(Resource templateLocation) throws IOException {
+        if (!templateLocation.isFile() || !templateLocation.getFile().isDirectory()) {
+            return;
+        }
+        this.watcher = new MessageCatalogWatcher(List.of(templateLocation.getFile().toPath()), changed -> {
+            logger.info("Templates changed, dropping pre-rendered views");
+            invalidateAll();
+        });
+        this.watcher.start();
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    @Override
+    public View resolveViewName(String viewName, Locale locale) throws Exception {
+        if (!PatternMatchUtils.simpleMatch(viewNames.toArray(String[]::new), viewName)) {
+            return null;
+        }
+        View view = delegate.resolveViewName(viewName, locale);
+        return view != null ? new PrerenderedView(viewName, view) : null;
+    }
+
+    private record CacheKey(String viewName, Locale locale, String messagesVersion) {
+    }
+
+    /**
+     * Static UTF-8 chunks, and between two of them the index of the dynamic attribute to write.
+     */
+    private record Chunks(byte[][] chunks, int[] attributes) {
+
+        void write(Map<String, ?> model, List<String> dynamicAttributes, HttpServletResponse response)
+                throws IOException {
+            byte[][] values = new byte[attributes.length][];
+            int length = 0;
+            for (int i = 0; i < attributes.length; i++) {
+                Object value = model.get(dynamicAttributes.get(attributes[i]));
+                // markup characters only, like th:text; non-ASCII characters stay as they are in UTF-8
+                values[i] = value != null
+                        ? HtmlUtils.htmlEscape(value.toString(), "UTF-8").getBytes(StandardCharsets.UTF_8)
+                        : new byte[0];
+                length += values[i].length;
+            }
+            for (byte[] chunk : chunks) {
+                length += chunk.length;
+            }
+            response.setContentLength(length);
+            OutputStream out = response.getOutputStream();
+            for (int i = 0; i < chunks.length; i++) {
+                out.write(chunks[i]);
+                if (i < values.length) {
+                    out.write(values[i]);
+                }
+            }
+        }
+    }
+
+    private final class PrerenderedView implements View {
+
+        private final String viewName;
+
+        private final View view;
+
+        PrerenderedView(String viewName, View view) {
+            this.viewName = viewName;
+            this.view = view;
+        }
+
+        @Override
+        public String getContentType() {
+            return MediaType.TEXT_HTML_VALUE + ";charset=UTF-8";
+        }
+
+        @Override
+        public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                throws Exception {
+            Map<String, ?> attributes = model != null ? model : Map.of();
+            Locale locale = RequestContextUtils.getLocale(request);
+            CacheKey key = new CacheKey(viewName, locale, messageSource.getVersion(locale));
+            // rendered outside of the cache, the view writes to the response and may throw; the catalog version in the
+            // key keeps a page rendered from an earlier catalog from being served for a newer one
+            Chunks chunks = cache.getIfPresent(key);
+            if (chunks == null) {
+                chunks = prerender(attributes, request, response);
+                cache.put(key, chunks);
+            }
+            response.setContentType(getContentType());
+            chunks.write(attributes, dynamicAttributes, response);
+        }
+
+        private Chunks prerender(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                throws Exception {
+            Map<String, Object> markedModel = new HashMap<>(model);
+            for (int i = 0; i < dynamicAttributes.size(); i++) {
+                markedModel.put(dynamicAttributes.get(i), marker + i + "x");
+            }
+            ContentCachingResponseWrapper buffer = new ContentCachingResponseWrapper(response);
+            view.render(markedModel, request, buffer);
+            String encoding = buffer.getCharacterEncoding();
+            String output = new String(buffer.getContentAsByteArray(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8);
+
+            List<byte[]> chunks = new ArrayList<>();
+            List<Integer> attributes = new ArrayList<>();
+            Matcher matcher = markerPattern.matcher(output);
+            int start = 0;
+            while (matcher.find()) {
+                chunks.add(output.substring(start, matcher.start()).getBytes(StandardCharsets.UTF_8));
+                attributes.add(Integer.parseInt(matcher.group(1)));
+                start = matcher.end();
+            }
+            chunks.add(output.substring(start).getBytes(StandardCharsets.UTF_8));
+            return new Chunks(chunks.toArray(byte[][]::new), attributes.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
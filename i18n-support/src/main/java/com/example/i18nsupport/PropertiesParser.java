@@ -0,0 +1,244 @@
+package com.example.i18nsupport;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * Streaming parser for the {@link java.util.Properties#load(java.io.Reader)} format.
+ * <p>
+ * Decodes the channel through fixed size NIO buffers and hands every entry to a callback as soon as it is parsed,
+ * so a bundle is never held in memory as a whole and no synchronized {@link java.util.Properties} (Hashtable)
+ * is filled only to be copied into another map. The syntax is the one of Properties: comments (# and !),
+ * key separators (=, : or whitespace), line continuations and escapes (\t, \n, \r, \f and backslash-u).
+ * Malformed input bytes are replaced like {@link java.io.InputStreamReader} does.
+ */
+public final class PropertiesParser {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ReadableByteChannel channel;
+
+    private final CharsetDecoder decoder;
+
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+    private boolean endOfInput;
+
+    private boolean flushed;
+
+    /**
+     * Current logical line: continuations joined, escapes not yet resolved.
+     */
+    private char[] line = new char[256];
+
+    private int length;
+
+    private PropertiesParser(ReadableByteChannel channel, Charset charset) {
+        this.channel = channel;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes.flip();
+        this.chars.flip();
+    }
+
+    /**
+     * Parses all entries of the channel in file order, a key that occurs twice is passed twice.
+     * The channel is not closed.
+     *
+     * @throws IllegalArgumentException for a malformed backslash-u escape, like Properties
+     */
+    public static void parse(ReadableByteChannel channel, Charset charset, BiConsumer<String, String> entries)
+            throws IOException {
+        PropertiesParser parser = new PropertiesParser(channel, charset);
+        while (parser.readLine()) {
+            parser.parseEntry(entries);
+        }
+    }
+
+    /**
+     * Reads the next logical line into {@link #line}, skipping blank lines and comments.
+     * Returns false at the end of the input.
+     */
+    private boolean readLine() throws IOException {
+        length = 0;
+        boolean skipWhitespace = true;
+        boolean continuation = false;
+        boolean newLine = true;
+        boolean comment = false;
+        boolean precedingBackslash = false;
+        boolean skipLineFeed = false;
+        int c;
+        while ((c = read()) >= 0) {
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    continue;
+                }
+            }
+            if (skipWhitespace) {
+                if (c == ' ' || c == '\t' || c == '\f' || (!continuation && (c == '\r' || c == '\n'))) {
+                    continue;
+                }
+                skipWhitespace = false;
+                continuation = false;
+            }
+            if (newLine) {
+                newLine = false;
+                comment = c == '#' || c == '!';
+            }
+            if (c != '\n' && c != '\r') {
+                if (!comment) {
+                    append((char) c);
+                    precedingBackslash = c == '\\' && !precedingBackslash;
+                }
+                continue;
+            }
+            if (comment || length == 0) {
+                comment = false;
+                newLine = true;
+                skipWhitespace = true;
+                length = 0;
+                continue;
+            }
+            if (!precedingBackslash) {
+                return true;
+            }
+            // continuation: drop the backslash, join the next line without its leading whitespace
+            length--;
+            precedingBackslash = false;
+            skipWhitespace = true;
+            continuation = true;
+            skipLineFeed = c == '\r';
+        }
+        if (precedingBackslash) {
+            length--;
+        }
+        return !comment && length > 0;
+    }
+
+    private void parseEntry(BiConsumer<String, String> entries) {
+        int keyLength = 0;
+        int valueStart = length;
+        boolean separator = false;
+        boolean precedingBackslash = false;
+        while (keyLength < length) {
+            char c = line[keyLength];
+            if (!precedingBackslash && (c == '=' || c == ':')) {
+                valueStart = keyLength + 1;
+                separator = true;
+                break;
+            }
+            if (!precedingBackslash && (c == ' ' || c == '\t' || c == '\f')) {
+                valueStart = keyLength + 1;
+                break;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+            keyLength++;
+        }
+        while (valueStart < length) {
+            char c = line[valueStart];
+            if (c != ' ' && c != '\t' && c != '\f') {
+                if (separator || (c != '=' && c != ':')) {
+                    break;
+                }
+                separator = true;
+            }
+            valueStart++;
+        }
+        entries.accept(unescape(0, keyLength), unescape(valueStart, length));
+    }
+
+    private String unescape(int start, int end) {
+        int backslash = start;
+        while (backslash < end && line[backslash] != '\\') {
+            backslash++;
+        }
+        if (backslash == end) {
+            return new String(line, start, end - start);
+        }
+        StringBuilder text = new StringBuilder(end - start).append(line, start, backslash - start);
+        int i = backslash;
+        while (i < end) {
+            char c = line[i++];
+            if (c != '\\') {
+                text.append(c);
+                continue;
+            }
+            if (i == end) {
+                break;
+            }
+            c = line[i++];
+            switch (c) {
+                case 't' -> text.append('\t');
+                case 'n' -> text.append('\n');
+                case 'r' -> text.append('\r');
+                case 'f' -> text.append('\f');
+                case 'u' -> {
+                    if (i + 4 > end) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    int value = 0;
+                    for (int digit = 0; digit < 4; digit++) {
+                        int hex = Character.digit(line[i++], 16);
+                        if (hex < 0) {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                        value = (value << 4) | hex;
+                    }
+                    text.append((char) value);
+                }
+                default -> text.append(c);
+            }
+        }
+        return text.toString();
+    }
+
+    private void append(char c) {
+        if (length == line.length) {
+            line = Arrays.copyOf(line, length * 2);
+        }
+        line[length++] = c;
+    }
+
+    private int read() throws IOException {
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return chars.get();
+    }
+
+    /**
+     * Decodes the next chunk of the channel into {@link #chars}, returns false at the end of the input.
+     */
+    private boolean fill() throws IOException {
+        chars.clear();
+        while (chars.position() == 0 && !flushed) {
+            if (!endOfInput) {
+                bytes.compact();
+                endOfInput = channel.read(bytes) < 0;
+                bytes.flip();
+            }
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (endOfInput && result.isUnderflow()) {
+                decoder.flush(chars);
+                flushed = true;
+            }
+        }
+        chars.flip();
+        return chars.hasRemaining();
+    }
+}
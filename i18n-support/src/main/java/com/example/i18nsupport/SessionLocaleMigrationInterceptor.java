@@ -0,0 +1,46 @@
+package com.example.i18nsupport;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+
+import java.util.Locale;
+
+/**
+ * Moves the locale of users that still have a session from {@link SessionLocaleResolver} into the cookie of
+ * a {@link SignedCookieLocaleResolver}, so switching the resolver does not reset their language.
+ * <p>
+ * Only looks at sessions that already exist (never creates one), and only as long as the request has no valid
+ * locale cookie. The session attribute is removed, and a session that holds nothing else is invalidated.
+ * Can be removed once the last session from before the switch has expired.
+ */
+public class SessionLocaleMigrationInterceptor implements HandlerInterceptor {
+
+    private final SignedCookieLocaleResolver localeResolver;
+
+    public SessionLocaleMigrationInterceptor(SignedCookieLocaleResolver localeResolver) {
+        this.localeResolver = localeResolver;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        HttpSession session = request.getSession(false);
+        if (session == null || localeResolver.getCookieLocale(request) != null) {
+            return true;
+        }
+        try {
+            if (session.getAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME) instanceof Locale locale) {
+                localeResolver.setLocale(request, response, locale);
+                session.removeAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME);
+                if (!session.getAttributeNames().hasMoreElements()) {
+                    session.invalidate();
+                }
+            }
+        } catch (IllegalStateException ex) {
+            // session invalidated concurrently, nothing to migrate
+        }
+        return true;
+    }
+}
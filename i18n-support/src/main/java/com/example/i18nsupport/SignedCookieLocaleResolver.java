@@ -0,0 +1,257 @@
+package com.example.i18nsupport;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.servlet.LocaleResolver;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Stateless {@link LocaleResolver} that keeps the chosen locale in a small signed cookie instead of the HTTP
+ * session, so no session is created and any instance can serve any request.
+ * <p>
+ * The cookie value is the language tag plus a truncated HMAC-SHA256 of it, e.g. {@code fr.q2Jw0Xc1b8AaLkE}
+ * (about 20 bytes). Cookies with a wrong signature are ignored, so clients can not forge one. All instances must
+ * share the secret. The signature does not limit which locales get signed: {@link #setLocale} signs whatever it is
+ * given (e.g. any ?lang= value of a LocaleChangeInterceptor), restrict it with {@link #setSupportedLocales}.
+ * A cookie value is only verified once: valid values (one per locale in practice) are remembered, resolving
+ * a request is a cookie lookup and a cache hit.
+ * <p>
+ * Without a valid cookie the default locale is used, or the request's Accept-Language locale if there is none.
+ * To move users of {@link org.springframework.web.servlet.i18n.SessionLocaleResolver} over, see
+ * {@link SessionLocaleMigrationInterceptor}.
+ */
+public class SignedCookieLocaleResolver implements LocaleResolver {
+
+    private static final Log logger = LogFactory.getLog(SignedCookieLocaleResolver.class);
+
+    public static final String DEFAULT_COOKIE_NAME = "LOCALE";
+
+    /**
+     * Bytes of the HMAC kept in the cookie: 96 bits, plenty for a value that grants nothing but a locale.
+     */
+    private static final int SIGNATURE_BYTES = 12;
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final String LOCALE_REQUEST_ATTRIBUTE_NAME = SignedCookieLocaleResolver.class.getName() + ".LOCALE";
+
+    private final SecretKeySpec key;
+
+    private final Cache<String, Locale> verifiedValues = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .build();
+
+    private String cookieName = DEFAULT_COOKIE_NAME;
+
+    private Duration cookieMaxAge = Duration.ofDays(365);
+
+    private boolean cookieSecure;
+
+    private Locale defaultLocale;
+
+    private Set<Locale> supportedLocales = Set.of();
+
+    /**
+     * Signs with a random secret: cookies are only accepted by this instance and until it restarts.
+     * For tests only, every other instance would reject the cookies.
+     */
+    SignedCookieLocaleResolver() {
+        this(randomSecret());
+    }
+
+    /**
+     * @param secret key of the signature, at least 32 bytes, the same on all instances
+     */
+    public SignedCookieLocaleResolver(byte[] secret) {
+        if (secret.length < 32) {
+            throw new IllegalArgumentException("The secret must have at least 32 bytes");
+        }
+        this.key = new SecretKeySpec(secret.clone(), ALGORITHM);
+    }
+
+    public void setCookieName(String cookieName) {
+        this.cookieName = cookieName;
+    }
+
+    public String getCookieName() {
+        return cookieName;
+    }
+
+    public void setCookieMaxAge(Duration cookieMaxAge) {
+        this.cookieMaxAge = cookieMaxAge;
+    }
+
+    /**
+     * Send the cookie over HTTPS only.
+     */
+    public void setCookieSecure(boolean cookieSecure) {
+        this.cookieSecure = cookieSecure;
+    }
+
+    public void setDefaultLocale(Locale defaultLocale) {
+        this.defaultLocale = defaultLocale;
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    /**
+     * Locales {@link #setLocale} accepts, empty (the default) for any. Another locale falls back to the supported
+     * one of its language, without country first (fr_CA -> fr, en -> en_US), or is ignored: no cookie is written.
+     */
+    public void setSupportedLocales(Collection<Locale> supportedLocales) {
+        this.supportedLocales = new LinkedHashSet<>(supportedLocales);
+    }
+
+    public Set<Locale> getSupportedLocales() {
+        return Collections.unmodifiableSet(supportedLocales);
+    }
+
+    @Override
+    public Locale resolveLocale(HttpServletRequest request) {
+        Object changed = request.getAttribute(LOCALE_REQUEST_ATTRIBUTE_NAME);
+        if (changed instanceof Locale locale) {
+            return locale;
+        }
+        Locale locale = getCookieLocale(request);
+        if (locale != null) {
+            return locale;
+        }
+        return defaultLocale != null ? defaultLocale : request.getLocale();
+    }
+
+    /**
+     * Writes the cookie, or removes it for a null locale. An unsupported locale is ignored,
+     * see {@link #setSupportedLocales}.
+     */
+    @Override
+    public void setLocale(HttpServletRequest request, HttpServletResponse response, Locale locale) {
+        if (locale != null && !supportedLocales.isEmpty()) {
+            Locale supported = supportedLocale(locale);
+            if (supported == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Ignoring unsupported locale '" + locale + "'");
+                }
+                return;
+            }
+            locale = supported;
+        }
+        ResponseCookie.ResponseCookieBuilder cookie = ResponseCookie.from(cookieName, locale != null ? sign(locale) : "")
+                .path("/")
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Lax")
+                .maxAge(locale != null ? cookieMaxAge : Duration.ZERO);
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.build().toString());
+        if (locale != null) {
+            request.setAttribute(LOCALE_REQUEST_ATTRIBUTE_NAME, locale);
+        } else {
+            request.removeAttribute(LOCALE_REQUEST_ATTRIBUTE_NAME);
+        }
+    }
+
+    /**
+     * The locale of a correctly signed cookie, or null.
+     */
+    public Locale getCookieLocale(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                return verify(cookie.getValue());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The cookie value for the given locale: language tag, '.', signature.
+     */
+    String sign(Locale locale) {
+        String languageTag = locale.toLanguageTag();
+        return languageTag + '.' + Base64.getUrlEncoder().withoutPadding().encodeToString(signature(languageTag));
+    }
+
+    Locale verify(String value) {
+        if (value == null) {
+            return null;
+        }
+        // an invalid value is not cached, the loader returns null for it
+        return verifiedValues.get(value, this::verifySignature);
+    }
+
+    private Locale verifySignature(String value) {
+        int dot = value.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String languageTag = value.substring(0, dot);
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(value.substring(dot + 1));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(signature, signature(languageTag))) {
+            return null;
+        }
+        return Locale.forLanguageTag(languageTag);
+    }
+
+    private Locale supportedLocale(Locale locale) {
+        if (supportedLocales.contains(locale)) {
+            return locale;
+        }
+        Locale language = new Locale(locale.getLanguage());
+        if (supportedLocales.contains(language)) {
+            return language;
+        }
+        for (Locale supported : supportedLocales) {
+            if (supported.getLanguage().equals(locale.getLanguage())) {
+                return supported;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private byte[] signature(String languageTag) {
+        try {
+            // Mac instances are not thread-safe and cheap to create
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(languageTag.getBytes(StandardCharsets.US_ASCII)), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.i18nsupport;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * {@link org.springframework.context.MessageSource} for many tenants sharing one base message source, each with its
+ * own overrides of a few messages.
+ * <p>
+ * Instead of a message source (and a full catalog) per tenant, every tenant has a {@link MessageCatalogLayer} that
+ * holds only its overrides, so memory grows with the number of overrides, not with tenants x messages.
+ * A lookup checks the tenant's overrides for the resolved bundle locale, then the base. Tenants without
+ * overrides, or no tenant at all, see the base messages.
+ * <p>
+ * The tenant of the current call comes from the tenant resolver, e.g. {@code () -> TenantContext.getTenantId()}.
+ * Overrides can be changed at runtime: every change swaps in a new immutable layer for the tenant, lookups
+ * running at the same time see either the old or the new layer, never a mix. Each change publishes a
+ * {@link TenantMessagesChangedEvent} with the tenant and the bundle locales it touched.
+ * <p>
+ * The tenant is not an argument of the MessageSource calls, so it is not part of any cache key: do not wrap this
+ * message source in {@link CachingMessageSource} or another cache keyed by code, arguments and locale only, it would
+ * serve one tenant's overrides to every tenant. Lookups are already cheap, a tenant without overrides costs one map
+ * lookup on top of the base.
+ */
+public class TenantMessageSource extends AbstractCatalogMessageSource implements ApplicationEventPublisherAware {
+
+    private final AbstractCatalogMessageSource base;
+
+    private final ConcurrentMap<String, MessageCatalogLayer> layers = new ConcurrentHashMap<>();
+
+    private Supplier<String> tenantResolver = () -> null;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    public TenantMessageSource(AbstractCatalogMessageSource base) {
+        this.base = base;
+    }
+
+    /**
+     * @param tenantResolver gives the id of the current tenant, or null to use the base messages only
+     */
+    public void setTenantResolver(Supplier<String> tenantResolver) {
+        this.tenantResolver = tenantResolver;
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Adds or replaces messages of the tenant for a bundle locale ({@link Locale#ROOT} for all locales).
+     *
+     * @throws IllegalArgumentException if the base has no bundle for the locale, the override would never be used
+     */
+    public void setMessages(String tenant, Locale locale, Map<String, String> messages) {
+        if (!Locale.ROOT.equals(locale) && !base.getLocales().contains(locale)) {
+            throw new IllegalArgumentException("No bundle for locale '" + locale + "' to override");
+        }
+        layers.compute(tenant, (id, layer) ->
+                (layer != null ? layer : MessageCatalogLayer.EMPTY).withMessages(locale, messages));
+        changed(tenant, Set.of(locale));
+    }
+
+    /**
+     * Removes the tenant's override of a message, the base message is used again.
+     */
+    public void removeMessage(String tenant, Locale locale, String code) {
+        boolean[] removed = new boolean[1];
+        layers.computeIfPresent(tenant, (id, layer) -> {
+            MessageCatalogLayer updated = layer.withoutMessage(locale, code);
+            removed[0] = updated != layer;
+            return updated.size() > 0 ? updated : null;
+        });
+        if (removed[0]) {
+            changed(tenant, Set.of(locale));
+        }
+    }
+
+    /**
+     * Removes all overrides of the tenant.
+     */
+    public void removeTenant(String tenant) {
+        MessageCatalogLayer removed = layers.remove(tenant);
+        if (removed != null) {
+            changed(tenant, removed.getLocales());
+        }
+    }
+
+    /**
+     * Returns the overrides of the tenant, {@link MessageCatalogLayer#EMPTY} if it has none.
+     */
+    public MessageCatalogLayer getLayer(String tenant) {
+        return layers.getOrDefault(tenant, MessageCatalogLayer.EMPTY);
+    }
+
+    @Override
+    public Set<Locale> getLocales() {
+        return base.getLocales();
+    }
+
+    @Override
+    public Map<String, MessageTemplate> getTemplates(Locale locale) {
+        MessageCatalogLayer layer = currentLayer();
+        Map<String, MessageTemplate> templates = base.getTemplates(locale);
+        return layer != null ? layer.overlay(templates, base.getTableLocale(locale)) : templates;
+    }
+
+    @Override
+    protected String getTableVersion(Locale locale) {
+        MessageCatalogLayer layer = currentLayer();
+        String version = base.getTableVersion(locale);
+        return layer != null ? layer.getVersion(version, base.getTableLocale(locale)) : version;
+    }
+
+    @Override
+    protected Locale getTableLocale(Locale locale) {
+        return base.getTableLocale(locale);
+    }
+
+    @Override
+    protected Map<String, MessageTemplate> getTemplates(Collection<String> codes, Locale locale) {
+        Map<String, MessageTemplate> delta = currentDelta(locale);
+        Map<String, MessageTemplate> templates = base.getTemplates(codes, locale);
+        if (delta.isEmpty()) {
+            return templates;
+        }
+        Map<String, MessageTemplate> layered = new LinkedHashMap<>();
+        for (String code : codes) {
+            MessageTemplate template = delta.get(code);
+            if (template == null) {
+                template = templates.get(code);
+            }
+            if (template != null) {
+                layered.put(code, template);
+            }
+        }
+        return layered;
+    }
+
+    @Override
+    protected Map<String, MessageTemplate> getTemplatesByPrefix(String prefix, Locale locale) {
+        Map<String, MessageTemplate> delta = currentDelta(locale);
+        Map<String, MessageTemplate> templates = base.getTemplatesByPrefix(prefix, locale);
+        if (delta.isEmpty()) {
+            return templates;
+        }
+        Map<String, MessageTemplate> layered = new TreeMap<>(templates);
+        delta.forEach((code, template) -> {
+            if (code.startsWith(prefix)) {
+                layered.put(code, template);
+            }
+        });
+        return new LinkedHashMap<>(layered);
+    }
+
+    @Override
+    protected MessageTemplate getTemplate(String code, Locale locale) {
+        MessageTemplate template = currentDelta(locale).get(code);
+        return template != null ? template : base.getTemplate(code, locale);
+    }
+
+    @Override
+    protected MessageTemplate getTemplate(MessageKey key, Locale locale) {
+        Map<String, MessageTemplate> delta = currentDelta(locale);
+        MessageTemplate template = delta.isEmpty() ? null : delta.get(key.getCode());
+        return template != null ? template : base.getTemplate(key, locale);
+    }
+
+    private void changed(String tenant, Set<Locale> bundleLocales) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new TenantMessagesChangedEvent(this, tenant, bundleLocales));
+        }
+    }
+
+    private MessageCatalogLayer currentLayer() {
+        String tenant = tenantResolver.get();
+        return tenant != null ? layers.get(tenant) : null;
+    }
+
+    private Map<String, MessageTemplate> currentDelta(Locale locale) {
+        MessageCatalogLayer layer = currentLayer();
+        return layer != null ? layer.getDelta(base.getTableLocale(locale)) : Map.of();
+    }
+}
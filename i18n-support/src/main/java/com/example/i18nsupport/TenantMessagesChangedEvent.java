@@ -0,0 +1,33 @@
+package com.example.i18nsupport;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Published by {@link TenantMessageSource} after the overrides of a tenant have changed.
+ */
+public class TenantMessagesChangedEvent extends ApplicationEvent {
+
+    private final String tenant;
+
+    private final Set<Locale> bundleLocales;
+
+    /**
+     * @param bundleLocales locales of the overrides that changed, {@link Locale#ROOT} for the ones of all locales
+     */
+    public TenantMessagesChangedEvent(TenantMessageSource source, String tenant, Set<Locale> bundleLocales) {
+        super(source);
+        this.tenant = tenant;
+        this.bundleLocales = Set.copyOf(bundleLocales);
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+
+    public Set<Locale> getBundleLocales() {
+        return bundleLocales;
+    }
+}
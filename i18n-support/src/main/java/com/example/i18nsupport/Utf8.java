@@ -0,0 +1,43 @@
+package com.example.i18nsupport;
+
+import java.nio.ByteBuffer;
+
+/**
+ * UTF-8 encoding straight into a ByteBuffer, without the intermediate byte[] of String.getBytes
+ * or a CharsetEncoder per call.
+ */
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Encodes the characters like String.getBytes(UTF_8) does, an unpaired surrogate becomes '?'.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small, the characters before are written then
+     */
+    static void encode(CharSequence chars, ByteBuffer out) {
+        int length = chars.length();
+        for (int i = 0; i < length; i++) {
+            char c = chars.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6));
+                out.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                out.put((byte) (0xF0 | codePoint >> 18));
+                out.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                out.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                out.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12));
+                out.put((byte) (0x80 | c >> 6 & 0x3F));
+                out.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryCatalogTest {
+
+    private static final List<Locale> LOCALES = List.of(
+            Locale.ENGLISH, Locale.US, Locale.FRENCH, Locale.FRANCE, new Locale("pl"), new Locale("pl", "PL"),
+            Locale.GERMAN, Locale.ROOT);
+
+    @TempDir
+    Path directory;
+
+    private MessageCatalog messageCatalog;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        messageCatalog = new MessageCatalogLoader().load(List.of("i18n/catalog"), Locale.ENGLISH);
+        file = directory.resolve("catalog.catalog");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            BinaryCatalogWriter.write(messageCatalog, out);
+        }
+    }
+
+    @Test
+    void every_message_matches_MessageCatalog() throws IOException {
+        //given
+        BinaryCatalog catalog = BinaryCatalog.open(file);
+
+        for (Locale locale : LOCALES) {
+            for (String code : List.of("welcome.message", "base.only", "pl.only", "en.only", "unknown", "welcome")) {
+                //when
+                String expected = messageCatalog.getMessage(code, locale);
+                String actual = catalog.getMessage(code, locale);
+
+                //then
+                assert Objects.equals(expected, actual)
+                        : code + " " + locale + ": expected [" + expected + "] but was [" + actual + "]";
+            }
+        }
+        assert catalog.getLocales().equals(messageCatalog.getLocales());
+        assert catalog.getDefaultLocale().equals(Locale.ENGLISH);
+    }
+
+    @Test
+    void batch_lookups_match_MessageCatalog() throws IOException {
+        //given
+        BinaryCatalog catalog = BinaryCatalog.open(file);
+        List<String> codes = List.of("welcome.message", "unknown", "pl.only", "base.only", "en.only");
+
+        for (Locale locale : LOCALES) {
+            for (String prefix : List.of("", "pl.", "welcome", "x")) {
+                //when //then
+                assert messages(catalog.getTemplatesByPrefix(prefix, locale))
+                        .equals(messages(messageCatalog.getTemplatesByPrefix(prefix, locale))) : prefix + " " + locale;
+            }
+            assert messages(catalog.getTemplates(codes, locale))
+                    .equals(messages(messageCatalog.getTemplates(codes, locale))) : locale;
+        }
+    }
+
+    @Test
+    void key_lookups_match_code_lookups() throws IOException {
+        //given
+        BinaryCatalog catalog = BinaryCatalog.open(file);
+
+        for (String code : List.of("welcome.message", "base.only", "pl.only", "en.only", "unknown")) {
+            MessageKey key = MessageKey.of(code);
+            for (Locale locale : LOCALES) {
+                //when //then
+                assert Objects.equals(messages(catalog.getTemplate(key, locale)),
+                        messages(messageCatalog.getTemplate(code, locale))) : code + " " + locale;
+                assert Objects.equals(messages(messageCatalog.getTemplate(key, locale)),
+                        messages(messageCatalog.getTemplate(code, locale))) : code + " " + locale;
+            }
+        }
+    }
+
+    @Test
+    void version_matches_MessageCatalog() throws IOException {
+        //given
+        BinaryCatalog catalog = BinaryCatalog.open(file);
+
+        for (Locale locale : LOCALES) {
+            //when //then
+            assert catalog.getVersion(locale).equals(messageCatalog.getVersion(locale)) : locale;
+        }
+    }
+
+    @Test
+    void perfect_hash_finds_every_key() {
+        //given
+        Map<String, String> table = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            table.put("key." + i, "value " + i);
+        }
+        table.put("clé.ünïcode", "Zażółć gęślą jaźń");
+        BinaryCatalog catalog = write(Map.of(Locale.ROOT, table));
+
+        //when //then
+        table.forEach((code, message) -> {
+            assert message.equals(catalog.getMessage(code, Locale.ROOT)) : code;
+        });
+        assert catalog.getMessage("key.10000", Locale.ROOT) == null;
+        assert catalog.getMessage("clé.ünïcod", Locale.ROOT) == null;
+        assert catalog.size() == table.size();
+    }
+
+    @Test
+    void empty_catalog() {
+        //given
+        BinaryCatalog catalog = write(Map.of(Locale.ROOT, Map.of()));
+
+        //when //then
+        assert catalog.getMessage("any", Locale.FRENCH) == null;
+        assert catalog.getLocales().isEmpty();
+    }
+
+    @Test
+    void message_source_reads_catalog_file() {
+        //given
+        BinaryCatalogMessageSource messageSource = new BinaryCatalogMessageSource();
+        messageSource.setLocation(file.toUri().toString());
+        messageSource.afterPropertiesSet();
+
+        //when
+        String message = messageSource.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL"));
+        String defaultLocaleMessage = messageSource.getMessage("en.only", null, null);
+
+        //then
+        assert message.equals("Witamy Jan");
+        assert defaultLocaleMessage.equals("English only");
+    }
+
+    @Test
+    void written_messages_match_formatted_messages() {
+        //given
+        Map<String, String> table = Map.of(
+                "plain", "Hello {0}, you have {1} new {2}",
+                "edges", "{1}{0}",
+                "unicode", "Zażółć {0} — 😀",
+                "quoted", "It''s {0}",
+                "typed", "{0} paid {1,number,#.00}",
+                "missing", "{0} and {3}",
+                "literal", "No arguments");
+        BinaryCatalog catalog = write(Map.of(Locale.ROOT, table)).offHeap();
+        Object[] args = {"Jan", 1234567, "gęsi"};
+        ByteBuffer out = ByteBuffer.allocateDirect(256);
+
+        for (String code : table.keySet()) {
+            //when
+            out.clear();
+            boolean written = catalog.writeMessage(code, args, Locale.GERMAN, out);
+            String expected = MessageTemplate.compile(table.get(code)).format(args, Locale.GERMAN);
+
+            //then
+            assert written;
+            assert StandardCharsets.UTF_8.decode(out.flip()).toString().equals(expected) : code;
+        }
+        assert !catalog.writeMessage("unknown", args, Locale.GERMAN, out.clear());
+        assert out.position() == 0;
+        assertThrows(BufferOverflowException.class,
+                () -> catalog.writeMessage("plain", args, Locale.GERMAN, ByteBuffer.allocate(8)));
+    }
+
+    @Test
+    void off_heap_message_source_writes_from_the_catalog() {
+        //given
+        BinaryCatalogMessageSource messageSource = new BinaryCatalogMessageSource();
+        messageSource.setLocation(file.toUri().toString());
+        messageSource.setOffHeap(true);
+        messageSource.afterPropertiesSet();
+        ByteBuffer out = ByteBuffer.allocate(64);
+
+        //when
+        boolean written = messageSource.writeMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL"), out);
+        String message = messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH);
+
+        //then
+        assert written;
+        assert new String(out.array(), 0, out.position(), StandardCharsets.UTF_8).equals("Witamy Jan");
+        assert message.equals("Bonjour Jan");
+        assert messageSource.getCatalog().isOffHeap();
+        assert messageSource.getTemplate("en.only", Locale.ENGLISH) != messageSource.getTemplate("en.only", Locale.ENGLISH);
+    }
+
+    /**
+     * Patterns in iteration order.
+     */
+    private static String messages(MessageTemplate template) {
+        return template != null ? template.getPattern() : null;
+    }
+
+    private static List<String> messages(Map<String, MessageTemplate> templates) {
+        return templates.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue().getPattern())
+                .toList();
+    }
+
+    private static BinaryCatalog write(Map<Locale, Map<String, String>> tables) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            BinaryCatalogWriter.write(tables, null, out);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+        return new BinaryCatalog(ByteBuffer.wrap(out.toByteArray()));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.i18nsupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingMessageSourceTest {
+
+    private static final Locale POLAND = new Locale("pl", "PL");
+
+    private final AtomicInteger delegateCalls = new AtomicInteger();
+
+    private CachingMessageSource messageSource;
+
+    @BeforeEach
+    void setUp() {
+        CatalogMessageSource catalogMessageSource = new CatalogMessageSource();
+        catalogMessageSource.setBasename("i18n/catalog");
+        catalogMessageSource.afterPropertiesSet();
+        messageSource = new CachingMessageSource(new CountingMessageSource(catalogMessageSource));
+    }
+
+    @Test
+    void getMessage_repeated_call_is_served_from_cache() {
+        //when
+        String first = messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+        String second = messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+        String otherUser = messageSource.getMessage("welcome.message", new Object[]{"Marie"}, Locale.FRENCH);
+
+        //then
+        assert first.equals("Bonjour Jean") && second.equals("Bonjour Jean");
+        assert otherUser.equals("Bonjour Marie");
+        assert delegateCalls.get() == 2;
+    }
+
+    @Test
+    void getMessage_by_key_shares_the_cache_with_the_code() {
+        //given
+        MessageKey key = MessageKey.of("welcome.message");
+
+        //when
+        String byKey = messageSource.getMessage(key, new Object[]{"Jean"}, Locale.FRENCH);
+        String byCode = messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+        String byKeyAgain = messageSource.getMessage(key, new Object[]{"Jean"}, Locale.FRENCH);
+
+        //then
+        assert byKey.equals("Bonjour Jean") && byCode.equals("Bonjour Jean") && byKeyAgain.equals("Bonjour Jean");
+        assert delegateCalls.get() == 1;
+    }
+
+    @Test
+    void getMessage_long_or_mutable_arguments_are_not_cached() {
+        //given
+        messageSource.setMaxArgumentLength(4);
+
+        //when
+        messageSource.getMessage("welcome.message", new Object[]{"Marie"}, Locale.FRENCH);
+        messageSource.getMessage("welcome.message", new Object[]{"Marie"}, Locale.FRENCH);
+        messageSource.getMessage("welcome.message", new Object[]{new StringBuilder("Jean")}, Locale.FRENCH);
+        messageSource.getMessage("welcome.message", new Object[]{new StringBuilder("Jean")}, Locale.FRENCH);
+
+        //then
+        assert delegateCalls.get() == 4;
+        assert messageSource.getWeightedSize() == 0;
+    }
+
+    @Test
+    void getMessage_unknown_code_is_not_cached() {
+        assertThrows(NoSuchMessageException.class, () -> messageSource.getMessage("unknown", null, Locale.FRENCH));
+        assertThrows(NoSuchMessageException.class, () -> messageSource.getMessage("unknown", null, Locale.FRENCH));
+    }
+
+    @Test
+    void invalidate_drops_locales_of_bundle_only() {
+        //given
+        messageSource.getMessage("welcome.message", new Object[]{"Jan"}, POLAND);
+        messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+
+        //when
+        messageSource.invalidate(new Locale("pl"));
+        messageSource.getMessage("welcome.message", new Object[]{"Jan"}, POLAND);
+        messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+
+        //then
+        assert delegateCalls.get() == 3;
+    }
+
+    @Test
+    void bindTo_publishes_cache_metrics() {
+        //given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        messageSource.bindTo(registry);
+
+        //when
+        messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+        messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH);
+
+        //then
+        assert registry.get("cache.gets").tag("result", "hit").functionCounter().count() == 1;
+        assert registry.get("i18n.messages.cache.hit.ratio").gauge().value() == 0.5;
+        assert registry.get("i18n.messages.cache.memory").gauge().value() > 0;
+    }
+
+    @Test
+    void message_rendered_during_an_invalidation_is_not_kept() {
+        //given
+        AtomicInteger renders = new AtomicInteger();
+        CachingMessageSource[] caching = new CachingMessageSource[1];
+        caching[0] = new CachingMessageSource(new MessageSource() {
+            @Override
+            public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+                return getMessage(code, args, locale);
+            }
+
+            @Override
+            public String getMessage(String code, Object[] args, Locale locale) {
+                // the catalog is reloaded while the first message is rendered from the previous one
+                if (renders.incrementAndGet() == 1) {
+                    caching[0].invalidate(Locale.FRENCH);
+                    return "stale";
+                }
+                return "fresh";
+            }
+
+            @Override
+            public String getMessage(MessageSourceResolvable resolvable, Locale locale) {
+                throw new UnsupportedOperationException();
+            }
+        });
+
+        //when
+        String first = caching[0].getMessage("welcome.message", null, Locale.FRENCH);
+        String second = caching[0].getMessage("welcome.message", null, Locale.FRENCH);
+        String third = caching[0].getMessage("welcome.message", null, Locale.FRENCH);
+
+        //then
+        assert first.equals("stale");
+        assert second.equals("fresh") && third.equals("fresh");
+        assert renders.get() == 2;
+    }
+
+    private class CountingMessageSource implements MessageSource {
+
+        private final MessageSource delegate;
+
+        CountingMessageSource(MessageSource delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getMessage(String code, Object[] args, String defaultMessage, Locale locale) {
+            delegateCalls.incrementAndGet();
+            return delegate.getMessage(code, args, defaultMessage, locale);
+        }
+
+        @Override
+        public String getMessage(String code, Object[] args, Locale locale) {
+            delegateCalls.incrementAndGet();
+            return delegate.getMessage(code, args, locale);
+        }
+
+        @Override
+        public String getMessage(MessageSourceResolvable resolvable, Locale locale) {
+            delegateCalls.incrementAndGet();
+            return delegate.getMessage(resolvable, locale);
+        }
+    }
+}
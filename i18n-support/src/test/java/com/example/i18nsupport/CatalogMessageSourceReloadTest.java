@@ -0,0 +1,179 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+class CatalogMessageSourceReloadTest {
+
+    private static final List<String> BUNDLES = List.of(
+            "catalog.properties", "catalog_en.properties", "catalog_fr.properties",
+            "catalog_pl.properties", "catalog_pl_PL.properties");
+
+    @TempDir
+    Path classpath;
+
+    private Path bundleDirectory;
+
+    private URLClassLoader classLoader;
+
+    private CatalogMessageSource messageSource;
+
+    private final List<MessageCatalogReloadedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bundleDirectory = Files.createDirectories(classpath.resolve("i18n"));
+        for (String bundle : BUNDLES) {
+            try (InputStream in = getClass().getResourceAsStream("/i18n/" + bundle)) {
+                Files.copy(in, bundleDirectory.resolve(bundle));
+            }
+        }
+        classLoader = new URLClassLoader(new URL[]{classpath.toUri().toURL()}, null);
+
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/catalog");
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.setWatchForChanges(true);
+        messageSource.setResourceLoader(new DefaultResourceLoader(classLoader));
+        messageSource.setApplicationEventPublisher(event -> events.add((MessageCatalogReloadedEvent) event));
+        messageSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        messageSource.destroy();
+        classLoader.close();
+    }
+
+    @Test
+    void reload_rebuilds_only_locales_falling_back_to_changed_bundle() throws IOException {
+        //given
+        MessageCatalog previous = messageSource.getCatalog();
+        Path bundle = write("catalog_pl.properties", "welcome.message=Cześć {0}\npl.only=Tylko po polsku\n");
+
+        //when
+        messageSource.reload(Set.of(bundle));
+
+        //then
+        MessageCatalog reloaded = messageSource.getCatalog();
+        assert reloaded != previous;
+        assert reloaded.getMessage("welcome.message", new Locale("pl")).equals("Cześć {0}");
+        assert reloaded.getMessage("welcome.message", new Locale("pl", "PL")).equals("Witamy {0}");
+        assert reloaded.getTemplates(Locale.FRENCH) == previous.getTemplates(Locale.FRENCH);
+        assert reloaded.getTemplates(new Locale("pl", "PL")) != previous.getTemplates(new Locale("pl", "PL"));
+        assert events.size() == 1;
+        assert events.get(0).getBundleLocales().equals(Set.of(new Locale("pl")));
+    }
+
+    @Test
+    void reload_of_deleted_bundle_falls_back_to_parent() throws IOException {
+        //given
+        Path bundle = bundleDirectory.resolve("catalog_pl_PL.properties");
+        Files.delete(bundle);
+
+        //when
+        messageSource.reload(Set.of(bundle));
+
+        //then
+        assert messageSource.getMessage("welcome.message", null, new Locale("pl", "PL")).equals("Witaj {0}");
+    }
+
+    @Test
+    void message_key_is_renumbered_after_reload() throws IOException {
+        //given
+        MessageKey welcome = MessageKey.of("welcome.message");
+        messageSource.getMessage(welcome, new Object[]{"Jan"}, new Locale("pl"));
+        // a code sorting first shifts the numbers of all other codes
+        Path bundle = write("catalog_pl.properties", "a.first=Pierwszy\nwelcome.message=Cześć {0}\n");
+
+        //when
+        messageSource.reload(Set.of(bundle));
+
+        //then
+        assert messageSource.getMessage(welcome, new Object[]{"Jan"}, new Locale("pl")).equals("Cześć Jan");
+        assert messageSource.getMessage(welcome, new Object[]{"Jean"}, Locale.FRENCH).equals("Bonjour Jean");
+        assert messageSource.getMessage(MessageKey.of("a.first"), null, new Locale("pl")).equals("Pierwszy");
+    }
+
+    @Test
+    void reload_ignores_files_of_other_basenames() throws IOException {
+        //given
+        MessageCatalog previous = messageSource.getCatalog();
+        Path other = write("catalogue_fr.properties", "welcome.message=Ignored\n");
+
+        //when
+        messageSource.reload(Set.of(other));
+
+        //then
+        assert messageSource.getCatalog() == previous;
+        assert events.isEmpty();
+    }
+
+    @Test
+    void watcher_picks_up_modified_bundle() throws Exception {
+        //given
+        write("catalog_fr.properties", "welcome.message=Salut {0}\n");
+
+        //when
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!messageSource.getMessage("welcome.message", null, Locale.FRENCH).equals("Salut {0}")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        //then
+        assert messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.FRENCH).equals("Salut Jean");
+    }
+
+    @Test
+    void overflow_reloads_every_bundle_of_the_directory() throws IOException {
+        //given
+        write("catalog_fr.properties", "welcome.message=Salut {0}\n");
+        write("catalog_pl.properties", "welcome.message=Cześć {0}\n");
+        WatchEvent<Object> overflow = new WatchEvent<>() {
+            public Kind<Object> kind() {
+                return StandardWatchEventKinds.OVERFLOW;
+            }
+
+            public int count() {
+                return 1;
+            }
+
+            public Object context() {
+                return null;
+            }
+        };
+        Set<Path> changedFiles = new LinkedHashSet<>();
+
+        //when
+        MessageCatalogWatcher.collect(bundleDirectory, List.of(overflow), changedFiles);
+        messageSource.reload(changedFiles);
+
+        //then
+        assert changedFiles.size() == BUNDLES.size() : changedFiles;
+        assert messageSource.getMessage("welcome.message", null, Locale.FRENCH).equals("Salut {0}");
+        assert messageSource.getMessage("welcome.message", null, new Locale("pl")).equals("Cześć {0}");
+    }
+
+    private Path write(String filename, String content) throws IOException {
+        return Files.writeString(bundleDirectory.resolve(filename), content, StandardCharsets.UTF_8);
+    }
+}
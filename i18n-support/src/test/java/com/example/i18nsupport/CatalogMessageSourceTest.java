@@ -0,0 +1,198 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogMessageSourceTest {
+
+    private CatalogMessageSource messageSource;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/catalog");
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.afterPropertiesSet();
+    }
+
+    @Test
+    void getMessage_exact_locale() {
+        //when
+        String message = messageSource.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL"));
+
+        //then
+        assert message.equals("Witamy Jan");
+    }
+
+    @Test
+    void getMessage_falls_back_to_language_and_base_bundle() {
+        //given
+        Locale locale = new Locale("pl", "PL");
+
+        //when
+        String languageOnly = messageSource.getMessage("pl.only", null, locale);
+        String baseOnly = messageSource.getMessage("base.only", null, locale);
+
+        //then
+        assert languageOnly.equals("Tylko po polsku");
+        assert baseOnly.equals("Only in base");
+    }
+
+    @Test
+    void getMessage_unknown_locale_uses_default_locale() {
+        //when
+        String message = messageSource.getMessage("en.only", null, Locale.GERMAN);
+
+        //then
+        assert message.equals("English only");
+    }
+
+    @Test
+    void getMessage_existing_locale_does_not_use_default_locale() {
+        //when
+        String message = messageSource.getMessage("en.only", null, "fallback", Locale.FRENCH);
+
+        //then
+        assert message.equals("fallback");
+    }
+
+    @Test
+    void getMessage_without_arguments_is_not_formatted() {
+        //when
+        String message = messageSource.getMessage("welcome.message", null, Locale.FRENCH);
+
+        //then
+        assert message.equals("Bonjour {0}");
+    }
+
+    @Test
+    void getMessage_resolves_resolvable_arguments() {
+        //given
+        Object[] args = {new DefaultMessageSourceResolvable("base.only")};
+
+        //when
+        String message = messageSource.getMessage("welcome.message", args, Locale.FRENCH);
+
+        //then
+        assert message.equals("Bonjour Only in base");
+    }
+
+    @Test
+    void getMessage_unknown_code() {
+        assertThrows(NoSuchMessageException.class, () -> messageSource.getMessage("unknown", null, Locale.FRENCH));
+
+        messageSource.setUseCodeAsDefaultMessage(true);
+        assert messageSource.getMessage("unknown", null, Locale.FRENCH).equals("unknown");
+    }
+
+    @Test
+    void getMessages_resolves_codes_in_order() {
+        //when
+        Map<String, String> messages = messageSource.getMessages(
+                List.of("pl.only", "unknown", "welcome.message", "base.only"), new Locale("pl", "PL"));
+
+        //then
+        assert messages.equals(Map.of(
+                "pl.only", "Tylko po polsku", "welcome.message", "Witamy {0}", "base.only", "Only in base"));
+        assert List.copyOf(messages.keySet()).equals(List.of("pl.only", "welcome.message", "base.only"));
+
+        messageSource.setUseCodeAsDefaultMessage(true);
+        assert messageSource.getMessages(List.of("unknown"), Locale.FRENCH).equals(Map.of("unknown", "unknown"));
+    }
+
+    @Test
+    void getMessagesByPrefix_returns_codes_of_prefix_ordered_by_code() {
+        //when
+        Map<String, String> messages = messageSource.getMessagesByPrefix("", Locale.GERMAN);
+        Map<String, String> onlyMessages = messageSource.getMessagesByPrefix("pl.", new Locale("pl", "PL"));
+
+        //then
+        assert List.copyOf(messages.keySet()).equals(List.of("base.only", "en.only", "welcome.message")) : messages;
+        assert messages.get("welcome.message").equals("Hello {0}");
+        assert onlyMessages.equals(Map.of("pl.only", "Tylko po polsku"));
+        assert messageSource.getMessagesByPrefix("pl.", Locale.FRENCH).isEmpty();
+    }
+
+    @Test
+    void getVersion_is_per_table_and_stable() {
+        //given
+        CatalogMessageSource other = new CatalogMessageSource();
+        other.setBasename("i18n/catalog");
+        other.setDefaultLocale(Locale.ENGLISH);
+        other.afterPropertiesSet();
+
+        //when
+        String french = messageSource.getVersion(Locale.FRENCH);
+
+        //then
+        assert french.matches("[0-9a-f]{32}") : french;
+        assert french.equals(messageSource.getVersion(Locale.FRANCE));
+        assert french.equals(other.getVersion(Locale.FRENCH));
+        assert !french.equals(messageSource.getVersion(new Locale("pl")));
+        assert !messageSource.getVersion(new Locale("pl")).equals(messageSource.getVersion(new Locale("pl", "PL")));
+        assert messageSource.getVersion(Locale.GERMAN).equals(messageSource.getVersion(null));
+    }
+
+    @Test
+    void catalog_contains_only_bundles_of_basename() {
+        //when
+        MessageCatalog catalog = messageSource.getCatalog();
+
+        //then
+        assert catalog.getLocales().size() == 4 : catalog.getLocales();
+        assert catalog.getMessage("ignored", Locale.ROOT) == null;
+    }
+
+    @Test
+    void getMessage_by_key() {
+        //given
+        MessageKey welcome = MessageKey.of("welcome.message");
+        MessageKey unknown = MessageKey.of("unknown");
+
+        //when
+        String polish = messageSource.getMessage(welcome, new Object[]{"Jan"}, new Locale("pl", "PL", "x"));
+        String english = messageSource.getMessage(welcome, new Object[]{"Hans"}, Locale.GERMAN);
+        String baseOnly = messageSource.getMessage(MessageKey.of("base.only"), null, Locale.FRENCH);
+
+        //then
+        assert polish.equals("Witamy Jan");
+        assert english.equals("Hello Hans");
+        assert baseOnly.equals("Only in base");
+        assertThrows(NoSuchMessageException.class, () -> messageSource.getMessage(unknown, null, Locale.FRENCH));
+        messageSource.setUseCodeAsDefaultMessage(true);
+        assert messageSource.getMessage(unknown, null, Locale.FRENCH).equals("unknown");
+    }
+
+    @Test
+    void pruned_mode_loads_only_the_retained_codes(@TempDir Path directory) throws IOException {
+        //given
+        Path codes = directory.resolve("catalog.codes");
+        Files.writeString(codes, "# referenced codes\nwelcome.message\n\npl.only\n");
+        CatalogMessageSource pruned = new CatalogMessageSource();
+        pruned.setBasename("i18n/catalog");
+        pruned.setDefaultLocale(Locale.ENGLISH);
+        pruned.setRetainedCodesLocation(codes.toUri().toString());
+
+        //when
+        pruned.afterPropertiesSet();
+
+        //then
+        assert pruned.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL")).equals("Witamy Jan");
+        assert pruned.getMessage("pl.only", null, new Locale("pl")).equals("Tylko po polsku");
+        assert pruned.getCatalog().getMessage("base.only", Locale.ROOT) == null;
+        assert pruned.getCatalog().getMessage("en.only", Locale.ENGLISH) == null;
+        assert pruned.getLocales().equals(messageSource.getLocales());
+    }
+}
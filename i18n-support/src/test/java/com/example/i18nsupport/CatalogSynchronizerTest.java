@@ -0,0 +1,168 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+class CatalogSynchronizerTest {
+
+    private final LoopbackCatalogSyncTransport transport = new LoopbackCatalogSyncTransport();
+
+    private final List<MessageCatalogReloadedEvent> events = new ArrayList<>();
+
+    private CatalogMessageSource firstSource;
+
+    private CatalogMessageSource secondSource;
+
+    private CatalogSynchronizer first;
+
+    private CatalogSynchronizer second;
+
+    @BeforeEach
+    void setUp() {
+        firstSource = messageSource();
+        secondSource = messageSource();
+        secondSource.setApplicationEventPublisher(event -> events.add((MessageCatalogReloadedEvent) event));
+        first = new CatalogSynchronizer(firstSource, transport);
+        second = new CatalogSynchronizer(secondSource, transport);
+        first.afterPropertiesSet();
+        second.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        first.destroy();
+        second.destroy();
+    }
+
+    @Test
+    void updates_reach_every_node() {
+        //given
+        String initialVersion = second.getCatalogVersion();
+        MessageCatalog before = secondSource.getCatalog();
+
+        //when
+        first.publish(new Locale("pl"), Map.of("welcome.message", "Czesc {0}", "new.message", "Nowy"));
+
+        //then
+        for (CatalogMessageSource source : List.of(firstSource, secondSource)) {
+            assert source.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL")).equals("Czesc Jan");
+            assert source.getMessage("welcome.message", new Object[]{"Jan"}, Locale.FRENCH).equals("Bonjour Jan");
+            assert source.getMessage("new.message", null, new Locale("pl", "PL")).equals("Nowy");
+        }
+        assert first.getCatalogVersion().equals(second.getCatalogVersion());
+        assert !second.getCatalogVersion().equals(initialVersion);
+        assert second.getAppliedUpdates() == 1;
+        assert before.getMessage("new.message", new Locale("pl")) == null : "the previous catalog is left untouched";
+        assert events.size() == 1 && events.get(0).getBundleLocales().equals(Set.of(new Locale("pl")));
+    }
+
+    @Test
+    void removals_restore_the_bundle_messages() {
+        //given
+        String initialVersion = first.getCatalogVersion();
+        second.publish(Locale.ROOT, Map.of("base.only", "Synced"));
+
+        //when
+        first.publishRemoval(Locale.ROOT, Set.of("base.only"));
+
+        //then
+        assert firstSource.getMessage("base.only", null, Locale.FRENCH).equals("Only in base");
+        assert secondSource.getMessage("base.only", null, Locale.FRENCH).equals("Only in base");
+        assert first.getCatalogVersion().equals(initialVersion);
+        assert second.getCatalogVersion().equals(initialVersion);
+    }
+
+    @Test
+    void root_override_reaches_key_and_prefix_lookups_of_every_locale() {
+        //given
+        MessageCatalog before = secondSource.getCatalog();
+
+        //when
+        first.publish(Locale.ROOT, Map.of("welcome.message", "Hi {0}", "base.synced", "Synced"));
+
+        //then
+        MessageCatalog after = secondSource.getCatalog();
+        assert secondSource.getMessage(MessageKey.of("welcome.message"), new Object[]{"Jan"}, new Locale("pl", "PL"))
+                .equals("Hi Jan");
+        assert secondSource.getMessage(MessageKey.of("base.synced"), null, Locale.FRENCH).equals("Synced");
+        assert secondSource.getMessagesByPrefix("base.", Locale.FRENCH).keySet().stream().toList()
+                .equals(List.of("base.only", "base.synced"));
+        assert after.getTemplates(Locale.FRENCH).size() == before.getTemplates(Locale.FRENCH).size() + 1;
+        assert before.getMessage("welcome.message", new Locale("pl", "PL")).equals("Witamy {0}");
+    }
+
+    @Test
+    void invalid_patterns_are_rejected_before_publishing() {
+        //given
+        List<byte[]> delivered = new ArrayList<>();
+        transport.subscribe(delivered::add);
+
+        //when
+        try {
+            first.publish(new Locale("pl"), Map.of("welcome.message", "Witaj {0"));
+            assert false : "invalid pattern was published";
+        } catch (IllegalArgumentException expected) {
+            assert expected.getMessage().contains("'welcome.message'") : expected.getMessage();
+        }
+
+        //then
+        assert delivered.isEmpty();
+        assert firstSource.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl")).equals("Witaj Jan");
+    }
+
+    @Test
+    void failing_node_does_not_stop_delivery_to_the_others() {
+        //given
+        CatalogMessageSource failingSource = new CatalogMessageSource() {
+            @Override
+            void apply(CatalogUpdate update) {
+                throw new IllegalStateException("Cannot apply");
+            }
+        };
+        CatalogSynchronizer failing = new CatalogSynchronizer(failingSource, transport);
+        failing.afterPropertiesSet();
+        List<byte[]> delivered = new ArrayList<>();
+        transport.subscribe(delivered::add);
+
+        //when
+        first.publish(new Locale("pl"), Map.of("welcome.message", "Czesc {0}"));
+
+        //then
+        assert failing.getAppliedUpdates() == 0;
+        assert first.getAppliedUpdates() == 1 && second.getAppliedUpdates() == 1;
+        assert delivered.size() == 1;
+    }
+
+    @Test
+    void updates_survive_encoding() {
+        //given
+        CatalogUpdate update = new CatalogUpdate("node-1",
+                Map.of(Locale.ROOT, Map.of("a", "A {0}"), new Locale("pl", "PL"), Map.of("b", "Zażółć")),
+                Map.of(Locale.ENGLISH, Set.of("c")));
+
+        //when
+        CatalogUpdate decoded = CatalogUpdate.decode(update.encode());
+
+        //then
+        assert decoded.getOrigin().equals("node-1");
+        assert decoded.getLocales().equals(update.getLocales());
+        assert decoded.getMessages(new Locale("pl", "PL")).equals(Map.of("b", "Zażółć"));
+        assert decoded.getMessages(Locale.ROOT).equals(Map.of("a", "A {0}"));
+        assert decoded.getRemovedCodes(Locale.ENGLISH).equals(Set.of("c"));
+    }
+
+    private static CatalogMessageSource messageSource() {
+        CatalogMessageSource source = new CatalogMessageSource();
+        source.setBasename("i18n/catalog");
+        source.setDefaultLocale(Locale.ENGLISH);
+        source.afterPropertiesSet();
+        return source;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.i18nsupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.LocaleResolver;
+import org.springframework.web.servlet.i18n.AcceptHeaderLocaleResolver;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+
+class I18nMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final I18nMetrics metrics = new I18nMetrics();
+
+    private CatalogMessageSource messageSource;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/catalog");
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.setUseCodeAsDefaultMessage(true);
+        messageSource.setMetrics(metrics);
+        messageSource.afterPropertiesSet();
+    }
+
+    @Test
+    void message_resolution_is_timed_per_bundle_and_fallback_depth() {
+        //given
+        metrics.bindTo(registry);
+
+        //when
+        messageSource.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL"));
+        messageSource.getMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL", "x"));
+        messageSource.getMessage("welcome.message", new Object[]{"Jean"}, Locale.CANADA_FRENCH);
+        messageSource.getMessage("welcome.message", new Object[]{"Hans"}, Locale.GERMAN);
+
+        //then
+        assert registry.get("i18n.messages.resolve").tags("locale", "pl-PL", "fallback", "0").timer().count() == 1;
+        assert registry.get("i18n.messages.resolve").tags("locale", "pl-PL", "fallback", "1").timer().count() == 1;
+        assert registry.get("i18n.messages.resolve").tags("locale", "fr", "fallback", "1").timer().count() == 1;
+        assert registry.get("i18n.messages.resolve").tags("locale", "en", "fallback", "default").timer().count() == 1;
+    }
+
+    @Test
+    void written_messages_are_timed_like_resolved_ones() {
+        //given
+        metrics.bindTo(registry);
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+
+        //when
+        messageSource.writeMessage("welcome.message", new Object[]{"Jan"}, new Locale("pl", "PL"), buffer.clear());
+        messageSource.writeMessage(MessageKey.of("welcome.message"), new Object[]{"Jan"}, new Locale("pl", "PL"),
+                buffer.clear());
+        boolean unknown = messageSource.writeMessage("no.such.code", null, new Locale("pl", "PL"), buffer.clear());
+
+        //then
+        assert !unknown;
+        assert registry.get("i18n.messages.resolve").tags("locale", "pl-PL", "fallback", "0").timer().count() == 2;
+    }
+
+    @Test
+    void missing_codes_are_counted_although_the_code_is_returned() {
+        //given
+        metrics.bindTo(registry);
+
+        //when
+        String message = messageSource.getMessage("no.such.code", null, Locale.FRENCH);
+        messageSource.getMessages(List.of("welcome.message", "other.missing"), Locale.FRENCH);
+
+        //then
+        assert message.equals("no.such.code");
+        assert registry.get("i18n.messages.missing").tag("locale", "fr").counter().count() == 2;
+    }
+
+    @Test
+    void catalog_loads_before_binding_are_recorded() {
+        //when
+        metrics.bindTo(registry);
+
+        //then
+        assert registry.get("i18n.messages.load").tags("source", "properties", "kind", "startup").timer().count() == 1;
+    }
+
+    @Test
+    void catalog_load_during_binding_is_recorded_once() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            //given
+            I18nMetrics unboundMetrics = new I18nMetrics();
+            SimpleMeterRegistry newRegistry = new SimpleMeterRegistry();
+            CyclicBarrier barrier = new CyclicBarrier(2);
+
+            //when
+            CompletableFuture<Void> bind = CompletableFuture.runAsync(() -> {
+                await(barrier);
+                unboundMetrics.bindTo(newRegistry);
+            });
+            await(barrier);
+            unboundMetrics.catalogLoaded("binary", false, 1, 1000);
+            bind.get();
+
+            //then
+            assert newRegistry.get("i18n.messages.load").tags("source", "binary", "kind", "startup").timer().count()
+                    == 1;
+        }
+    }
+
+    @Test
+    void locale_resolver_calls_are_timed() {
+        //given
+        metrics.bindTo(registry);
+        LocaleResolver resolver = new InstrumentedLocaleResolver(new AcceptHeaderLocaleResolver(), metrics);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addPreferredLocale(Locale.FRENCH);
+
+        //when
+        Locale locale = resolver.resolveLocale(request);
+
+        //then
+        assert locale.equals(Locale.FRENCH);
+        assert registry.get("i18n.locale.resolve").tag("resolver", "AcceptHeaderLocaleResolver").timer().count() == 1;
+    }
+
+    @Test
+    void sources_without_metrics_record_nothing() {
+        //given
+        messageSource.setMetrics(null);
+        metrics.bindTo(registry);
+
+        //when
+        messageSource.getMessage("no.such.code", null, Locale.FRENCH);
+
+        //then
+        assert registry.find("i18n.messages.resolve").timers().isEmpty();
+        assert registry.find("i18n.messages.missing").counters().isEmpty();
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
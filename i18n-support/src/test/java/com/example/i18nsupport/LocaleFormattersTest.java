@@ -0,0 +1,170 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DateFormat;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.FormatStyle;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicLong;
+
+class LocaleFormattersTest {
+
+    private static final List<Locale> LOCALES = List.of(
+            Locale.US, Locale.FRANCE, new Locale("pl", "PL"), Locale.GERMANY, new Locale("de", "CH"),
+            new Locale("ar", "EG"), new Locale("hi", "IN"), Locale.JAPAN, new Locale("th", "TH", "TH"),
+            Locale.forLanguageTag("fa-IR"), Locale.ROOT);
+
+    private static final List<String> NUMBER_FORMATS = List.of(
+            "number", "number,integer", "number,currency", "number,percent",
+            "number,#.##", "number,000.00", "number,#,##0.0#;(#)", "number,#.#E0", "number,'#'#");
+
+    private static final List<Object> NUMBERS = List.of(
+            0, -0.0, 1, -1, 7L, 1234567L, Long.MAX_VALUE, Long.MIN_VALUE, Integer.MIN_VALUE, (short) -12, (byte) 5,
+            new AtomicLong(-42), 0.5, 1.5, 2.5, -2.5, 0.125, 0.0005, -0.0001, 1.005, 2.675, 1234.5678, 0.1 + 0.2,
+            1e15, 1e16 + 2, 1.0e25, 123456789.987654321, 1e-7, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN,
+            Double.POSITIVE_INFINITY, -1.5f, 3.3333333f, new BigDecimal("1234.5675"), new BigDecimal("-0.0005"),
+            new BigDecimal("1E+3"), new BigDecimal("12345678901234567890.123456"), new BigInteger("-987654321"),
+            new BigInteger("123456789012345678901234567890"));
+
+    private static final List<String> DATE_FORMATS = List.of(
+            "date", "date,short", "date,medium", "date,long", "date,full", "time", "time,short", "time,full",
+            "date,dd.MM.yyyy HH:mm:ss.SSS", "date,EEEE d MMMM y G", "date,h 'o''clock' a, zzzz",
+            "date,yy/M/d k K Z D", "date,u F w", "date,[yyyy]");
+
+    private static final List<Date> DATES = List.of(
+            new Date(0), new Date(1_700_000_000_123L), new Date(-1_000_000_000_000L),
+            new Date(-20_000_000_000_000L), new Date(4_102_444_800_000L));
+
+    private final LocaleFormatters formatters = new LocaleFormatters();
+
+    @Test
+    void numbers_are_formatted_like_message_format() {
+        //given
+        List<String> differences = new ArrayList<>();
+
+        //when
+        for (Locale locale : LOCALES) {
+            for (String format : NUMBER_FORMATS) {
+                Format expected = new MessageFormat("{0," + format + "}", locale).getFormats()[0];
+                ArgumentFormatter formatter = formatters.getFormatter(format, locale);
+                for (Object number : NUMBERS) {
+                    String actual = ((NumberFormatter) formatter).format(number);
+                    if (!actual.equals(expected.format(number))) {
+                        differences.add(locale + " " + format + " " + number + ": " + actual
+                                + " instead of " + expected.format(number));
+                    }
+                }
+            }
+        }
+
+        //then
+        assert differences.isEmpty() : String.join("\n", differences);
+    }
+
+    @Test
+    void dates_are_formatted_like_message_format() {
+        //given
+        List<String> differences = new ArrayList<>();
+
+        //when
+        for (Locale locale : LOCALES) {
+            for (String format : DATE_FORMATS) {
+                Format expected = new MessageFormat("{0," + format + "}", locale).getFormats()[0];
+                DateFormatter formatter = (DateFormatter) formatters.getFormatter(format, locale);
+                for (Date date : DATES) {
+                    String actual = formatter.format(date);
+                    if (!actual.equals(expected.format(date))) {
+                        differences.add(locale + " " + format + " " + date.getTime() + ": " + actual
+                                + " instead of " + expected.format(date));
+                    }
+                }
+            }
+        }
+
+        //then
+        assert differences.isEmpty() : String.join("\n", differences);
+    }
+
+    @Test
+    void zone_names_are_the_ones_of_date_format() {
+        //given
+        List<String> differences = new ArrayList<>();
+
+        //when
+        for (String zone : List.of("Europe/Warsaw", "America/New_York", "Asia/Kolkata", "Australia/Lord_Howe")) {
+            for (Locale locale : LOCALES) {
+                for (String format : List.of("time,long", "time,full", "date,zzz Z")) {
+                    DateFormat expected = (DateFormat) new MessageFormat("{0," + format + "}", locale).getFormats()[0];
+                    expected.setTimeZone(TimeZone.getTimeZone(zone));
+                    DateFormatter formatter = new DateFormatter(expected, locale);
+                    for (Date date : DATES) {
+                        String actual = formatter.format(date);
+                        if (!actual.equals(expected.format(date))) {
+                            differences.add(zone + " " + locale + " " + format + " " + date.getTime() + ": "
+                                    + actual + " instead of " + expected.format(date));
+                        }
+                    }
+                }
+            }
+        }
+
+        //then
+        assert differences.isEmpty() : String.join("\n", differences);
+    }
+
+    @Test
+    void java_time_values_are_formatted_like_the_same_date() {
+        //given
+        Date date = new Date(1_700_000_000_123L);
+        DateFormatter formatter = formatters.getDateFormatter(FormatStyle.LONG, Locale.FRANCE);
+
+        //when
+        String instant = formatter.format(date.toInstant());
+        String zoned = formatter.format(date.toInstant().atZone(ZoneId.systemDefault()));
+        String localDate = formatter.format(LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+
+        //then
+        assert instant.equals(formatter.format(date));
+        assert zoned.equals(formatter.format(date));
+        assert localDate.equals(formatter.format(date));
+    }
+
+    @Test
+    void unsupported_arguments_are_rejected_like_by_format() {
+        //when
+        try {
+            formatters.getCurrencyFormatter(Locale.FRANCE).format("12");
+            assert false : "a String was formatted as a number";
+        } catch (IllegalArgumentException ex) {
+            //then
+            assert ex.getMessage().equals("Cannot format given Object as a Number");
+        }
+        try {
+            formatters.getTimeFormatter(FormatStyle.SHORT, Locale.FRANCE).format(LocalDate.of(2024, 1, 1));
+            assert false : "a LocalDate was formatted as a time";
+        } catch (IllegalArgumentException ex) {
+            assert ex.getMessage().equals("Cannot format given Object as a Date");
+        }
+    }
+
+    @Test
+    void formatters_are_cached_per_locale() {
+        //when
+        NumberFormatter first = formatters.getCurrencyFormatter(Locale.GERMANY);
+        NumberFormatter second = formatters.getCurrencyFormatter(Locale.GERMANY);
+
+        //then
+        assert first == second;
+        assert first != formatters.getCurrencyFormatter(Locale.FRANCE);
+    }
+}
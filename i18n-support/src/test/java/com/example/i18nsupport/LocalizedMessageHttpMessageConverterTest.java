@@ -0,0 +1,76 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.NoSuchMessageException;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalizedMessageHttpMessageConverterTest {
+
+    private CatalogMessageSource messageSource;
+
+    private LocalizedMessageHttpMessageConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/catalog");
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.afterPropertiesSet();
+        converter = new LocalizedMessageHttpMessageConverter(messageSource);
+    }
+
+    @Test
+    void writes_the_message_as_utf8_text() throws IOException {
+        //given
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        //when
+        converter.write(LocalizedMessage.of("welcome.message", new Locale("pl", "PL"), "Żaneta"), null, output);
+
+        //then
+        assert output.getBodyAsString(StandardCharsets.UTF_8).equals("Witamy Żaneta");
+        assert output.getHeaders().getContentType().equals(MediaType.parseMediaType("text/plain;charset=UTF-8"));
+        assert output.getHeaders().getContentLength() == "Witamy Żaneta".getBytes(StandardCharsets.UTF_8).length;
+        assert !converter.canRead(LocalizedMessage.class, MediaType.TEXT_PLAIN);
+    }
+
+    @Test
+    void other_charsets_and_large_messages_are_formatted_as_string() throws IOException {
+        //given
+        MockHttpOutputMessage latin1 = new MockHttpOutputMessage();
+        MockHttpOutputMessage large = new MockHttpOutputMessage();
+        converter.setMaxBufferSize(2048);
+        String name = "x".repeat(4096);
+
+        //when
+        converter.write(LocalizedMessage.of("welcome.message", Locale.FRENCH, "Zoé"),
+                new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.ISO_8859_1), latin1);
+        converter.write(LocalizedMessage.of("welcome.message", Locale.ENGLISH, name), null, large);
+
+        //then
+        assert latin1.getBodyAsString(StandardCharsets.ISO_8859_1).equals("Bonjour Zoé");
+        assert latin1.getHeaders().getContentLength() == "Bonjour Zoé".length();
+        assert large.getBodyAsString(StandardCharsets.UTF_8).equals("Hello " + name);
+    }
+
+    @Test
+    void unknown_codes_follow_the_message_source_rules() throws IOException {
+        //given
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        LocalizedMessage unknown = LocalizedMessage.of("unknown.code", Locale.ENGLISH);
+
+        //when //then
+        assertThrows(NoSuchMessageException.class, () -> converter.write(unknown, null, new MockHttpOutputMessage()));
+        messageSource.setUseCodeAsDefaultMessage(true);
+        converter.write(unknown, null, output);
+        assert output.getBodyAsString(StandardCharsets.UTF_8).equals("unknown.code");
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Locale;
+
+class MessageCatalogETagInterceptorTest {
+
+    private CatalogMessageSource messageSource;
+
+    private MessageCatalogETagInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/catalog");
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.afterPropertiesSet();
+        interceptor = new MessageCatalogETagInterceptor(messageSource);
+    }
+
+    @Test
+    void preHandle_adds_etag_cache_control_and_vary() {
+        //given
+        interceptor.setCacheControl(CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic());
+        interceptor.setApplicationVersion("7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        boolean proceed = interceptor.preHandle(request(Locale.FRENCH), response, null);
+
+        //then
+        assert proceed;
+        assert response.getStatus() == 200;
+        assert response.getHeader("ETag").equals("\"7-" + messageSource.getVersion(Locale.FRENCH) + "-fr\"");
+        assert response.getHeader("Cache-Control").equals("max-age=60, public");
+        assert response.getHeader("Vary").equals("Accept-Language");
+    }
+
+    @Test
+    void preHandle_answers_matching_if_none_match_with_304() {
+        //given
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(request(Locale.FRENCH), first, null);
+        MockHttpServletRequest request = request(Locale.FRENCH);
+        request.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        boolean proceed = interceptor.preHandle(request, response, null);
+
+        //then
+        assert !proceed;
+        assert response.getStatus() == 304;
+    }
+
+    @Test
+    void preHandle_other_locale_is_modified() {
+        //given
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(request(Locale.FRENCH), first, null);
+        MockHttpServletRequest request = request(new Locale("pl"));
+        request.addHeader("If-None-Match", first.getHeader("ETag"));
+
+        //when //then
+        assert interceptor.preHandle(request, new MockHttpServletResponse(), null);
+    }
+
+    @Test
+    void preHandle_ignores_other_methods() {
+        //given
+        MockHttpServletRequest request = request(Locale.FRENCH);
+        request.setMethod("POST");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when //then
+        assert interceptor.preHandle(request, response, null);
+        assert response.getHeader("ETag") == null;
+    }
+
+    private static MockHttpServletRequest request(Locale locale) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/message");
+        request.addPreferredLocale(locale);
+        return request;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.i18nsupport;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessageCatalogWarmerTest {
+
+    private CatalogMessageSource catalogMessageSource;
+
+    @BeforeEach
+    void setUp() {
+        catalogMessageSource = new CatalogMessageSource();
+        catalogMessageSource.setBasename("i18n/catalog");
+        catalogMessageSource.setDefaultLocale(Locale.ENGLISH);
+        catalogMessageSource.afterPropertiesSet();
+    }
+
+    @Test
+    void start_reports_codes_missing_in_bundles() {
+        //given
+        MessageCatalogWarmer warmer = new MessageCatalogWarmer(catalogMessageSource);
+        warmer.setBasenames("i18n/catalog");
+
+        //when
+        warmer.start();
+
+        //then
+        Map<Locale, ? extends Set<String>> missingCodes = warmer.getMissingCodes();
+        assert missingCodes.get(Locale.ENGLISH).equals(Set.of("base.only")) : missingCodes;
+        assert missingCodes.get(Locale.FRENCH).equals(Set.of("base.only", "en.only")) : missingCodes;
+        assert missingCodes.get(new Locale("pl", "PL")).equals(Set.of("base.only", "en.only")) : missingCodes;
+        assert warmer.getInvalidMessages().isEmpty();
+        assert warmer.isRunning();
+    }
+
+    @Test
+    void start_fails_fast_on_incomplete_bundles() {
+        //given
+        MessageCatalogWarmer warmer = new MessageCatalogWarmer(catalogMessageSource);
+        warmer.setBasenames("i18n/catalog");
+        warmer.setFailFast(true);
+
+        //when //then
+        IllegalStateException ex = assertThrows(IllegalStateException.class, warmer::start);
+        assert ex.getMessage().contains("fr misses 2 [base.only, en.only]") : ex.getMessage();
+        assert !warmer.isRunning();
+    }
+
+    @Test
+    void start_primes_message_source() {
+        //given
+        CachingMessageSource cachingMessageSource = new CachingMessageSource(catalogMessageSource);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cachingMessageSource.bindTo(registry);
+        MessageCatalogWarmer warmer = new MessageCatalogWarmer(catalogMessageSource);
+        warmer.setMessageSource(cachingMessageSource);
+
+        //when
+        warmer.start();
+
+        //then
+        double misses = registry.get("cache.gets").tag("result", "miss").functionCounter().count();
+        assert misses > 0 : misses;
+        assert warmer.getMissingCodes().isEmpty();
+    }
+
+    @Test
+    void start_only_loads_a_binary_catalog(@TempDir Path directory) throws IOException {
+        //given
+        Path file = directory.resolve("catalog.catalog");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            BinaryCatalogWriter.write(new MessageCatalogLoader().load(List.of("i18n/catalog"), Locale.ENGLISH), out);
+        }
+        AtomicInteger compiledLocales = new AtomicInteger();
+        BinaryCatalogMessageSource binaryCatalogMessageSource = new BinaryCatalogMessageSource() {
+            @Override
+            public Map<String, MessageTemplate> getTemplates(Locale locale) {
+                compiledLocales.incrementAndGet();
+                return super.getTemplates(locale);
+            }
+        };
+        binaryCatalogMessageSource.setLocation(file.toUri().toString());
+        binaryCatalogMessageSource.afterPropertiesSet();
+        MessageCatalogWarmer warmer = new MessageCatalogWarmer(binaryCatalogMessageSource);
+        warmer.setBasenames("i18n/catalog");
+        warmer.setFailFast(true);
+
+        //when
+        warmer.start();
+
+        //then
+        assert compiledLocales.get() == 0;
+        assert warmer.getMissingCodes().isEmpty();
+        assert warmer.isRunning();
+    }
+}
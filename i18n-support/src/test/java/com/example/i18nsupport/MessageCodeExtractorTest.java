@@ -0,0 +1,103 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+class MessageCodeExtractorTest {
+
+    @TempDir
+    Path directory;
+
+    private MessageCodeExtractor extractor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path java = Files.createDirectories(directory.resolve("java/com/example"));
+        Files.writeString(java.resolve("WelcomeController.java"), """
+                class WelcomeController {
+                    @Value("${welcome.code}")
+                    private String welcomeCode;
+                    char quote = '"';
+                    String polish() {
+                        return messageSource.getMessagesByPrefix("pl.", locale).toString();
+                    }
+                    /* messageSource.getMessage("commented.out", null, locale); */
+                    String missing() {
+                        return messageSource.getMessage("no.such.code", null, locale);
+                    }
+                }
+                """);
+        Path resources = Files.createDirectories(directory.resolve("resources/templates"));
+        Files.writeString(directory.resolve("resources/application.properties"), "welcome.code=welcome.message\n");
+        Files.writeString(resources.resolve("english.html"), """
+                <p th:text="#{en.only}">English</p>
+                <p th:text="#{${dynamic.code}}">Dynamic</p>
+                """);
+        extractor = new MessageCodeExtractor("i18n/catalog");
+        extractor.scan(List.of(directory.resolve("java"), directory.resolve("resources")));
+    }
+
+    @Test
+    void finds_literal_placeholder_prefix_and_template_references() {
+        //then
+        assert extractor.getReferencedCodes().equals(Set.of("welcome.message", "pl.only", "en.only"))
+                : extractor.getReferencedCodes();
+        assert extractor.getUndefinedCodes().equals(Set.of("no.such.code")) : extractor.getUndefinedCodes();
+    }
+
+    @Test
+    void reports_missing_and_unused_codes_per_locale() throws IOException {
+        //when
+        Map<Locale, ? extends Set<String>> missing = extractor.getMissingCodes(Locale.ENGLISH);
+        Map<Locale, ? extends Set<String>> unused = extractor.getUnusedCodes();
+        Writer report = new StringWriter();
+        extractor.writeReport(report, Locale.ENGLISH);
+
+        //then
+        assert missing.get(Locale.FRENCH).equals(Set.of("en.only")) : missing;
+        assert missing.get(new Locale("pl", "PL")).equals(Set.of("en.only")) : missing;
+        assert !missing.containsKey(Locale.ENGLISH) : missing;
+        assert unused.equals(Map.of(Locale.ROOT, Set.of("base.only"))) : unused;
+        assert report.toString().contains("Undefined, referenced but in no bundle (1):\n  no.such.code") : report;
+        assert report.toString().contains("Missing in fr (1):\n  en.only") : report;
+        assert report.toString().contains("Unused in base bundle (1):\n  base.only") : report;
+        extractor.keep("base.");
+        assert extractor.getUnusedCodes().isEmpty();
+    }
+
+    @Test
+    void pruned_catalog_and_codes_contain_only_referenced_codes() throws IOException {
+        //given
+        Path codes = directory.resolve("catalog.codes");
+        Path catalogFile = directory.resolve("catalog.pruned.catalog");
+
+        //when
+        try (Writer out = Files.newBufferedWriter(codes)) {
+            extractor.writeCodes(out);
+        }
+        try (OutputStream out = Files.newOutputStream(catalogFile)) {
+            extractor.writePrunedCatalog(out, Locale.ENGLISH);
+        }
+        BinaryCatalog catalog = BinaryCatalog.open(catalogFile);
+
+        //then
+        assert MessageCodeExtractor.readCodes(new FileSystemResource(codes)).equals(extractor.getReferencedCodes());
+        assert catalog.getMessage("welcome.message", new Locale("pl", "PL")).equals("Witamy {0}");
+        assert catalog.getMessage("en.only", Locale.GERMAN).equals("English only");
+        assert catalog.getMessage("base.only", Locale.ENGLISH) == null;
+        assert catalog.getLocales().size() == 4 : catalog.getLocales();
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+class MessageTemplateTest {
+
+    private static final List<Locale> LOCALES = List.of(
+            Locale.US, Locale.FRENCH, Locale.GERMAN, new Locale("pl", "PL"), Locale.ROOT);
+
+    private static final List<Object[]> ARGUMENTS = List.of(
+            new Object[]{"Mr Incognito"},
+            new Object[]{"Jan", "Kowalski"},
+            new Object[]{1},
+            new Object[]{0, 2},
+            new Object[]{1234567.891},
+            new Object[]{-0.25},
+            new Object[]{new Date(1_676_000_000_000L)},
+            new Object[]{null},
+            new Object[]{new StringBuilder("builder")},
+            new Object[]{}
+    );
+
+    static Stream<String> patterns() {
+        return Stream.of(
+                // patterns of the example bundles
+                "Greetings {0}", "Bonjour {0}", "Hallo {0}", "Hi Welcome to I18n", "Salut Bienvenue sur i18n",
+                // literals and quoting
+                "", "no arguments", "'", "''", "It''s {0}", "'{0}' is quoted", "'{'{0}'}'", "a ''quoted'' word",
+                "'it''s' here {0}", "x{0}'y", "'unterminated {0}", "a {0} b '{1}' c",
+                // argument order, repetition and missing arguments
+                "{1} and {0}", "{0}{0}{0}", "{5} is missing", "{0}{1}{2}",
+                // formats
+                "{0, number}", "{0,}", "{0,,}", "{0,number}", "{0,number,#.##}", "{0,number,integer}",
+                "{0,number,percent}", "{0,number,currency}", "{0, NUMBER , integer}", "{0,date}", "{0,date,short}",
+                "{0,date,long}", "{0,time}", "{0,time,HH:mm}", "{0,date,yyyy-MM-dd'T'HH:mm}", "{0,date,'{'yyyy'}'}",
+                "{0,choice,0#no files|1#one file|1<{0,number,integer} files}",
+                "There {0,choice,0#are no files|1#is one file|1<are {0,number,integer} files}.",
+                "{0,choice,0#zero|1#'{1}'|2#{1}}",
+                "{0,CHOICE,0#none|1#one}", "{0, Choice ,0#none|1#one|1<{0,number,integer}}",
+                // invalid patterns
+                "{foo}", "{0", "{0,unknown}", "{-1}", "{ 0}"
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("patterns")
+    void format_is_compatible_with_MessageFormat(String pattern) {
+        //given
+        MessageTemplate template = MessageTemplate.compile(pattern);
+
+        for (Locale locale : LOCALES) {
+            for (Object[] args : ARGUMENTS) {
+                //when
+                String expected = formatWithMessageFormat(pattern, args, locale);
+                String actual = formatWithTemplate(template, args, locale);
+
+                //then
+                assert expected.equals(actual)
+                        : pattern + " " + locale + " " + List.of(args) + ": expected [" + expected + "] but was [" + actual + "]";
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("patterns")
+    void writeUtf8_gives_the_bytes_of_format(String pattern) {
+        //given
+        MessageTemplate template = MessageTemplate.compile(pattern);
+        ByteBuffer out = ByteBuffer.allocate(256);
+
+        for (Locale locale : LOCALES) {
+            for (Object[] args : ARGUMENTS) {
+                //when
+                String expected = formatWithTemplate(template, args, locale);
+                String actual;
+                try {
+                    template.writeUtf8(args, locale, out.clear());
+                    actual = new String(out.array(), 0, out.position(), StandardCharsets.UTF_8);
+                } catch (IllegalArgumentException ex) {
+                    actual = ex.getClass().getName();
+                }
+
+                //then
+                assert expected.equals(actual)
+                        : pattern + " " + locale + " " + List.of(args) + ": expected [" + expected + "] but was [" + actual + "]";
+            }
+        }
+    }
+
+    @Test
+    void render_appends_to_existing_buffer() {
+        //given
+        MessageTemplate template = MessageTemplate.compile("Greetings {0}");
+        StringBuilder out = new StringBuilder("> ");
+
+        //when
+        template.render(new Object[]{"Mr Incognito"}, Locale.US, out);
+
+        //then
+        assert out.toString().equals("> Greetings Mr Incognito");
+    }
+
+    @Test
+    void isConstant() {
+        assert MessageTemplate.compile("It''s constant").isConstant();
+        assert MessageTemplate.compile("'{0}'").isConstant();
+        assert !MessageTemplate.compile("Greetings {0}").isConstant();
+        assert !MessageTemplate.compile("{foo}").isConstant();
+    }
+
+    @Test
+    void date_arguments_may_be_java_time_values() {
+        //given
+        MessageTemplate template = MessageTemplate.compile("Ordered on {0,date,long} at {0,time,short}");
+        LocalDateTime ordered = LocalDateTime.of(2023, 2, 10, 3, 33);
+
+        //when
+        String message = template.format(new Object[]{ordered}, Locale.FRENCH);
+
+        //then
+        assert message.equals(new MessageFormat(template.getPattern(), Locale.FRENCH)
+                .format(new Object[]{Date.from(ordered.atZone(ZoneId.systemDefault()).toInstant())}));
+    }
+
+    @Test
+    void plural_arguments_choose_the_form_of_the_locale() {
+        //given
+        MessageTemplate template = MessageTemplate.compile(
+                "{0,plural,=0{Koszyk jest pusty} one{# produkt} few{# produkty} many{# produktów} other{# produktu}}");
+        Locale polish = new Locale("pl", "PL");
+
+        //when
+        List<String> messages = Stream.of(0, 1, 2, 5, 12, 22, 25, 101, 1.5)
+                .map(count -> template.format(new Object[]{count}, polish))
+                .toList();
+
+        //then
+        assert messages.equals(List.of("Koszyk jest pusty", "1 produkt", "2 produkty", "5 produktów",
+                "12 produktów", "22 produkty", "25 produktów", "101 produktów", "1,5 produktu")) : messages;
+    }
+
+    @Test
+    void plural_offset_applies_to_categories_and_number() {
+        //given
+        MessageTemplate template = MessageTemplate.compile("{1} {0,plural,offset:1 =0{nobody} =1{alone}"
+                + " one{and # other person} other{and # other people}} liked it, ''# {0}''");
+
+        //when
+        String none = template.format(new Object[]{0, "You"}, Locale.US);
+        String one = template.format(new Object[]{1, "You"}, Locale.US);
+        String two = template.format(new Object[]{2, "You"}, Locale.US);
+        String many = template.format(new Object[]{1235, "You"}, Locale.US);
+
+        //then
+        assert none.equals("You nobody liked it, '# 0'") : none;
+        assert one.equals("You alone liked it, '# 1'") : one;
+        assert two.equals("You and 1 other person liked it, '# 2'") : two;
+        assert many.equals("You and 1,234 other people liked it, '# 1,235'") : many;
+    }
+
+    @Test
+    void select_arguments_choose_by_value() {
+        //given
+        MessageTemplate template = MessageTemplate.compile(
+                "{0,select,female{{1} updated her profile} male{{1} updated his profile} other{{1} updated a profile}}");
+
+        //when
+        String female = template.format(new Object[]{"female", "Ann"}, Locale.US);
+        String other = template.format(new Object[]{"unknown", "Sam"}, Locale.US);
+
+        //then
+        assert female.equals("Ann updated her profile") : female;
+        assert other.equals("Sam updated a profile") : other;
+        assert !template.isConstant();
+    }
+
+    @Test
+    void invalid_plural_and_select_arguments_fail_on_rendering() {
+        for (String pattern : List.of("{0,plural,one{# item}}", "{0,plural,one{# item} other}",
+                "{0,plural,single{# item} other{# items}}", "{0,select,a{x} a{y} other{z}}",
+                "{0,plural,other{{1,number,#E}}}", "{0,plural,other{# items}", "{foo,plural,other{#}}")) {
+            //given
+            MessageTemplate template = MessageTemplate.compile(pattern);
+
+            //when
+            try {
+                template.format(new Object[]{1}, Locale.US);
+                assert false : pattern + " was rendered";
+            } catch (IllegalArgumentException ex) {
+                //then
+                assert template.getInvalidPattern() == ex;
+            }
+        }
+        try {
+            MessageTemplate.compile("{0,plural,other{# items}}").format(new Object[]{"many"}, Locale.US);
+            assert false : "a String was formatted as a plural";
+        } catch (IllegalArgumentException ex) {
+            assert ex.getMessage().equals("Cannot format given Object as a Number");
+        }
+    }
+
+    private static String formatWithMessageFormat(String pattern, Object[] args, Locale locale) {
+        try {
+            return new MessageFormat(pattern, locale).format(args);
+        } catch (IllegalArgumentException ex) {
+            return ex.getClass().getName();
+        }
+    }
+
+    private static String formatWithTemplate(MessageTemplate template, Object[] args, Locale locale) {
+        try {
+            return template.format(args, locale);
+        } catch (IllegalArgumentException ex) {
+            return ex.getClass().getName();
+        }
+    }
+}
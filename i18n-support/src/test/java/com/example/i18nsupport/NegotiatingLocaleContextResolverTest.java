@@ -0,0 +1,52 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.util.List;
+import java.util.Locale;
+
+class NegotiatingLocaleContextResolverTest {
+
+    private NegotiatingLocaleContextResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new NegotiatingLocaleContextResolver(10);
+        resolver.setSupportedLocales(List.of(Locale.US, Locale.FRENCH, Locale.GERMAN));
+        resolver.setDefaultLocale(Locale.US);
+    }
+
+    @Test
+    void resolveLocaleContext_without_header_uses_default_locale() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/"));
+
+        assert Locale.US.equals(resolver.resolveLocaleContext(exchange).getLocale());
+    }
+
+    @Test
+    void resolveLocaleContext_negotiates_like_the_servlet_resolver() {
+        assert resolve("fr-CA").equals(Locale.FRENCH);
+        assert resolve("it;q=0.9, de;q=0.5").equals(Locale.GERMAN);
+        assert resolve("it-IT").equals(Locale.US);
+    }
+
+    @Test
+    void resolveLocaleContext_is_cached_per_header() {
+        //when
+        resolve("de");
+        resolve("de");
+
+        //then
+        assert resolver.getCacheStats().hitCount() == 1;
+        assert resolver.getCacheStats().missCount() == 1;
+    }
+
+    private Locale resolve(String acceptLanguage) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/").header("Accept-Language", acceptLanguage));
+        return resolver.resolveLocaleContext(exchange).getLocale();
+    }
+}
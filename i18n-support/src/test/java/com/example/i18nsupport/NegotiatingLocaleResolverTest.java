@@ -0,0 +1,77 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+class NegotiatingLocaleResolverTest {
+
+    private NegotiatingLocaleResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new NegotiatingLocaleResolver(10);
+        resolver.setSupportedLocales(List.of(Locale.US, Locale.FRENCH, Locale.GERMAN, new Locale("pl", "PL")));
+        resolver.setDefaultLocale(Locale.US);
+    }
+
+    @Test
+    void resolveLocale_without_header_uses_default_locale() {
+        assert resolver.resolveLocale(new MockHttpServletRequest()).equals(Locale.US);
+    }
+
+    @Test
+    void resolveLocale_exact_match() {
+        assert resolve("pl-PL,pl;q=0.9").equals(new Locale("pl", "PL"));
+    }
+
+    @Test
+    void resolveLocale_language_match() {
+        assert resolve("fr-CA").equals(Locale.FRENCH);
+    }
+
+    @Test
+    void resolveLocale_respects_quality() {
+        assert resolve("it;q=0.9, de;q=0.5, fr;q=0.8").equals(Locale.FRENCH);
+    }
+
+    @Test
+    void resolveLocale_earlier_language_match_wins_over_exact_match_of_other_language() {
+        assert resolve("de-AT, fr").equals(Locale.GERMAN);
+        assert resolve("fr-CA, en-US;q=0.8").equals(Locale.FRENCH);
+    }
+
+    @Test
+    void resolveLocale_exact_match_wins_over_earlier_match_of_same_language() {
+        resolver.setSupportedLocales(List.of(Locale.US, Locale.GERMAN, new Locale("de", "AT")));
+        assert resolve("de-CH, de-AT").equals(new Locale("de", "AT"));
+    }
+
+    @Test
+    void resolveLocale_unsupported_or_malformed_uses_default_locale() {
+        assert resolve("it-IT, es;q=0.5").equals(Locale.US);
+        assert resolve("*").equals(Locale.US);
+        assert resolve(";;;=").equals(Locale.US);
+    }
+
+    @Test
+    void resolveLocale_is_cached_per_header() {
+        //when
+        resolve("fr-FR,fr;q=0.9,en;q=0.8");
+        resolve("fr-FR,fr;q=0.9,en;q=0.8");
+        resolve("de");
+
+        //then
+        assert resolver.getCacheStats().hitCount() == 1;
+        assert resolver.getCacheStats().missCount() == 2;
+    }
+
+    private Locale resolve(String acceptLanguage) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Language", acceptLanguage);
+        return resolver.resolveLocale(request);
+    }
+}
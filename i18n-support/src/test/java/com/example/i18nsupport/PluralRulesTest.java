@@ -0,0 +1,49 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Locale;
+
+import static com.example.i18nsupport.PluralRules.Category.FEW;
+import static com.example.i18nsupport.PluralRules.Category.MANY;
+import static com.example.i18nsupport.PluralRules.Category.ONE;
+import static com.example.i18nsupport.PluralRules.Category.OTHER;
+
+class PluralRulesTest {
+
+    @Test
+    void categories_follow_the_cldr_samples() {
+        //given
+        PluralRules.Rule english = PluralRules.forLocale(Locale.US);
+        PluralRules.Rule french = PluralRules.forLocale(Locale.FRANCE);
+        PluralRules.Rule polish = PluralRules.forLocale(new Locale("pl", "PL"));
+        PluralRules.Rule japanese = PluralRules.forLocale(Locale.JAPAN);
+
+        //then
+        assertCategory(english, ONE, 1, -1, 1L);
+        assertCategory(english, OTHER, 0, 2, 1.5, new BigDecimal("1.0"), 1_000_000);
+        assertCategory(french, ONE, 0, 1, 1.5, new BigDecimal("0.0"));
+        assertCategory(french, MANY, 1_000_000, 2_000_000L, new BigInteger("1000000000000000000000"));
+        assertCategory(french, OTHER, 2, 17, 1_000_001, 2.5);
+        assertCategory(polish, ONE, 1);
+        assertCategory(polish, FEW, 2, 3, 4, 22, 24, 32, 102, 1004);
+        assertCategory(polish, MANY, 0, 5, 11, 12, 13, 14, 21, 25, 111, 112, 1000, Long.MIN_VALUE);
+        assertCategory(polish, OTHER, 0.5, 1.5, 2.0 + 0.1, new BigDecimal("1.0"), new BigDecimal("2.00"));
+        assertCategory(japanese, OTHER, 0, 1, 2, 1.5);
+    }
+
+    @Test
+    void nan_and_infinity_are_other() {
+        assertCategory(PluralRules.forLocale(Locale.FRANCE), OTHER, Double.NaN, Double.NEGATIVE_INFINITY);
+    }
+
+    private static void assertCategory(PluralRules.Rule rule, PluralRules.Category expected, Number... numbers) {
+        for (Number number : List.of(numbers)) {
+            PluralRules.Category actual = PluralRules.select(rule, number);
+            assert actual == expected : number + ": expected " + expected + " but was " + actual;
+        }
+    }
+}
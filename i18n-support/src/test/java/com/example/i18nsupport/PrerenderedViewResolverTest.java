@@ -0,0 +1,130 @@
+package com.example.i18nsupport;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.View;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PrerenderedViewResolverTest {
+
+    @TempDir
+    Path templates;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    private CatalogMessageSource messageSource;
+
+    private View template;
+
+    private PrerenderedViewResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = new CatalogMessageSource();
+        messageSource.setBasename("i18n/catalog");
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.afterPropertiesSet();
+
+        // stands in for a template: a message of the locale around the username, escaped like th:text does
+        template = new View() {
+            @Override
+            public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response)
+                    throws IOException {
+                renders.incrementAndGet();
+                response.setContentType("text/html;charset=UTF-8");
+                response.getWriter().write("<h1>" + messageSource.getMessage("base.only", null, request.getLocale())
+                        + "</h1><p>" + messageSource.getMessage("welcome.message",
+                        new Object[]{HtmlUtils.htmlEscape(String.valueOf(model.get("username")), "UTF-8")},
+                        request.getLocale()) + "</p>");
+            }
+        };
+        resolver = new PrerenderedViewResolver((viewName, locale) -> template, messageSource);
+        resolver.setViewNames("greeting");
+        resolver.setDynamicAttributes("username");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        resolver.destroy();
+    }
+
+    @Test
+    void renders_once_per_locale_and_fills_in_dynamic_attributes() throws Exception {
+        //when
+        String jan = render(Locale.FRENCH, "Jan");
+        String script = render(Locale.FRENCH, "<b>Żaneta</b>");
+        String polish = render(new Locale("pl", "PL"), "Jan");
+
+        //then
+        assert jan.equals("<h1>Only in base</h1><p>Bonjour Jan</p>") : jan;
+        assert script.equals("<h1>Only in base</h1><p>Bonjour &lt;b&gt;Żaneta&lt;/b&gt;</p>") : script;
+        assert polish.equals("<h1>Only in base</h1><p>Witamy Jan</p>") : polish;
+        assert renders.get() == 2;
+    }
+
+    @Test
+    void non_ascii_dynamic_attributes_are_written_like_the_view_writes_them() throws Exception {
+        //given
+        String username = "Zoé <Łukasz> & Jürgen";
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greeting");
+        request.addPreferredLocale(Locale.FRENCH);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        template.render(Map.of("username", username), request, response);
+        String expected = response.getContentAsString(StandardCharsets.UTF_8);
+
+        //when
+        String first = render(Locale.FRENCH, username);
+        String prerendered = render(Locale.FRENCH, username);
+
+        //then
+        assert first.equals(expected) : first;
+        assert prerendered.equals(expected) : prerendered;
+    }
+
+    @Test
+    void other_views_are_left_to_the_next_resolver() throws Exception {
+        assert resolver.resolveViewName("other", Locale.FRENCH) == null;
+    }
+
+    @Test
+    void template_change_drops_prerendered_views() throws Exception {
+        //given
+        resolver.setTemplateLocation(new FileSystemResource(templates));
+        render(Locale.FRENCH, "Jan");
+
+        //when
+        Files.writeString(templates.resolve("greeting.html"), "<h1></h1>");
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (renders.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            render(Locale.FRENCH, "Jan");
+        }
+
+        //then
+        assert renders.get() == 2;
+    }
+
+    private String render(Locale locale, String username) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greeting");
+        request.addPreferredLocale(locale);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        resolver.resolveViewName("greeting", locale).render(Map.of("username", username), request, response);
+        assert response.getContentLength() == response.getContentAsByteArray().length;
+        return response.getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+class PropertiesParserTest {
+
+    private static final String BUNDLE = """
+            # comment
+               ! indented comment
+            welcome.message=Witaj {0}
+            spaced.key   =   value with trailing space\s
+            colon:value
+            whitespace separator
+            key\\=with\\:escapes=a\\tb\\nc
+            unicode=\\u0141\\u00f3d\\u017a
+            continued=first \\
+                      second \\
+              third
+            even.backslashes=ends with backslash\\\\
+            empty=
+            only.key
+            \\#not.a.comment=x
+            windows=line\r
+            cr.only=x\rnext=y
+            continued.comment=a\\
+            # is not a comment
+            duplicate=1
+            duplicate=2
+            polish=Zażółć gęślą jaźń
+            last=no line feed""";
+
+    @Test
+    void entries_are_the_same_as_with_properties() throws IOException {
+        //given
+        Properties properties = new Properties();
+        properties.load(new StringReader(BUNDLE));
+
+        //when
+        Map<String, String> entries = parse(BUNDLE, 8192);
+
+        //then
+        assert entries.size() == properties.size() : entries;
+        properties.forEach((key, value) -> {
+            assert value.equals(entries.get(key)) : key + ": " + entries.get(key);
+        });
+    }
+
+    @Test
+    void characters_split_across_reads_are_decoded() throws IOException {
+        //given
+        String bundle = "polish=Zażółć gęślą jaźń\n".repeat(1000);
+
+        //when
+        Map<String, String> entries = parse(bundle, 3);
+
+        //then
+        assert entries.equals(Map.of("polish", "Zażółć gęślą jaźń"));
+    }
+
+    @Test
+    void malformed_unicode_escape_is_rejected() {
+        //when
+        try {
+            parse("broken=\\u00zz\n", 8192);
+            assert false : "malformed escape was accepted";
+        } catch (IllegalArgumentException | IOException ex) {
+            //then
+            assert ex instanceof IllegalArgumentException;
+        }
+    }
+
+    private static Map<String, String> parse(String bundle, int chunkSize) throws IOException {
+        Map<String, String> entries = new HashMap<>();
+        PropertiesParser.parse(channel(bundle.getBytes(StandardCharsets.UTF_8), chunkSize), StandardCharsets.UTF_8,
+                entries::put);
+        return entries;
+    }
+
+    /**
+     * A channel that returns at most chunkSize bytes per read.
+     */
+    private static ReadableByteChannel channel(byte[] bytes, int chunkSize) {
+        ByteBuffer source = ByteBuffer.wrap(bytes);
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer target) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int length = Math.min(chunkSize, Math.min(target.remaining(), source.remaining()));
+                target.put(source.slice(source.position(), length));
+                source.position(source.position() + length);
+                return length;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.i18nsupport;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.servlet.i18n.SessionLocaleResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+class SignedCookieLocaleResolverTest {
+
+    private final SignedCookieLocaleResolver resolver =
+            new SignedCookieLocaleResolver("0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void locale_round_trips_through_the_cookie_without_a_session() {
+        //given
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        resolver.setLocale(request, response, Locale.CANADA_FRENCH);
+        Cookie cookie = response.getCookie(SignedCookieLocaleResolver.DEFAULT_COOKIE_NAME);
+        MockHttpServletRequest next = new MockHttpServletRequest();
+        next.setCookies(cookie);
+
+        //then
+        assert resolver.resolveLocale(request).equals(Locale.CANADA_FRENCH);
+        assert cookie.getValue().startsWith("fr-CA.") && cookie.getValue().length() <= 30 : cookie.getValue();
+        assert cookie.isHttpOnly();
+        assert resolver.resolveLocale(next).equals(Locale.CANADA_FRENCH);
+        assert request.getSession(false) == null && next.getSession(false) == null;
+    }
+
+    @Test
+    void tampered_or_foreign_cookies_are_ignored() {
+        //given
+        String signed = resolver.sign(Locale.FRENCH);
+        SignedCookieLocaleResolver otherSecret = new SignedCookieLocaleResolver();
+        resolver.setDefaultLocale(Locale.US);
+
+        //when //then
+        assert resolver.verify(signed).equals(Locale.FRENCH);
+        assert resolver.verify("de" + signed.substring(2)) == null;
+        assert resolver.verify("fr") == null;
+        assert resolver.verify("fr.%%%") == null;
+        assert otherSecret.verify(signed) == null;
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(SignedCookieLocaleResolver.DEFAULT_COOKIE_NAME, "de" + signed.substring(2)));
+        assert resolver.resolveLocale(request).equals(Locale.US);
+    }
+
+    @Test
+    void only_supported_locales_are_signed() {
+        //given
+        resolver.setSupportedLocales(List.of(Locale.US, Locale.FRENCH));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        //when
+        MockHttpServletResponse unsupported = new MockHttpServletResponse();
+        resolver.setLocale(request, unsupported, Locale.forLanguageTag("xx-Bogus"));
+        MockHttpServletResponse sameLanguage = new MockHttpServletResponse();
+        resolver.setLocale(request, sameLanguage, Locale.CANADA_FRENCH);
+
+        //then
+        assert unsupported.getCookie(SignedCookieLocaleResolver.DEFAULT_COOKIE_NAME) == null;
+        assert resolver.verify(sameLanguage.getCookie(SignedCookieLocaleResolver.DEFAULT_COOKIE_NAME).getValue())
+                .equals(Locale.FRENCH);
+        assert resolver.resolveLocale(request).equals(Locale.FRENCH);
+    }
+
+    @Test
+    void session_locale_is_migrated_into_the_cookie() {
+        //given
+        SessionLocaleMigrationInterceptor interceptor = new SessionLocaleMigrationInterceptor(resolver);
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SessionLocaleResolver.LOCALE_SESSION_ATTRIBUTE_NAME, new Locale("pl", "PL"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //when
+        interceptor.preHandle(request, response, null);
+
+        //then
+        assert resolver.resolveLocale(request).equals(new Locale("pl", "PL"));
+        assert resolver.verify(response.getCookie(SignedCookieLocaleResolver.DEFAULT_COOKIE_NAME).getValue())
+                .equals(new Locale("pl", "PL"));
+        assert session.isInvalid();
+    }
+}
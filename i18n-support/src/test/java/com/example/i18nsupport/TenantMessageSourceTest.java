@@ -0,0 +1,130 @@
+package com.example.i18nsupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TenantMessageSourceTest {
+
+    private CatalogMessageSource base;
+
+    private TenantMessageSource messageSource;
+
+    private String tenant;
+
+    private final List<TenantMessagesChangedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        base = new CatalogMessageSource();
+        base.setBasename("i18n/catalog");
+        base.setDefaultLocale(Locale.ENGLISH);
+        base.afterPropertiesSet();
+        messageSource = new TenantMessageSource(base);
+        messageSource.setDefaultLocale(Locale.ENGLISH);
+        messageSource.setTenantResolver(() -> tenant);
+        messageSource.setApplicationEventPublisher(event -> events.add((TenantMessagesChangedEvent) event));
+    }
+
+    @Test
+    void overrides_apply_to_their_tenant_and_the_locale_chain() {
+        //given
+        messageSource.setMessages("acme", new Locale("pl"), Map.of("welcome.message", "Czesc {0}"));
+        messageSource.setMessages("acme", Locale.ROOT, Map.of("base.only", "Acme base"));
+        Locale polish = new Locale("pl", "PL");
+
+        //when
+        tenant = "acme";
+        String acmePolish = messageSource.getMessage("welcome.message", new Object[]{"Jan"}, polish);
+        String acmeBase = messageSource.getMessage("base.only", null, Locale.FRENCH);
+        String acmeEnglish = messageSource.getMessage("welcome.message", new Object[]{"Jan"}, Locale.ENGLISH);
+        tenant = "other";
+        String otherPolish = messageSource.getMessage("welcome.message", new Object[]{"Jan"}, polish);
+        tenant = null;
+        String noTenant = messageSource.getMessage("base.only", null, Locale.FRENCH);
+
+        //then
+        assert acmePolish.equals("Czesc Jan") : acmePolish;
+        assert acmeBase.equals("Acme base") : acmeBase;
+        assert acmeEnglish.equals("Hello Jan") : acmeEnglish;
+        assert otherPolish.equals("Witamy Jan") : otherPolish;
+        assert noTenant.equals("Only in base") : noTenant;
+    }
+
+    @Test
+    void bulk_lookups_and_versions_include_the_overrides() {
+        //given
+        messageSource.setMessages("acme", Locale.ENGLISH, Map.of("en.only", "Acme English", "en.extra", "Extra"));
+        tenant = "acme";
+
+        //when
+        Map<String, String> messages = messageSource.getMessages(List.of("welcome.message", "en.only"), Locale.ENGLISH);
+        Map<String, String> byPrefix = messageSource.getMessagesByPrefix("en.", Locale.ENGLISH);
+        Map<String, MessageTemplate> templates = messageSource.getTemplates(Locale.ENGLISH);
+
+        //then
+        assert messages.equals(Map.of("welcome.message", "Hello {0}", "en.only", "Acme English")) : messages;
+        assert List.copyOf(byPrefix.keySet()).equals(List.of("en.extra", "en.only")) : byPrefix;
+        assert templates.size() == base.getTemplates(Locale.ENGLISH).size() + 1;
+        assert templates.get("en.only").getPattern().equals("Acme English");
+        assert !messageSource.getVersion(Locale.ENGLISH).equals(base.getVersion(Locale.ENGLISH));
+        assert messageSource.getVersion(Locale.FRENCH).equals(base.getVersion(Locale.FRENCH));
+        tenant = null;
+        assert messageSource.getVersion(Locale.ENGLISH).equals(base.getVersion(Locale.ENGLISH));
+    }
+
+    @Test
+    void updates_swap_in_a_new_layer() {
+        //given
+        messageSource.setMessages("acme", Locale.FRENCH, Map.of("welcome.message", "Salut {0}"));
+        MessageCatalogLayer before = messageSource.getLayer("acme");
+        tenant = "acme";
+
+        //when
+        messageSource.setMessages("acme", Locale.FRENCH, Map.of("base.only", "Seulement"));
+        messageSource.removeMessage("acme", Locale.FRENCH, "welcome.message");
+        MessageKey welcome = MessageKey.of("welcome.message");
+
+        //then
+        assert before.getMessages(Locale.FRENCH).equals(Map.of("welcome.message", "Salut {0}"));
+        assert messageSource.getLayer("acme").size() == 1;
+        assert messageSource.getMessage(welcome, new Object[]{"Jan"}, Locale.FRENCH).equals("Bonjour Jan");
+        assert messageSource.getMessage("base.only", null, Locale.FRENCH).equals("Seulement");
+        messageSource.removeMessage("acme", Locale.FRENCH, "base.only");
+        assert messageSource.getLayer("acme") == MessageCatalogLayer.EMPTY;
+    }
+
+    @Test
+    void changes_publish_the_tenant_and_bundle_locales() {
+        //given
+        messageSource.setMessages("acme", Locale.FRENCH, Map.of("welcome.message", "Salut {0}"));
+        messageSource.setMessages("acme", Locale.ROOT, Map.of("base.only", "Acme base"));
+
+        //when
+        messageSource.removeMessage("acme", Locale.FRENCH, "missing.code");
+        messageSource.removeMessage("acme", Locale.FRENCH, "welcome.message");
+        messageSource.removeTenant("acme");
+        messageSource.removeTenant("acme");
+
+        //then
+        assert events.size() == 4 : events;
+        assert events.stream().allMatch(event -> event.getTenant().equals("acme"));
+        assert events.get(0).getBundleLocales().equals(Set.of(Locale.FRENCH));
+        assert events.get(1).getBundleLocales().equals(Set.of(Locale.ROOT));
+        assert events.get(2).getBundleLocales().equals(Set.of(Locale.FRENCH));
+        assert events.get(3).getBundleLocales().equals(Set.of(Locale.ROOT));
+    }
+
+    @Test
+    void overrides_need_a_bundle_of_the_locale() {
+        assertThrows(IllegalArgumentException.class,
+                () -> messageSource.setMessages("acme", Locale.JAPANESE, Map.of("welcome.message", "{0}")));
+    }
+}